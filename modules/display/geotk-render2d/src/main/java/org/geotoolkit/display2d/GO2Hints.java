@@ -68,6 +68,20 @@ public final class GO2Hints extends Static {
      */
     public static final Key KEY_MULTI_THREAD = new NamedKey(Boolean.class, "GO2 - MultiThread");
 
+    /**
+     * Maximum number of layers rendered at the same time when
+     * {@link #KEY_MULTI_THREAD} is active.
+     * Default value is the number of available processors.
+     */
+    public static final Key KEY_MULTI_THREAD_MAX_LAYERS = new NamedKey(Integer.class, "GO2 - MultiThread max layers");
+
+    /**
+     * Maximum memory in bytes used by layer buffers when {@link #KEY_MULTI_THREAD}
+     * is active. If a single buffer does not fit, layers are rendered sequentially.
+     * Default value is 256Mb.
+     */
+    public static final Key KEY_MULTI_THREAD_MAX_MEMORY = new NamedKey(Number.class, "GO2 - MultiThread max memory");
+
     /**
      * Configure the generalization, false by default in stateless mode, true
      * in statefull mode.
@@ -34,11 +34,6 @@ import java.util.Arrays;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.Function;
-import java.util.function.LongConsumer;
-import java.util.stream.LongStream;
-import java.util.stream.Stream;
 import javax.media.jai.RasterFactory;
 import org.apache.sis.coverage.SampleDimension;
 import org.apache.sis.coverage.grid.GridExtent;
@@ -49,6 +44,7 @@ import org.apache.sis.measure.NumberRange;
 import org.apache.sis.referencing.operation.transform.LinearTransform;
 import org.apache.sis.storage.DataStoreException;
 import org.apache.sis.storage.Resource;
+import org.apache.sis.util.ArgumentChecks;
 import org.geotoolkit.display.PortrayalException;
 import org.geotoolkit.display2d.ext.dynamicrange.DynamicRangeSymbolizer;
 import org.geotoolkit.display2d.service.CanvasDef;
@@ -70,6 +66,7 @@ import org.geotoolkit.storage.multires.Mosaic;
 import org.geotoolkit.storage.multires.Pyramid;
 import org.geotoolkit.storage.multires.Pyramids;
 import org.geotoolkit.storage.multires.Tile;
+import org.geotoolkit.storage.multires.TileSeeder;
 import org.geotoolkit.style.MutableStyle;
 import org.geotoolkit.util.NamesExt;
 import org.opengis.filter.expression.Expression;
@@ -96,6 +93,12 @@ public class MapContextTileGenerator extends AbstractTileGenerator {
     private final double[] empty;
     private final List<SampleDimension> sampleDimensions = new ArrayList<>();
 
+    private int nbWorkers = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = 1000;
+    private int metatileSize = 4;
+    private int metatileBuffer = 0;
+    private TileSeeder.Listener seedListener;
+
     public MapContextTileGenerator(MapContext context, Hints hints) {
         this(new SceneDef(context, hints), new CanvasDef());
     }
@@ -141,6 +144,80 @@ public class MapContextTileGenerator extends AbstractTileGenerator {
 
     }
 
+    /**
+     * @return number of threads rendering tiles.
+     */
+    public int getWorkerCount() {
+        return nbWorkers;
+    }
+
+    /**
+     * @param nbWorkers number of threads rendering tiles.
+     */
+    public void setWorkerCount(int nbWorkers) {
+        ArgumentChecks.ensureStrictlyPositive("nbWorkers", nbWorkers);
+        this.nbWorkers = nbWorkers;
+    }
+
+    /**
+     * @return maximum number of rendered tiles waiting to be written.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @param queueCapacity maximum number of rendered tiles waiting to be written,
+     *        rendering threads wait when this limit is reached.
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        ArgumentChecks.ensureStrictlyPositive("queueCapacity", queueCapacity);
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * @return number of tiles on each side of a metatile.
+     */
+    public int getMetatileSize() {
+        return metatileSize;
+    }
+
+    /**
+     * Tiles are rendered by blocks of metatileSize*metatileSize tiles,
+     * data are queried and labels placed only once for each block.
+     *
+     * @param metatileSize number of tiles on each side of a metatile.
+     */
+    public void setMetatileSize(int metatileSize) {
+        ArgumentChecks.ensureStrictlyPositive("metatileSize", metatileSize);
+        this.metatileSize = metatileSize;
+    }
+
+    /**
+     * @return number of pixels rendered around each metatile.
+     */
+    public int getMetatileBuffer() {
+        return metatileBuffer;
+    }
+
+    /**
+     * Pixels rendered around each metatile then dropped, so symbols and labels
+     * of features outside the metatile still appear on border tiles.
+     *
+     * @param metatileBuffer number of pixels rendered around each metatile.
+     */
+    public void setMetatileBuffer(int metatileBuffer) {
+        ArgumentChecks.ensurePositive("metatileBuffer", metatileBuffer);
+        this.metatileBuffer = metatileBuffer;
+    }
+
+    /**
+     * @param seedListener receive seeding statistics during generation, may be null.
+     */
+    public void setSeedListener(TileSeeder.Listener seedListener) {
+        this.seedListener = seedListener;
+    }
+
     @Override
     public Tile generateTile(Pyramid pyramid, Mosaic mosaic, Point tileCoord) throws DataStoreException {
         final LinearTransform tileGridToCrs = Pyramids.getTileGridToCRS(mosaic, tileCoord, PixelInCell.CELL_CENTER);
@@ -237,18 +314,34 @@ public class MapContextTileGenerator extends AbstractTileGenerator {
             }
         }
 
+        if (env != null) {
+            try {
+                env = Envelopes.transform(env, pyramid.getCoordinateReferenceSystem());
+            } catch (TransformException ex) {
+                throw new DataStoreException(ex.getMessage(), ex);
+            }
+        }
+
+        final long total = countTiles(pyramid, env, resolutions);
+        final TileSeeder seeder = new TileSeeder(total, nbWorkers, queueCapacity);
+        final String msg = " / "+ NumberFormat.getIntegerInstance(Locale.FRANCE).format(total);
+        final TileSeeder.Listener events = (TileSeeder.Statistics stats) -> {
+            if (this.seedListener != null) {
+                this.seedListener.progressing(stats);
+            }
+            if (listener != null) {
+                final NumberFormat format = NumberFormat.getIntegerInstance(Locale.FRANCE);
+                listener.progressing(new ProcessEvent(DUMMY,
+                        format.format(stats.getRendered())+msg+" ("+format.format(Math.round(stats.getTilesPerSecond()))+" tiles/s)",
+                        stats.getProgress()));
+            }
+        };
+
         if (rasterOptimisation) {
             /*
             We can generate the pyramid starting from the lowest level then going up
             using the previously generated level.
             */
-            if (env != null) {
-                try {
-                    env = Envelopes.transform(env, pyramid.getCoordinateReferenceSystem());
-                } catch (TransformException ex) {
-                    throw new DataStoreException(ex.getMessage(), ex);
-                }
-            }
 
             //generate lower level from data
             final Mosaic[] mosaics = pyramid.getMosaics().toArray(new Mosaic[0]);
@@ -257,79 +350,10 @@ public class MapContextTileGenerator extends AbstractTileGenerator {
             MapContext parent = sceneDef.getContext();
             Hints hints = sceneDef.getHints();
 
-            final long total = countTiles(pyramid, env, resolutions);
-            final AtomicLong al = new AtomicLong();
-            //send an event only every few seconds
-            final AtomicLong tempo = new AtomicLong(System.currentTimeMillis());
-            final String msg = " / "+ NumberFormat.getIntegerInstance(Locale.FRANCE).format(total);
-
             for (final Mosaic mosaic : mosaics) {
-                if (resolutions == null || resolutions.contains(mosaic.getScale())) {
-
-                    final Rectangle rect = Pyramids.getTilesInEnvelope(mosaic, env);
-
-                    final CanvasDef canvasDef = new CanvasDef();
-                    canvasDef.setBackground(this.canvasDef.getBackground());
-                    canvasDef.setEnvelope(mosaic.getEnvelope());
-                    final SceneDef sceneDef = new SceneDef(parent, hints);
-
-                    //one thread per line, the progressive image generates multiple tiles when drawing
-                    //this approach is more efficient from profiling result then using tile by tile
-                    //generation
-                    LongStream.range(rect.y, rect.y+rect.height).parallel().forEach(new LongConsumer() {
-                        @Override
-                        public void accept(final long y) {
-                            final long[] nb = new long[2];
-                            final NumberFormat format = NumberFormat.getIntegerInstance(Locale.FRANCE);
-                            try {
-                                final ProgressiveImage img = new ProgressiveImage(canvasDef, sceneDef,
-                                    mosaic.getGridSize(), mosaic.getTileSize(), mosaic.getScale(), 0);
-
-                                Stream<Tile> stream = img.generate(rect.x, rect.x+rect.width, (int)y, skipEmptyTiles);
-
-                                if (listener != null) {
-                                    stream = stream.map(new Function<Tile, Tile>() {
-                                        @Override
-                                        public Tile apply(Tile t) {
-                                            nb[0]++;
-                                            if (nb[0]%1000 == 0) {
-                                                final long time = System.currentTimeMillis();
-                                                if (tempo.updateAndGet((long operand) -> ((time-operand)  > 3000) ? time : operand) == time) {
-                                                    long v = al.addAndGet(nb[0]);
-                                                    nb[1] += nb[0];
-                                                    nb[0] = 0;
-                                                    listener.progressing(new ProcessEvent(DUMMY, format.format(v)+msg, (float) (( ((double)v)/((double)total) )*100.0)  ));
-                                                }
-                                            }
-                                            return t;
-                                        }
-                                    });
-                                }
-                                mosaic.writeTiles(stream, null);
-
-                            } catch (Exception ex) {
-                                ex.printStackTrace();
-                            }
+                if (resolutions == null || resolutions.containsAny(mosaic.getScale())) {
 
-                            al.addAndGet(nb[0]);
-                            nb[1] += nb[0];
-                            nb[0] = 0;
-                            long v = al.addAndGet(rect.width - nb[1]); //empty tiles
-                            if (listener != null) {
-                                final long time = System.currentTimeMillis();
-                                if (tempo.updateAndGet((long operand) -> ((time-operand)  > 3000) ? time : operand) == time) {
-                                    listener.progressing(new ProcessEvent(DUMMY, format.format(v)+msg, (float) (( ((double)v)/((double)total) )*100.0)  ));
-                                }
-                            }
-                        }
-                    });
-
-                    //last level event
-                    final NumberFormat format = NumberFormat.getIntegerInstance(Locale.FRANCE);
-                    long v = al.get();
-                    if (listener != null) {
-                        listener.progressing(new ProcessEvent(DUMMY, format.format(v)+msg, (float) (( ((double)v)/((double)total) )*100.0)  ));
-                    }
+                    seed(seeder, mosaic, env, parent, hints, events);
 
                     //modify context
                     final DefaultPyramid pm = new DefaultPyramid(pyramid.getCoordinateReferenceSystem());
@@ -347,10 +371,38 @@ public class MapContextTileGenerator extends AbstractTileGenerator {
                 }
             }
         } else {
-            super.generate(pyramid, env, resolutions, listener);
+            //generate mosaic in resolution order
+            //this order allows the pyramid to be used at high scales until she is not completed.
+            final List<Mosaic> mosaics = new ArrayList<>(pyramid.getMosaics());
+            mosaics.sort((Mosaic o1, Mosaic o2) -> Double.compare(o2.getScale(), o1.getScale()));
+            for (final Mosaic mosaic : mosaics) {
+                if (resolutions == null || resolutions.containsAny(mosaic.getScale())) {
+                    seed(seeder, mosaic, env, sceneDef.getContext(), sceneDef.getHints(), events);
+                }
+            }
         }
     }
 
+    /**
+     * Render mosaic tiles by blocks of metatileSize*metatileSize tiles,
+     * each worker thread has it's own canvas.
+     */
+    private void seed(TileSeeder seeder, Mosaic mosaic, Envelope env, MapContext context, Hints hints,
+            TileSeeder.Listener listener) throws DataStoreException, InterruptedException {
+        final Rectangle rect = Pyramids.getTilesInEnvelope(mosaic, env);
+
+        final CanvasDef canvasDef = new CanvasDef();
+        canvasDef.setBackground(this.canvasDef.getBackground());
+        canvasDef.setEnvelope(mosaic.getEnvelope());
+
+        seeder.seed(mosaic, rect, metatileSize, () -> {
+            final ProgressiveImage img = new ProgressiveImage(canvasDef, new SceneDef(context, hints),
+                    mosaic.getGridSize(), mosaic.getTileSize(), mosaic.getScale(), 0);
+            img.setBuffer(metatileBuffer);
+            return (Rectangle block) -> img.render(block, skipEmptyTiles);
+        }, listener);
+    }
+
     @Override
     protected boolean isEmpty(Tile tile) throws DataStoreException {
         try {
@@ -20,13 +20,15 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Point;
-import java.awt.geom.NoninvertibleTransformException;
+import java.awt.Rectangle;
 import java.awt.geom.Point2D;
 import java.awt.image.*;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Spliterator;
 import java.util.Spliterators;
@@ -48,7 +50,6 @@ import org.geotoolkit.storage.coverage.DefaultImageTile;
 import org.geotoolkit.storage.coverage.ImageTile;
 import org.geotoolkit.storage.multires.Tile;
 import org.opengis.geometry.Envelope;
-import org.opengis.referencing.operation.TransformException;
 
 /**
  * On the fly calculated image. multi-threaded.
@@ -71,6 +72,7 @@ final class ProgressiveImage {
     private final double[] empty;
 
     private J2DCanvasBuffered canvas;
+    private int buffer = 0;
 
     /**
      *
@@ -125,6 +127,13 @@ final class ProgressiveImage {
         empty = ite.getPixel((double[])null);
     }
 
+    /**
+     * @param buffer number of pixels rendered around each block of tiles, then dropped.
+     */
+    void setBuffer(int buffer) {
+        this.buffer = buffer;
+    }
+
     public ColorModel getColorModel() {
         return colorModel;
     }
@@ -155,7 +164,17 @@ final class ProgressiveImage {
 
             private void findNext() {
                 while (tiles.isEmpty() && x < maxx) {
-                    x += renderTiles(x, y, skipEmptyTiles, tiles);
+                    /*
+                     * clip generated size to grid limits otherwise this causes a large canvas
+                     * which increases errors in resolution and envelope computations
+                     */
+                    final int nb = Math.min(nbtileonwidth, gridSize.width - x);
+                    try {
+                        renderTiles(x, y, nb, 1, skipEmptyTiles, tiles);
+                    } catch (PortrayalException ex) {
+                        Logging.getLogger("org.geotoolkit.display2d.process.pyramid").log(Level.SEVERE, null, ex);
+                    }
+                    x += nb;
                 }
             }
         };
@@ -164,44 +183,48 @@ final class ProgressiveImage {
     }
 
     /**
+     * Render a block of tiles at once, a metatile.
+     * Features are queried and labels placed only once for the whole block.
      *
-     * @param col
-     * @param row
-     * @param tiles
-     * @return number of tiles generated on X axe
+     * @param block tile coordinates of the block, clipped to grid limits
+     * @param skipEmptyTiles true to exclude empty tiles from result
+     * @return rendered tiles
+     * @throws PortrayalException if rendering failed
      */
-    private int renderTiles(int col, int row, boolean skipEmptyTiles, Collection<ImageTile> tiles) {
-
-        /*
-         * clip generated size to grid limits otherwise this causes a large canvas
-         * which increases errors in resolution and envelope computations
-         */
-        int nbtileonwidth = this.nbtileonwidth;
-        final int nbtileonheight = 1;
-        if (col + nbtileonwidth > gridSize.width) {
-            nbtileonwidth = gridSize.width - col;
+    public List<Tile> render(final Rectangle block, boolean skipEmptyTiles) throws PortrayalException {
+        final Rectangle clip = block.intersection(new Rectangle(gridSize));
+        final List<Tile> tiles = new ArrayList<>(Math.max(0, clip.width * clip.height));
+        if (!clip.isEmpty()) {
+            renderTiles(clip.x, clip.y, clip.width, clip.height, skipEmptyTiles, tiles);
         }
+        return tiles;
+    }
 
-        if (canvas == null) {
-            final Dimension canvasSize = new Dimension(
-                    nbtileonwidth*tileSize.width,
-                    nbtileonheight*tileSize.height);
+    /**
+     *
+     * @param col first tile column
+     * @param row first tile row
+     * @param nbtileonwidth number of tiles to render on X axis
+     * @param nbtileonheight number of tiles to render on Y axis
+     * @param tiles rendered tiles receiver
+     * @throws PortrayalException if rendering failed
+     */
+    private void renderTiles(int col, int row, int nbtileonwidth, int nbtileonheight,
+            boolean skipEmptyTiles, Collection<? super ImageTile> tiles) throws PortrayalException {
 
+        final Dimension canvasSize = new Dimension(
+                nbtileonwidth*tileSize.width,
+                nbtileonheight*tileSize.height);
+        if (canvas == null) {
             final Hints hints = new Hints();
             hints.put(GO2Hints.KEY_COLOR_MODEL, colorModel);
             canvas = new J2DCanvasBuffered(cdef.getEnvelope().getCoordinateReferenceSystem(), canvasSize, hints);
         }
 
-        try {
-            DefaultPortrayalService.prepareCanvas(canvas, cdef, sdef);
-        } catch (PortrayalException ex) {
-            ex.printStackTrace();
-        }
-
         final double tilespanX = scale * tileSize.width;
         final double tilespanY = scale * tileSize.height;
 
-        final GeneralEnvelope canvasEnv = new GeneralEnvelope(canvas.getObjectiveCRS());
+        final GeneralEnvelope canvasEnv = new GeneralEnvelope(cdef.getEnvelope().getCoordinateReferenceSystem());
         canvasEnv.setRange(0,
                 upperleft.getX() + (col) * tilespanX,
                 upperleft.getX() + (col + nbtileonwidth) * tilespanX);
@@ -209,35 +232,19 @@ final class ProgressiveImage {
                 upperleft.getY() - (row + nbtileonheight) * tilespanY,
                 upperleft.getY() - (row) * tilespanY);
 
-        try {
-            canvas.setVisibleArea(canvasEnv);
-        } catch (NoninvertibleTransformException | TransformException ex) {
-            Logging.getLogger("org.geotoolkit.display2d.process.pyramid").log(Level.SEVERE, null, ex);
-        }
+        final CanvasDef metaDef = new CanvasDef(canvasSize, canvasEnv);
+        metaDef.setBackground(cdef.getBackground());
 
-        boolean batchIsEmpty = !canvas.repaint();
-        if (skipEmptyTiles && batchIsEmpty) {
+        final BufferedImage[][] images = DefaultPortrayalService.portrayMetatile(
+                canvas, metaDef, sdef, tileSize, buffer, skipEmptyTiles);
+        if (images == null) {
             //empty rendering
-            return nbtileonwidth;
+            return;
         }
 
-        //cut the canvas buffer in pieces
-        final BufferedImage canvasBuffer = canvas.getSnapShot();
         for(int x=0; x<nbtileonwidth && col+x<gridSize.width; x++){
             for(int y=0; y<nbtileonheight && row+y<gridSize.height; y++){
-                BufferedImage tile = canvasBuffer.getSubimage(
-                        x*tileSize.width,
-                        y*tileSize.height,
-                        tileSize.width,
-                        tileSize.height);
-
-                //TODO temporary reset, need to be fixed
-                //redefined raster corner to be at 0,0
-                WritableRaster clipRaster = tile.getRaster();
-                final WritableRaster raster = clipRaster.createCompatibleWritableRaster(0, 0, clipRaster.getWidth(), clipRaster.getHeight());
-                raster.setRect(clipRaster);
-                tile = new BufferedImage(tile.getColorModel(), raster, tile.getColorModel().isAlphaPremultiplied(), null);
-
+                final BufferedImage tile = images[y][x];
                 if (skipEmptyTiles && BufferedImages.isAll(tile, empty)) {
                     //empty tile
                 } else {
@@ -245,8 +252,6 @@ final class ProgressiveImage {
                 }
             }
         }
-
-        return nbtileonwidth;
     }
 
 }
@@ -16,12 +16,20 @@
  */
 package org.geotoolkit.display2d.canvas;
 
+import java.awt.Composite;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import org.apache.sis.internal.referencing.j2d.AffineTransform2D;
 import static org.apache.sis.util.ArgumentChecks.*;
@@ -35,9 +43,12 @@ import org.geotoolkit.display2d.GO2Hints;
 import org.geotoolkit.display2d.GO2Utilities;
 import org.geotoolkit.display2d.GraphicVisitor;
 import org.geotoolkit.display2d.canvas.painter.BackgroundPainter;
+import org.geotoolkit.display2d.container.MapLayerJ2D;
 import org.geotoolkit.display2d.primitive.DefaultSearchAreaJ2D;
 import org.geotoolkit.display2d.primitive.GraphicJ2D;
 import org.geotoolkit.display2d.primitive.SearchAreaJ2D;
+import org.geotoolkit.display2d.style.labeling.DefaultLabelRenderer;
+import org.geotoolkit.display2d.style.labeling.LabelLayer;
 import org.geotoolkit.display2d.style.labeling.LabelRenderer;
 import org.geotoolkit.factory.Hints;
 import org.geotoolkit.geometry.isoonjts.JTSUtils;
@@ -54,6 +65,11 @@ import org.opengis.referencing.operation.TransformException;
  */
 public abstract class J2DCanvas extends AbstractCanvas2D{
 
+    /**
+     * Default memory limit for layer buffers when rendering layers in parallel : 256Mb.
+     */
+    private static final long DEFAULT_MULTI_THREAD_MEMORY = 256L * 1024 * 1024;
+
     protected final RenderingContext2D context2D = new RenderingContext2D(this);
 
     protected BackgroundPainter painter = null;
@@ -136,6 +152,13 @@ public abstract class J2DCanvas extends AbstractCanvas2D{
 
     protected boolean render(final RenderingContext2D context2D, final List<SceneNode> graphics){
 
+        if (Boolean.TRUE.equals(getRenderingHint(GO2Hints.KEY_MULTI_THREAD))) {
+            final int maxBuffers = getMaxLayerBuffers(context2D);
+            if (maxBuffers > 1) {
+                return renderParallel(context2D, graphics, maxBuffers);
+            }
+        }
+
         boolean dataPainted = false;
         /*
          * Draw all graphics, starting with the one with the lowest <var>z</var> value. Before
@@ -169,6 +192,209 @@ public abstract class J2DCanvas extends AbstractCanvas2D{
         return dataPainted;
     }
 
+    /**
+     * Number of layer buffers which can be rendered at the same time,
+     * limited by the max layers and max memory hints.
+     */
+    private int getMaxLayerBuffers(final RenderingContext2D context2D) {
+        final Rectangle rect = context2D.getCanvasDisplayBounds();
+        final long bufferSize = 4L * rect.width * rect.height;
+        if (bufferSize <= 0) return 0;
+
+        final Number maxLayers = (Number) getRenderingHint(GO2Hints.KEY_MULTI_THREAD_MAX_LAYERS);
+        final Number maxMemory = (Number) getRenderingHint(GO2Hints.KEY_MULTI_THREAD_MAX_MEMORY);
+        final long nbLayers = (maxLayers == null) ? Runtime.getRuntime().availableProcessors() : maxLayers.longValue();
+        final long memory = (maxMemory == null) ? DEFAULT_MULTI_THREAD_MEMORY : maxMemory.longValue();
+        return (int) Math.min(nbLayers, memory / bufferSize);
+    }
+
+    /**
+     * Render each layer in a separate buffer, buffers are painted concurrently
+     * and composited on the output in the graphics order.
+     * Layers handle their own opacity while painting in their buffer, buffers
+     * are composited with the composite rule of the output graphics.
+     * Each layer collects its labels, they are given to the label renderer
+     * in the graphics order when the layer buffer is composited.
+     * No more then maxBuffers layers are rendered or waiting to be composited
+     * at the same time, layers are rendered by a dedicated pool of maxBuffers
+     * threads which is shutdown once rendering is finished.
+     * Other graphics are painted directly in the output when their turn comes.
+     */
+    private boolean renderParallel(final RenderingContext2D context2D, final List<SceneNode> graphics, final int maxBuffers){
+
+        final Rectangle rect = context2D.getCanvasDisplayBounds();
+        final LabelRenderer labelRenderer = context2D.getLabelRenderer(true);
+        //-- layers painted sequentially use the output graphics composite --//
+        final Composite composite = context2D.getGraphics().getComposite();
+
+        final int nb = graphics.size();
+        final List<Future<LayerBuffer>> buffers = new ArrayList<>(Collections.nCopies(nb, (Future<LayerBuffer>) null));
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(maxBuffers, (Runnable r) -> {
+            final Thread thread = new Thread(r, "J2DCanvas-layer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        boolean dataPainted = false;
+        int next = 0;
+        int inProgress = 0;
+        try {
+            for (int i = 0; i < nb; i++) {
+                //-- submit layers until the buffer limit is reached --//
+                for (; next < nb && inProgress < maxBuffers; next++) {
+                    final SceneNode node = graphics.get(next);
+                    if (node instanceof MapLayerJ2D) {
+                        buffers.set(next, submitLayer(executor, context2D, (MapLayerJ2D) node, rect, labelRenderer));
+                        inProgress++;
+                    }
+                }
+
+                if (monitor.stopRequested()) {
+                    return dataPainted;
+                }
+
+                final Future<LayerBuffer> future = buffers.get(i);
+                if (future != null) {
+                    buffers.set(i, null);
+                    inProgress--;
+                    final LayerBuffer buffer;
+                    try {
+                        buffer = future.get();
+                    } catch (ExecutionException ex) {
+                        monitor.exceptionOccured(ex, Level.WARNING);
+                        continue;
+                    }
+                    if (buffer.dataPainted) {
+                        context2D.switchToDisplayCRS();
+                        final Graphics2D g = context2D.getGraphics();
+                        g.setComposite(composite);
+                        g.drawImage(buffer.image, rect.x, rect.y, null);
+                        dataPainted = true;
+                    }
+                    buffer.image.flush();
+                    for (LabelLayer layer : buffer.labels) {
+                        labelRenderer.append(layer);
+                    }
+                } else {
+                    final SceneNode graphic = graphics.get(i);
+                    if (graphic instanceof GraphicJ2D) {
+                        dataPainted |= ((GraphicJ2D) graphic).paint(context2D);
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return dataPainted;
+        } finally {
+            //-- stop remaining layers if rendering was interrupted --//
+            for (Future<LayerBuffer> future : buffers) {
+                if (future != null) future.cancel(true);
+            }
+            executor.shutdown();
+        }
+
+        if (monitor.stopRequested()) {
+            return dataPainted;
+        }
+
+        //draw the labels
+        try {
+            dataPainted |= labelRenderer.portrayLabels();
+        } catch (TransformException ex) {
+            monitor.exceptionOccured(ex, Level.WARNING);
+        }
+
+        return dataPainted;
+    }
+
+    private static Future<LayerBuffer> submitLayer(final ExecutorService executor, final RenderingContext2D context2D,
+            final MapLayerJ2D layer, final Rectangle rect, final LabelRenderer labelRenderer) {
+        final BufferedImage image = new BufferedImage(rect.width, rect.height, BufferedImage.TYPE_INT_ARGB_PRE);
+        final Graphics2D g2d = image.createGraphics();
+        g2d.translate(-rect.x, -rect.y);
+        //-- context is created in the calling thread, it reads the main context state --//
+        final LabelCollector labels = new LabelCollector(labelRenderer);
+        final RenderingContext2D layerContext = context2D.create(g2d, labels);
+        labels.setRenderingContext(layerContext);
+        return executor.submit(() -> {
+            try {
+                return new LayerBuffer(image, layer.paint(layerContext), labels.layers);
+            } finally {
+                g2d.dispose();
+            }
+        });
+    }
+
+    private static final class LayerBuffer {
+        private final BufferedImage image;
+        private final boolean dataPainted;
+        private final List<LabelLayer> labels;
+
+        private LayerBuffer(final BufferedImage image, final boolean dataPainted, final List<LabelLayer> labels) {
+            this.image = image;
+            this.dataPainted = dataPainted;
+            this.labels = labels;
+        }
+    }
+
+    /**
+     * Label renderer of a layer painted in its own buffer.
+     * Label layers are only collected, they are portrayed by the canvas label
+     * renderer once appended to it in the graphics order.
+     * A layer may be painted by several threads, collected layers are synchronized.
+     */
+    private static final class LabelCollector implements LabelRenderer {
+
+        private final LabelRenderer target;
+        private final List<LabelLayer> layers = Collections.synchronizedList(new ArrayList<>());
+        private RenderingContext2D context;
+
+        private LabelCollector(final LabelRenderer target) {
+            this.target = target;
+        }
+
+        @Override
+        public void setRenderingContext(final RenderingContext2D context) {
+            this.context = context;
+        }
+
+        @Override
+        public RenderingContext2D getRenderingContext() {
+            return context;
+        }
+
+        /**
+         * Label layers are created by the canvas label renderer which will portray them.
+         */
+        @Override
+        public LabelLayer createLabelLayer() {
+            return target.createLabelLayer();
+        }
+
+        @Override
+        public void append(final LabelLayer layer) {
+            layers.add(layer);
+        }
+
+        /**
+         * Labels are portrayed by the canvas label renderer.
+         */
+        @Override
+        public boolean portrayLabels() {
+            return false;
+        }
+
+        /**
+         * Paint labels in the layer buffer.
+         */
+        @Override
+        public void portrayImmidiately(final LabelLayer layer) {
+            final DefaultLabelRenderer renderer = new DefaultLabelRenderer();
+            renderer.setRenderingContext(context);
+            renderer.portrayImmidiately(layer);
+        }
+    }
+
     /**
      * Visit the {@code Graphics} that occupy the given shape.
      * You should give an Area Object if you can, this will avoid many creation
@@ -27,10 +27,10 @@ import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.Arrays;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.measure.Unit;
@@ -85,7 +85,7 @@ public class RenderingContext2D implements RenderingContext{
 
     private static final Logger LOGGER = Logging.getLogger("org.geotoolkit.display2d.canvas");
     private static final int MAX_WRAP = 3;
-    private static final Map<Font,FontMetrics> fontMetrics = new HashMap<>();
+    private static final Map<Font,FontMetrics> fontMetrics = new ConcurrentHashMap<>();
 
     private static final int DISPLAY_TRS = 0;
     private static final int OBJECTIVE_TRS = 1;
@@ -683,6 +683,14 @@ public class RenderingContext2D implements RenderingContext{
      * @return RenderingContext2D
      */
     public RenderingContext2D create(final Graphics2D g2d) {
+        return create(g2d, getLabelRenderer(true));
+    }
+
+    /**
+     * Same as {@link #create(java.awt.Graphics2D) } but the new context uses
+     * the given label renderer instead of sharing the one of this context.
+     */
+    RenderingContext2D create(final Graphics2D g2d, final LabelRenderer labelRenderer) {
         final RenderingContext2D context = new RenderingContext2D(canvas);
         context.initParameters(canvas.getGridGeometry(),
                 canvas.getGridGeometry2D(),
@@ -691,7 +699,7 @@ public class RenderingContext2D implements RenderingContext{
                 canvasDisplayShape, canvasObjectiveShape, dpi);
         context.initGraphic(g2d);
         g2d.setRenderingHints(this.graphics.getRenderingHints());
-        context.labelRenderer = getLabelRenderer(true);
+        context.labelRenderer = labelRenderer;
         return context;
     }
 
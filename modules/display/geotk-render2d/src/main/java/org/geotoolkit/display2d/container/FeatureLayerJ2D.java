@@ -24,6 +24,7 @@ import java.awt.image.SampleModel;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -92,6 +93,12 @@ import org.opengis.util.GenericName;
  */
 public class FeatureLayerJ2D extends MapLayerJ2D<FeatureMapLayer> implements StoreListener<StoreEvent> {
 
+    /**
+     * Maximum number of features kept in memory to be rendered by several
+     * feature type styles with a single query.
+     */
+    private static final int MAX_REPLAY_FEATURES = 10000;
+
     protected StorageListener.Weak weakSessionListener = new StorageListener.Weak(this);
 
 
@@ -146,7 +153,8 @@ public class FeatureLayerJ2D extends MapLayerJ2D<FeatureMapLayer> implements Sto
         }
         final MutableStyle style = RenderingRoutines.mergeStyles(baseStyle, selectionFilter, selectionStyle);
 
-        boolean rendered = false;
+        //extract rendering parameters of each feature type style
+        final List<StylePass> passes = new ArrayList<>();
         for (FeatureTypeStyle fts : style.featureTypeStyles()) {
             if (monitor.stopRequested()) return false;
             //first extract the valid rules at this scale
@@ -157,81 +165,161 @@ public class FeatureLayerJ2D extends MapLayerJ2D<FeatureMapLayer> implements Sto
             if (validRules.isEmpty()) {
                 continue;
             }
+            passes.add(new StylePass(validRules, renderingContext));
+        }
 
-            //extract the used names
-            Set<String> names = propertiesNames(validRules);
-            if (names.contains("*")) {
-                //we need all properties
-                names = null;
-            }
-
-            //calculate max symbol size, to expand search envelope.
-            double symbolsMargin = 0.0;
-            for (Rule rule : validRules) {
-                for (Symbolizer s : rule.symbolizers()) {
-                    final CachedSymbolizer cs = GO2Utilities.getCached(s, null);
-                    symbolsMargin = Math.max(symbolsMargin, cs.getMargin(null, renderingContext));
-                }
+        //consecutive styles rendered by object order share a single query
+        boolean rendered = false;
+        for (int i = 0, n = passes.size(); i < n;) {
+            if (monitor.stopRequested()) return false;
+            int end = i + 1;
+            if (!passes.get(i).symbolOrder) {
+                while (end < n && !passes.get(end).symbolOrder) end++;
             }
-            if (Double.isNaN(symbolsMargin) || Double.isInfinite(symbolsMargin)) {
-                //symbol margin can not be pre calculated, expect a max of 300pixels
-                symbolsMargin = 300f;
+            if (end - i > 1) {
+                rendered |= renderMerged(renderingContext, passes.subList(i, end));
+            } else {
+                rendered |= renderPass(renderingContext, passes.get(i));
             }
-            if (symbolsMargin > 0) {
-                final double scale = AffineTransforms2D.getScale(renderingContext.getDisplayToObjective());
-                symbolsMargin = scale * symbolsMargin;
+            i = end;
+        }
+
+        return rendered;
+    }
+
+    /**
+     * Render a single feature type style with its own query.
+     */
+    private boolean renderPass(final RenderingContext2D renderingContext, final StylePass pass) {
+        final CanvasMonitor monitor = renderingContext.getMonitor();
+
+        final FeatureSet featureSet = item.getResource();
+        final FeatureSet reducedFeatureSet;
+        final FeatureType expected;
+        try {
+            //optimize
+            final Query query = RenderingRoutines.prepareQuery(renderingContext, featureSet, item, pass.names, pass.rules, pass.symbolsMargin);
+            reducedFeatureSet = featureSet.subset(query);
+            //get the expected result type
+            expected = reducedFeatureSet.getType();
+        } catch (Exception ex) {
+            monitor.exceptionOccured(ex, Level.WARNING);
+            return false;
+        }
+
+        //calculate optimized rules and included filter + expressions
+        final CachedRule[] rules = toCachedRules(pass.rules, expected);
+
+        //we do not check if the collection is empty or not since
+        //it can be a very expensive operation
+
+        //prepare the rendering parameters
+        if (monitor.stopRequested()) return false;
+
+        try {
+            if (pass.symbolOrder) {
+                return renderBySymbolOrder(featureSet, reducedFeatureSet, renderingContext, rules);
+            } else {
+                return renderByObjectOrder(reducedFeatureSet, renderingContext, rules);
             }
+        } catch(PortrayalException ex) {
+            monitor.exceptionOccured(ex, Level.WARNING);
+            return false;
+        }
+    }
 
-            final FeatureSet featureSet = item.getResource();
-            final FeatureSet reducedFeatureSet;
-            final FeatureType expected;
-            try {
-                //optimize
-                final Query query = RenderingRoutines.prepareQuery(renderingContext, featureSet, item, names, validRules, symbolsMargin);
-                reducedFeatureSet = featureSet.subset(query);
-                //get the expected result type
-                expected = reducedFeatureSet.getType();
-            } catch (Exception ex) {
-                renderingContext.getMonitor().exceptionOccured(ex, Level.WARNING);
-                continue;
+    /**
+     * Render several feature type styles with a single query.
+     * The query requests the properties and features needed by all styles.
+     * Features are painted with the first style while iterating and kept in memory,
+     * they are then replayed for each following style to preserve the style order.
+     * If there are more then {@link #MAX_REPLAY_FEATURES} features, or if reading
+     * the features fails, the following styles are rendered with their own query.
+     * If the merged query can not be created, all styles are rendered with their own query.
+     */
+    private boolean renderMerged(final RenderingContext2D renderingContext, final List<StylePass> passes) {
+        final CanvasMonitor monitor = renderingContext.getMonitor();
+
+        //merge styles needs
+        Set<String> names = new HashSet<>();
+        final List<Rule> allRules = new ArrayList<>();
+        double symbolsMargin = 0.0;
+        for (StylePass pass : passes) {
+            if (pass.names == null) {
+                names = null;
+            } else if (names != null) {
+                names.addAll(pass.names);
             }
+            allRules.addAll(pass.rules);
+            symbolsMargin = Math.max(symbolsMargin, pass.symbolsMargin);
+        }
 
-            //calculate optimized rules and included filter + expressions
-            final CachedRule[] rules = toCachedRules(validRules, expected);
+        final FeatureSet featureSet = item.getResource();
+        final FeatureSet reducedFeatureSet;
+        final FeatureType expected;
+        try {
+            final Query query = RenderingRoutines.prepareQuery(renderingContext, featureSet, item, names, allRules, symbolsMargin);
+            reducedFeatureSet = featureSet.subset(query);
+            expected = reducedFeatureSet.getType();
+        } catch (Exception ex) {
+            //-- merged query is not supported, each style makes its own query --//
+            monitor.exceptionOccured(ex, Level.FINE);
+            boolean dataRendered = false;
+            for (StylePass pass : passes) {
+                if (monitor.stopRequested()) return dataRendered;
+                dataRendered |= renderPass(renderingContext, pass);
+            }
+            return dataRendered;
+        }
 
-            //we do not check if the collection is empty or not since
-            //it can be a very expensive operation
+        final RenderingRules[] renderers = new RenderingRules[passes.size()];
+        for (int i = 0; i < renderers.length; i++) {
+            renderers[i] = new RenderingRules(toCachedRules(passes.get(i).rules, expected), renderingContext);
+        }
 
-            //prepare the rendering parameters
-            if (monitor.stopRequested()) return false;
+        if (monitor.stopRequested()) return false;
 
-            //check if we have group symbolizers, if it's the case we must render by symbol order.
-            boolean symbolOrder = false;
-            for (CachedRule rule : rules) {
-                for (CachedSymbolizer symbolizer : rule.symbolizers()) {
-                    if (symbolizer.getRenderer().isGroupSymbolizer()) {
-                        symbolOrder = true;
-                        break;
+        boolean dataRendered = false;
+        List<Feature> replay = new ArrayList<>();
+        try (GraphicIterator ite = RenderingRoutines.getIterator(reducedFeatureSet, renderingContext)) {
+            while (ite.hasNext()) {
+                if (monitor.stopRequested()) return dataRendered;
+                final ProjectedObject projectedCandidate = ite.next();
+                dataRendered |= portray(renderers[0], projectedCandidate);
+
+                if (replay != null) {
+                    if (replay.size() < MAX_REPLAY_FEATURES) {
+                        replay.add((Feature) projectedCandidate.getCandidate());
+                    } else {
+                        //too many features, following styles will make their own query
+                        replay = null;
                     }
                 }
             }
+        } catch (FeatureStoreRuntimeException | DataStoreException | IOException | PortrayalException ex) {
+            monitor.exceptionOccured(ex, Level.WARNING);
+            //-- features read so far are incomplete, following styles make their own query --//
+            replay = null;
+        }
 
-            if (symbolOrder) {
-                try {
-                    rendered |= renderBySymbolOrder(featureSet, reducedFeatureSet, renderingContext, rules);
-                } catch(PortrayalException ex) {
-                    monitor.exceptionOccured(ex, Level.WARNING);
-                }
-            } else {
-                try {
-                    rendered |= renderByObjectOrder(reducedFeatureSet, renderingContext, rules);
-                } catch(PortrayalException ex) {
-                    monitor.exceptionOccured(ex, Level.WARNING);
+        for (int i = 1; i < renderers.length; i++) {
+            if (monitor.stopRequested()) return dataRendered;
+            if (replay == null) {
+                dataRendered |= renderPass(renderingContext, passes.get(i));
+                continue;
+            }
+            final ProjectedFeature projectedFeature = new ProjectedFeature(renderingContext);
+            try {
+                for (Feature feature : replay) {
+                    if (monitor.stopRequested()) return dataRendered;
+                    projectedFeature.setCandidate(feature);
+                    dataRendered |= portray(renderers[i], projectedFeature);
                 }
+            } catch (PortrayalException ex) {
+                monitor.exceptionOccured(ex, Level.WARNING);
             }
         }
-
-        return rendered;
+        return dataRendered;
     }
 
     /**
@@ -510,40 +598,47 @@ public class FeatureLayerJ2D extends MapLayerJ2D<FeatureMapLayer> implements Sto
             boolean dataRendered = false;
             while (ite.hasNext()) {
                 if(monitor.stopRequested()) return dataRendered;
-                final ProjectedObject projectedCandidate = ite.next();
+                dataRendered |= portray(renderers, ite.next());
+            }
+            return dataRendered;
 
-                boolean painted = false;
-                for(int i=0; i<renderers.elseRuleIndex; i++){
-                    final CachedRule rule = renderers.rules[i];
-                    final Filter ruleFilter = rule.getFilter();
-                    //test if the rule is valid for this feature
-                    if (ruleFilter == null || ruleFilter.evaluate(projectedCandidate.getCandidate())) {
-                        painted = true;
-                        for (final SymbolizerRenderer renderer : renderers.renderers[i]) {
-                            dataRendered |= renderer.portray(projectedCandidate);
-                        }
-                    }
+        } catch (DataStoreException | IOException ex) {
+            throw new PortrayalException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Paint a single feature with the matching rules.
+     */
+    private static boolean portray(final RenderingRules renderers, final ProjectedObject projectedCandidate) throws PortrayalException {
+        boolean dataRendered = false;
+        boolean painted = false;
+        for(int i=0; i<renderers.elseRuleIndex; i++){
+            final CachedRule rule = renderers.rules[i];
+            final Filter ruleFilter = rule.getFilter();
+            //test if the rule is valid for this feature
+            if (ruleFilter == null || ruleFilter.evaluate(projectedCandidate.getCandidate())) {
+                painted = true;
+                for (final SymbolizerRenderer renderer : renderers.renderers[i]) {
+                    dataRendered |= renderer.portray(projectedCandidate);
                 }
+            }
+        }
 
-                //the feature hasn't been painted, paint it with the 'else' rules
-                if (!painted) {
-                    for(int i=renderers.elseRuleIndex; i<renderers.rules.length; i++){
-                        final CachedRule rule = renderers.rules[i];
-                        final Filter ruleFilter = rule.getFilter();
-                        //test if the rule is valid for this feature
-                        if (ruleFilter == null || ruleFilter.evaluate(projectedCandidate.getCandidate())) {
-                            for (final SymbolizerRenderer renderer : renderers.renderers[i]) {
-                                dataRendered |= renderer.portray(projectedCandidate);
-                            }
-                        }
+        //the feature hasn't been painted, paint it with the 'else' rules
+        if (!painted) {
+            for(int i=renderers.elseRuleIndex; i<renderers.rules.length; i++){
+                final CachedRule rule = renderers.rules[i];
+                final Filter ruleFilter = rule.getFilter();
+                //test if the rule is valid for this feature
+                if (ruleFilter == null || ruleFilter.evaluate(projectedCandidate.getCandidate())) {
+                    for (final SymbolizerRenderer renderer : renderers.renderers[i]) {
+                        dataRendered |= renderer.portray(projectedCandidate);
                     }
                 }
             }
-            return dataRendered;
-
-        } catch (DataStoreException | IOException ex) {
-            throw new PortrayalException(ex.getMessage(), ex);
         }
+        return dataRendered;
     }
 
     /**
@@ -703,4 +798,51 @@ public class FeatureLayerJ2D extends MapLayerJ2D<FeatureMapLayer> implements Sto
         return ids.contains(id(candidate));
     }
 
+    /**
+     * Rendering parameters of a feature type style.
+     */
+    private static final class StylePass {
+
+        private final List<Rule> rules;
+        /** Properties used by the rules, null if all properties are needed. */
+        private final Set<String> names;
+        /** Max symbol size, in objective units. */
+        private final double symbolsMargin;
+        /** True if there are group symbolizers, rendering must be done by symbol order. */
+        private final boolean symbolOrder;
+
+        private StylePass(final List<Rule> rules, final RenderingContext2D renderingContext) {
+            this.rules = rules;
+
+            //extract the used names
+            Set<String> names = propertiesNames(rules);
+            if (names.contains("*")) {
+                //we need all properties
+                names = null;
+            }
+            this.names = names;
+
+            //calculate max symbol size, to expand search envelope.
+            double symbolsMargin = 0.0;
+            boolean symbolOrder = false;
+            for (Rule rule : rules) {
+                for (Symbolizer s : rule.symbolizers()) {
+                    final CachedSymbolizer cs = GO2Utilities.getCached(s, null);
+                    symbolsMargin = Math.max(symbolsMargin, cs.getMargin(null, renderingContext));
+                    symbolOrder |= cs.getRenderer().isGroupSymbolizer();
+                }
+            }
+            if (Double.isNaN(symbolsMargin) || Double.isInfinite(symbolsMargin)) {
+                //symbol margin can not be pre calculated, expect a max of 300pixels
+                symbolsMargin = 300f;
+            }
+            if (symbolsMargin > 0) {
+                final double scale = AffineTransforms2D.getScale(renderingContext.getDisplayToObjective());
+                symbolsMargin = scale * symbolsMargin;
+            }
+            this.symbolsMargin = symbolsMargin;
+            this.symbolOrder = symbolOrder;
+        }
+    }
+
 }
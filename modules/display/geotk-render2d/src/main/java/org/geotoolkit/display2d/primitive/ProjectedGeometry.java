@@ -18,6 +18,7 @@ package org.geotoolkit.display2d.primitive;
 
 import com.bric.geom.Clipper;
 import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
 import java.util.Arrays;
 import java.util.logging.Level;
 import org.apache.sis.referencing.CRS;
@@ -25,12 +26,12 @@ import org.apache.sis.util.logging.Logging;
 import org.geotoolkit.display2d.canvas.RenderingContext2D;
 import org.geotoolkit.geometry.isoonjts.JTSUtils;
 import org.geotoolkit.geometry.jts.JTS;
+import org.geotoolkit.geometry.jts.awt.DecimateJTSPathBuilder;
 import org.geotoolkit.geometry.jts.awt.JTSGeometryJ2D;
 import org.geotoolkit.geometry.jts.transform.CoordinateSequenceMathTransformer;
 import org.geotoolkit.geometry.jts.transform.CoordinateSequenceWrapTransformer;
 import org.geotoolkit.geometry.jts.transform.GeometryCSTransformer;
 import org.geotoolkit.internal.referencing.CRSUtilities;
-import org.locationtech.jts.geom.Envelope;
 import org.opengis.geometry.Geometry;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 import org.opengis.referencing.operation.MathTransform2D;
@@ -302,22 +303,26 @@ public class ProjectedGeometry  {
      */
     public Shape[] getDisplayShape() throws TransformException{
         if(displayShape == null && geomSet){
-            getDisplayGeometryJTS();
-            displayShape = new Shape[displayGeometryJTS.length];
-            for(int i=0;i<displayShape.length;i++){
-                displayShape[i] = new JTSGeometryJ2D(displayGeometryJTS[i]);
-                if (context.getDisplayClipRectangle() != null) {
-                    //check envelopes
-                    final Envelope env = displayGeometryJTS[i].getEnvelopeInternal();
-                    if (!env.isNull() && !context.getDisplayClipPolygon().getEnvelopeInternal().contains(env)) {
+            //build paths directly from objective geometries, coordinates are transformed
+            //by sequence and vertices in the same pixel are removed
+            getObjectiveGeometryJTS();
+            final DecimateJTSPathBuilder builder = new DecimateJTSPathBuilder(context.getObjectiveToDisplay(), 1.0);
+            final Shape[] shapes = new Shape[objectiveGeometryJTS.length];
+            final Rectangle2D clip = context.getDisplayClipRectangle();
+            for(int i=0;i<shapes.length;i++){
+                shapes[i] = builder.build(objectiveGeometryJTS[i]);
+                if (clip != null) {
+                    //check envelopes, lines may have a zero width or height
+                    final Rectangle2D env = shapes[i].getBounds2D();
+                    if (env.getMinX() < clip.getMinX() || env.getMaxX() > clip.getMaxX()
+                     || env.getMinY() < clip.getMinY() || env.getMaxY() > clip.getMaxY()) {
                         //clip to display bounds
-                        displayShape[i] = Clipper.clipToRect(displayShape[i], context.getDisplayClipRectangle());
+                        shapes[i] = Clipper.clipToRect(shapes[i], clip);
                     }
 
                 }
-                //TODO find a way to reactive curves is there is no transformation
-                //displayShape = ProjectedShape.wrap(shape, dataToDisplay);
             }
+            displayShape = shapes;
         }
         return displayShape;
     }
@@ -57,6 +57,7 @@ import org.apache.sis.coverage.grid.DisjointExtentException;
 import org.apache.sis.coverage.grid.GridCoverage;
 import org.apache.sis.coverage.grid.GridCoverageBuilder;
 import org.apache.sis.coverage.grid.GridGeometry;
+import org.apache.sis.geometry.GeneralEnvelope;
 import org.apache.sis.internal.util.UnmodifiableArrayList;
 import org.apache.sis.storage.DataStoreException;
 import org.apache.sis.storage.FeatureSet;
@@ -290,6 +291,114 @@ public final class DefaultPortrayalService implements PortrayalService{
 
     }
 
+    /**
+     * Portray a block of tiles at once, a metatile, then cut it in tiles.
+     * Data are queried, rules evaluated and labels placed only once for the whole block,
+     * labels crossing tiles borders are not cut.
+     * <br/>
+     * A buffer of pixels can be rendered around the block then dropped, so symbols and labels
+     * of features outside the block still appear on border tiles.
+     *
+     * @param canvasDef canvas definition covering the whole block, dimension must be a multiple of tile size
+     * @param sceneDef scene definition
+     * @param tileSize tile size in pixels
+     * @param buffer number of pixels rendered around the block, may be 0
+     * @return tiles images, indexed by [row][column]
+     * @throws PortrayalException if rendering failed
+     */
+    public static BufferedImage[][] portrayMetatile(final CanvasDef canvasDef, final SceneDef sceneDef,
+            final Dimension tileSize, final int buffer) throws PortrayalException {
+        final Envelope env = canvasDef.getGridGeometry() != null ?
+                canvasDef.getGridGeometry().getEnvelope() : canvasDef.getEnvelope();
+        final J2DCanvasBuffered canvas = new J2DCanvasBuffered(env.getCoordinateReferenceSystem(), null, sceneDef.getHints());
+        try {
+            return portrayMetatile(canvas, canvasDef, sceneDef, tileSize, buffer, false);
+        } finally {
+            canvas.dispose();
+        }
+    }
+
+    /**
+     * Portray a block of tiles at once, a metatile, reusing given canvas.
+     * Same as {@link #portrayMetatile(CanvasDef, SceneDef, Dimension, int) }
+     * except nothing may be returned if canvas is empty after rendering.
+     *
+     * @param canvas canvas to paint on, resized if needed, not thread safe
+     * @param canvasDef canvas definition covering the whole block, dimension must be a multiple of tile size
+     * @param sceneDef scene definition
+     * @param tileSize tile size in pixels
+     * @param buffer number of pixels rendered around the block, may be 0
+     * @param skipEmpty true to return null if nothing has been painted
+     * @return tiles images, indexed by [row][column], or null if skipEmpty is true and nothing has been painted
+     * @throws PortrayalException if rendering failed
+     */
+    public static BufferedImage[][] portrayMetatile(final J2DCanvasBuffered canvas, final CanvasDef canvasDef,
+            final SceneDef sceneDef, final Dimension tileSize, final int buffer, final boolean skipEmpty)
+            throws PortrayalException {
+        ArgumentChecks.ensureNonNull("tileSize", tileSize);
+        ArgumentChecks.ensurePositive("buffer", buffer);
+        if (canvasDef.getAzimuth() != 0) {
+            throw new PortrayalException("Metatiles can not be rotated");
+        }
+
+        //metatile definition, extended by the buffer
+        Envelope env = canvasDef.getEnvelope();
+        Dimension dim = canvasDef.getDimension();
+        final GridGeometry gridGeometry = canvasDef.getGridGeometry();
+        if (gridGeometry != null) {
+            env = gridGeometry.getEnvelope();
+            dim = new Dimension(
+                    Math.toIntExact(gridGeometry.getExtent().getSize(0)),
+                    Math.toIntExact(gridGeometry.getExtent().getSize(1)));
+        }
+        ArgumentChecks.ensureNonNull("dimension", dim);
+        if (dim.width % tileSize.width != 0 || dim.height % tileSize.height != 0) {
+            throw new PortrayalException("Canvas dimension "+dim+" is not a multiple of tile size "+tileSize);
+        }
+        final GeneralEnvelope metaEnv = new GeneralEnvelope(env);
+        if (buffer > 0) {
+            final double bx = metaEnv.getSpan(0) / dim.width * buffer;
+            final double by = metaEnv.getSpan(1) / dim.height * buffer;
+            metaEnv.setRange(0, metaEnv.getMinimum(0) - bx, metaEnv.getMaximum(0) + bx);
+            metaEnv.setRange(1, metaEnv.getMinimum(1) - by, metaEnv.getMaximum(1) + by);
+        }
+        final Dimension metaDim = new Dimension(dim.width + 2*buffer, dim.height + 2*buffer);
+        final CanvasDef metaDef = new CanvasDef(metaDim, metaEnv);
+        metaDef.setBackground(canvasDef.getBackground());
+        metaDef.setStretchImage(canvasDef.isStretchImage());
+        metaDef.setMonitor(canvasDef.getMonitor());
+
+        if (!metaDim.equals(canvas.getSize())) {
+            canvas.setSize(metaDim);
+        }
+        prepareCanvas(canvas, metaDef, sceneDef);
+        if (!canvas.repaint() && skipEmpty) {
+            return null;
+        }
+        return cutMetatile(canvas.getSnapShot(), tileSize, buffer);
+    }
+
+    /**
+     * Cut metatile image in tiles, each tile has it's own raster starting at 0,0.
+     */
+    private static BufferedImage[][] cutMetatile(final BufferedImage image,
+            final Dimension tileSize, final int buffer) {
+        final int nbCol = (image.getWidth() - 2*buffer) / tileSize.width;
+        final int nbRow = (image.getHeight() - 2*buffer) / tileSize.height;
+        final BufferedImage[][] tiles = new BufferedImage[nbRow][nbCol];
+        for (int row = 0; row < nbRow; row++) {
+            for (int col = 0; col < nbCol; col++) {
+                final WritableRaster clipRaster = image.getRaster().createWritableChild(
+                        buffer + col*tileSize.width, buffer + row*tileSize.height,
+                        tileSize.width, tileSize.height, 0, 0, null);
+                final WritableRaster raster = clipRaster.createCompatibleWritableRaster(tileSize.width, tileSize.height);
+                raster.setRect(clipRaster);
+                tiles[row][col] = new BufferedImage(image.getColorModel(), raster, image.isAlphaPremultiplied(), null);
+            }
+        }
+        return tiles;
+    }
+
     /**
      * Create a rendered image which tile model maps the given definition.
      * The image will be divided in the same number of tiles and size as the mosaic.
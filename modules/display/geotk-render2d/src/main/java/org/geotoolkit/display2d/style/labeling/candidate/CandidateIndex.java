@@ -0,0 +1,151 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.display2d.style.labeling.candidate;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.sis.util.ArgumentChecks;
+
+/**
+ * Uniform grid of placed point candidates, in display coordinates.
+ * <br/>
+ * Each candidate is registered in all cells its rotated bounds overlap,
+ * collision tests are only made against candidates sharing a cell.
+ * This replaces the linear scan of {@link LabelingUtilities#intersects(org.geotoolkit.display2d.style.labeling.candidate.Candidate, java.util.Collection) }.
+ *
+ * @module
+ */
+public class CandidateIndex {
+
+    private final double cellSize;
+    private final Map<Long,List<PointCandidate>> cells = new HashMap<>();
+    private int size = 0;
+
+    /**
+     * @param cellSize grid cell size in pixels, should be close to common label size
+     */
+    public CandidateIndex(final double cellSize) {
+        ArgumentChecks.ensureStrictlyPositive("cellSize", cellSize);
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * @return number of candidates in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Test if given candidate intersects a candidate of the index.
+     */
+    public boolean intersects(final PointCandidate candidate) {
+        final Rectangle2D bounds = getBounds(candidate);
+        final int minX = cell(bounds.getMinX());
+        final int maxX = cell(bounds.getMaxX());
+        final int minY = cell(bounds.getMinY());
+        final int maxY = cell(bounds.getMaxY());
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                final List<PointCandidate> lst = cells.get(key(x, y));
+                if (lst == null) continue;
+                for (PointCandidate c : lst) {
+                    if (LabelingUtilities.intersects(candidate, c)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add candidate in the index.
+     */
+    public void add(final PointCandidate candidate) {
+        final Rectangle2D bounds = getBounds(candidate);
+        final int minX = cell(bounds.getMinX());
+        final int maxX = cell(bounds.getMaxX());
+        final int minY = cell(bounds.getMinY());
+        final int maxY = cell(bounds.getMaxY());
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                cells.computeIfAbsent(key(x, y), (Long k) -> new ArrayList<>(4)).add(candidate);
+            }
+        }
+        size++;
+    }
+
+    /**
+     * Add candidate in the index if it does not intersect any candidate.
+     *
+     * @return true if candidate has been added
+     */
+    public boolean addIfFree(final PointCandidate candidate) {
+        if (intersects(candidate)) {
+            return false;
+        }
+        add(candidate);
+        return true;
+    }
+
+    public void clear() {
+        cells.clear();
+        size = 0;
+    }
+
+    private int cell(final double ordinate) {
+        return (int) Math.floor(ordinate / cellSize);
+    }
+
+    private static long key(final int x, final int y) {
+        return (((long) x) << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Bounds of the candidate rotated rectangle, as defined in
+     * {@link LabelingUtilities#intersects(org.geotoolkit.display2d.style.labeling.candidate.PointCandidate, java.awt.Point, org.geotoolkit.display2d.style.labeling.candidate.PointCandidate, java.awt.Point, boolean) }.
+     */
+    static Rectangle2D getBounds(final PointCandidate candidate) {
+        final double rotation = Math.toRadians(candidate.getDescriptor().getRotation());
+        final double x = candidate.getCorrectedX();
+        final double y = candidate.getCorrectedY();
+        final double height = candidate.upper + candidate.lower;
+        if (rotation == 0) {
+            return new Rectangle2D.Double(x, y - candidate.upper, candidate.width, height);
+        }
+        final double cos = Math.cos(rotation);
+        final double sin = Math.sin(rotation);
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < 4; i++) {
+            final double u = (i & 1) == 0 ? 0 : candidate.width;
+            final double v = ((i & 2) == 0 ? 0 : height) - candidate.upper;
+            final double px = x + u * cos - v * sin;
+            final double py = y + u * sin + v * cos;
+            minX = Math.min(minX, px);
+            maxX = Math.max(maxX, px);
+            minY = Math.min(minY, py);
+            maxY = Math.max(maxY, py);
+        }
+        return new Rectangle2D.Double(minX, minY, maxX - minX, maxY - minY);
+    }
+
+}
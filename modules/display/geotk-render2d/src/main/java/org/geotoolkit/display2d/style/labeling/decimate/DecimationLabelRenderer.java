@@ -19,9 +19,12 @@ package org.geotoolkit.display2d.style.labeling.decimate;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.geotoolkit.display2d.canvas.RenderingContext2D;
 import org.geotoolkit.display2d.style.labeling.DefaultLabelRenderer;
 import org.geotoolkit.display2d.style.labeling.LabelDescriptor;
@@ -29,6 +32,7 @@ import org.geotoolkit.display2d.style.labeling.LabelLayer;
 import org.geotoolkit.display2d.style.labeling.LinearLabelDescriptor;
 import org.geotoolkit.display2d.style.labeling.PointLabelDescriptor;
 import org.geotoolkit.display2d.style.labeling.candidate.Candidate;
+import org.geotoolkit.display2d.style.labeling.candidate.CandidateIndex;
 import org.geotoolkit.display2d.style.labeling.candidate.LabelingUtilities;
 import org.geotoolkit.display2d.style.labeling.candidate.LinearCandidate;
 import org.geotoolkit.display2d.style.labeling.candidate.PointCandidate;
@@ -36,13 +40,29 @@ import org.geotoolkit.display2d.style.labeling.candidate.PointCandidate;
 /**
  * Label renderer that apply a simple decimation on labels to remove all
  * overlaping labels and labels partly visible on the map edges.
+ * <br/>
+ * Labels are collected while layers are rendered. When labels are portrayed,
+ * candidates (font metrics, label position) are generated in parallel, then placed
+ * in a single pass by decreasing priority, in labels order for equal priorities.
+ * Collisions are tested with a grid index, the result does not depend on threads scheduling.
  *
  * @author Johann Sorel (Geomatys)
  * @module
  */
 public class DecimationLabelRenderer extends DefaultLabelRenderer{
 
-    private final SortedSet<Candidate> candidates = new TreeSet<Candidate>(LabelingUtilities.XY_COMPARATOR);
+    /**
+     * Under this number of labels, candidates are generated in the calling thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    /**
+     * Collision grid cell size, in pixels.
+     */
+    private static final double CELL_SIZE = 64;
+
+    private static final Comparator<Candidate> PRIORITY_COMPARATOR =
+            (Candidate c1, Candidate c2) -> Integer.compare(c2.getPriority(), c1.getPriority());
 
     private final List<LabelLayer> layers = new ArrayList<LabelLayer>();
 
@@ -80,7 +100,9 @@ public class DecimationLabelRenderer extends DefaultLabelRenderer{
      */
     @Override
     public void append(final LabelLayer layer) {
-        layers.add(layer);
+        synchronized(layers){
+            layers.add(layer);
+        }
     }
 
     /**
@@ -88,6 +110,17 @@ public class DecimationLabelRenderer extends DefaultLabelRenderer{
      */
     @Override
     public boolean portrayLabels(){
+        final List<LabelDescriptor> labels = new ArrayList<>();
+        synchronized(layers){
+            for(LabelLayer layer : layers){
+                labels.addAll(layer.labels());
+            }
+            layers.clear();
+        }
+        if(labels.isEmpty()) return false;
+
+        final List<Candidate> candidates = place(generateCandidates(labels));
+
         final Graphics2D g2 = context.getGraphics();
         //enable antialiasing for labels
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
@@ -101,10 +134,63 @@ public class DecimationLabelRenderer extends DefaultLabelRenderer{
             }
         }
 
-        layers.clear();
         return !candidates.isEmpty();
     }
 
+    /**
+     * Generate candidates of all labels, keeping labels order.
+     */
+    private List<Candidate> generateCandidates(final List<LabelDescriptor> labels){
+        Stream<LabelDescriptor> stream = labels.stream();
+        if(labels.size() >= PARALLEL_THRESHOLD){
+            stream = stream.parallel();
+        }
+        return stream.flatMap((LabelDescriptor label) -> {
+                    final Candidate[] cs = generateCandidates(label);
+                    return cs == null ? Stream.empty() : Arrays.stream(cs);
+                })
+                .collect(Collectors.toList());
+    }
+
+    private Candidate[] generateCandidates(final LabelDescriptor label){
+        final Candidate[] cs;
+        if(label instanceof PointLabelDescriptor){
+            cs = pointRenderer.generateCandidat((PointLabelDescriptor) label);
+        }else if(label instanceof LinearLabelDescriptor){
+            cs = LinearRenderer.generateCandidat((LinearLabelDescriptor) label);
+        }else{
+            return null;
+        }
+        if(cs != null){
+            for(Candidate c : cs){
+                c.setPriority(1);
+            }
+        }
+        return cs;
+    }
+
+    /**
+     * Resolve conflicts, candidates with higher priority are placed first.
+     * Point candidates intersecting an already placed point candidate are removed.
+     */
+    private List<Candidate> place(final List<Candidate> candidates){
+        //stable sort, labels order is preserved for equal priorities
+        Collections.sort(candidates, PRIORITY_COMPARATOR);
+
+        final CandidateIndex index = new CandidateIndex(CELL_SIZE);
+        final List<Candidate> placed = new ArrayList<>(candidates.size());
+        for(Candidate candidate : candidates){
+            if(candidate instanceof PointCandidate){
+                if(index.addIfFree((PointCandidate) candidate)){
+                    placed.add(candidate);
+                }
+            }else{
+                placed.add(candidate);
+            }
+        }
+        return placed;
+    }
+
     private List<Candidate> optimize(List<Candidate> candidates){
         candidates = LabelingUtilities.clipOutofBounds(context,candidates);
         candidates = LabelingUtilities.sortByXY(candidates);
@@ -113,37 +199,7 @@ public class DecimationLabelRenderer extends DefaultLabelRenderer{
 
     private class DecimateLabelLayer implements LabelLayer{
 
-        private final List<LabelDescriptor> labels = new ArrayList<LabelDescriptor>(){
-
-            @Override
-            public boolean add(LabelDescriptor label) {
-                if(label instanceof PointLabelDescriptor){
-                    final Candidate[] pcs = pointRenderer.generateCandidat((PointLabelDescriptor) label);
-                    if(pcs == null) return true;
-                    for(Candidate c : pcs){
-                        final PointCandidate pc = (PointCandidate) c;
-                        pc.setPriority(1);
-                        synchronized(candidates){
-                            if(!LabelingUtilities.intersects(pc,candidates)){
-                                candidates.add(pc);
-                            }else{
-                            }
-                        }
-                    }
-                }else if(label instanceof LinearLabelDescriptor){
-                    final Candidate[] lcs = LinearRenderer.generateCandidat((LinearLabelDescriptor) label);
-                    for(Candidate c : lcs){
-                        final LinearCandidate lc = (LinearCandidate) c;
-                        lc.setPriority(1);
-                        synchronized(candidates){
-                            candidates.add(lc);
-                        }
-                    }
-                }
-                return true;
-            }
-
-        };
+        private final List<LabelDescriptor> labels = Collections.synchronizedList(new ArrayList<LabelDescriptor>());
 
         private final boolean obstacle;
         private final boolean labelled;
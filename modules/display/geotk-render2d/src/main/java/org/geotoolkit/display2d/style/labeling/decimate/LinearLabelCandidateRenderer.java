@@ -47,7 +47,11 @@ public class LinearLabelCandidateRenderer implements LabelCandidateRenderer<Line
     @Override
     public Candidate[] generateCandidat(final LinearLabelDescriptor descriptor) {
         try {
-            final Shape[] shapes = descriptor.getGeometry().getDisplayShape();
+            final Shape[] shapes;
+            //projected geometry is lazily computed and may be shared by several labels
+            synchronized (descriptor.getGeometry()) {
+                shapes = descriptor.getGeometry().getDisplayShape();
+            }
             final Candidate[] candidates = new Candidate[shapes.length];
             for(int i=0;i<shapes.length;i++){
                 candidates[i] = new LinearCandidate(descriptor,shapes[i]);
@@ -59,7 +59,10 @@ public class PointLabelCandidateRenderer implements LabelCandidateRenderer<Point
         Geometry[] shapes = null;
 
         try {
-            shapes = label.getGeometry().getDisplayGeometryJTS();
+            //projected geometry is lazily computed and may be shared by several labels
+            synchronized (label.getGeometry()) {
+                shapes = label.getGeometry().getDisplayGeometryJTS();
+            }
         } catch (TransformException ex) {
             Logging.getLogger("org.geotoolkit.display2d.style.labeling.decimate").log(Level.WARNING, null, ex);
         }
@@ -0,0 +1,121 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.display2d.style.renderer;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import org.apache.sis.storage.DataStoreException;
+import org.apache.sis.storage.GridCoverageResource;
+import org.apache.sis.storage.event.StoreEvent;
+import org.apache.sis.storage.event.StoreListener;
+import static org.apache.sis.util.ArgumentChecks.ensureNonNull;
+import org.geotoolkit.process.ProcessException;
+import org.geotoolkit.processing.coverage.statistics.Statistics;
+import org.geotoolkit.storage.coverage.ImageStatistics;
+
+/**
+ * Cache of coverage resource statistics, used to create a default style
+ * when a raster symbolizer has no color map.
+ * <br/>
+ * Statistics are computed on a reduced version of the data, which readers
+ * can serve from overviews, a full resolution read is never made.
+ * Entries are weakly referenced by resource and dropped when the resource
+ * emits an event. Resources which never emit events when their data change
+ * keep returning the statistics computed the first time.
+ *
+ * @module
+ */
+final class RasterStatisticsCache {
+
+    /**
+     * Size of the sampled image used to compute statistics.
+     */
+    static final int SAMPLE_SIZE = 512;
+
+    private static final Map<GridCoverageResource,Entry> CACHE = new WeakHashMap<>();
+
+    private RasterStatisticsCache(){}
+
+    /**
+     * Get cached statistics of given resource, compute them if needed.
+     * Statistics must be computed in the sample space of the image they are
+     * applied on : converted values, or the packed values of the rendered coverage.
+     *
+     * @param resource coverage resource, not null
+     * @param converted true for statistics on converted values, false on packed values
+     * @return approximate resource statistics
+     */
+    static ImageStatistics getStatistics(final GridCoverageResource resource, final boolean converted) throws ProcessException, DataStoreException {
+        ensureNonNull("resource", resource);
+
+        Entry entry;
+        boolean created = false;
+        synchronized (CACHE) {
+            entry = CACHE.get(resource);
+            if (entry == null) {
+                entry = new Entry();
+                CACHE.put(resource, entry);
+                created = true;
+            }
+        }
+        if (created) {
+            //-- resource may lock itself while registering, keep it out of the cache lock --//
+            resource.addListener(StoreEvent.class, entry);
+        }
+
+        final ImageStatistics stats;
+        final long version;
+        synchronized (entry) {
+            final ImageStatistics cached = converted ? entry.converted : entry.packed;
+            if (cached != null) {
+                return cached;
+            }
+            version = entry.version;
+        }
+
+        //-- computed outside of the lock, concurrent requests may compute it twice --//
+        stats = Statistics.analyse(resource, converted, true, SAMPLE_SIZE);
+
+        synchronized (entry) {
+            //-- do not store statistics if resource changed during computation --//
+            if (entry.version == version) {
+                if (converted) entry.converted = stats;
+                else entry.packed = stats;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Entry does not reference the resource, otherwise it would never be
+     * released from the weak map.
+     */
+    private static final class Entry implements StoreListener<StoreEvent> {
+
+        private ImageStatistics converted;
+        private ImageStatistics packed;
+        private long version;
+
+        @Override
+        public synchronized void eventOccured(StoreEvent event) {
+            converted = null;
+            packed = null;
+            version++;
+        }
+    }
+
+}
@@ -88,7 +88,6 @@ import org.geotoolkit.map.MapLayer;
 import org.geotoolkit.metadata.MetadataUtilities;
 import org.geotoolkit.process.ProcessException;
 import org.geotoolkit.processing.coverage.resample.ResampleProcess;
-import org.geotoolkit.processing.coverage.statistics.StatisticOp;
 import org.geotoolkit.processing.coverage.statistics.Statistics;
 import org.geotoolkit.storage.coverage.ImageStatistics;
 import org.geotoolkit.storage.feature.query.Query;
@@ -445,8 +444,19 @@ public class RasterSymbolizerRenderer extends AbstractCoverageSymbolizerRenderer
                 }
             }
 
-            // TODO : we should analyze a subset of the entire image instead, to
-            // ensure consistency over tiled rendering (cf. OpenLayer/WMS).
+            //use resource statistics, to ensure consistency over tiled rendering (cf. OpenLayer/WMS).
+            if (analyse == null) {
+                try {
+                    analyse = RasterStatisticsCache.getStatistics(ref, true);
+                    //bands may have been selected on the coverage
+                    if (analyse.getBands().length != coverage.getSampleDimensions().size()) {
+                        analyse = null;
+                    }
+                } catch (DataStoreException | ProcessException ex) {
+                    LOGGER.log(Level.FINE, "Failed to compute resource statistics : " + ex.getMessage(), ex);
+                }
+            }
+            //analyze the displayed coverage
             if (analyse == null)
                 analyse = Statistics.analyse(coverage.render(null), true);
 
@@ -593,9 +603,15 @@ public class RasterSymbolizerRenderer extends AbstractCoverageSymbolizerRenderer
                         if (resource instanceof GridCoverageResource) {
                             try {
                                 final GridCoverageResource reader = (GridCoverageResource) resource;
-                                final Map<String,Object> analyze = StatisticOp.analyze(reader.read(null).render(null));
-                                final double[] minArray = (double[])analyze.get(StatisticOp.MINIMUM);
-                                final double[] maxArray = (double[])analyze.get(StatisticOp.MAXIMUM);
+                                //-- statistics in the sample space of the recoloured image --//
+                                final boolean converted = coverage.forConvertedValues(true) == coverage;
+                                final ImageStatistics.Band[] bands = RasterStatisticsCache.getStatistics(reader, converted).getBands();
+                                final double[] minArray = new double[bands.length];
+                                final double[] maxArray = new double[bands.length];
+                                for (int i = 0; i < bands.length; i++) {
+                                    minArray[i] = bands[i].getMin();
+                                    maxArray[i] = bands[i].getMax();
+                                }
                                 final double min = findExtremum(minArray, true);
                                 final double max = findExtremum(maxArray, false);
 
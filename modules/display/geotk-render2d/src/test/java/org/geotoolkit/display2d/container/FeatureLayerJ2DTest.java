@@ -0,0 +1,172 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.display2d.container;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.sis.feature.builder.AttributeRole;
+import org.apache.sis.feature.builder.FeatureTypeBuilder;
+import org.apache.sis.geometry.GeneralEnvelope;
+import org.apache.sis.internal.system.DefaultFactories;
+import org.apache.sis.measure.Units;
+import org.apache.sis.referencing.CommonCRS;
+import org.apache.sis.storage.FeatureSet;
+import org.geotoolkit.display2d.service.CanvasDef;
+import org.geotoolkit.display2d.service.DefaultPortrayalService;
+import org.geotoolkit.display2d.service.SceneDef;
+import org.geotoolkit.factory.Hints;
+import org.geotoolkit.geometry.jts.JTS;
+import org.geotoolkit.map.MapBuilder;
+import org.geotoolkit.map.MapContext;
+import org.geotoolkit.storage.memory.InMemoryFeatureSet;
+import org.geotoolkit.style.DefaultStyleFactory;
+import org.geotoolkit.style.MutableFeatureTypeStyle;
+import org.geotoolkit.style.MutableRule;
+import org.geotoolkit.style.MutableStyle;
+import org.geotoolkit.style.MutableStyleFactory;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.opengis.feature.Feature;
+import org.opengis.feature.FeatureType;
+import org.opengis.filter.FilterFactory;
+import org.opengis.filter.expression.Expression;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.style.Graphic;
+import org.opengis.style.PointSymbolizer;
+
+import static org.geotoolkit.style.StyleConstants.DEFAULT_ANCHOR_POINT;
+import static org.geotoolkit.style.StyleConstants.DEFAULT_DESCRIPTION;
+import static org.geotoolkit.style.StyleConstants.DEFAULT_DISPLACEMENT;
+import static org.geotoolkit.style.StyleConstants.LITERAL_ONE_FLOAT;
+import static org.geotoolkit.style.StyleConstants.MARK_CIRCLE;
+import static org.geotoolkit.style.StyleConstants.MARK_SQUARE;
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Test feature type styles rendered with a single query give the same result
+ * as each style rendered with its own query.
+ */
+public class FeatureLayerJ2DTest extends org.geotoolkit.test.TestBase {
+
+    private static final FilterFactory FF = DefaultFactories.forBuildin(FilterFactory.class);
+    private static final GeometryFactory GF = new GeometryFactory();
+    private static final MutableStyleFactory SF = new DefaultStyleFactory();
+
+    /**
+     * Features are kept in memory and replayed for the second style.
+     */
+    @Test
+    public void testMergedStyles() throws Exception {
+        testMergedStyles(20, 10);
+    }
+
+    /**
+     * Too many features to be replayed, the second style makes its own query.
+     */
+    @Test
+    public void testMergedStylesNoReplay() throws Exception {
+        testMergedStyles(101, 100);
+    }
+
+    private static void testMergedStyles(final int width, final int height) throws Exception {
+        final CoordinateReferenceSystem crs = CommonCRS.WGS84.normalizedGeographic();
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName("test");
+        ftb.addAttribute(Point.class).setName("geom").setCRS(crs).addRole(AttributeRole.DEFAULT_GEOMETRY);
+        ftb.addAttribute(Integer.class).setName("type");
+        final FeatureType ft = ftb.build();
+
+        //-- one feature per pixel, marks of neighbour features overlap --//
+        final List<Feature> features = new ArrayList<>();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final Point pt = GF.createPoint(new Coordinate(x + 0.5, y + 0.5));
+                JTS.setCRS(pt, crs);
+                final Feature feature = ft.newInstance();
+                feature.setPropertyValue("geom", pt);
+                feature.setPropertyValue("type", (x * 7 + y * 3) % 4);
+                features.add(feature);
+            }
+        }
+        final FeatureSet collection = new InMemoryFeatureSet(ft, features);
+
+        final MutableFeatureTypeStyle fts1 = SF.featureTypeStyle();
+        fts1.rules().add(rule(0, MARK_SQUARE, Color.RED, 5));
+        fts1.rules().add(rule(1, MARK_SQUARE, Color.GREEN, 5));
+        final MutableRule elseRule = SF.rule(symbolizer(MARK_SQUARE, Color.BLUE, 3));
+        elseRule.setElseFilter(true);
+        fts1.rules().add(elseRule);
+
+        final MutableFeatureTypeStyle fts2 = SF.featureTypeStyle();
+        fts2.rules().add(rule(1, MARK_CIRCLE, Color.BLACK, 4));
+        fts2.rules().add(rule(2, MARK_CIRCLE, Color.YELLOW, 4));
+
+        final MutableFeatureTypeStyle fts3 = SF.featureTypeStyle();
+        fts3.rules().add(rule(3, MARK_SQUARE, Color.MAGENTA, 2));
+
+        //-- all styles in a single layer --//
+        final MutableStyle merged = SF.style();
+        merged.featureTypeStyles().add(fts1);
+        merged.featureTypeStyles().add(fts2);
+        merged.featureTypeStyles().add(fts3);
+        final MapContext mergedContext = MapBuilder.createContext();
+        mergedContext.layers().add(MapBuilder.createFeatureLayer(collection, merged));
+
+        //-- one layer per style, each style makes its own query --//
+        final MapContext separateContext = MapBuilder.createContext();
+        for (MutableFeatureTypeStyle fts : new MutableFeatureTypeStyle[]{fts1, fts2, fts3}) {
+            final MutableStyle style = SF.style();
+            style.featureTypeStyles().add(fts);
+            separateContext.layers().add(MapBuilder.createFeatureLayer(collection, style));
+        }
+
+        final GeneralEnvelope env = new GeneralEnvelope(crs);
+        env.setRange(0, 0, width);
+        env.setRange(1, 0, height);
+        final CanvasDef cdef = new CanvasDef(new Dimension(width * 2, height * 2), env);
+        cdef.setBackground(Color.WHITE);
+        final Hints hints = new Hints();
+        hints.put(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+
+        final BufferedImage expected = DefaultPortrayalService.portray(cdef, new SceneDef(separateContext, hints));
+        final BufferedImage result = DefaultPortrayalService.portray(cdef, new SceneDef(mergedContext, hints));
+        assertArrayEquals(
+                expected.getRGB(0, 0, width * 2, height * 2, null, 0, width * 2),
+                result.getRGB(0, 0, width * 2, height * 2, null, 0, width * 2));
+    }
+
+    private static MutableRule rule(final int type, final Expression mark, final Color color, final int size) {
+        final MutableRule rule = SF.rule(symbolizer(mark, color, size));
+        rule.setFilter(FF.equals(FF.property("type"), FF.literal(type)));
+        return rule;
+    }
+
+    private static PointSymbolizer symbolizer(final Expression mark, final Color color, final int size) {
+        final Graphic graphic = SF.graphic(
+                Collections.singletonList(SF.mark(mark, SF.fill(color), SF.stroke(Color.BLACK, 0))),
+                LITERAL_ONE_FLOAT, FF.literal(size), LITERAL_ONE_FLOAT, DEFAULT_ANCHOR_POINT, DEFAULT_DISPLACEMENT);
+        return SF.pointSymbolizer("mark", (String) null, DEFAULT_DESCRIPTION, Units.POINT, graphic);
+    }
+
+}
@@ -20,6 +20,7 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
 import java.awt.image.Raster;
@@ -73,6 +74,7 @@ import org.junit.Test;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
 import org.opengis.feature.Feature;
 import org.opengis.feature.FeatureType;
 import org.opengis.filter.FilterFactory;
@@ -376,6 +378,63 @@ public class PortrayalServiceTest extends org.geotoolkit.test.TestBase {
         }
     }
 
+    /**
+     * Metatile tiles must be the same as the whole image cut in pieces.
+     */
+    @Test
+    public void testMetatile() throws Exception {
+        final int[] pixel = new int[4];
+        final int[] red = new int[]{255,0,0,255};
+        final int[] blue = new int[]{0,0,255,255};
+
+        final Hints hints = new Hints();
+        hints.put(GO2Hints.KEY_COLOR_MODEL, ColorModel.getRGBdefault());
+
+        //coverage red on the west, blue on the east
+        final GeneralEnvelope covenv = new GeneralEnvelope(CommonCRS.WGS84.normalizedGeographic());
+        covenv.setRange(0, -180, 180);
+        covenv.setRange(1, -90, 90);
+        final BufferedImage img = new BufferedImage(360, 180, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g = img.createGraphics();
+        g.setColor(Color.RED);
+        g.fill(new Rectangle(0, 0, 180, 180));
+        g.setColor(Color.BLUE);
+        g.fill(new Rectangle(180, 0, 180, 180));
+        g.dispose();
+        final List<SampleDimension> bands = new ArrayList<>();
+        bands.add(new SampleDimension.Builder().setName("r").build());
+        bands.add(new SampleDimension.Builder().setName("g").build());
+        bands.add(new SampleDimension.Builder().setName("b").build());
+        bands.add(new SampleDimension.Builder().setName("a").build());
+        final GridCoverage coverage = new GridCoverage2D(new GridGeometry(new GridExtent(360, 180), covenv), bands, img);
+
+        final MapContext context = MapBuilder.createContext();
+        context.layers().add(MapBuilder.createCoverageLayer(coverage, SF.style(SF.rasterSymbolizer()), "unnamed"));
+
+        final GeneralEnvelope env = new GeneralEnvelope(CommonCRS.WGS84.normalizedGeographic());
+        env.setRange(0, -180, 180);
+        env.setRange(1, -90, 90);
+        final CanvasDef cdef = new CanvasDef(new Dimension(360, 180), env);
+        final Dimension tileSize = new Dimension(90, 90);
+
+        for (int buffer : new int[]{0, 8}) {
+            final BufferedImage[][] tiles = DefaultPortrayalService.portrayMetatile(cdef, new SceneDef(context, hints), tileSize, buffer);
+            assertEquals(2, tiles.length);
+            for (int row = 0; row < 2; row++) {
+                assertEquals(4, tiles[row].length);
+                for (int col = 0; col < 4; col++) {
+                    final BufferedImage tile = tiles[row][col];
+                    assertEquals(90, tile.getWidth());
+                    assertEquals(90, tile.getHeight());
+                    assertEquals(0, tile.getMinX());
+                    assertEquals(0, tile.getMinY());
+                    tile.getRaster().getPixel(45, 45, pixel);
+                    assertArrayEquals(col < 2 ? red : blue, pixel);
+                }
+            }
+        }
+    }
+
     @Test
     public void testLongitudeFirst() throws Exception {
 
@@ -598,6 +657,57 @@ public class PortrayalServiceTest extends org.geotoolkit.test.TestBase {
         assertEquals(1, count.get());
     }
 
+    /**
+     * Test layers rendered in parallel give the same result as sequential rendering,
+     * layers and labels must be painted in the graphics order.
+     */
+    @Test
+    public void testParallelRendering() throws Exception {
+        final CoordinateReferenceSystem crs = CommonCRS.WGS84.normalizedGeographic();
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName("test");
+        ftb.addAttribute(Polygon.class).setName("geom").setCRS(crs).addRole(AttributeRole.DEFAULT_GEOMETRY);
+        final FeatureType ft = ftb.build();
+
+        final Color[] colors = {Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW};
+        final MapContext context = MapBuilder.createContext();
+        for (int i = 0; i < colors.length; i++) {
+            //-- each square overlaps the previous one, labels overlap too --//
+            final double x = -40 + i * 10;
+            final Polygon poly = GF.createPolygon(new Coordinate[]{
+                new Coordinate(x, -20), new Coordinate(x + 40, -20), new Coordinate(x + 40, 20),
+                new Coordinate(x, 20), new Coordinate(x, -20)});
+            JTS.setCRS(poly, crs);
+            final Feature feature = ft.newInstance();
+            feature.setPropertyValue("geom", poly);
+
+            final MutableStyle style = SF.style(
+                    SF.polygonSymbolizer(SF.stroke(Color.BLACK, 1), SF.fill(colors[i]), null),
+                    SF.textSymbolizer(SF.fill(colors[(i + 1) % colors.length]), SF.font(12), SF.halo(Color.WHITE, 1),
+                            FF.literal("LAYER " + i), SF.pointPlacement(), null));
+            context.layers().add(MapBuilder.createFeatureLayer(new InMemoryFeatureSet(ft, Arrays.asList(feature)), style));
+        }
+
+        final GeneralEnvelope env = new GeneralEnvelope(crs);
+        env.setRange(0, -60, +60);
+        env.setRange(1, -30, +30);
+        final CanvasDef cdef = new CanvasDef(new Dimension(240, 120), env);
+        cdef.setBackground(Color.WHITE);
+
+        final Hints hints = new Hints();
+        hints.put(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        hints.put(GO2Hints.KEY_MULTI_THREAD, Boolean.FALSE);
+        final BufferedImage sequential = DefaultPortrayalService.portray(cdef, new SceneDef(context, hints));
+
+        hints.put(GO2Hints.KEY_MULTI_THREAD, Boolean.TRUE);
+        hints.put(GO2Hints.KEY_MULTI_THREAD_MAX_LAYERS, colors.length);
+        final int[] expected = sequential.getRGB(0, 0, 240, 120, null, 0, 240);
+        for (int i = 0; i < 5; i++) {
+            final BufferedImage parallel = DefaultPortrayalService.portray(cdef, new SceneDef(context, hints));
+            assertArrayEquals(expected, parallel.getRGB(0, 0, 240, 120, null, 0, 240));
+        }
+    }
+
     private void testRendering(final MapLayer layer) throws Exception {
         final StopOnErrorMonitor monitor = new StopOnErrorMonitor();
 
@@ -0,0 +1,67 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.display2d.style.labeling.candidate;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.geotoolkit.display2d.style.labeling.DefaultPointLabelDescriptor;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test collision grid gives the same placement as a linear scan.
+ */
+public class CandidateIndexTest {
+
+    private static final Font FONT = new Font("Dialog", Font.PLAIN, 12);
+
+    @Test
+    public void testSameAsLinearScan() {
+        final Random random = new Random(42);
+        final List<PointCandidate> candidates = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            final float rotation = (i % 3 == 0) ? random.nextFloat() * 360 : 0;
+            final DefaultPointLabelDescriptor desc = new DefaultPointLabelDescriptor(
+                    "label" + i, FONT, Color.BLACK, 0, null, 0, 0, 0, 0, rotation, null, null);
+            candidates.add(new PointCandidate(desc, 10 + random.nextInt(80), 10, 3,
+                    random.nextFloat() * 1000 - 100, random.nextFloat() * 800 - 100));
+        }
+
+        final List<PointCandidate> expected = new ArrayList<>();
+        for (PointCandidate c : candidates) {
+            if (!LabelingUtilities.intersects(c, expected)) {
+                expected.add(c);
+            }
+        }
+
+        final CandidateIndex index = new CandidateIndex(64);
+        final List<PointCandidate> placed = new ArrayList<>();
+        for (PointCandidate c : candidates) {
+            if (index.addIfFree(c)) {
+                placed.add(c);
+            }
+        }
+
+        Assert.assertEquals(expected, placed);
+        Assert.assertEquals(placed.size(), index.size());
+        Assert.assertTrue(placed.size() < candidates.size());
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.display2d.style.renderer;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import org.apache.sis.coverage.SampleDimension;
+import org.apache.sis.coverage.grid.GridCoverage;
+import org.apache.sis.coverage.grid.GridCoverage2D;
+import org.apache.sis.coverage.grid.GridExtent;
+import org.apache.sis.coverage.grid.GridGeometry;
+import org.apache.sis.internal.referencing.j2d.AffineTransform2D;
+import org.apache.sis.measure.NumberRange;
+import org.apache.sis.referencing.CommonCRS;
+import org.apache.sis.referencing.operation.transform.MathTransforms;
+import org.apache.sis.storage.DataStoreException;
+import org.apache.sis.storage.event.StoreEvent;
+import org.apache.sis.storage.event.StoreListener;
+import org.apache.sis.storage.event.StoreListeners;
+import org.geotoolkit.storage.event.ContentEvent;
+import org.geotoolkit.storage.coverage.ImageStatistics;
+import org.geotoolkit.storage.memory.InMemoryGridCoverageResource;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opengis.referencing.datum.PixelInCell;
+import org.opengis.referencing.operation.MathTransform1D;
+
+/**
+ * Test resource statistics are computed once, until the resource changes.
+ */
+public class RasterStatisticsCacheTest {
+
+    @Test
+    public void testCache() throws Exception {
+        final InMemoryGridCoverageResource resource = new InMemoryGridCoverageResource(createCoverage(10, null));
+
+        final ImageStatistics stats = RasterStatisticsCache.getStatistics(resource, true);
+        Assert.assertEquals(1, stats.getBands().length);
+        Assert.assertEquals(10.0, stats.getBand(0).getMin(), 0.0);
+        Assert.assertEquals(158.0, stats.getBand(0).getMax(), 0.0);
+
+        //second call must not compute statistics again
+        Assert.assertSame(stats, RasterStatisticsCache.getStatistics(resource, true));
+    }
+
+    /**
+     * Test statistics on packed values are not mixed with statistics on converted values.
+     */
+    @Test
+    public void testSampleSpace() throws Exception {
+        final InMemoryGridCoverageResource resource = new InMemoryGridCoverageResource(
+                createCoverage(10, (MathTransform1D) MathTransforms.linear(2, 0)));
+
+        final ImageStatistics converted = RasterStatisticsCache.getStatistics(resource, true);
+        Assert.assertEquals(20.0, converted.getBand(0).getMin(), 0.0);
+        Assert.assertEquals(316.0, converted.getBand(0).getMax(), 0.0);
+
+        final ImageStatistics packed = RasterStatisticsCache.getStatistics(resource, false);
+        Assert.assertEquals(10.0, packed.getBand(0).getMin(), 0.0);
+        Assert.assertEquals(158.0, packed.getBand(0).getMax(), 0.0);
+
+        Assert.assertSame(converted, RasterStatisticsCache.getStatistics(resource, true));
+        Assert.assertSame(packed, RasterStatisticsCache.getStatistics(resource, false));
+    }
+
+    /**
+     * Test statistics are dropped when the resource emits an event,
+     * and not stored when the event occurs during the computation.
+     */
+    @Test
+    public void testStoreEvent() throws Exception {
+        final EventResource resource = new EventResource(createCoverage(10, null));
+
+        final ImageStatistics stats = RasterStatisticsCache.getStatistics(resource, true);
+        Assert.assertEquals(10.0, stats.getBand(0).getMin(), 0.0);
+        Assert.assertSame(stats, RasterStatisticsCache.getStatistics(resource, true));
+
+        //-- resource content changed --//
+        resource.write(createCoverage(20, null));
+        resource.fireContentEvent();
+        final ImageStatistics updated = RasterStatisticsCache.getStatistics(resource, true);
+        Assert.assertEquals(20.0, updated.getBand(0).getMin(), 0.0);
+        Assert.assertSame(updated, RasterStatisticsCache.getStatistics(resource, true));
+
+        //-- resource changes while statistics are computed, result must not be cached --//
+        resource.fireOnRead = true;
+        final ImageStatistics outdated = RasterStatisticsCache.getStatistics(resource, true);
+        final ImageStatistics current = RasterStatisticsCache.getStatistics(resource, true);
+        Assert.assertNotSame(outdated, current);
+        Assert.assertSame(current, RasterStatisticsCache.getStatistics(resource, true));
+    }
+
+    /**
+     * Create a byte coverage, sample values start at offset.
+     *
+     * @param toUnits transfer function, null for a coverage without conversion
+     */
+    private static GridCoverage2D createCoverage(final int offset, final MathTransform1D toUnits) {
+        final BufferedImage image = new BufferedImage(100, 50, BufferedImage.TYPE_BYTE_GRAY);
+        final WritableRaster raster = image.getRaster();
+        for (int y = 0; y < 50; y++) {
+            for (int x = 0; x < 100; x++) {
+                raster.setSample(x, y, 0, offset + x + y);
+            }
+        }
+        final GridExtent extent = new GridExtent(100, 50);
+        final AffineTransform2D gridToCrs = new AffineTransform2D(1, 0, 0, 1, -50, -25);
+        final GridGeometry grid = new GridGeometry(extent, PixelInCell.CELL_CORNER, gridToCrs, CommonCRS.WGS84.normalizedGeographic());
+        final SampleDimension.Builder builder = new SampleDimension.Builder().setName("1");
+        if (toUnits != null) {
+            builder.addQuantitative("data", NumberRange.create(0d, true, 255d, true), toUnits, null);
+        }
+        final SampleDimension gray = builder.build();
+        return new GridCoverage2D(grid, Arrays.asList(gray), image);
+    }
+
+    /**
+     * Resource which can emit content events.
+     */
+    private static final class EventResource extends InMemoryGridCoverageResource {
+
+        private final StoreListeners events = new StoreListeners(null, this);
+        /** Fire an event on the next read. */
+        private boolean fireOnRead;
+
+        private EventResource(final GridCoverage coverage) {
+            super(coverage);
+        }
+
+        @Override
+        public <T extends StoreEvent> void addListener(Class<T> eventType, StoreListener<? super T> listener) {
+            events.addListener(eventType, listener);
+        }
+
+        @Override
+        public <T extends StoreEvent> void removeListener(Class<T> eventType, StoreListener<? super T> listener) {
+            events.removeListener(eventType, listener);
+        }
+
+        @Override
+        public GridCoverage read(GridGeometry domain, int... range) throws DataStoreException {
+            final GridCoverage coverage = super.read(domain, range);
+            if (fireOnRead) {
+                fireOnRead = false;
+                fireContentEvent();
+            }
+            return coverage;
+        }
+
+        private void fireContentEvent() {
+            events.fire(new ContentEvent(this), ContentEvent.class);
+        }
+    }
+
+}
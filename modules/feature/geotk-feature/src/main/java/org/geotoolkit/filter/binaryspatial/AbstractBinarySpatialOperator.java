@@ -76,11 +76,69 @@ public abstract class AbstractBinarySpatialOperator<E extends Expression,F exten
     protected final E left;
     protected final F right;
 
+    /**
+     * Prepared literal operand, null if filter is not prepared or has no literal operand.
+     * Not serialized, a deserialized filter is evaluated without preparation.
+     */
+    final transient PreparedLiteral literal;
+
     protected AbstractBinarySpatialOperator(final E left, final F right){
+        this(left, right, false);
+    }
+
+    /**
+     * @param left left operand
+     * @param right right operand
+     * @param prepare if {@code true} and an operand is a literal geometry, the literal is evaluated once
+     *        and cached as a JTS prepared geometry for each coordinate reference system it is compared with.
+     *        This speeds up evaluation on many objects.
+     */
+    protected AbstractBinarySpatialOperator(final E left, final F right, final boolean prepare){
         ensureNonNull("left", left);
         ensureNonNull("right", right);
         this.left = left;
         this.right = right;
+        this.literal = prepare ? PreparedLiteral.create(left, right) : null;
+    }
+
+    /**
+     * @return true if the literal operand of this filter has been prepared.
+     */
+    public boolean isPrepared() {
+        return literal != null;
+    }
+
+    /**
+     * Returns an equivalent filter with its literal operand prepared for repeated evaluations.
+     * Default implementation returns this filter, operators supporting preparation override it.
+     *
+     * @return prepared filter, or this filter if already prepared or not preparable
+     */
+    public AbstractBinarySpatialOperator<E,F> prepare() {
+        return this;
+    }
+
+    /**
+     * Evaluate the non literal operand of given object against the prepared literal.
+     * Must be called only if this filter is prepared.
+     *
+     * @param object evaluated object
+     * @return result of {@link #evaluatePrepared(org.geotoolkit.filter.binaryspatial.PreparedLiteral.Operands) },
+     *         false if the operand is not a geometry
+     */
+    final boolean evaluateLiteral(final Object object) {
+        final PreparedLiteral.Operands ops = literal.operands(object);
+        return ops != null && evaluatePrepared(ops);
+    }
+
+    /**
+     * Evaluate this operator on the prepared literal and the other operand geometry.
+     *
+     * @param ops literal and operand geometries in the same crs
+     * @return operator result
+     */
+    boolean evaluatePrepared(final PreparedLiteral.Operands ops) {
+        throw new UnsupportedOperationException("Operator " + getClass().getSimpleName() + " can not be prepared.");
     }
 
     /**
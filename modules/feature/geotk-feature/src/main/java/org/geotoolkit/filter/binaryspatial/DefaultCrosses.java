@@ -40,11 +40,22 @@ public class DefaultCrosses extends AbstractBinarySpatialOperator<Expression,Exp
         super(left,right);
     }
 
+    /**
+     * @param prepare if {@code true}, literal operand is prepared for repeated evaluations
+     */
+    public DefaultCrosses(final Expression left, final Expression right, final boolean prepare) {
+        super(left,right,prepare);
+    }
+
     /**
      * {@inheritDoc }
      */
     @Override
     public boolean evaluate(final Object object) {
+        if (literal != null) {
+            return evaluateLiteral(object);
+        }
+
         Geometry leftGeom = toGeometry(object, left);
         Geometry rightGeom = toGeometry(object, right);
 
@@ -72,6 +83,22 @@ public class DefaultCrosses extends AbstractBinarySpatialOperator<Expression,Exp
         return false;
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    boolean evaluatePrepared(final PreparedLiteral.Operands ops) {
+        return ops.envelopesIntersect() && ops.prepared.crosses(ops.candidate);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public DefaultCrosses prepare() {
+        return isPrepared() ? this : new DefaultCrosses(left, right, true);
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -39,11 +39,22 @@ public class DefaultEquals extends AbstractBinarySpatialOperator<Expression,Expr
         super(left,right);
     }
 
+    /**
+     * @param prepare if {@code true}, literal operand is prepared for repeated evaluations
+     */
+    public DefaultEquals(final Expression left, final Expression right, final boolean prepare) {
+        super(left,right,prepare);
+    }
+
     /**
      * {@inheritDoc }
      */
     @Override
     public boolean evaluate(final Object object) {
+        if (literal != null) {
+            return evaluateLiteral(object);
+        }
+
         Geometry leftGeom = toGeometry(object, left);
         Geometry rightGeom = toGeometry(object, right);
 
@@ -64,6 +75,22 @@ public class DefaultEquals extends AbstractBinarySpatialOperator<Expression,Expr
         return leftGeom.equals(rightGeom);
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    boolean evaluatePrepared(final PreparedLiteral.Operands ops) {
+        return ops.literalEnvelope.equals(ops.candidateEnvelope) && ops.literal.equals(ops.candidate);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public DefaultEquals prepare() {
+        return isPrepared() ? this : new DefaultEquals(left, right, true);
+    }
+
     /**
      * {@inheritDoc }
      */
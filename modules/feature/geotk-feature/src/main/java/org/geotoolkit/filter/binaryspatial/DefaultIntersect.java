@@ -40,11 +40,22 @@ public class DefaultIntersect extends AbstractBinarySpatialOperator<Expression,E
         super(left,right);
     }
 
+    /**
+     * @param prepare if {@code true}, literal operand is prepared for repeated evaluations
+     */
+    public DefaultIntersect(final Expression left, final Expression right, final boolean prepare) {
+        super(left,right,prepare);
+    }
+
     /**
      * {@inheritDoc }
      */
     @Override
     public boolean evaluate(final Object object) {
+        if (literal != null) {
+            return evaluateLiteral(object);
+        }
+
         Geometry leftGeom = toGeometry(object, left);
         Geometry rightGeom = toGeometry(object, right);
 
@@ -72,6 +83,22 @@ public class DefaultIntersect extends AbstractBinarySpatialOperator<Expression,E
         return false;
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    boolean evaluatePrepared(final PreparedLiteral.Operands ops) {
+        return ops.envelopesIntersect() && ops.prepared.intersects(ops.candidate);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public DefaultIntersect prepare() {
+        return isPrepared() ? this : new DefaultIntersect(left, right, true);
+    }
+
     /**
      * {@inheritDoc }
      */
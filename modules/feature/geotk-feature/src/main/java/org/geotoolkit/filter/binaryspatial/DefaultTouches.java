@@ -39,11 +39,22 @@ public class DefaultTouches extends AbstractBinarySpatialOperator<Expression,Exp
         super(left,right);
     }
 
+    /**
+     * @param prepare if {@code true}, literal operand is prepared for repeated evaluations
+     */
+    public DefaultTouches(final Expression left, final Expression right, final boolean prepare) {
+        super(left,right,prepare);
+    }
+
     /**
      * {@inheritDoc }
      */
     @Override
     public boolean evaluate(final Object object) {
+        if (literal != null) {
+            return evaluateLiteral(object);
+        }
+
         Geometry leftGeom = toGeometry(object, left);
         Geometry rightGeom = toGeometry(object, right);
 
@@ -64,6 +75,22 @@ public class DefaultTouches extends AbstractBinarySpatialOperator<Expression,Exp
         return leftGeom.touches(rightGeom);
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    boolean evaluatePrepared(final PreparedLiteral.Operands ops) {
+        return ops.envelopesIntersect() && ops.prepared.touches(ops.candidate);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public DefaultTouches prepare() {
+        return isPrepared() ? this : new DefaultTouches(left, right, true);
+    }
+
     /**
      * {@inheritDoc }
      */
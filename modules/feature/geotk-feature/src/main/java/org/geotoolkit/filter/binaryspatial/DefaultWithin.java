@@ -40,11 +40,22 @@ public class DefaultWithin extends AbstractBinarySpatialOperator<Expression,Expr
         super(left,right);
     }
 
+    /**
+     * @param prepare if {@code true}, literal operand is prepared for repeated evaluations
+     */
+    public DefaultWithin(final Expression left, final Expression right, final boolean prepare) {
+        super(left,right,prepare);
+    }
+
     /**
      * {@inheritDoc }
      */
     @Override
     public boolean evaluate(final Object object) {
+        if (literal != null) {
+            return evaluateLiteral(object);
+        }
+
         Geometry leftGeom = toGeometry(object, left);
         Geometry rightGeom = toGeometry(object, right);
 
@@ -72,6 +83,26 @@ public class DefaultWithin extends AbstractBinarySpatialOperator<Expression,Expr
         return false;
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    boolean evaluatePrepared(final PreparedLiteral.Operands ops) {
+        if (literal.isLeft()) {
+            return ops.candidateEnvelope.contains(ops.literalEnvelope) && ops.prepared.within(ops.candidate);
+        } else {
+            return ops.literalEnvelope.contains(ops.candidateEnvelope) && ops.prepared.contains(ops.candidate);
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public DefaultWithin prepare() {
+        return isPrepared() ? this : new DefaultWithin(left, right, true);
+    }
+
     /**
      * {@inheritDoc }
      */
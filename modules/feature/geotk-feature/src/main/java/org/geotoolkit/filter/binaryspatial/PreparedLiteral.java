@@ -0,0 +1,194 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.filter.binaryspatial;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import org.apache.sis.referencing.CRS;
+import org.apache.sis.referencing.operation.transform.MathTransforms;
+import org.apache.sis.util.Utilities;
+import org.geotoolkit.geometry.jts.JTS;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+
+/**
+ * Literal operand of a spatial operator, evaluated once and cached as a JTS
+ * {@link PreparedGeometry} for each coordinate reference system it is compared with.
+ * <br/>
+ * Reprojection follows the same rule as
+ * {@link AbstractBinarySpatialOperator#toSameCRS(org.locationtech.jts.geom.Geometry, org.locationtech.jts.geom.Geometry) },
+ * the right operand is reprojected in the left operand crs. When the literal is the
+ * left operand, only the transform to its crs is cached.
+ * <br/>
+ * Instances are thread safe.
+ *
+ * @module
+ */
+final class PreparedLiteral {
+
+    /**
+     * Literal geometry in a given crs.
+     */
+    private static final class Prepared {
+
+        private final CoordinateReferenceSystem crs;
+        private final Geometry geometry;
+        private final PreparedGeometry prepared;
+        private final Envelope envelope;
+
+        private Prepared(CoordinateReferenceSystem crs, Geometry geometry) {
+            this.crs = crs;
+            this.geometry = geometry;
+            this.prepared = PreparedGeometryFactory.prepare(geometry);
+            this.envelope = geometry.getEnvelopeInternal();
+        }
+    }
+
+    /**
+     * Literal and candidate geometries, in the same crs.
+     */
+    static final class Operands {
+
+        /** literal geometry */
+        final Geometry literal;
+        /** prepared literal geometry */
+        final PreparedGeometry prepared;
+        /** literal geometry envelope */
+        final Envelope literalEnvelope;
+        /** evaluated operand geometry */
+        final Geometry candidate;
+        /** evaluated operand geometry envelope */
+        final Envelope candidateEnvelope;
+
+        private Operands(Prepared literal, Geometry candidate) {
+            this.literal = literal.geometry;
+            this.prepared = literal.prepared;
+            this.literalEnvelope = literal.envelope;
+            this.candidate = candidate;
+            this.candidateEnvelope = candidate.getEnvelopeInternal();
+        }
+
+        boolean envelopesIntersect() {
+            return literalEnvelope.intersects(candidateEnvelope);
+        }
+    }
+
+    private final Expression candidate;
+    private final boolean literalIsLeft;
+    private final Prepared base;
+    private final Map<CoordinateReferenceSystem,Prepared> reprojected = new ConcurrentHashMap<>();
+    private final Map<CoordinateReferenceSystem,MathTransform> transforms = new ConcurrentHashMap<>();
+    /** last reprojected literal, avoid map lookups when all candidates have the same crs */
+    private volatile Prepared last;
+
+    private PreparedLiteral(Expression candidate, boolean literalIsLeft, Geometry geometry) throws FactoryException {
+        this.candidate = candidate;
+        this.literalIsLeft = literalIsLeft;
+        this.base = new Prepared(JTS.findCoordinateReferenceSystem(geometry), geometry);
+    }
+
+    /**
+     * Prepare the literal operand of a spatial operator.
+     *
+     * @return prepared literal, null if no operand is a geometry literal
+     */
+    static PreparedLiteral create(final Expression left, final Expression right) {
+        final boolean isLeft;
+        if (right instanceof Literal && !(left instanceof Literal)) {
+            isLeft = false;
+        } else if (left instanceof Literal && !(right instanceof Literal)) {
+            isLeft = true;
+        } else {
+            return null;
+        }
+        final Expression literal = isLeft ? left : right;
+        final Geometry geometry = AbstractBinarySpatialOperator.toGeometry(null, literal);
+        if (geometry == null) return null;
+        try {
+            return new PreparedLiteral(isLeft ? right : left, isLeft, geometry);
+        } catch (FactoryException ex) {
+            AbstractBinarySpatialOperator.LOGGER.log(Level.INFO, "Could not prepare literal "+literal+"\n"+ex.getMessage(), ex);
+            return null;
+        }
+    }
+
+    /**
+     * @return true if literal is the left operand
+     */
+    boolean isLeft() {
+        return literalIsLeft;
+    }
+
+    /**
+     * Evaluate the other operand and bring both geometries in the same crs.
+     *
+     * @param object evaluated object
+     * @return operands or null if other operand is not a geometry or reprojection failed
+     */
+    Operands operands(final Object object) {
+        Geometry geom = AbstractBinarySpatialOperator.toGeometry(object, candidate);
+        if (geom == null) return null;
+
+        try {
+            final CoordinateReferenceSystem crs = JTS.findCoordinateReferenceSystem(geom);
+            if (crs == null || base.crs == null || crs == base.crs) {
+                return new Operands(base, geom);
+            }
+
+            if (literalIsLeft) {
+                //reproject candidate in literal crs
+                MathTransform trs = transforms.get(crs);
+                if (trs == null) {
+                    trs = Utilities.equalsIgnoreMetadata(crs, base.crs) ? MathTransforms.identity(2) :
+                            CRS.findOperation(crs, base.crs, null).getMathTransform();
+                    transforms.put(crs, trs);
+                }
+                if (!trs.isIdentity()) geom = JTS.transform(geom, trs);
+                return new Operands(base, geom);
+            } else {
+                //reproject literal in candidate crs
+                Prepared prepared = last;
+                if (prepared == null || prepared.crs != crs) {
+                    prepared = reprojected.get(crs);
+                    if (prepared == null) {
+                        if (Utilities.equalsIgnoreMetadata(crs, base.crs)) {
+                            prepared = base;
+                        } else {
+                            final MathTransform trs = CRS.findOperation(base.crs, crs, null).getMathTransform();
+                            prepared = new Prepared(crs, JTS.transform(base.geometry, trs));
+                        }
+                        reprojected.put(crs, prepared);
+                    }
+                    last = prepared;
+                }
+                return new Operands(prepared, geom);
+            }
+        } catch (FactoryException | TransformException ex) {
+            AbstractBinarySpatialOperator.LOGGER.log(Level.WARNING, ex.getMessage(), ex);
+            return null;
+        }
+    }
+}
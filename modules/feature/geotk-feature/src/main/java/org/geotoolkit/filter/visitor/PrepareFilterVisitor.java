@@ -18,12 +18,22 @@
 package org.geotoolkit.filter.visitor;
 
 import org.geotoolkit.filter.FilterUtilities;
+import org.geotoolkit.filter.binaryspatial.AbstractBinarySpatialOperator;
 import org.opengis.feature.FeatureType;
 import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.spatial.Contains;
+import org.opengis.filter.spatial.Crosses;
+import org.opengis.filter.spatial.Disjoint;
+import org.opengis.filter.spatial.Equals;
+import org.opengis.filter.spatial.Intersects;
+import org.opengis.filter.spatial.Overlaps;
+import org.opengis.filter.spatial.Touches;
+import org.opengis.filter.spatial.Within;
 
 /**
  * Simplify and prepare the filter against a given target class.
  * All propertyName expression will be prepared against it.
+ * Spatial operators with a literal geometry operand are replaced by prepared operators.
  *
  * @author Johann Sorel (Geomatys)
  */
@@ -42,4 +52,58 @@ public class PrepareFilterVisitor extends SimplifyingFilterVisitor{
         return FilterUtilities.prepare(expression, clazz, expectedType);
     }
 
+    // Spatial operators with a literal operand are compiled, the literal geometry
+    // is reprojected once and cached as a JTS prepared geometry.
+
+    @Override
+    public Object visit(final Contains filter, final Object extraData) {
+        return prepare(super.visit(filter, extraData));
+    }
+
+    @Override
+    public Object visit(final Crosses filter, final Object extraData) {
+        return prepare(super.visit(filter, extraData));
+    }
+
+    @Override
+    public Object visit(final Disjoint filter, final Object extraData) {
+        return prepare(super.visit(filter, extraData));
+    }
+
+    @Override
+    public Object visit(final Equals filter, final Object extraData) {
+        return prepare(super.visit(filter, extraData));
+    }
+
+    @Override
+    public Object visit(final Intersects filter, final Object extraData) {
+        return prepare(super.visit(filter, extraData));
+    }
+
+    @Override
+    public Object visit(final Overlaps filter, final Object extraData) {
+        return prepare(super.visit(filter, extraData));
+    }
+
+    @Override
+    public Object visit(final Touches filter, final Object extraData) {
+        return prepare(super.visit(filter, extraData));
+    }
+
+    @Override
+    public Object visit(final Within filter, final Object extraData) {
+        return prepare(super.visit(filter, extraData));
+    }
+
+    /**
+     * Prepare filters created by the factory when they support it,
+     * filters from other factories are returned unchanged.
+     */
+    private static Object prepare(final Object filter) {
+        if (filter instanceof AbstractBinarySpatialOperator) {
+            return ((AbstractBinarySpatialOperator) filter).prepare();
+        }
+        return filter;
+    }
+
 }
@@ -21,8 +21,13 @@ import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.LinearRing;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import org.geotoolkit.filter.DefaultFilterFactory2;
+import org.geotoolkit.filter.visitor.PrepareFilterVisitor;
 import org.junit.Test;
 
+import org.opengis.filter.Filter;
+import org.opengis.filter.expression.Expression;
 import org.opengis.filter.spatial.BBOX;
 import org.opengis.filter.spatial.Beyond;
 
@@ -262,4 +267,63 @@ public class BinarySpatialTest extends org.geotoolkit.test.TestBase {
 
     }
 
+
+    /**
+     * Prepared filters must give the same results as not prepared ones.
+     */
+    @Test
+    public void testPrepared() {
+        final Expression property = FF.property("testGeometry");
+        final Geometry[] literals = {GEOM_DISTANCE_1, GEOM_DISTANCE_3, GEOM_INTERSECT,
+                                     GEOM_CONTAINS, GEOM_CROSSES, GEOM_TOUCHES};
+        for (Geometry geom : literals) {
+            final Expression literal = FF.literal(geom);
+            for (boolean literalLeft : new boolean[]{true, false}) {
+                final Expression left  = literalLeft ? literal  : property;
+                final Expression right = literalLeft ? property : literal;
+                final AbstractBinarySpatialOperator[][] filters = {
+                    {new DefaultContains(left, right),  new DefaultContains(left, right, true)},
+                    {new DefaultCrosses(left, right),   new DefaultCrosses(left, right, true)},
+                    {new DefaultDisjoint(left, right),  new DefaultDisjoint(left, right, true)},
+                    {new DefaultEquals(left, right),    new DefaultEquals(left, right, true)},
+                    {new DefaultIntersect(left, right), new DefaultIntersect(left, right, true)},
+                    {new DefaultOverlaps(left, right),  new DefaultOverlaps(left, right, true)},
+                    {new DefaultTouches(left, right),   new DefaultTouches(left, right, true)},
+                    {new DefaultWithin(left, right),    new DefaultWithin(left, right, true)}};
+                for (AbstractBinarySpatialOperator[] pair : filters) {
+                    assertFalse(pair[0].isPrepared());
+                    assertTrue(pair[1].isPrepared());
+                    assertEquals(pair[0].toString(), pair[0].evaluate(CANDIDATE_1), pair[1].evaluate(CANDIDATE_1));
+                    assertEquals(pair[0], pair[1]);
+                    final AbstractBinarySpatialOperator prepared = pair[0].prepare();
+                    assertTrue(prepared.isPrepared());
+                    assertEquals(pair[0].evaluate(CANDIDATE_1), prepared.evaluate(CANDIDATE_1));
+                    assertSame(pair[1], pair[1].prepare());
+                }
+            }
+        }
+
+        //filters without literal operand are not prepared
+        assertFalse(new DefaultIntersect(property, property, true).isPrepared());
+    }
+
+    /**
+     * Prepare visitor must create operators with the factory given as extra data.
+     */
+    @Test
+    public void testPrepareVisitorFactory() {
+        final AtomicInteger created = new AtomicInteger();
+        final DefaultFilterFactory2 factory = new DefaultFilterFactory2() {
+            @Override
+            public Intersects intersects(final Expression left, final Expression right) {
+                created.incrementAndGet();
+                return super.intersects(left, right);
+            }
+        };
+        final Intersects filter = FF.intersects(FF.property("testGeometry"), FF.literal(GEOM_INTERSECT));
+        final Object result = filter.accept(new PrepareFilterVisitor(CANDIDATE_1.getClass(), null), factory);
+        assertEquals(1, created.get());
+        assertTrue(((AbstractBinarySpatialOperator) result).isPrepared());
+        assertEquals(filter.evaluate(CANDIDATE_1), ((Filter) result).evaluate(CANDIDATE_1));
+    }
 }
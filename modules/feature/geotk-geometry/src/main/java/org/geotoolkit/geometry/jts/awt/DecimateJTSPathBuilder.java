@@ -0,0 +1,221 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.geometry.jts.awt;
+
+import java.awt.geom.Path2D;
+import org.apache.sis.util.ArgumentChecks;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryCollection;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.Polygonal;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+
+/**
+ * Builds Java2D paths of JTS geometries in display space.
+ * <br/>
+ * Each coordinate sequence is transformed in a single call in a reused buffer,
+ * consecutive vertices falling in the same pixel are dropped. A geometry or a polygon
+ * ring whose extent is smaller than a pixel is replaced by a single pixel dot.
+ * <br/>
+ * Unlike {@link DecimateJTSGeometryJ2D}, coordinates are copied in the created path,
+ * which makes rendering faster when the shape is painted several times (fill, stroke, halo).
+ * <br/>
+ * Instances are not thread safe.
+ *
+ * @module
+ */
+public final class DecimateJTSPathBuilder {
+
+    private final MathTransform transform;
+    private final double pixelSize;
+    private double[] buffer = new double[256];
+
+    /**
+     * @param transform transform to display space, null for identity
+     * @param pixelSize pixel size in display units, usually 1
+     */
+    public DecimateJTSPathBuilder(final MathTransform transform, final double pixelSize) {
+        ArgumentChecks.ensureStrictlyPositive("pixelSize", pixelSize);
+        this.transform = (transform == null) ? JTSGeometryIterator.IDENTITY : transform;
+        this.pixelSize = pixelSize;
+    }
+
+    /**
+     * Create display path of given geometry.
+     *
+     * @param geom geometry to convert
+     * @return display path, never null
+     * @throws TransformException if coordinates could not be transformed
+     */
+    public Path2D.Double build(final Geometry geom) throws TransformException {
+        final boolean polygonal = geom instanceof Polygonal
+                || (geom instanceof GeometryCollection && geom.getDimension() == 2);
+        final Path2D.Double path = new Path2D.Double(polygonal ? Path2D.WIND_EVEN_ODD : Path2D.WIND_NON_ZERO);
+        if (geom.isEmpty()) return path;
+
+        //-- whole geometry smaller than a pixel --//
+        if (!(geom instanceof Point)) {
+            final Envelope env = geom.getEnvelopeInternal();
+            final double[] corners = {
+                env.getMinX(), env.getMinY(),
+                env.getMaxX(), env.getMinY(),
+                env.getMaxX(), env.getMaxY(),
+                env.getMinX(), env.getMaxY()};
+            transform.transform(corners, 0, corners, 0, 4);
+            if (samePixel(corners, 8)) {
+                appendDot(path, corners[0], corners[1], polygonal);
+                return path;
+            }
+        }
+
+        append(path, geom);
+        return path;
+    }
+
+    private void append(final Path2D.Double path, final Geometry geom) throws TransformException {
+        if (geom.isEmpty()) {
+            //-- nothing to draw --//
+        } else if (geom instanceof Point) {
+            final double[] pt = {((Point) geom).getX(), ((Point) geom).getY()};
+            transform.transform(pt, 0, pt, 0, 1);
+            path.moveTo(pt[0], pt[1]);
+        } else if (geom instanceof Polygon) {
+            final Polygon poly = (Polygon) geom;
+            if (!appendRing(path, poly.getExteriorRing().getCoordinateSequence(), true)) {
+                //-- exterior ring smaller than a pixel, holes are irrelevant --//
+                return;
+            }
+            for (int i = 0, n = poly.getNumInteriorRing(); i < n; i++) {
+                appendRing(path, poly.getInteriorRingN(i).getCoordinateSequence(), false);
+            }
+        } else if (geom instanceof LinearRing) {
+            appendRing(path, ((LinearRing) geom).getCoordinateSequence(), true);
+        } else if (geom instanceof LineString) {
+            appendLine(path, ((LineString) geom).getCoordinateSequence());
+        } else if (geom instanceof GeometryCollection) {
+            for (int i = 0, n = geom.getNumGeometries(); i < n; i++) {
+                append(path, geom.getGeometryN(i));
+            }
+        }
+    }
+
+    /**
+     * @return false if ring has been replaced by a dot or removed
+     */
+    private boolean appendRing(final Path2D.Double path, final CoordinateSequence cs, final boolean exterior) throws TransformException {
+        //-- last coordinate is a copy of the first one, it is replaced by path closing --//
+        final int size = cs.size() - 1;
+        if (size < 1) return false;
+        final int nb = transform(cs, size);
+        if (nb < 3) {
+            if (exterior) appendDot(path, buffer[0], buffer[1], true);
+            return false;
+        }
+        path.moveTo(buffer[0], buffer[1]);
+        for (int i = 2, n = nb * 2; i < n; i += 2) {
+            path.lineTo(buffer[i], buffer[i+1]);
+        }
+        path.closePath();
+        return true;
+    }
+
+    private void appendLine(final Path2D.Double path, final CoordinateSequence cs) throws TransformException {
+        final int size = cs.size();
+        if (size == 0) return;
+        final int nb = transform(cs, size);
+        if (nb == 1) {
+            //-- line smaller than a pixel --//
+            appendDot(path, buffer[0], buffer[1], false);
+            return;
+        }
+        path.moveTo(buffer[0], buffer[1]);
+        for (int i = 2, n = nb * 2; i < n; i += 2) {
+            path.lineTo(buffer[i], buffer[i+1]);
+        }
+    }
+
+    /**
+     * Transform the first coordinates of the sequence in buffer and drop
+     * consecutive coordinates in the same pixel.
+     *
+     * @return number of remaining coordinates in buffer
+     */
+    private int transform(final CoordinateSequence cs, final int size) throws TransformException {
+        if (buffer.length < size * 2) {
+            buffer = new double[Math.max(size * 2, buffer.length * 2)];
+        }
+        for (int i = 0, k = 0; i < size; i++) {
+            buffer[k++] = cs.getX(i);
+            buffer[k++] = cs.getY(i);
+        }
+        transform.transform(buffer, 0, buffer, 0, size);
+
+        //-- decimation --//
+        int nb = 1;
+        double lastX = Math.floor(buffer[0] / pixelSize);
+        double lastY = Math.floor(buffer[1] / pixelSize);
+        for (int i = 1; i < size; i++) {
+            final double x = buffer[i*2];
+            final double y = buffer[i*2+1];
+            final double px = Math.floor(x / pixelSize);
+            final double py = Math.floor(y / pixelSize);
+            if (px != lastX || py != lastY) {
+                buffer[nb*2]   = x;
+                buffer[nb*2+1] = y;
+                nb++;
+                lastX = px;
+                lastY = py;
+            }
+        }
+        return nb;
+    }
+
+    private boolean samePixel(final double[] coords, final int length) {
+        final double px = Math.floor(coords[0] / pixelSize);
+        final double py = Math.floor(coords[1] / pixelSize);
+        for (int i = 2; i < length; i += 2) {
+            if (Math.floor(coords[i] / pixelSize) != px || Math.floor(coords[i+1] / pixelSize) != py) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void appendDot(final Path2D.Double path, final double x, final double y, final boolean area) {
+        final double minX = Math.floor(x / pixelSize) * pixelSize;
+        final double minY = Math.floor(y / pixelSize) * pixelSize;
+        if (area) {
+            path.moveTo(minX, minY);
+            path.lineTo(minX + pixelSize, minY);
+            path.lineTo(minX + pixelSize, minY + pixelSize);
+            path.lineTo(minX, minY + pixelSize);
+            path.closePath();
+        } else {
+            //-- a segment through the pixel center, visible with any stroke cap --//
+            final double cy = minY + pixelSize / 2;
+            path.moveTo(minX, cy);
+            path.lineTo(minX + pixelSize, cy);
+        }
+    }
+
+}
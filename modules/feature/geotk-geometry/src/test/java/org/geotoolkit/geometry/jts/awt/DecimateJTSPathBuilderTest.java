@@ -0,0 +1,124 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.geometry.jts.awt;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.sis.internal.referencing.j2d.AffineTransform2D;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Polygon;
+
+/**
+ * Test display path creation with pixel decimation.
+ *
+ * @module
+ */
+public class DecimateJTSPathBuilderTest extends org.geotoolkit.test.TestBase {
+
+    private final GeometryFactory GF = new GeometryFactory();
+
+    /**
+     * Vertices in the same pixel are removed.
+     */
+    @Test
+    public void testLineDecimation() throws Exception {
+        final LineString line = GF.createLineString(new Coordinate[]{
+            new Coordinate(0.00, 0.00),
+            new Coordinate(0.01, 0.00),
+            new Coordinate(0.02, 0.01),
+            new Coordinate(1.50, 0.00),
+            new Coordinate(1.55, 0.02),
+            new Coordinate(3.00, 3.00)
+        });
+        //-- scale 10 : one unit is 10 pixels --//
+        final DecimateJTSPathBuilder builder = new DecimateJTSPathBuilder(
+                new AffineTransform2D(new AffineTransform(10, 0, 0, 10, 0, 0)), 1.0);
+        final List<double[]> segments = segments(builder.build(line));
+        assertEquals(3, segments.size());
+        assertSegment(segments.get(0), PathIterator.SEG_MOVETO,  0,  0);
+        assertSegment(segments.get(1), PathIterator.SEG_LINETO, 15,  0);
+        assertSegment(segments.get(2), PathIterator.SEG_LINETO, 30, 30);
+    }
+
+    /**
+     * Polygon ring, closing coordinate replaced by a close segment.
+     */
+    @Test
+    public void testPolygon() throws Exception {
+        final Polygon poly = GF.createPolygon(new Coordinate[]{
+            new Coordinate( 0,  0),
+            new Coordinate( 0, 10),
+            new Coordinate(20, 10),
+            new Coordinate(20,  0),
+            new Coordinate( 0,  0)
+        });
+        final Path2D path = new DecimateJTSPathBuilder(null, 1.0).build(poly);
+        assertEquals(PathIterator.WIND_EVEN_ODD, path.getWindingRule());
+        final List<double[]> segments = segments(path);
+        assertEquals(5, segments.size());
+        assertSegment(segments.get(0), PathIterator.SEG_MOVETO,  0,  0);
+        assertSegment(segments.get(1), PathIterator.SEG_LINETO,  0, 10);
+        assertSegment(segments.get(2), PathIterator.SEG_LINETO, 20, 10);
+        assertSegment(segments.get(3), PathIterator.SEG_LINETO, 20,  0);
+        assertEquals(PathIterator.SEG_CLOSE, (int) segments.get(4)[0]);
+    }
+
+    /**
+     * Polygon smaller than a pixel is replaced by a pixel square.
+     */
+    @Test
+    public void testSubPixelPolygon() throws Exception {
+        final Polygon poly = GF.createPolygon(new Coordinate[]{
+            new Coordinate(5.1, 7.1),
+            new Coordinate(5.1, 7.5),
+            new Coordinate(5.6, 7.5),
+            new Coordinate(5.6, 7.1),
+            new Coordinate(5.1, 7.1)
+        });
+        final List<double[]> segments = segments(new DecimateJTSPathBuilder(null, 1.0).build(poly));
+        assertEquals(5, segments.size());
+        assertSegment(segments.get(0), PathIterator.SEG_MOVETO, 5, 7);
+        assertSegment(segments.get(1), PathIterator.SEG_LINETO, 6, 7);
+        assertSegment(segments.get(2), PathIterator.SEG_LINETO, 6, 8);
+        assertSegment(segments.get(3), PathIterator.SEG_LINETO, 5, 8);
+        assertEquals(PathIterator.SEG_CLOSE, (int) segments.get(4)[0]);
+    }
+
+    private static void assertSegment(double[] segment, int type, double x, double y) {
+        assertEquals(type, (int) segment[0]);
+        assertEquals(x, segment[1], 1e-9);
+        assertEquals(y, segment[2], 1e-9);
+    }
+
+    private static List<double[]> segments(Path2D path) {
+        final List<double[]> segments = new ArrayList<>();
+        final double[] coords = new double[6];
+        for (PathIterator ite = path.getPathIterator(null); !ite.isDone(); ite.next()) {
+            final int type = ite.currentSegment(coords);
+            segments.add(new double[]{type, coords[0], coords[1]});
+        }
+        return segments;
+    }
+
+}
@@ -18,6 +18,8 @@ package org.geotoolkit.index.tree;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.sis.util.ArgumentChecks;
 import org.apache.sis.util.Classes;
 import org.opengis.geometry.Envelope;
@@ -78,6 +80,12 @@ public abstract class AbstractTree<E> implements Tree<E> {
      */
     private Node root;
 
+    /**
+     * Lock which let many searches travel the tree at the same time,
+     * whereas insertions, deletions and flush are exclusive.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
     /**
      * Tree fundation implementation.
      *
@@ -102,17 +110,66 @@ public abstract class AbstractTree<E> implements Tree<E> {
      * {@inheritDoc}
      */
     @Override
-    public synchronized int[] searchID(final Envelope regionSearch) throws StoreIndexException {
+    public int[] searchID(final Envelope regionSearch) throws StoreIndexException {
         ArgumentChecks.ensureNonNull("Envelope regionSearch", regionSearch);
-        final Node root = getRoot();
-         final double[] regSearch = TreeUtilities.getCoords(regionSearch);
-        if (root != null && !root.isEmpty()) {
-            try {
+        final double[] regSearch = TreeUtilities.getCoords(regionSearch);
+        lock.readLock().lock();
+        try {
+            final Node root = getRoot();
+            if (root != null && !root.isEmpty()) {
                 return treeAccess.search(root.getNodeId(), regSearch);
-            } catch (IOException ex) {
-                throw new StoreIndexException(this.getClass().getName()+" impossible to find stored elements at "
-                        +Arrays.toString(regSearch)+" region search area.", ex);
             }
+        } catch (IOException ex) {
+            throw new StoreIndexException(this.getClass().getName()+" impossible to find stored elements at "
+                    +Arrays.toString(regSearch)+" region search area.", ex);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new int[0];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] nearest(final double[] point, final int k) throws StoreIndexException {
+        ArgumentChecks.ensureStrictlyPositive("nearest : k", k);
+        return nearest(point, k, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] searchWithin(final double[] point, final double distance) throws StoreIndexException {
+        ArgumentChecks.ensurePositive("searchWithin : distance", distance);
+        return nearest(point, Integer.MAX_VALUE, distance);
+    }
+
+    /**
+     * Travel tree best first from root {@link Node}, under read lock.
+     *
+     * @param point searched point coordinates.
+     * @param k maximum result number.
+     * @param maxDistance maximum distance between point and returned data.
+     * @return tree identifiers ordered by distance.
+     * @throws StoreIndexException if problem during reading stored file.
+     * @see TreeAccess#nearest(int, double[], int, double)
+     */
+    private int[] nearest(final double[] point, final int k, final double maxDistance) throws StoreIndexException {
+        ArgumentChecks.ensureNonNull("point", point);
+        ArgumentChecks.ensureDimensionMatches("point", crs.getCoordinateSystem().getDimension(), point);
+        lock.readLock().lock();
+        try {
+            final Node root = getRoot();
+            if (root != null && !root.isEmpty()) {
+                return treeAccess.nearest(root.getNodeId(), point, k, maxDistance);
+            }
+        } catch (IOException ex) {
+            throw new StoreIndexException(this.getClass().getName()+" impossible to find stored elements near "
+                    +Arrays.toString(point)+" point.", ex);
+        } finally {
+            lock.readLock().unlock();
         }
         return new int[0];
     }
@@ -131,7 +188,8 @@ public abstract class AbstractTree<E> implements Tree<E> {
      * {@inheritDoc}
      */
     @Override
-    public synchronized int insert(final E object) throws IllegalArgumentException , StoreIndexException{
+    public int insert(final E object) throws IllegalArgumentException , StoreIndexException{
+        lock.writeLock().lock();
         try {
             ArgumentChecks.ensureNonNull("insert : object", object);
             final Envelope env = treeEltMap.getEnvelope(object);
@@ -147,6 +205,8 @@ public abstract class AbstractTree<E> implements Tree<E> {
             return treeIdentifier - 1;
         } catch (IOException ex) {
             throw new StoreIndexException(ex);
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -426,7 +486,8 @@ public abstract class AbstractTree<E> implements Tree<E> {
      * {@inheritDoc }.
      */
     @Override
-    public synchronized boolean remove(final E object) throws StoreIndexException {
+    public boolean remove(final E object) throws StoreIndexException {
+        lock.writeLock().lock();
         try {
             ArgumentChecks.ensureNonNull("Object to remove", object);
             final Envelope env = treeEltMap.getEnvelope(object);
@@ -436,6 +497,8 @@ public abstract class AbstractTree<E> implements Tree<E> {
 
         } catch (IOException ex) {
             throw new StoreIndexException(ex);
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -447,7 +510,12 @@ public abstract class AbstractTree<E> implements Tree<E> {
             for (double d : coordinates)
                 if (Double.isNaN(d))
                     throw new IllegalArgumentException("coordinates contain at least one NAN value");
-            return remove(entry, coordinates);
+            lock.writeLock().lock();
+            try {
+                return remove(entry, coordinates);
+            } finally {
+                lock.writeLock().unlock();
+            }
     }
 
     /**
@@ -567,8 +635,13 @@ public abstract class AbstractTree<E> implements Tree<E> {
      * {@inheritDoc}
      */
     @Override
-    public synchronized void clear() throws StoreIndexException {
-        setRoot(null);
+    public void clear() throws StoreIndexException {
+        lock.writeLock().lock();
+        try {
+            setRoot(null);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -609,7 +682,8 @@ public abstract class AbstractTree<E> implements Tree<E> {
      * {@inheritDoc }.
      */
     @Override
-    public synchronized void flush() throws StoreIndexException {
+    public void flush() throws StoreIndexException {
+        lock.writeLock().lock();
         try {
             treeAccess.setTreeIdentifier(treeIdentifier);
             treeAccess.setEltNumber(eltCompteur);
@@ -617,6 +691,8 @@ public abstract class AbstractTree<E> implements Tree<E> {
             treeEltMap.flush();
         } catch (IOException ex) {
             throw new StoreIndexException("FileBasicRTree : close(). Impossible to close TreeAccessFile.", ex);
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -632,6 +708,17 @@ public abstract class AbstractTree<E> implements Tree<E> {
         return treeAccess;
     }
 
+    /**
+     * Return the lock which protect tree from concurrent modifications.<br/>
+     * Read lock should be held by any operation which only travel tree Nodes,
+     * write lock by any operation which modify them.
+     *
+     * @return tree read / write lock.
+     */
+    protected final ReadWriteLock getLock() {
+        return lock;
+    }
+
     /**
      * {@inheritDoc}
      */
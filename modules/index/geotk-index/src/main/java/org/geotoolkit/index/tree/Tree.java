@@ -37,6 +37,9 @@ public interface Tree<E> extends Closeable {
      * <strong>NOTE: if no result found, an empty table is return.</strong>
      * </font></blockquote>
      *
+     * Many searches may be done at the same time by different threads,
+     * insertions and deletions wait for current searches to finish.
+     *
      * @param regionSearch Define area of search.
      * @return integer table which contain all tree identifier from selected data.
      * @throws StoreIndexException if pblem during search on stored file.
@@ -54,6 +57,34 @@ public interface Tree<E> extends Closeable {
      */
     TreeIdentifierIterator search(final Envelope regionSearch) throws StoreIndexException;
 
+    /**
+     * Find {@code Integer} tree identifiers of the {@code k} stored datas nearest to a point.<br/>
+     * Distance is the Euclidean distance, in tree {@link CoordinateReferenceSystem} units,
+     * between point and data boundary.
+     *
+     * <blockquote><font size=-1>
+     * <strong>NOTE: if tree contains less than {@code k} datas, all tree identifiers are returned.</strong>
+     * </font></blockquote>
+     *
+     * @param point point coordinates in tree {@link CoordinateReferenceSystem}.
+     * @param k maximum number of returned identifiers, strictly positive.
+     * @return tree identifiers ordered from nearest to farthest data.
+     * @throws StoreIndexException if problem during search on stored file.
+     */
+    int[] nearest(final double[] point, final int k) throws StoreIndexException;
+
+    /**
+     * Find all {@code Integer} tree identifiers, from each stored datas whose boundary
+     * is at a distance from point lesser or equals to {@code distance} parameter.<br/>
+     * Distance is the Euclidean distance, in tree {@link CoordinateReferenceSystem} units.
+     *
+     * @param point point coordinates in tree {@link CoordinateReferenceSystem}.
+     * @param distance maximum distance between point and data boundary.
+     * @return tree identifiers ordered from nearest to farthest data.
+     * @throws StoreIndexException if problem during search on stored file.
+     */
+    int[] searchWithin(final double[] point, final double distance) throws StoreIndexException;
+
     /**
      * Insert an Object into Rtree.
      *
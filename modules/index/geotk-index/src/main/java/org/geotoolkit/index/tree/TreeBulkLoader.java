@@ -0,0 +1,607 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.index.tree;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import org.apache.sis.util.ArgumentChecks;
+import org.apache.sis.util.Utilities;
+import org.geotoolkit.index.tree.basic.FileBasicRTree;
+import org.geotoolkit.index.tree.basic.SplitCase;
+import org.geotoolkit.index.tree.star.FileStarRTree;
+import org.geotoolkit.internal.tree.TreeAccess;
+import org.geotoolkit.internal.tree.TreeAccessFile;
+import org.geotoolkit.internal.tree.TreeUtilities;
+import org.opengis.geometry.Envelope;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import static org.geotoolkit.internal.tree.TreeUtilities.*;
+
+/**
+ * Build a file R-Tree in one pass from a set of already known elements, instead of
+ * calling {@link Tree#insert(java.lang.Object) } once per element.<br/><br/>
+ *
+ * Elements are first sorted on disk (external merge sort, with at most {@link #getRunLength() }
+ * elements held in memory), either in Sort-Tile-Recursive order or along a Hilbert curve.
+ * Then each tree level is built by grouping consecutive sorted elements into fully packed Nodes,
+ * which are written sequentially, from root to data, through a {@link TreeAccessFile}.<br/>
+ * Resulting file has same format as a file filled by insertions, and may be opened by
+ * {@link FileStarRTree#FileStarRTree(java.nio.file.Path, org.geotoolkit.index.tree.TreeElementMapper) } or
+ * {@link FileBasicRTree#FileBasicRTree(java.nio.file.Path, org.geotoolkit.index.tree.TreeElementMapper) },
+ * then modified by further insertions or deletions.<br/><br/>
+ *
+ * Note : {@link org.geotoolkit.index.tree.hilbert.HilbertRTree} leaves are divided in Hilbert cells,
+ * thus this loader can not produce them.
+ */
+public final class TreeBulkLoader {
+
+    /**
+     * Order in which elements are packed into Nodes.
+     */
+    public enum Order {
+        /**
+         * Sort-Tile-Recursive : elements are sorted on first axis, cut into vertical slices,
+         * then each slice is sorted on second axis.
+         */
+        STR,
+
+        /**
+         * Elements are sorted by Hilbert value of their center, on first two axis.
+         */
+        HILBERT
+    }
+
+    /**
+     * Default maximum number of elements sorted in memory at once.
+     */
+    public static final int DEFAULT_RUN_LENGTH = 1 << 20;
+
+    /**
+     * Hilbert curve order use to compute element keys.
+     */
+    private static final int HILBERT_ORDER = 16;
+
+    /**
+     * Tree file which will be written.
+     */
+    private final Path output;
+
+    /**
+     * Tree {@link CoordinateReferenceSystem}.
+     */
+    private final CoordinateReferenceSystem crs;
+
+    /**
+     * Maximum children number per Node.
+     */
+    private final int maxElements;
+
+    /**
+     * Element packing order.
+     */
+    private final Order order;
+
+    /**
+     * boundary table value length of each Node.
+     */
+    private final int boundLength;
+
+    /**
+     * Maximum number of elements sorted in memory at once.
+     */
+    private int runLength = DEFAULT_RUN_LENGTH;
+
+    /**
+     * Create a bulk loader which will write tree at {@link Path} location.<br/>
+     * If file is not empty, data within it will be overwrite.
+     *
+     * @param output file where tree will be written.
+     * @param maxElements maximum children value permit per Node.
+     * @param crs Tree {@link CoordinateReferenceSystem}.
+     * @param order element packing order.
+     */
+    public TreeBulkLoader(final Path output, final int maxElements, final CoordinateReferenceSystem crs, final Order order) {
+        ArgumentChecks.ensureNonNull("output", output);
+        ArgumentChecks.ensureNonNull("crs", crs);
+        ArgumentChecks.ensureNonNull("order", order);
+        ArgumentChecks.ensureBetween("maxElements", 2, Integer.MAX_VALUE, maxElements);
+        this.output      = output;
+        this.maxElements = maxElements;
+        this.crs         = crs;
+        this.order       = order;
+        this.boundLength = crs.getCoordinateSystem().getDimension() << 1;
+    }
+
+    /**
+     * Return maximum number of elements sorted in memory at once.
+     *
+     * @return maximum number of elements sorted in memory at once.
+     */
+    public int getRunLength() {
+        return runLength;
+    }
+
+    /**
+     * Set maximum number of elements sorted in memory at once.<br/>
+     * Each element costs about {@code (2 * dimension + 3) * 8} bytes.
+     *
+     * @param runLength maximum number of elements sorted in memory at once.
+     */
+    public void setRunLength(final int runLength) {
+        ArgumentChecks.ensureStrictlyPositive("runLength", runLength);
+        this.runLength = runLength;
+    }
+
+    /**
+     * Write a {@link FileStarRTree} which contains all given elements, and open it.
+     *
+     * @param entries tree identifier (strictly positive) and envelope of each element.
+     * @param treeEltMap object which store tree identifier and data.
+     * @return opened tree.
+     * @throws IOException if problem during temporary or tree file writing.
+     * @throws StoreIndexException if problem during tree opening.
+     */
+    public <E> FileStarRTree<E> createStarRTree(final Iterator<? extends Map.Entry<Integer, ? extends Envelope>> entries,
+            final TreeElementMapper<E> treeEltMap) throws IOException, StoreIndexException {
+        load(new TreeAccessFile(output, STAR_NUMBER, VERSION_NUMBER, maxElements, crs), entries);
+        return new FileStarRTree<>(output, treeEltMap);
+    }
+
+    /**
+     * Write a {@link FileBasicRTree} which contains all given elements, and open it.
+     *
+     * @param entries tree identifier (strictly positive) and envelope of each element.
+     * @param choice split made choice for further insertions.
+     * @param treeEltMap object which store tree identifier and data.
+     * @return opened tree.
+     * @throws IOException if problem during temporary or tree file writing.
+     * @throws StoreIndexException if problem during tree opening.
+     */
+    public <E> FileBasicRTree<E> createBasicRTree(final Iterator<? extends Map.Entry<Integer, ? extends Envelope>> entries,
+            final SplitCase choice, final TreeElementMapper<E> treeEltMap) throws IOException, StoreIndexException {
+        load(new TreeAccessFile(output, BASIC_NUMBER, VERSION_NUMBER, maxElements, choice, crs), entries);
+        return new FileBasicRTree<>(output, treeEltMap);
+    }
+
+    /**
+     * Sort all elements and write tree Nodes through given {@link TreeAccess}, which is closed at the end.
+     *
+     * @param treeAccess empty tree access opened in writing mode.
+     * @param entries tree identifier and envelope of each element.
+     * @throws IOException if problem during temporary or tree file writing.
+     */
+    private void load(final TreeAccess treeAccess, final Iterator<? extends Map.Entry<Integer, ? extends Envelope>> entries) throws IOException {
+        final Path directory = output.toAbsolutePath().getParent();
+        final List<Path> temporaries = new ArrayList<>();
+        try {
+            /*
+             * Copy elements in a temporary file and compute extent of their centers,
+             * needed to compute Hilbert values.
+             */
+            final Path input = createTemporary(directory, temporaries);
+            final double[] extent = new double[]{Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                                                 Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+            int count = 0;
+            int maxIdentifier = 0;
+            try (final RecordOutput out = new RecordOutput(input)) {
+                while (entries.hasNext()) {
+                    final Map.Entry<Integer, ? extends Envelope> entry = entries.next();
+                    final int identifier = entry.getKey();
+                    ArgumentChecks.ensureStrictlyPositive("tree identifier", identifier);
+                    final Envelope env = entry.getValue();
+                    if (!Utilities.equalsIgnoreMetadata(crs, env.getCoordinateReferenceSystem()))
+                        throw new IllegalArgumentException("During insertion element should have same CoordinateReferenceSystem as Tree.");
+                    final double[] coordinates = TreeUtilities.getCoords(env);
+                    for (double d : coordinates)
+                        if (Double.isNaN(d))
+                            throw new IllegalArgumentException("coordinates contain at least one NAN value");
+                    final double cx = centerX(coordinates);
+                    final double cy = centerY(coordinates);
+                    extent[0] = Math.min(extent[0], cx);
+                    extent[1] = Math.min(extent[1], cy);
+                    extent[2] = Math.max(extent[2], cx);
+                    extent[3] = Math.max(extent[3], cy);
+                    out.write(identifier, 0, 0, coordinates);
+                    maxIdentifier = Math.max(maxIdentifier, identifier);
+                    count++;
+                }
+            }
+            if (count > 0) {
+                final Path sorted;
+                if (order == Order.HILBERT) {
+                    final int side = 1 << HILBERT_ORDER;
+                    final double sx = (extent[2] > extent[0]) ? (side - 1) / (extent[2] - extent[0]) : 0;
+                    final double sy = (extent[3] > extent[1]) ? (side - 1) / (extent[3] - extent[1]) : 0;
+                    sorted = sort(input, count, directory, temporaries, (rank, coords, keys) -> {
+                        final int x = (int) ((centerX(coords) - extent[0]) * sx);
+                        final int y = (int) ((centerY(coords) - extent[1]) * sy);
+                        keys[0] = hilbertValue(side, x, y);
+                        keys[1] = 0;
+                    });
+                } else {
+                    final Path byX = sort(input, count, directory, temporaries, (rank, coords, keys) -> {
+                        keys[0] = centerX(coords);
+                        keys[1] = centerY(coords);
+                    });
+                    final long leafNumber  = (count + maxElements - 1) / maxElements;
+                    final long sliceLength = (long) Math.ceil(Math.sqrt(leafNumber)) * maxElements;
+                    sorted = sort(byX, count, directory, temporaries, (rank, coords, keys) -> {
+                        keys[0] = rank / sliceLength;
+                        keys[1] = centerY(coords);
+                    });
+                }
+                write(treeAccess, sorted, count, directory, temporaries);
+                treeAccess.setTreeIdentifier(maxIdentifier + 1);
+                treeAccess.setEltNumber(count);
+            }
+        } finally {
+            treeAccess.close();
+            for (Path temporary : temporaries) {
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+
+    /**
+     * Compute level boundaries from sorted elements then write all Nodes from root to data.<br/><br/>
+     *
+     * Nodes identifiers are affected level by level from root (identifier 1) to data,
+     * thus Node writing is sequential. At each level, children are distributed as evenly
+     * as possible between parents, which let all Nodes at least half full.
+     *
+     * @param treeAccess empty tree access opened in writing mode.
+     * @param sorted temporary file which contains all sorted elements.
+     * @param count number of elements.
+     */
+    private void write(final TreeAccess treeAccess, final Path sorted, final int count,
+            final Path directory, final List<Path> temporaries) throws IOException {
+        /*
+         * Node number at each level, level 0 is data level, last level contains only root Node.
+         */
+        final List<Integer> levelSizes = new ArrayList<>();
+        levelSizes.add(count);
+        int size = count;
+        do {
+            size = (size + maxElements - 1) / maxElements;
+            levelSizes.add(size);
+        } while (size > 1);
+        final int height = levelSizes.size() - 1;
+
+        /*
+         * Compute boundary of each Node level after level, from data to root.
+         */
+        final Path[] levelBoundaries = new Path[height + 1];
+        for (int level = 1; level <= height; level++) {
+            final int childNumber = levelSizes.get(level - 1);
+            final int nodeNumber  = levelSizes.get(level);
+            levelBoundaries[level] = createTemporary(directory, temporaries);
+            try (final DataOutputStream out = openOutput(levelBoundaries[level]);
+                 final BoundaryInput children = (level == 1) ? new RecordInput(sorted, count)
+                                                             : new LevelInput(levelBoundaries[level - 1])) {
+                final double[] boundary = new double[boundLength];
+                for (int k = 0; k < nodeNumber; k++) {
+                    final int groupSize = groupSize(childNumber, nodeNumber, k);
+                    System.arraycopy(children.next(), 0, boundary, 0, boundLength);
+                    for (int c = 1; c < groupSize; c++) {
+                        add(boundary, children.next());
+                    }
+                    for (double d : boundary) out.writeDouble(d);
+                }
+            }
+        }
+
+        /*
+         * Identifier of first Node of each level.
+         */
+        final int[] firstIds = new int[height + 1];
+        firstIds[height] = 1;
+        for (int level = height; level > 0; level--) {
+            firstIds[level - 1] = firstIds[level] + levelSizes.get(level);
+        }
+
+        for (int level = height; level >= 0; level--) {
+            final int nodeNumber   = levelSizes.get(level);
+            final int parentNumber = (level == height) ? 1 : levelSizes.get(level + 1);
+            try (final BoundaryInput nodes = (level == 0) ? new RecordInput(sorted, count)
+                                                          : new LevelInput(levelBoundaries[level])) {
+                int parent    = 0;
+                int parentEnd = (level == height) ? 1 : groupSize(nodeNumber, parentNumber, 0);
+                int childStart = 0;
+                for (int k = 0; k < nodeNumber; k++) {
+                    if (k == parentEnd) {
+                        parent++;
+                        parentEnd += groupSize(nodeNumber, parentNumber, parent);
+                    }
+                    final double[] boundary = nodes.next().clone();
+                    final int parentId  = (level == height) ? 0 : firstIds[level + 1] + parent;
+                    final int siblingId = (k + 1 < parentEnd) ? firstIds[level] + k + 1 : 0;
+                    final Node node;
+                    if (level == 0) {
+                        node = treeAccess.createNode(boundary, IS_DATA, parentId, siblingId, -((RecordInput) nodes).identifier);
+                    } else {
+                        final int childNumber = groupSize(levelSizes.get(level - 1), nodeNumber, k);
+                        node = treeAccess.createNode(boundary, (level == 1) ? IS_LEAF : IS_OTHER,
+                                parentId, siblingId, firstIds[level - 1] + childStart);
+                        node.setChildCount(childNumber);
+                        childStart += childNumber;
+                    }
+                    assert node.getNodeId() == firstIds[level] + k : "bulk load : unexpected Node identifier.";
+                    treeAccess.writeNode(node);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return children number of the k-th Node of a level, when {@code childNumber}
+     * children are distributed as evenly as possible between {@code nodeNumber} Nodes.
+     */
+    private static int groupSize(final int childNumber, final int nodeNumber, final int k) {
+        return childNumber / nodeNumber + ((k < childNumber % nodeNumber) ? 1 : 0);
+    }
+
+    /**
+     * Sort records from input file, in ascending keys order.<br/>
+     * At most {@link #runLength} records are sorted in memory, each sorted run is written
+     * in a temporary file, then all runs are merged.
+     *
+     * @param input temporary file which contains records to sort.
+     * @param count number of records in input file.
+     * @param keyComputer compute sort keys of each record.
+     * @return temporary file which contains sorted records.
+     */
+    private Path sort(final Path input, final int count, final Path directory, final List<Path> temporaries,
+            final KeyComputer keyComputer) throws IOException {
+        final int length = Math.min(runLength, count);
+        final int[] identifiers    = new int[length];
+        final double[] keys        = new double[length << 1];
+        final double[][] bounds    = new double[length][boundLength];
+        final Integer[] indexes    = new Integer[length];
+        final double[] recordKeys  = new double[2];
+        final List<Path> runs      = new ArrayList<>();
+        final List<Integer> runSizes = new ArrayList<>();
+        try (final RecordInput in = new RecordInput(input, count)) {
+            long rank = 0;
+            while (rank < count) {
+                final int n = (int) Math.min(length, count - rank);
+                for (int i = 0; i < n; i++) {
+                    final double[] coordinates = in.next();
+                    identifiers[i] = in.identifier;
+                    System.arraycopy(coordinates, 0, bounds[i], 0, boundLength);
+                    keyComputer.compute(rank++, coordinates, recordKeys);
+                    keys[i << 1]       = recordKeys[0];
+                    keys[(i << 1) + 1] = recordKeys[1];
+                    indexes[i] = i;
+                }
+                Arrays.sort(indexes, 0, n, (a, b) -> {
+                    final int c = Double.compare(keys[a << 1], keys[b << 1]);
+                    return (c != 0) ? c : Double.compare(keys[(a << 1) + 1], keys[(b << 1) + 1]);
+                });
+                final Path run = createTemporary(directory, temporaries);
+                try (final RecordOutput out = new RecordOutput(run)) {
+                    for (int i = 0; i < n; i++) {
+                        final int id = indexes[i];
+                        out.write(identifiers[id], keys[id << 1], keys[(id << 1) + 1], bounds[id]);
+                    }
+                }
+                runs.add(run);
+                runSizes.add(n);
+            }
+        }
+        if (runs.size() == 1) return runs.get(0);
+
+        /*
+         * k-way merge of all sorted runs.
+         */
+        final Comparator<RecordInput> comparator = (a, b) -> {
+            final int c = Double.compare(a.key1, b.key1);
+            return (c != 0) ? c : Double.compare(a.key2, b.key2);
+        };
+        final PriorityQueue<RecordInput> queue = new PriorityQueue<>(runs.size(), comparator);
+        final Path merged = createTemporary(directory, temporaries);
+        try (final RecordOutput out = new RecordOutput(merged)) {
+            for (int r = 0, s = runs.size(); r < s; r++) {
+                final RecordInput run = new RecordInput(runs.get(r), runSizes.get(r));
+                run.next();
+                queue.add(run);
+            }
+            while (!queue.isEmpty()) {
+                final RecordInput run = queue.poll();
+                out.write(run.identifier, run.key1, run.key2, run.coordinates);
+                if (run.hasNext()) {
+                    run.next();
+                    queue.add(run);
+                } else {
+                    run.close();
+                }
+            }
+        } finally {
+            for (RecordInput run : queue) run.close();
+        }
+        return merged;
+    }
+
+    /**
+     * Return center of element on first axis.
+     */
+    private double centerX(final double[] coordinates) {
+        return (coordinates[0] + coordinates[boundLength >> 1]) / 2;
+    }
+
+    /**
+     * Return center of element on second axis, or on first axis if tree space has only one dimension.
+     */
+    private double centerY(final double[] coordinates) {
+        final int dim = boundLength >> 1;
+        final int axis = (dim > 1) ? 1 : 0;
+        return (coordinates[axis] + coordinates[dim + axis]) / 2;
+    }
+
+    /**
+     * Return distance along Hilbert curve of a cell in a square grid.
+     *
+     * @param side grid side length, power of two.
+     * @param x cell column.
+     * @param y cell row.
+     * @return Hilbert value of cell.
+     */
+    static long hilbertValue(final int side, int x, int y) {
+        long d = 0;
+        for (int s = side >>> 1; s > 0; s >>>= 1) {
+            final int rx = ((x & s) > 0) ? 1 : 0;
+            final int ry = ((y & s) > 0) ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = side - 1 - x;
+                    y = side - 1 - y;
+                }
+                final int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+
+    private static Path createTemporary(final Path directory, final List<Path> temporaries) throws IOException {
+        final Path temporary = (directory != null) ? Files.createTempFile(directory, "bulk", ".tmp")
+                                                   : Files.createTempFile("bulk", ".tmp");
+        temporaries.add(temporary);
+        return temporary;
+    }
+
+    private static DataOutputStream openOutput(final Path path) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+    }
+
+    /**
+     * Compute sort keys of a record.
+     */
+    @FunctionalInterface
+    private interface KeyComputer {
+        /**
+         * @param rank position of record in file being sorted.
+         * @param coordinates record boundary.
+         * @param keys table of length 2 where primary and secondary keys are written.
+         */
+        void compute(long rank, double[] coordinates, double[] keys);
+    }
+
+    /**
+     * Sequential reader of Node boundaries.
+     */
+    private interface BoundaryInput extends Closeable {
+        /**
+         * Return next boundary, the returned table may be overwritten by next call.
+         */
+        double[] next() throws IOException;
+    }
+
+    /**
+     * Reader of a level file, which contains only Node boundaries.
+     */
+    private final class LevelInput implements BoundaryInput {
+        private final DataInputStream in;
+        private final double[] boundary = new double[boundLength];
+
+        LevelInput(final Path path) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16));
+        }
+
+        @Override
+        public double[] next() throws IOException {
+            for (int i = 0; i < boundLength; i++) boundary[i] = in.readDouble();
+            return boundary;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Reader of a record file : tree identifier, sort keys and boundary of each element.
+     */
+    private final class RecordInput implements BoundaryInput {
+        private final DataInputStream in;
+        private int remaining;
+        int identifier;
+        double key1, key2;
+        final double[] coordinates = new double[boundLength];
+
+        RecordInput(final Path path, final int count) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16));
+            remaining = count;
+        }
+
+        boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public double[] next() throws IOException {
+            remaining--;
+            identifier = in.readInt();
+            key1 = in.readDouble();
+            key2 = in.readDouble();
+            for (int i = 0; i < boundLength; i++) coordinates[i] = in.readDouble();
+            return coordinates;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Writer of a record file.
+     */
+    private static final class RecordOutput implements Closeable {
+        private final DataOutputStream out;
+
+        RecordOutput(final Path path) throws IOException {
+            out = openOutput(path);
+        }
+
+        void write(final int identifier, final double key1, final double key2, final double[] coordinates) throws IOException {
+            out.writeInt(identifier);
+            out.writeDouble(key1);
+            out.writeDouble(key2);
+            for (double d : coordinates) out.writeDouble(d);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.geotoolkit.index.tree.hilbert;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
 import org.apache.sis.util.ArraysExt;
 import org.geotoolkit.index.tree.Node;
@@ -85,33 +86,26 @@ abstract strictfp class HilbertChannelTreeAccess extends ChannelTreeAccess {
      * {@inheritDoc }.
      */
     @Override
-    public void internalSearch(int nodeID) throws IOException {
-        adjustBuffer(nodeID);
+    public void internalSearch(int nodeID, final SearchContext context) throws IOException {
+        final ByteBuffer nodeBuffer = readNodeBytes(nodeID, context);
         final double[] boundary = new double[boundLength];
         for (int i = 0; i < boundLength; i++) {
-            boundary[i] = byteBuffer.getDouble();
+            boundary[i] = nodeBuffer.getDouble();
         }
-        byteBuffer.position(byteBuffer.position() + 5);// step properties (1 byte) and step parent ID (int : 4 bytes)
-        final int sibling = byteBuffer.getInt();
-        final int child   = byteBuffer.getInt();
-        byteBuffer.position(byteBuffer.position() + 12);// step hilbertOrder, step child count and step dataCount
+        nodeBuffer.position(nodeBuffer.position() + 5);// step properties (1 byte) and step parent ID (int : 4 bytes)
+        final int sibling = nodeBuffer.getInt();
+        final int child   = nodeBuffer.getInt();
         if (sibling != 0) {
-            internalSearch(sibling);
+            internalSearch(sibling, context);
         }
         // trouver a ameliorer avec les valeurs de hilbert qui aide en cas de feuille
-        if (!ArraysExt.hasNaN(boundary) && intersects(boundary, regionSearch, true)) {
+        if (!ArraysExt.hasNaN(boundary) && intersects(boundary, context.getRegionSearch(), true)) {
             if (child > 0) {
-                internalSearch(child);
+                internalSearch(child, context);
             } else {
                 if (child == 0)
                     throw new IllegalStateException("child index should never be 0.");
-                if (currentPosition == currentLength) {
-                    currentLength = currentLength << 1;
-                    final int[] tabTemp = tabSearch;
-                    tabSearch = new int[currentLength];
-                    System.arraycopy(tabTemp, 0, tabSearch, 0, currentPosition);
-                }
-                tabSearch[currentPosition++] = -child;
+                context.add(-child);
             }
         }
     }
@@ -26,6 +26,9 @@ import java.util.logging.Level;
 import org.geotoolkit.index.tree.StoreIndexException;
 import org.geotoolkit.index.tree.Tree;
 import org.geotoolkit.index.tree.star.FileStarRTree;
+import org.geotoolkit.index.tree.star.StarRTree;
+import org.geotoolkit.internal.tree.TreeAccessMapped;
+import org.geotoolkit.internal.tree.TreeUtilities;
 
 /**
  *
@@ -34,6 +37,20 @@ import org.geotoolkit.index.tree.star.FileStarRTree;
 public class FileRtreeManager extends AbstractRtreeManager {
 
     public static Tree<NamedEnvelope> get(final Path directory, final Object owner) {
+        return get(directory, owner, false);
+    }
+
+    /**
+     * Return the tree stored in given directory, opening or creating it if needed.
+     *
+     * @param directory directory which contains tree and mapper files.
+     * @param owner object which use the tree.
+     * @param memoryMapped {@code true} to read and write tree Nodes through a memory mapped file
+     *        (see {@link TreeAccessMapped}), {@code false} to use a buffered channel.
+     *        Only used when the tree is not already opened.
+     * @return opened tree, or {@code null} if it could not be created.
+     */
+    public static Tree<NamedEnvelope> get(final Path directory, final Object owner, final boolean memoryMapped) {
         Tree<NamedEnvelope> tree = CACHED_TREES.get(directory);
         if (tree == null || tree.isClosed()) {
             final Path treeFile   = directory.resolve("tree.bin");
@@ -41,12 +58,17 @@ public class FileRtreeManager extends AbstractRtreeManager {
             if (Files.exists(treeFile)) {
 
                 try {
-                    tree = new FileStarRTree<>(treeFile.toFile().toPath(), new LuceneFileTreeEltMapper(mapperFile.toFile(), DEFAULT_CRS));//ecrire crs dans constructeur
+                    final LuceneFileTreeEltMapper mapper = new LuceneFileTreeEltMapper(mapperFile.toFile(), DEFAULT_CRS);
+                    if (memoryMapped) {
+                        tree = new StarRTree<>(new TreeAccessMapped(treeFile, TreeUtilities.STAR_NUMBER, TreeUtilities.VERSION_NUMBER), mapper);
+                    } else {
+                        tree = new FileStarRTree<>(treeFile.toFile().toPath(), mapper);//ecrire crs dans constructeur
+                    }
                 } catch (ClassNotFoundException | IllegalArgumentException | StoreIndexException | IOException ex) {
                     LOGGER.log(Level.SEVERE, null, ex);
                 }
             } else {
-                tree = buildNewTree(directory);
+                tree = buildNewTree(directory, memoryMapped);
             }
             final List<Object> owners = new ArrayList<>();
             owners.add(owner);
@@ -62,7 +84,7 @@ public class FileRtreeManager extends AbstractRtreeManager {
         return tree;
     }
 
-    private static Tree buildNewTree(final Path directory) {
+    private static Tree buildNewTree(final Path directory, final boolean memoryMapped) {
         if (Files.exists(directory)) {
             try {
                 //creating tree (R-Tree)------------------------------------------------
@@ -70,7 +92,11 @@ public class FileRtreeManager extends AbstractRtreeManager {
                 final Path mapperFile = directory.resolve("mapper.bin");
                 Files.createFile(treeFile);
                 Files.createFile(mapperFile);
-                return new FileStarRTree(treeFile, 5, DEFAULT_CRS, new LuceneFileTreeEltMapper(DEFAULT_CRS, mapperFile.toFile()));
+                final LuceneFileTreeEltMapper mapper = new LuceneFileTreeEltMapper(DEFAULT_CRS, mapperFile.toFile());
+                if (memoryMapped) {
+                    return new StarRTree(new TreeAccessMapped(treeFile, TreeUtilities.STAR_NUMBER, TreeUtilities.VERSION_NUMBER, 5, null, DEFAULT_CRS), mapper);
+                }
+                return new FileStarRTree(treeFile, 5, DEFAULT_CRS, mapper);
 
             } catch (IOException ex) {
                 LOGGER.log(Level.WARNING, "Unable to create file to write Tree", ex);
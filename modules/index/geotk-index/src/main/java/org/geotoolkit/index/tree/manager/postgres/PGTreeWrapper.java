@@ -68,6 +68,18 @@ public class PGTreeWrapper implements Tree {
         return rTree.search(regionSearch);
     }
 
+    @Override
+    public int[] nearest(double[] point, int k) throws StoreIndexException {
+        updateTree();
+        return rTree.nearest(point, k);
+    }
+
+    @Override
+    public int[] searchWithin(double[] point, double distance) throws StoreIndexException {
+        updateTree();
+        return rTree.searchWithin(point, distance);
+    }
+
     @Override
     public int insert(Object object) throws StoreIndexException {
         return rTree.insert(object);
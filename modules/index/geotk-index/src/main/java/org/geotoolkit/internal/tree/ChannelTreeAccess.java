@@ -22,6 +22,7 @@ import java.io.ObjectOutputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.Channel;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.util.Arrays;
 import org.apache.sis.referencing.CRS;
@@ -365,45 +366,103 @@ public abstract strictfp class ChannelTreeAccess extends TreeAccess {
         byteBuffer.position(rwIndex);
     }
 
+    /**
+     * {@inheritDoc }
+     * <br>
+     * Modified Nodes which are not yet written are first pushed into the channel,
+     * then each search reads Nodes through its own buffer, without moving the shared {@link #byteBuffer} window.
+     */
+    @Override
+    public int[] search(int nodeID, double[] regionSearch) throws IOException {
+        writeBufferedNodes();
+        return super.search(nodeID, regionSearch);
+    }
+
     /**
      * {@inheritDoc }
      */
     @Override
-    public void internalSearch(int nodeID) throws IOException {
-        adjustBuffer(nodeID);
+    public void internalSearch(int nodeID, final SearchContext context) throws IOException {
+        final ByteBuffer nodeBuffer = readNodeBytes(nodeID, context);
         final double[] boundary = new double[boundLength];
         for (int i = 0; i < boundLength; i++) {
-            boundary[i] = byteBuffer.getDouble();
+            boundary[i] = nodeBuffer.getDouble();
         }
-        byteBuffer.position(byteBuffer.position() + 5);// step properties (1 byte) and step parent ID (int  : 4 byte)
-        final int sibling = byteBuffer.getInt();
-        final int child   = byteBuffer.getInt();
-        byteBuffer.position(byteBuffer.position() + 4);// step child count
+        nodeBuffer.position(nodeBuffer.position() + 5);// step properties (1 byte) and step parent ID (int  : 4 byte)
+        final int sibling = nodeBuffer.getInt();
+        final int child   = nodeBuffer.getInt();
         if (sibling != 0) {
-            internalSearch(sibling);
+            internalSearch(sibling, context);
         }
-        if (intersects(boundary, regionSearch, true)) {
+        if (intersects(boundary, context.getRegionSearch(), true)) {
             if (child > 0) {
-                internalSearch(child);
+                internalSearch(child, context);
             } else {
                 if (child == 0)
                     throw new IllegalStateException("child index should never be 0.");
-                if (currentPosition == currentLength) {
-                    currentLength = currentLength << 1;
-                    final int[] tabTemp = tabSearch;
-                    tabSearch = new int[currentLength];
-                    System.arraycopy(tabTemp, 0, tabSearch, 0, currentPosition);
+                context.add(-child);
+            }
+        }
+    }
+
+    /**
+     * Write into channel all Nodes modified in the current {@link #byteBuffer} window,
+     * so that following channel reads see them.
+     *
+     * @throws IOException if problem during channel writing.
+     */
+    protected synchronized void writeBufferedNodes() throws IOException {
+        if (writeBufferLimit == 0) return;
+        final ByteBuffer pending = byteBuffer.duplicate();
+        pending.position(0);
+        pending.limit(writeBufferLimit);
+        inOutChannel.position(currentBufferPosition);
+        while (pending.hasRemaining()) {
+            inOutChannel.write(pending);
+        }
+        inOutChannel.position(currentBufferPosition);
+        writeBufferLimit = 0;
+    }
+
+    /**
+     * Read all bytes of a Node from channel, into a buffer owned by the given search.<br/>
+     * When channel is a {@link FileChannel} positional reads are used, which may be done by many threads at the same time.
+     *
+     * @param nodeID identifier of Node to read.
+     * @param context current search.
+     * @return a buffer positioned at Node begining, which contains {@link #nodeSize} bytes.
+     * @throws IOException if problem during channel reading.
+     */
+    protected ByteBuffer readNodeBytes(final int nodeID, final SearchContext context) throws IOException {
+        final ByteBuffer nodeBuffer = context.getNodeBuffer(nodeSize);
+        nodeBuffer.limit(nodeSize);
+        final long nodePosition = beginPosition + (long) (nodeID - 1) * nodeSize;
+        if (inOutChannel instanceof FileChannel) {
+            final FileChannel fileChannel = (FileChannel) inOutChannel;
+            while (nodeBuffer.hasRemaining()) {
+                if (fileChannel.read(nodeBuffer, nodePosition + nodeBuffer.position()) < 0) break;
+            }
+        } else {
+            synchronized (this) {
+                final long position = inOutChannel.position();
+                inOutChannel.position(nodePosition);
+                while (nodeBuffer.hasRemaining()) {
+                    if (inOutChannel.read(nodeBuffer) < 0) break;
                 }
-                tabSearch[currentPosition++] = -child;
+                inOutChannel.position(position);
             }
         }
+        if (nodeBuffer.hasRemaining())
+            throw new IOException("Unexpected end of tree channel during Node "+nodeID+" reading.");
+        nodeBuffer.flip();
+        return nodeBuffer;
     }
 
     /**
      * {@inheritDoc }
      */
     @Override
-    public Node readNode(int indexNode) throws IOException {
+    public synchronized Node readNode(int indexNode) throws IOException {
         adjustBuffer(indexNode);
         final double[] boundary = new double[boundLength];
         for (int i = 0; i < boundLength; i++) {
@@ -423,7 +482,7 @@ public abstract strictfp class ChannelTreeAccess extends TreeAccess {
      * {@inheritDoc }
      */
     @Override
-    public void writeNode(Node candidate) throws IOException {
+    public synchronized void writeNode(Node candidate) throws IOException {
         final int indexNode    = candidate.getNodeId();
         adjustBuffer(indexNode);
         writeBufferLimit = Math.max(writeBufferLimit, byteBuffer.limit());
@@ -488,7 +547,7 @@ public abstract strictfp class ChannelTreeAccess extends TreeAccess {
      * {@inheritDoc }
      */
     @Override
-    public void flush() throws IOException {
+    public synchronized void flush() throws IOException {
 
         byteBuffer.position(0);
         byteBuffer.limit(writeBufferLimit);
@@ -21,6 +21,7 @@ import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.PriorityQueue;
 import org.geotoolkit.index.tree.AbstractTree;
 import org.geotoolkit.index.tree.Node;
 import org.geotoolkit.index.tree.StoreIndexException;
@@ -67,22 +68,6 @@ public abstract class TreeAccess {
      */
     protected int nodeId = 1;
 
-    /**
-     * Table which contain all search result Node identifier.
-     */
-    protected int[] tabSearch;
-
-    /**
-     * Search table attributs.
-     */
-    protected int currentLength;
-    protected int currentPosition;
-
-    /**
-     * boundary of search region.
-     */
-    protected double[] regionSearch;
-
     /**
      * Store treeIdentifier when user call close method from tree.
      *
@@ -134,29 +119,88 @@ public abstract class TreeAccess {
     }
 
     /**
-     * Find all value stored in Tree which intersect region search.
+     * Find all value stored in Tree which intersect region search.<br/><br/>
+     *
+     * All search state is held by a {@link SearchContext} owned by the calling thread,
+     * so many searches may travel the same {@code TreeAccess} at the same time,
+     * as long as no Node is written meanwhile.
      *
      * @param nodeID Node identifier where search begin. Generaly begin at node identifier.
      * @param regionSearch boundary of search region.
      * @return integer table which contain all value stored in Tree which intersect region search.
      * @throws IOException if read or write Exception in {@link TreeAccessFile} implementation.
+     * @see AbstractTree#searchID(org.opengis.geometry.Envelope)
      */
-    public synchronized int[] search(int nodeID, double[] regionSearch) throws IOException {
-        currentLength     = 100;
-        tabSearch         = new int[currentLength];
-        currentPosition   = 0;
-        this.regionSearch = regionSearch;
-        internalSearch(nodeID);
-        return Arrays.copyOf(tabSearch, currentPosition);
+    public int[] search(int nodeID, double[] regionSearch) throws IOException {
+        final SearchContext context = new SearchContext(regionSearch);
+        internalSearch(nodeID, context);
+        return context.toArray();
     }
 
     /**
-     * Search method adapted for implementation.
+     * Find values stored in Tree nearest to a point, from nearest to farthest.<br/><br/>
+     *
+     * Nodes are traveled best first : a priority queue ordered by minimum distance between
+     * point and Node boundary is filled with visited Node children, and a stored value is
+     * returned when it comes out of the queue, because no other value may then be nearer.
+     *
+     * @param nodeID Node identifier where search begin. Generaly begin at root node identifier.
+     * @param point coordinates in Tree {@link CoordinateReferenceSystem}.
+     * @param k maximum result number.
+     * @param maxDistance maximum distance between point and stored values boundaries.
+     * @return integer table which contain nearest values stored in Tree, ordered by distance.
+     * @throws IOException if read Exception in {@link TreeAccessFile} implementation.
+     * @see AbstractTree#nearest(double[], int)
+     * @see AbstractTree#searchWithin(double[], double)
+     */
+    public int[] nearest(final int nodeID, final double[] point, final int k, final double maxDistance) throws IOException {
+        final double maxSquared = maxDistance * maxDistance;
+        final PriorityQueue<NearestCandidate> queue = new PriorityQueue<>();
+        int[] result = new int[Math.min(k, 100)];
+        int count = 0;
+        offerNearest(queue, readNode(nodeID), point, maxSquared);
+        while (count < k && !queue.isEmpty()) {
+            final int childId = queue.poll().childId;
+            if (childId < 0) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, (int) Math.min((long) k, (long) count << 1));
+                }
+                result[count++] = -childId;
+            } else {
+                int sibling = childId;
+                while (sibling != 0) {
+                    final Node child = readNode(sibling);
+                    offerNearest(queue, child, point, maxSquared);
+                    sibling = child.getSiblingId();
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Add a {@link Node} into nearest search queue, if it is not empty and not too far from searched point.
+     */
+    private static void offerNearest(final PriorityQueue<NearestCandidate> queue, final Node candidate,
+            final double[] point, final double maxSquared) {
+        final double[] boundary = candidate.getBoundary();
+        if (boundary == null || candidate.getChildId() == 0) return;
+        final double distance = TreeUtilities.getMinimumSquaredDistance(boundary, point);
+        if (distance <= maxSquared) {
+            queue.add(new NearestCandidate(distance, candidate.getChildId()));
+        }
+    }
+
+    /**
+     * Search method adapted for implementation.<br/>
+     * Implementations should only read Nodes and store results into the given context,
+     * without modifying any shared state.
      *
      * @param nodeID current Node identifier search
+     * @param context search area and results of the current search.
      * @throws IOException if read or write Exception in {@link TreeAccessFile} implementation.
      */
-    public abstract void internalSearch(int nodeID) throws IOException;
+    public abstract void internalSearch(int nodeID, SearchContext context) throws IOException;
 
     /**
      * Read Node at specified Node identifier.
@@ -325,4 +369,118 @@ public abstract class TreeAccess {
         final int currentID = (recycleID.isEmpty()) ? nodeId++ : recycleID.remove(0);
         return new Node(this, currentID, boundary, properties, parentId, siblingId, childId);
     }
+
+    /**
+     * Element of nearest search queue.<br/>
+     * Only Node child identifier is kept, which is a stored value for data Nodes.
+     */
+    private static final class NearestCandidate implements Comparable<NearestCandidate> {
+
+        /**
+         * Square of minimum distance between searched point and Node boundary.
+         */
+        private final double distance;
+
+        /**
+         * Child identifier of queued Node.
+         */
+        private final int childId;
+
+        NearestCandidate(final double distance, final int childId) {
+            this.distance = distance;
+            this.childId  = childId;
+        }
+
+        /**
+         * Nearest first, and data Nodes before others at same distance.
+         */
+        @Override
+        public int compareTo(final NearestCandidate other) {
+            final int cmp = Double.compare(distance, other.distance);
+            if (cmp != 0) return cmp;
+            return Integer.compare(childId, other.childId);
+        }
+    }
+
+    /**
+     * Search area and results of one search.<br/>
+     * A new context is created for each search, which allow concurrent searches on a same {@link TreeAccess}.
+     */
+    public static final class SearchContext {
+
+        /**
+         * boundary of search region.
+         */
+        private final double[] regionSearch;
+
+        /**
+         * Table which contain all search result Node identifier.
+         */
+        private int[] tabSearch;
+
+        /**
+         * Number of result stored in {@link #tabSearch}.
+         */
+        private int currentPosition;
+
+        /**
+         * Buffer use to read Node by {@link ChannelTreeAccess} implementations.
+         * Lazily created.
+         */
+        private ByteBuffer nodeBuffer;
+
+        /**
+         * Create a context for a search on specified region.
+         *
+         * @param regionSearch boundary of search region.
+         */
+        SearchContext(final double[] regionSearch) {
+            this.regionSearch = regionSearch;
+            this.tabSearch    = new int[100];
+        }
+
+        /**
+         * Return boundary of search region.
+         *
+         * @return boundary of search region.
+         */
+        public double[] getRegionSearch() {
+            return regionSearch;
+        }
+
+        /**
+         * Add a tree identifier in search results.
+         *
+         * @param treeIdentifier value stored in a data Node.
+         */
+        public void add(final int treeIdentifier) {
+            if (currentPosition == tabSearch.length) {
+                tabSearch = Arrays.copyOf(tabSearch, currentPosition << 1);
+            }
+            tabSearch[currentPosition++] = treeIdentifier;
+        }
+
+        /**
+         * Return a buffer of at least given capacity owned by this search.
+         *
+         * @param capacity minimum buffer capacity in Byte unit.
+         * @return cleared buffer.
+         */
+        public ByteBuffer getNodeBuffer(final int capacity) {
+            if (nodeBuffer == null || nodeBuffer.capacity() < capacity) {
+                nodeBuffer = ByteBuffer.allocate(capacity);
+            }
+            nodeBuffer.clear();
+            return nodeBuffer;
+        }
+
+        /**
+         * Return all search results.
+         *
+         * @return integer table which contain all value stored in Tree which intersect region search.
+         */
+        int[] toArray() {
+            return Arrays.copyOf(tabSearch, currentPosition);
+        }
+    }
 }
@@ -0,0 +1,284 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.internal.tree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import org.geotoolkit.index.tree.Node;
+import org.geotoolkit.index.tree.basic.SplitCase;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+/**
+ * {@link TreeAccess} implementation.<br>
+ * Store all {@link Node} architecture use by {@link Tree} on disk drive, in same format as {@link TreeAccessFile},
+ * but read and write Nodes through memory mapped file segments instead of a {@link ByteBuffer} window.<br><br>
+ *
+ * Segments are mapped when a Node within them is first visited, which also extends the file when needed.
+ * A segment is first mapped on a small power of two length, and mapped again twice larger when
+ * a Node beyond its end is visited, so a small tree file does not grow to a whole segment.
+ * File is truncated after the last Node on {@link #close() }.
+ * Searches read Node boundaries straight from mapped pages, without any system call nor copy,
+ * and may be done by many threads at the same time.
+ */
+public class TreeAccessMapped extends ChannelTreeAccess {
+
+    /**
+     * Number of Integer per Node.<br><br>
+     * parent ID<br>
+     * sibling ID<br>
+     * child ID<br>
+     * children number.
+     *
+     * @see TreeAccessFile
+     */
+    private static final int INT_NUMBER = 4;
+
+    /**
+     * Approximative length in Byte unit of each mapped file segment.
+     */
+    private static final int SEGMENT_LENGTH = 1 << 26;
+
+    /**
+     * Smallest mapped length in Byte unit.
+     */
+    private static final int MIN_MAPPED_LENGTH = 1 << 12;
+
+    /**
+     * Channel from which segments are mapped.
+     */
+    private final FileChannel fileChannel;
+
+    /**
+     * Number of Nodes within each segment. A Node never overlaps two segments.
+     */
+    private final int nodesPerSegment;
+
+    /**
+     * Already mapped segments, {@code null} elements for segments not yet visited.<br>
+     * Array is replaced (never modified) when a segment is mapped, to let concurrent readers use it without lock.<br>
+     * Note : no initial value, this field stay {@code null} while parent constructor read tree root.
+     */
+    private volatile MappedByteBuffer[] segments;
+
+    /**
+     * Open a {@link TreeAccess} from an already filled file at {@link Path} location.
+     *
+     * @param input {@code Path} which already contains {@link Node} architecture.
+     * @param magicNumber {@code Integer} single {@link Tree} code.
+     * @param versionNumber tree version.
+     * @throws IOException if problem during read or write Node.
+     */
+    public TreeAccessMapped(final Path input, final int magicNumber, final double versionNumber) throws IOException {
+        super(FileChannel.open(input, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE),
+                magicNumber, versionNumber, DEFAULT_BUFFER_LENGTH, INT_NUMBER);
+        fileChannel     = (FileChannel) inOutChannel;
+        nodesPerSegment = Math.max(1, SEGMENT_LENGTH / nodeSize);
+        segments        = new MappedByteBuffer[0];
+    }
+
+    /**
+     * Build and insert {@link Node} architecture in a file at {@link Path} location.<br>
+     * If file is not empty, data within it will be overwrite.<br>
+     * If file does not exist a file will be create.
+     *
+     * @param outPut {@code Path} where {@link Node} architecture which will be write.
+     * @param magicNumber {@code Integer} single {@link Tree} code.
+     * @param versionNumber version number.
+     * @param maxElements element number per cell.
+     * @param splitMade define how to split a {@link Node}, only use by {@link BasicRTree}, may be {@code null} for other tree.
+     * @param crs
+     * @throws IOException if problem during read or write Node.
+     */
+    public TreeAccessMapped(final Path outPut, final int magicNumber, final double versionNumber, final int maxElements,
+            final SplitCase splitMade, final CoordinateReferenceSystem crs) throws IOException {
+        super(FileChannel.open(outPut, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING),
+                magicNumber, versionNumber, maxElements, 0, splitMade, crs, DEFAULT_BUFFER_LENGTH, INT_NUMBER);
+        fileChannel     = (FileChannel) inOutChannel;
+        nodesPerSegment = Math.max(1, SEGMENT_LENGTH / nodeSize);
+        segments        = new MappedByteBuffer[0];
+    }
+
+    /**
+     * Return segment which contains Node at specified identifier, mapping it if not already done.
+     *
+     * @param nodeID Node identifier.
+     * @return mapped segment.
+     * @throws IOException if problem during file mapping.
+     */
+    private MappedByteBuffer segment(final int nodeID) throws IOException {
+        final int index = (nodeID - 1) / nodesPerSegment;
+        final int end   = offset(nodeID) + nodeSize;
+        final MappedByteBuffer[] current = segments;
+        if (index < current.length) {
+            final MappedByteBuffer segment = current[index];
+            if (segment != null && segment.capacity() >= end) return segment;
+        }
+        return mapSegment(index, end);
+    }
+
+    /**
+     * Map segment at specified index, or map it again if it is too short.<br>
+     * Mapped length is the next power of two of the required length, capped to the segment length.
+     *
+     * @param index segment index.
+     * @param end minimum mapped length in Byte unit.
+     * @return mapped segment.
+     * @throws IOException if problem during file mapping.
+     */
+    private synchronized MappedByteBuffer mapSegment(final int index, final int end) throws IOException {
+        MappedByteBuffer[] current = segments;
+        if (index < current.length && current[index] != null && current[index].capacity() >= end) return current[index];
+        final long segmentLength = (long) nodesPerSegment * nodeSize;
+        final long length = Math.min(segmentLength, Math.max(MIN_MAPPED_LENGTH, Long.highestOneBit(end - 1L) << 1));
+        final MappedByteBuffer segment = fileChannel.map(FileChannel.MapMode.READ_WRITE,
+                beginPosition + index * segmentLength, length);
+        current = Arrays.copyOf(current, Math.max(current.length, index + 1));
+        current[index] = segment;
+        segments = current;
+        return segment;
+    }
+
+    /**
+     * Return position of specified Node within its segment.
+     */
+    private int offset(final int nodeID) {
+        return ((nodeID - 1) % nodesPerSegment) * nodeSize;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void internalSearch(int nodeID, final SearchContext context) throws IOException {
+        final MappedByteBuffer segment = segment(nodeID);
+        final int offset = offset(nodeID);
+        final double[] regionSearch = context.getRegionSearch();
+        final int dim = boundLength >> 1;
+        boolean intersects = true;
+        for (int i = 0, d = dim; i < dim; i++, d++) {
+            final double low = Math.max(segment.getDouble(offset + (i << 3)), regionSearch[i]);
+            final double upp = Math.min(segment.getDouble(offset + (d << 3)), regionSearch[d]);
+            if (low > upp) {
+                intersects = false;
+                break;
+            }
+        }
+        final int intOffset = offset + (boundLength << 3) + 5;// step properties (1 byte) and step parent ID (int  : 4 byte)
+        final int sibling = segment.getInt(intOffset);
+        final int child   = segment.getInt(intOffset + 4);
+        if (sibling != 0) {
+            internalSearch(sibling, context);
+        }
+        if (intersects) {
+            if (child > 0) {
+                internalSearch(child, context);
+            } else {
+                if (child == 0)
+                    throw new IllegalStateException("child index should never be 0.");
+                context.add(-child);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Node readNode(int indexNode) throws IOException {
+        if (segments == null) {
+            // called by parent constructor, before segments are mapped.
+            return super.readNode(indexNode);
+        }
+        final MappedByteBuffer segment = segment(indexNode);
+        int offset = offset(indexNode);
+        final double[] boundary = new double[boundLength];
+        for (int i = 0; i < boundLength; i++, offset += 8) {
+            boundary[i] = segment.getDouble(offset);
+        }
+        final byte properties  = segment.get(offset);
+        final int parentId     = segment.getInt(offset + 1);
+        final int siblingId    = segment.getInt(offset + 5);
+        final int childId      = segment.getInt(offset + 9);
+        final int childCount   = segment.getInt(offset + 13);
+        final Node redNode = new Node(this, indexNode, boundary, properties, parentId, siblingId, childId);
+        redNode.setChildCount(childCount);
+        return redNode;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void writeNode(Node candidate) throws IOException {
+        final int indexNode = candidate.getNodeId();
+        final MappedByteBuffer segment = segment(indexNode);
+        int offset = offset(indexNode);
+        double[] candidateBound = candidate.getBoundary();
+        if (candidateBound == null) candidateBound = nanBound;
+        for (int i = 0; i < boundLength; i++, offset += 8) {
+            segment.putDouble(offset, candidateBound[i]);
+        }
+        segment.put(offset, candidate.getProperties());
+        segment.putInt(offset + 1,  candidate.getParentId());
+        segment.putInt(offset + 5,  candidate.getSiblingId());
+        segment.putInt(offset + 9,  candidate.getChildId());
+        segment.putInt(offset + 13, candidate.getChildCount());
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        for (MappedByteBuffer segment : segments) {
+            if (segment != null) segment.force();
+        }
+        // write nodeID
+        final ByteBuffer head = ByteBuffer.allocate(12);
+        head.putInt(nodeId);
+        head.putInt(treeIdentifier);
+        head.putInt(eltNumber);
+        head.flip();
+        long position = 22;
+        while (head.hasRemaining()) {
+            position += fileChannel.write(head, position);
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     * <br>
+     * Mapped segments are released by garbage collector.
+     * File is truncated after the last Node, to remove mapped but unused space.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        segments = new MappedByteBuffer[0];
+        final long length = beginPosition + (long) (nodeId - 1) * nodeSize;
+        if (fileChannel.size() > length) {
+            fileChannel.truncate(length);
+        }
+        fileChannel.close();
+    }
+}
@@ -17,6 +17,7 @@
 package org.geotoolkit.internal.tree;
 
 import java.io.IOException;
+import org.geotoolkit.index.tree.AbstractTree;
 import org.geotoolkit.index.tree.Node;
 import static org.geotoolkit.internal.tree.TreeUtilities.intersects;
 import org.geotoolkit.index.tree.basic.SplitCase;
@@ -37,7 +38,7 @@ public class TreeAccessMemory extends TreeAccess {
     /**
      * Table which contains current stored {@link Node} from {@link Tree}.
      */
-    private Node[] tabNode;
+    private volatile Node[] tabNode;
 
     /**
      * {@code true} if {@link TreeAccessMemory#close() } has already been called.
@@ -63,21 +64,15 @@ public class TreeAccessMemory extends TreeAccess {
      * {@inheritDoc }.
      */
     @Override
-    public void internalSearch(int nodeID) throws IOException {
+    public void internalSearch(int nodeID, final SearchContext context) throws IOException {
         final Node candidate = readNode(nodeID);
-        if (!candidate.isEmpty() && intersects(regionSearch, candidate.getBoundary(), true)) {
+        if (!candidate.isEmpty() && intersects(context.getRegionSearch(), candidate.getBoundary(), true)) {
             if (candidate.isData()) {
-                if (currentPosition == currentLength) {
-                    currentLength = currentLength << 1;
-                    final int[] tabTemp = tabSearch;
-                    tabSearch = new int[currentLength];
-                    System.arraycopy(tabTemp, 0, tabSearch, 0, currentPosition);
-                }
-                tabSearch[currentPosition++] = -candidate.getChildId();// childID is value in data
+                context.add(-candidate.getChildId());// childID is value in data
             } else {
                 int sibl = candidate.getChildId();
                 while (sibl != 0) {
-                    internalSearch(sibl);
+                    internalSearch(sibl, context);
                     final Node currentChild = readNode(sibl);
                     sibl = currentChild.getSiblingId();
                 }
@@ -86,10 +81,12 @@ public class TreeAccessMemory extends TreeAccess {
     }
 
     /**
-     * {@inheritDoc }.
+     * {@inheritDoc }.<br/>
+     * Not synchronized to let concurrent searches read Nodes at the same time,
+     * writers are excluded by the {@link AbstractTree} lock.
      */
     @Override
-    public synchronized Node readNode(int indexNode) throws IOException {
+    public Node readNode(int indexNode) throws IOException {
         return tabNode[indexNode-1];
     }
 
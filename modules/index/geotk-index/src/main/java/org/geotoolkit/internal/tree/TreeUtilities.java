@@ -333,6 +333,32 @@ public class TreeUtilities {
         return true;
     }
 
+    /**
+     * Compute square of the minimum Euclidean distance between a point and an envelope.<br/>
+     * Distance is 0 if point is within envelope.
+     *
+     * @param envelope envelope coordinates.
+     * @param point point coordinates.
+     * @return square of the distance between point and nearest envelope position.
+     */
+    public static double getMinimumSquaredDistance(final double[] envelope, final double[] point) {
+        final int dim = envelope.length >> 1;
+        assert (dim == point.length) :"getMinimumSquaredDistance : envelope and point should have same dimension number.";
+        double distance = 0;
+        for (int i = 0, d = dim; i < dim; i++, d++) {
+            final double delta;
+            if (point[i] < envelope[i]) {
+                delta = envelope[i] - point[i];
+            } else if (point[i] > envelope[d]) {
+                delta = point[i] - envelope[d];
+            } else {
+                continue;
+            }
+            distance += delta * delta;
+        }
+        return distance;
+    }
+
     /**Compute {@code Envelope} area in euclidean cartesian space.
      */
     public static double getArea(final double[] envelope){
@@ -21,6 +21,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.sis.geometry.GeneralEnvelope;
 import org.apache.sis.util.ArgumentChecks;
 import org.junit.Test;
@@ -368,6 +372,93 @@ public abstract class AbstractTreeTest extends TreeTest {
         assertTrue(compareLists(lData, Arrays.asList(getResult(tabSearch))));
     }
 
+    /**
+     * Test many searches done at the same time return same results as sequential searches.
+     */
+    @Test
+    public void concurrentSearchTest() throws Exception {
+        if (tree.getRoot() == null) insert();
+        final int regionNumber = 20;
+        final GeneralEnvelope[] regions = new GeneralEnvelope[regionNumber];
+        final int[][] expected = new int[regionNumber][];
+        for (int r = 0; r < regionNumber; r++) {
+            final double[] areaSearch = new double[dimension << 1];
+            for (int d = 0; d < dimension; d++) {
+                final double span = minMax[d+dimension] - minMax[d];
+                final double a = minMax[d] + span * Math.random();
+                final double b = minMax[d] + span * Math.random();
+                areaSearch[d]           = Math.min(a, b);
+                areaSearch[d+dimension] = Math.max(a, b);
+            }
+            regions[r] = new GeneralEnvelope(crs);
+            regions[r].setEnvelope(areaSearch);
+            expected[r] = tree.searchID(regions[r]);
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 32; t++) {
+                final int first = t;
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        for (int i = 0; i < regionNumber; i++) {
+                            final int r = (first + i) % regionNumber;
+                            if (!compareID(expected[r], tree.searchID(regions[r]))) return false;
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue("concurrent search results should be equals to sequential search results.", result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test nearest and within distance searches return same distances as a brute force search.
+     *
+     * @throws StoreIndexException if problem during search.
+     * @throws IOException if problem during tree identifier "translate".
+     */
+    @Test
+    public void nearestTest() throws StoreIndexException, IOException {
+        if (tree.getRoot() == null) insert();
+        final int k = 10;
+        for (int s = 0; s < 20; s++) {
+            final double[] point = new double[dimension];
+            for (int d = 0; d < dimension; d++) {
+                point[d] = minMax[d] + (minMax[d+dimension] - minMax[d]) * Math.random();
+            }
+            final double[] expected = new double[lData.size()];
+            for (int i = 0; i < expected.length; i++) {
+                expected[i] = getMinimumSquaredDistance(lData.get(i), point);
+            }
+            Arrays.sort(expected);
+
+            final double[][] nearest = getResult(tree.nearest(point, k));
+            Assert.assertEquals("nearest search result number", k, nearest.length);
+            for (int i = 0; i < k; i++) {
+                Assert.assertEquals("nearest search should return data ordered by distance.",
+                        expected[i], getMinimumSquaredDistance(nearest[i], point), 1E-9);
+            }
+
+            final double maxDistance = Math.sqrt(expected[k - 1]);
+            int expectedNumber = 0;
+            while (expectedNumber < expected.length && expected[expectedNumber] <= maxDistance * maxDistance) expectedNumber++;
+            final double[][] within = getResult(tree.searchWithin(point, maxDistance));
+            Assert.assertEquals("within distance search result number", expectedNumber, within.length);
+            for (double[] data : within) {
+                assertTrue("within distance search result too far.", getMinimumSquaredDistance(data, point) <= maxDistance * maxDistance);
+            }
+        }
+        Assert.assertEquals("nearest search should return all data when k is greater than data number.",
+                lData.size(), tree.nearest(Arrays.copyOf(minMax, dimension), lData.size() + 10).length);
+    }
+
     /**
      * Return result given by {@link TreeElementMapper} from tree identifier table given in parameter.
      *
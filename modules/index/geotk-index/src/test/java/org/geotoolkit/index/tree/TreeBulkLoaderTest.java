@@ -0,0 +1,128 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.index.tree;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.apache.sis.geometry.GeneralEnvelope;
+import org.geotoolkit.index.tree.basic.SplitCase;
+import org.geotoolkit.referencing.crs.PredefinedCRS;
+import org.junit.Test;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import static org.geotoolkit.internal.tree.TreeUtilities.intersects;
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link TreeBulkLoader} build trees which return same search results as a brute force search.
+ */
+public final class TreeBulkLoaderTest extends TreeTest {
+
+    private static final CoordinateReferenceSystem CRS = PredefinedCRS.CARTESIAN_2D;
+
+    private final List<double[]> data = new ArrayList<>();
+
+    public TreeBulkLoaderTest() throws IOException {
+        super();
+        final Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            final double x = random.nextDouble() * 1000;
+            final double y = random.nextDouble() * 1000;
+            data.add(new double[]{x, y, x + random.nextDouble() * 10, y + random.nextDouble() * 10});
+        }
+    }
+
+    private List<Map.Entry<Integer, GeneralEnvelope>> entries() {
+        final List<Map.Entry<Integer, GeneralEnvelope>> entries = new ArrayList<>();
+        for (int i = 0; i < data.size(); i++) {
+            final GeneralEnvelope env = new GeneralEnvelope(CRS);
+            env.setEnvelope(data.get(i));
+            entries.add(new AbstractMap.SimpleEntry<>(i + 1, env));
+        }
+        return entries;
+    }
+
+    private void checkSearch(final Tree<double[]> tree) throws StoreIndexException {
+        assertEquals(data.size(), tree.getElementsNumber());
+        final Random random = new Random(7);
+        for (int s = 0; s < 50; s++) {
+            final double x = random.nextDouble() * 1000;
+            final double y = random.nextDouble() * 1000;
+            final double[] area = new double[]{x, y, x + random.nextDouble() * 200, y + random.nextDouble() * 200};
+            final List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < data.size(); i++) {
+                if (intersects(data.get(i), area, true)) expected.add(i + 1);
+            }
+            final GeneralEnvelope env = new GeneralEnvelope(CRS);
+            env.setEnvelope(area);
+            final int[] result = tree.searchID(env);
+            final int[] expectedIds = new int[expected.size()];
+            for (int i = 0; i < expectedIds.length; i++) expectedIds[i] = expected.get(i);
+            assertTrue("bulk loaded tree search should match brute force search.", compareID(expectedIds, result));
+        }
+    }
+
+    /**
+     * Test Sort-Tile-Recursive loading with many sorted runs merged.
+     */
+    @Test
+    public void strStarRTreeTest() throws Exception {
+        final File treeFile = File.createTempFile("bulk", "tree", tempDir);
+        final TreeBulkLoader loader = new TreeBulkLoader(treeFile.toPath(), 5, CRS, TreeBulkLoader.Order.STR);
+        loader.setRunLength(64);
+        try (final Tree<double[]> tree = loader.createStarRTree(entries().iterator(), new TreeElementMapperTest(CRS))) {
+            checkSearch(tree);
+        }
+    }
+
+    /**
+     * Test Hilbert loading, then insertion into the loaded tree.
+     */
+    @Test
+    public void hilbertBasicRTreeTest() throws Exception {
+        final File treeFile = File.createTempFile("bulk", "tree", tempDir);
+        final TreeBulkLoader loader = new TreeBulkLoader(treeFile.toPath(), 4, CRS, TreeBulkLoader.Order.HILBERT);
+        loader.setRunLength(100);
+        try (final Tree<double[]> tree = loader.createBasicRTree(entries().iterator(), SplitCase.QUADRATIC, new TreeElementMapperTest(CRS))) {
+            checkSearch(tree);
+            final double[] added = new double[]{2000, 2000, 2001, 2001};
+            final int identifier = tree.insert(added);
+            assertEquals(data.size() + 1, identifier);
+            final GeneralEnvelope env = new GeneralEnvelope(CRS);
+            env.setEnvelope(1999, 1999, 2002, 2002);
+            assertArrayEquals(new int[]{identifier}, tree.searchID(env));
+        }
+    }
+
+    /**
+     * Test tree with less elements than Node capacity, root Node is then a leaf.
+     */
+    @Test
+    public void singleLeafTest() throws Exception {
+        data.subList(3, data.size()).clear();
+        final File treeFile = File.createTempFile("bulk", "tree", tempDir);
+        final TreeBulkLoader loader = new TreeBulkLoader(treeFile.toPath(), 5, CRS, TreeBulkLoader.Order.STR);
+        try (final Tree<double[]> tree = loader.createStarRTree(entries().iterator(), new TreeElementMapperTest(CRS))) {
+            assertTrue(tree.getRoot().isLeaf());
+            checkSearch(tree);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.index.tree.star;
+
+import java.io.IOException;
+import org.geotoolkit.index.tree.StoreIndexException;
+import org.geotoolkit.referencing.crs.PredefinedCRS;
+
+/**
+ * Create a StarRTree Test suite in a Cartesian 3D space stored into a memory mapped file.
+ *
+ * @see PredefinedCRS#CARTESIAN_3D
+ */
+public final class MappedAccessStar3DTest extends MappedAccessStarTest {
+
+    /**
+     * Create a StarRTree Test suite in a Cartesian 3D space stored into a memory mapped file.
+     *
+     * @throws StoreIndexException
+     * @throws IOException
+     */
+    public MappedAccessStar3DTest() throws StoreIndexException, IOException {
+        super(PredefinedCRS.CARTESIAN_3D);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.index.tree.star;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import org.apache.sis.geometry.GeneralEnvelope;
+import org.geotoolkit.index.tree.AbstractTreeTest;
+import org.geotoolkit.index.tree.FileTreeElementMapperTest;
+import org.geotoolkit.index.tree.StoreIndexException;
+import org.geotoolkit.internal.tree.TreeAccessMapped;
+import org.geotoolkit.internal.tree.TreeUtilities;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+/**
+ * Create a generic StarRTree Test suite where Tree architecture is stored into a memory mapped file.<br/>
+ *
+ * @see TreeAccessMapped
+ */
+abstract class MappedAccessStarTest extends AbstractTreeTest {
+
+    /**
+     * Create a generic StarRTree Test suite where Tree is stored into a memory mapped file.
+     *
+     * @param crs
+     * @throws StoreIndexException
+     * @throws IOException
+     */
+    protected MappedAccessStarTest(final CoordinateReferenceSystem crs)
+            throws StoreIndexException, IOException {
+        super(crs);
+        final File inOutFile      = File.createTempFile("test", "tree", tempDir);
+        final File treeMapperFile = File.createTempFile("mapper", "test", tempDir);
+        tEM  = new FileTreeElementMapperTest(crs, treeMapperFile);
+        tree = new StarRTree<double[]>(new TreeAccessMapped(inOutFile.toPath(), TreeUtilities.STAR_NUMBER, TreeUtilities.VERSION_NUMBER, 4, null, crs), tEM);
+    }
+
+    /**
+     * Write a tree, close it, then open it again from file in read mode and compare search results.
+     */
+    @Test
+    public void reopenTest() throws StoreIndexException, IOException {
+        final File inOutFile      = File.createTempFile("reopen", "tree", tempDir);
+        final File treeMapperFile = File.createTempFile("reopen", "mapper", tempDir);
+        tEM  = new FileTreeElementMapperTest(crs, treeMapperFile);
+        tree = new StarRTree<double[]>(new TreeAccessMapped(inOutFile.toPath(), TreeUtilities.STAR_NUMBER, TreeUtilities.VERSION_NUMBER, 4, null, crs), tEM);
+        insert();
+
+        final GeneralEnvelope extent = new GeneralEnvelope(crs);
+        extent.setEnvelope(tree.getExtent());
+        final int[] expected = tree.searchID(extent);
+        final double[][] expectedObjects = getResult(expected);
+        final int eltNumber = tree.getElementsNumber();
+        tree.close();
+        tEM.close();
+
+        //-- only written Nodes remain in file, not the whole mapped segment --//
+        assertTrue("file length : " + inOutFile.length(), inOutFile.length() < (1 << 20));
+
+        tEM  = new FileTreeElementMapperTest(crs, treeMapperFile);
+        tree = new StarRTree<double[]>(new TreeAccessMapped(inOutFile.toPath(), TreeUtilities.STAR_NUMBER, TreeUtilities.VERSION_NUMBER), tEM);
+        assertEquals(eltNumber, tree.getElementsNumber());
+        final int[] result = tree.searchID(extent);
+        assertTrue(compareID(expected, result));
+        assertTrue(compareLists(Arrays.asList(expectedObjects), Arrays.asList(getResult(result))));
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.lucene.filter;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Logger;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DocsEnum;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.util.BitDocIdSet;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.sis.geometry.GeneralEnvelope;
+import org.apache.sis.util.ArgumentChecks;
+import org.apache.sis.util.logging.Logging;
+import org.geotoolkit.index.tree.StoreIndexException;
+import org.geotoolkit.index.tree.Tree;
+import org.geotoolkit.index.tree.TreeElementMapper;
+import org.geotoolkit.index.tree.manager.NamedEnvelope;
+import static org.geotoolkit.lucene.LuceneUtils.*;
+import static org.geotoolkit.lucene.filter.LuceneOGCFilter.*;
+
+/**
+ * A Lucene filter which match documents whose geometry is among the nearest ones to a given geometry,
+ * using R-tree best first search instead of a bounding box search followed by a sort.<br/>
+ * Distances are computed in R-tree CRS units, from the center of the given geometry envelope.
+ *
+ * @module
+ */
+public class LuceneNearestFilter extends org.apache.lucene.search.Filter implements org.geotoolkit.lucene.filter.Filter {
+
+    private static final Logger LOGGER = Logging.getLogger("org.geotoolkit.lucene.filter");
+
+    private static final Set<String> ID_FIELDS = new HashSet<>(1);
+    static {
+        ID_FIELDS.add(IDENTIFIER_FIELD_NAME);
+    }
+
+    /**
+     * Geometry or envelope from which distances are computed.
+     */
+    private final Object geometry;
+
+    /**
+     * Maximum number of matching documents.
+     */
+    private final int k;
+
+    /**
+     * Maximum distance in R-tree CRS units, or positive infinity.
+     */
+    private final double maxDistance;
+
+    private Tree tree;
+
+    private LuceneNearestFilter(final Object geometry, final int k, final double maxDistance) {
+        ArgumentChecks.ensureNonNull("geometry", geometry);
+        ArgumentChecks.ensureStrictlyPositive("k", k);
+        ArgumentChecks.ensurePositive("maxDistance", maxDistance);
+        this.geometry    = geometry;
+        this.k           = k;
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Create a filter matching the {@code k} documents nearest to given geometry.
+     *
+     * @param geometry JTS geometry or envelope.
+     * @param k maximum number of matching documents.
+     * @return nearest neighbours filter.
+     */
+    public static LuceneNearestFilter nearest(final Object geometry, final int k) {
+        return new LuceneNearestFilter(geometry, k, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Create a filter matching all documents within a distance from given geometry.
+     *
+     * @param geometry JTS geometry or envelope.
+     * @param distance maximum distance, in R-tree CRS units.
+     * @return distance filter.
+     */
+    public static LuceneNearestFilter within(final Object geometry, final double distance) {
+        return new LuceneNearestFilter(geometry, Integer.MAX_VALUE, distance);
+    }
+
+    @Override
+    public void applyRtreeOnFilter(final Tree rTree, final boolean envelopeOnly) {
+        this.tree = rTree;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public DocIdSet getDocIdSet(final LeafReaderContext ctx, final Bits b) throws IOException {
+        final LeafReader reader = ctx.reader();
+        final BitDocIdSet set = new BitDocIdSet(new FixedBitSet(reader.maxDoc()));
+        if (tree == null) {
+            LOGGER.finer("Null R-tree in nearest search");
+            return set;
+        }
+        final Set<String> treeMatching = new HashSet<>();
+        final GeneralEnvelope bound = getReprojectedEnvelope(geometry, tree.getCrs());
+        if (bound != null) {
+            final double[] point = bound.getMedian().getCoordinate();
+            try {
+                final int[] resultID = (maxDistance == Double.POSITIVE_INFINITY)
+                        ? tree.nearest(point, k) : tree.searchWithin(point, maxDistance);
+                final TreeElementMapper<NamedEnvelope> tem = tree.getTreeElementMapper();
+                for (int id : resultID) {
+                    final NamedEnvelope env = tem.getObjectFromTreeIdentifier(id);
+                    if (env != null) {
+                        treeMatching.add(env.getId());
+                    }
+                }
+            } catch (StoreIndexException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else {
+                    throw new IOException(ex);
+                }
+            }
+        }
+        if (treeMatching.isEmpty()) {
+            return set;
+        }
+
+        final DocsEnum termDocs = reader.termDocsEnum(META_FIELD);
+        int n = termDocs.nextDoc();
+        while (n != DocsEnum.NO_MORE_DOCS){
+            final int docId     = termDocs.docID();
+            final Document doc  = reader.document(docId, ID_FIELDS);
+            if (treeMatching.contains(doc.get(IDENTIFIER_FIELD_NAME))) {
+                set.bits().set(docId);
+            }
+            n = termDocs.nextDoc();
+        }
+        return set;
+    }
+
+    @Override
+    public String toString(String s) {
+        return "[LuceneNearestFilter] k=" + k + " maxDistance=" + maxDistance + " " + geometry;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj instanceof LuceneNearestFilter) {
+            final LuceneNearestFilter that = (LuceneNearestFilter) obj;
+            return Objects.equals(this.geometry, that.geometry) &&
+                   this.k == that.k &&
+                   Double.doubleToLongBits(this.maxDistance) == Double.doubleToLongBits(that.maxDistance);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 79 * hash + Objects.hashCode(this.geometry);
+        hash = 79 * hash + this.k;
+        hash = 79 * hash + Double.hashCode(this.maxDistance);
+        return hash;
+    }
+}
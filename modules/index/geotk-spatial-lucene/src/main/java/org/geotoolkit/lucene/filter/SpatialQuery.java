@@ -87,6 +87,15 @@ public class SpatialQuery implements org.geotoolkit.index.SpatialQuery {
         this("",spatialFilter,LogicalFilterType.AND);
     }
 
+    /**
+     * Build a new Query matching the documents nearest to a geometry.
+     *
+     * @param nearestFilter nearest neighbours or distance filter, resolved with the R-tree.
+     */
+    public SpatialQuery(final LuceneNearestFilter nearestFilter) {
+        this("",nearestFilter,LogicalFilterType.AND);
+    }
+
     /**
      * Build a new Query combinating a lucene query and a lucene filter.
      *
@@ -54,6 +54,7 @@ import org.geotoolkit.index.tree.manager.postgres.LucenePostgresSQLTreeEltMapper
 import org.geotoolkit.io.wkb.WKBUtils;
 import org.geotoolkit.lucene.DocumentIndexer.DocumentEnvelope;
 import org.geotoolkit.lucene.analysis.standard.ClassicAnalyzer;
+import org.geotoolkit.lucene.filter.LuceneNearestFilter;
 import org.geotoolkit.lucene.filter.LuceneOGCFilter;
 import org.geotoolkit.lucene.filter.SerialChainFilter;
 import org.geotoolkit.lucene.filter.SpatialQuery;
@@ -1873,6 +1874,46 @@ public class LuceneSearcherTest extends org.geotoolkit.test.TestBase {
 
     }
 
+    /**
+     * Test the R-tree nearest neighbours and distance filter.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void nearestTest() throws Exception {
+        geom = GF.createPoint(new Coordinate(41, 21));
+        JTS.setCRS(geom, CommonCRS.defaultGeographic());
+
+        /*
+         * case 1: single nearest document
+         */
+        Set<String> results = searcher.doSearch(new SpatialQuery(LuceneNearestFilter.nearest(geom, 1)));
+        assertEquals(1, results.size());
+        assertTrue(results.contains("point 4"));
+
+        /*
+         * case 2: two nearest documents
+         */
+        results = searcher.doSearch(new SpatialQuery(LuceneNearestFilter.nearest(geom, 2)));
+        assertEquals(2, results.size());
+        assertTrue(results.contains("point 4"));
+        assertTrue(results.contains("box 3"));
+
+        /*
+         * case 3: documents within 7 degrees, box 3 is at 6 degrees
+         */
+        results = searcher.doSearch(new SpatialQuery(LuceneNearestFilter.within(geom, 7)));
+        assertEquals(2, results.size());
+        assertTrue(results.contains("point 4"));
+        assertTrue(results.contains("box 3"));
+
+        /*
+         * case 4: documents within 5 degrees
+         */
+        results = searcher.doSearch(new SpatialQuery(LuceneNearestFilter.within(geom, 5)));
+        assertEquals(1, results.size());
+        assertTrue(results.contains("point 4"));
+    }
+
     /**
      * Test the Distance spatial filter BEYOND.
      * @throws java.lang.Exception
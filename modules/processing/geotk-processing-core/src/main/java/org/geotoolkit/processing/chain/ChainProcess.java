@@ -16,15 +16,27 @@
  */
 package org.geotoolkit.processing.chain;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.sis.internal.system.DefaultFactories;
 import org.apache.sis.parameter.DefaultParameterValue;
+import org.apache.sis.util.ArgumentChecks;
 import org.apache.sis.util.ObjectConverter;
 import org.apache.sis.util.ObjectConverters;
 import org.apache.sis.util.UnconvertibleObjectException;
@@ -45,6 +57,7 @@ import org.geotoolkit.processing.chain.model.DataLink;
 import org.geotoolkit.processing.chain.model.Element;
 import org.geotoolkit.processing.chain.model.ElementCondition;
 import org.geotoolkit.processing.chain.model.ElementProcess;
+import org.geotoolkit.processing.chain.model.FlowLink;
 import org.opengis.filter.Filter;
 import org.opengis.filter.FilterFactory;
 import org.opengis.filter.expression.Expression;
@@ -63,13 +76,38 @@ public class ChainProcess extends AbstractProcess {
 
     protected static final Logger LOGGER = Logging.getLogger("org.geotoolkit.processing.chain");
 
-    private Process currentProcess;
+    /**
+     * Sub-processes currently running.
+     */
+    private final Set<Process> runningProcesses = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Sub-process completions, sent by workers to the scheduling thread.
+     */
+    private final BlockingQueue<Completion> events = new LinkedBlockingQueue<>();
 
+    private int maxWorkers = Runtime.getRuntime().availableProcessors();
 
     public ChainProcess(final ChainProcessDescriptor desc, final ParameterValueGroup input) {
         super(desc, input);
     }
 
+    /**
+     * @return maximum number of sub-processes running at the same time.
+     */
+    public int getMaxWorkers() {
+        return maxWorkers;
+    }
+
+    /**
+     * @param maxWorkers maximum number of sub-processes running at the same time,
+     *        use 1 to execute the chain sequentially.
+     */
+    public void setMaxWorkers(int maxWorkers) {
+        ArgumentChecks.ensureStrictlyPositive("maxWorkers", maxWorkers);
+        this.maxWorkers = maxWorkers;
+    }
+
     /**
      * Returns a {@linkplain ChainProcessDescriptor descriptor} of this chain.
      */
@@ -80,6 +118,10 @@ public class ChainProcess extends AbstractProcess {
 
     /**
      * {@inheritDoc}
+     * <br/>
+     * Nodes are started as soon as all their parents, through execution or data links,
+     * have completed. Sub-processes run in a pool of at most {@link #getMaxWorkers() } threads
+     * while the calling thread schedules nodes and copies results between them.
      */
     @Override
     protected void execute() throws ProcessException {
@@ -88,11 +130,8 @@ public class ChainProcess extends AbstractProcess {
 
         // processing progress
         final float workLoadPart = 100 / model.getElements().size();
-        float currentProgress = 0;
-        int i = 1;
 
         final Collection<FlowNode> nodes = Flow.createFlow(model);
-        List<List<FlowNode>> ranked = Flow.sortByRank(nodes);
 
         //prepare all parameters for each process step
         final Map<Integer, ParameterValueGroup> configs = new HashMap<>();
@@ -133,118 +172,238 @@ public class ChainProcess extends AbstractProcess {
             }
         }
 
+        //build dependency graph, a node depends on its execution and data link sources
+        final Map<Integer, NodeState> states = new HashMap<>();
+        int nbProcess = 0;
+        for (FlowNode node : nodes) {
+            if (node.getObject() instanceof Element) {
+                states.put(((Element) node.getObject()).getId(), new NodeState(node));
+                if (node.getObject() instanceof ElementProcess) nbProcess++;
+            }
+        }
+        for (NodeState state : states.values()) {
+            for (FlowNode child : state.node.getChildren()) {
+                final NodeState target = states.get(((Element) child.getObject()).getId());
+                target.nbFlowParents++;
+                state.dependents.add(target);
+            }
+        }
+        for (DataLink link : model.getDataLinks()) {
+            final NodeState source = states.get(link.getSourceId());
+            final NodeState target = states.get(link.getTargetId());
+            if (source != null && target != null && source != target) {
+                source.dependents.add(target);
+            }
+        }
+        final Deque<NodeState> ready = new ArrayDeque<>();
+        for (NodeState state : states.values()) {
+            for (NodeState dependent : state.dependents) {
+                dependent.remaining++;
+            }
+        }
+        for (NodeState state : states.values()) {
+            if (state.remaining == 0) ready.add(state);
+        }
+
         // Will contain all the versions of processes used
         final StringBuilder processVersion = new StringBuilder();
 
-        //run processes in order
-        for (int j = 0; j < ranked.size(); j++) {
-            final List<FlowNode> rank = ranked.get(j);
-            currentProgress = (i - 1) * workLoadPart;
-
-            for (FlowNode node : rank) {
-                final Object obj = node.getObject();
-                if (obj == ElementProcess.BEGIN) {
-                    //copy input params in children nodes
-                    for(DataLink link : model.getInputLinks(Integer.MIN_VALUE)){
-                        List<ParameterValue> values = getValues(inputParameters, link.getSourceCode());
-                        boolean first = true;
-                        for (ParameterValue paramValue : values) {
-                            if (first) {
-                                final Object value = paramValue.getValue();
-                                setValue(value, configs.get(link.getTargetId()).parameter(link.getTargetCode()));
-                                first = false;
-                            } else {
-                                final Object value = paramValue.getValue();
-                                final ParameterDescriptor desc = (ParameterDescriptor) configs.get(link.getTargetId()).getDescriptor().descriptor(link.getTargetCode());
-                                final ParameterValue newParam = new DefaultParameterValue(desc);
-                                setValue(value, newParam);
-                                configs.get(link.getTargetId()).values().add(newParam);
-                            }
-                        }
-                    }
-                } else if (obj == ElementProcess.END) {
-                    // do nothing
-
-                } else if(obj instanceof ElementProcess) {
-                    // handle process cancel
-                    stopIfDismissed();
-                    // handle process pause
-                    if (isPaused()) {
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, Math.min(maxWorkers, nbProcess)), (Runnable r) -> {
+            final Thread thread = new Thread(r, "ChainProcess-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        events.clear();
+
+        int nbResolved = 0;
+        int nbRunning = 0;
+        int nbCompleted = 0;
+        boolean paused = false;
+        try {
+            while (nbResolved < states.size()) {
+                // handle process cancel
+                stopIfDismissed();
+                final float currentProgress = nbCompleted * workLoadPart;
+
+                // handle process pause, running sub-processes are not paused
+                if (isPaused()) {
+                    if (!paused) {
+                        paused = true;
                         fireProcessPaused(descriptor.getIdentifier().getCode() + " paused", currentProgress);
-                        while (isPaused()) {
-                            try {
-                                Thread.sleep(1000);
-                            } catch (InterruptedException ex) {
-                                LOGGER.log(Level.WARNING, "Interruption while process is in pause", ex);
-                            }
-                        }
-                        fireProcessResumed(descriptor.getIdentifier().getCode() + " resumed", currentProgress);
                     }
-
-                    //execute process
-                    final ElementProcess element = (ElementProcess) obj;
-                    final ParameterValueGroup config = configs.get(element.getId());
-                    final ProcessDescriptor pdesc;
-                    try {
-                        pdesc = getProcessDescriptor(element);
-                    } catch (NoSuchIdentifierException ex) {
-                        throw new ProcessException("Sub process not found", this, ex);
-                    }
-                    currentProcess = pdesc.createProcess(config);
-                    currentProcess.addListener(new ForwardProcessListener(this, currentProgress, workLoadPart));
-                    if (currentProcess instanceof AbstractProcess) {
-                        ((AbstractProcess)currentProcess).setJobId(jobId);
+                } else {
+                    if (paused) {
+                        paused = false;
+                        fireProcessResumed(descriptor.getIdentifier().getCode() + " resumed", currentProgress);
                     }
 
-                    final String processId = pdesc.getIdentifier().getCode();
-                    // Fill process version with values coming from the current process.
-                    if (processVersion.length() > 0) {
-                        processVersion.append(", ");
-                    }
-                    processVersion.append(processId).append(" ");
-                    if (currentProcess.getDescriptor() instanceof AbstractProcessDescriptor) {
-                        processVersion.append(((AbstractProcessDescriptor) currentProcess.getDescriptor()).getVersion());
-                    } else {
-                        processVersion.append("1.0");
-                    }
+                    //start or resolve all ready nodes
+                    NodeState state;
+                    while ((state = ready.poll()) != null) {
+                        final Object obj = state.node.getObject();
+
+                        if (state.nbFlowParents > 0 && !state.activated) {
+                            // node is in a condition branch which has not been taken
+                            nbResolved++;
+                            release(state, Collections.emptyList(), states, ready);
+
+                        } else if (obj == ElementProcess.BEGIN) {
+                            //copy input params in children nodes
+                            copyResults(model, inputParameters, Integer.MIN_VALUE, configs);
+                            nbResolved++;
+                            release(state, state.node.getLinks(), states, ready);
+
+                        } else if (obj instanceof ElementProcess) {
+                            stopIfDismissed();
+                            final ElementProcess element = (ElementProcess) obj;
+                            final ProcessDescriptor pdesc;
+                            try {
+                                pdesc = getProcessDescriptor(element);
+                            } catch (NoSuchIdentifierException ex) {
+                                throw new ProcessException("Sub process not found", this, ex);
+                            }
+                            final Process process = pdesc.createProcess(configs.get(element.getId()));
+                            process.addListener(new ForwardProcessListener(this, currentProgress, workLoadPart));
+                            if (process instanceof AbstractProcess) {
+                                ((AbstractProcess)process).setJobId(jobId);
+                            }
 
-                    final ParameterValueGroup result = currentProcess.call();
-                    //fireProgressing(pdesc.getIdentifier().getCode() + " completed", i * part, false);
-                    i++;
-
-                    //set result in children
-                    for (DataLink link : model.getInputLinks(element.getId())) {
-                        final List<ParameterValue> values = getValues(result, link.getSourceCode());
-                        boolean first = true;
-                        for (ParameterValue paramValue : values) {
-                            if (first) {
-                                final Object value = paramValue.getValue();
-                                setValue(value, configs.get(link.getTargetId()).parameter(link.getTargetCode()));
-                                first = false;
+                            final String processId = pdesc.getIdentifier().getCode();
+                            // Fill process version with values coming from the current process.
+                            if (processVersion.length() > 0) {
+                                processVersion.append(", ");
+                            }
+                            processVersion.append(processId).append(" ");
+                            if (process.getDescriptor() instanceof AbstractProcessDescriptor) {
+                                processVersion.append(((AbstractProcessDescriptor) process.getDescriptor()).getVersion());
                             } else {
-                                final Object value = paramValue.getValue();
-                                final ParameterDescriptor desc = (ParameterDescriptor) configs.get(link.getTargetId()).getDescriptor().descriptor(link.getTargetCode());
-                                final ParameterValue newParam = new DefaultParameterValue(desc);
-                                setValue(value, newParam);
-                                configs.get(link.getTargetId()).values().add(newParam);
+                                processVersion.append("1.0");
                             }
+
+                            //execute process
+                            final NodeState node = state;
+                            runningProcesses.add(process);
+                            nbRunning++;
+                            workers.execute(() -> {
+                                ParameterValueGroup result = null;
+                                Throwable error = null;
+                                try {
+                                    result = process.call();
+                                } catch (Throwable ex) {
+                                    error = ex;
+                                } finally {
+                                    runningProcesses.remove(process);
+                                }
+                                events.add(new Completion(node, result, error));
+                            });
+
+                        } else if (obj instanceof ElementCondition) {
+                            final ElementCondition condition = (ElementCondition) obj;
+                            final boolean result = executeConditionalElement(condition, configs.get(condition.getId()));
+                            final List<FlowLink> taken = new ArrayList<>(state.node.getLinks());
+                            taken.removeAll(result ? condition.getFailed() : condition.getSuccess());
+                            nbResolved++;
+                            release(state, taken, states, ready);
+
+                        } else {
+                            // END and manual elements
+                            nbResolved++;
+                            release(state, state.node.getLinks(), states, ready);
                         }
                     }
-                } else if (obj instanceof ElementCondition) {
-                    final ElementCondition condition = (ElementCondition) obj;
-                    final Boolean result = executeConditionalElement(condition, configs.get(condition.getId()));
-
-                    final Chain updateModel = new Chain(model);
-                    if (result) {
-                        updateModel.getFlowLinks().removeAll(condition.getFailed());
-                    } else {
-                        updateModel.getFlowLinks().removeAll(condition.getSuccess());
+                    if (nbResolved == states.size()) {
+                        break;
+                    }
+                    if (nbRunning == 0) {
+                        throw new ProcessException("Chain contains a cycle, some elements can not be executed.", this, null);
                     }
-                    ranked = Flow.sortByRank(Flow.createFlow(updateModel));
                 }
+
+                //wait for a sub-process to complete, or a resume or dismiss request
+                final Completion event;
+                try {
+                    event = events.take();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new ProcessException("Chain execution interrupted", this, ex);
+                }
+                if (event == WAKE_UP) {
+                    continue;
+                }
+                nbRunning--;
+                if (event.error instanceof ProcessException) {
+                    throw (ProcessException) event.error;
+                } else if (event.error instanceof RuntimeException) {
+                    throw (RuntimeException) event.error;
+                } else if (event.error instanceof Error) {
+                    throw (Error) event.error;
+                } else if (event.error != null) {
+                    throw new ProcessException(event.error.getMessage(), this, event.error);
+                }
+                nbCompleted++;
+
+                //set result in children
+                final ElementProcess element = (ElementProcess) event.state.node.getObject();
+                copyResults(model, event.result, element.getId(), configs);
+                nbResolved++;
+                release(event.state, event.state.node.getLinks(), states, ready);
+            }
+        } finally {
+            workers.shutdownNow();
+            //stop sub-processes still running after a failure or a dismiss
+            for (Process process : runningProcesses) {
+                if (process instanceof AbstractProcess) {
+                    ((AbstractProcess) process).dismissProcess();
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Mark a node as resolved and queue its dependents which are now ready.
+     *
+     * @param state resolved node
+     * @param activated execution links to follow from this node
+     */
+    private static void release(final NodeState state, final Collection<FlowLink> activated,
+            final Map<Integer, NodeState> states, final Deque<NodeState> ready) {
+        for (FlowLink link : activated) {
+            final NodeState target = states.get(link.getTargetId());
+            if (target != null) {
+                target.activated = true;
+            }
+        }
+        for (NodeState dependent : state.dependents) {
+            if (--dependent.remaining == 0) {
+                ready.add(dependent);
             }
         }
+    }
 
+    /**
+     * Copy values of an element to its children nodes, following data links.
+     */
+    private void copyResults(final Chain model, final ParameterValueGroup result, final int sourceId,
+            final Map<Integer, ParameterValueGroup> configs) {
+        for (DataLink link : model.getInputLinks(sourceId)) {
+            final List<ParameterValue> values = getValues(result, link.getSourceCode());
+            boolean first = true;
+            for (ParameterValue paramValue : values) {
+                if (first) {
+                    final Object value = paramValue.getValue();
+                    setValue(value, configs.get(link.getTargetId()).parameter(link.getTargetCode()));
+                    first = false;
+                } else {
+                    final Object value = paramValue.getValue();
+                    final ParameterDescriptor desc = (ParameterDescriptor) configs.get(link.getTargetId()).getDescriptor().descriptor(link.getTargetCode());
+                    final ParameterValue newParam = new DefaultParameterValue(desc);
+                    setValue(value, newParam);
+                    configs.get(link.getTargetId()).values().add(newParam);
+                }
+            }
+        }
     }
 
     private boolean executeConditionalElement(final ElementCondition condition, final ParameterValueGroup inputs) throws ProcessException {
@@ -319,12 +478,24 @@ public class ChainProcess extends AbstractProcess {
         }
     }
 
+    /**
+     * Dismiss the chain and all running sub-processes.
+     */
     @Override
     public void dismissProcess() {
         super.dismissProcess();
-        if (currentProcess instanceof AbstractProcess) {
-            ((AbstractProcess)currentProcess).dismissProcess();
+        for (Process process : runningProcesses) {
+            if (process instanceof AbstractProcess) {
+                ((AbstractProcess)process).dismissProcess();
+            }
         }
+        events.add(WAKE_UP);
+    }
+
+    @Override
+    public void resumeProcess() {
+        super.resumeProcess();
+        events.add(WAKE_UP);
     }
 
     @Override
@@ -341,6 +512,47 @@ public class ChainProcess extends AbstractProcess {
         return sb.toString();
     }
 
+    /**
+     * Execution state of a chain node.
+     */
+    private static final class NodeState {
+
+        final FlowNode node;
+        /** nodes depending on this one */
+        final Set<NodeState> dependents = new LinkedHashSet<>();
+        /** number of dependencies not resolved yet */
+        int remaining;
+        /** number of incoming execution links */
+        int nbFlowParents;
+        /** true if at least one incoming execution link has been followed */
+        boolean activated;
+
+        NodeState(final FlowNode node) {
+            this.node = node;
+        }
+    }
+
+    /**
+     * Sub-process completion.
+     */
+    private static final class Completion {
+
+        final NodeState state;
+        final ParameterValueGroup result;
+        final Throwable error;
+
+        Completion(final NodeState state, final ParameterValueGroup result, final Throwable error) {
+            this.state = state;
+            this.result = result;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Event used to wake up the scheduling thread.
+     */
+    private static final Completion WAKE_UP = new Completion(null, null, null);
+
     private static List<ParameterValue> getValues(final ParameterValueGroup param, final String descCode) {
         List<ParameterValue> results = new ArrayList<>();
         for (GeneralParameterValue value : param.values()) {
@@ -121,6 +121,41 @@ public class ChainProcessTest extends org.geotoolkit.test.TestBase {
         return chain;
     }
 
+    private Chain createDiamondChain(){
+        //produce a chain equivalent to :  ($a + 10) / ($a * $b)
+        final Chain chain = new Chain("diamondChain");
+        int id = 1;
+
+        //input/out/constants parameters
+        final Parameter a = chain.addInputParameter("a", Double.class, "title", "desc",1,1,null);
+        final Parameter b = chain.addInputParameter("b", Double.class, "title", "desc",1,1,null);
+        final Parameter r = chain.addOutputParameter("r", Double.class, "title", "desc",1,1,null);
+        final Constant c = chain.addConstant(id++, Double.class, 10d);
+
+        //chain blocks, add and multiply are independent
+        final ElementProcess add = chain.addProcessElement(id++, "demo", "add");
+        final ElementProcess multi = chain.addProcessElement(id++, "demo", "multiply");
+        final ElementProcess divide = chain.addProcessElement(id++, "demo", "divide");
+
+        //execution flow links
+        chain.addFlowLink(BEGIN.getId(), add.getId());
+        chain.addFlowLink(BEGIN.getId(), multi.getId());
+        chain.addFlowLink(add.getId(), divide.getId());
+        chain.addFlowLink(multi.getId(), divide.getId());
+        chain.addFlowLink(divide.getId(), END.getId());
+
+        //data flow links
+        chain.addDataLink(BEGIN.getId(), a.getCode(), add.getId(), "first");
+        chain.addDataLink(c.getId(), "", add.getId(), "second");
+        chain.addDataLink(BEGIN.getId(), a.getCode(), multi.getId(), "first");
+        chain.addDataLink(BEGIN.getId(), b.getCode(), multi.getId(), "second");
+        chain.addDataLink(add.getId(), "result", divide.getId(), "first");
+        chain.addDataLink(multi.getId(), "result", divide.getId(), "second");
+        chain.addDataLink(divide.getId(), "result", END.getId(), r.getCode());
+
+        return chain;
+    }
+
     @Test
     public void testSimpleChain() throws ProcessException{
 
@@ -144,6 +179,27 @@ public class ChainProcessTest extends org.geotoolkit.test.TestBase {
 
     }
 
+    @Test
+    public void testDiamondChain() throws ProcessException{
+
+        final Chain chain = createDiamondChain();
+        final Set<MockProcessRegistry> registries = Collections.singleton(new MockProcessRegistry());
+        final ProcessDescriptor desc = new ChainProcessDescriptor(chain, MockProcessRegistry.IDENTIFICATION, registries);
+
+        //same result with parallel and sequential execution
+        for (int nbWorkers : new int[]{4, 1}) {
+            final ParameterValueGroup input = desc.getInputDescriptor().createValue();
+            input.parameter("a").setValue(15d);
+            input.parameter("b").setValue(2d);
+
+            final ChainProcess process = (ChainProcess) desc.createProcess(input);
+            process.setMaxWorkers(nbWorkers);
+            final ParameterValueGroup result = process.call();
+
+            assertEquals(25d / 30d, result.parameter("r").doubleValue(),0.000001);
+        }
+    }
+
     @Test
     public void testSimpleXmlRW() throws ProcessException, JAXBException, IOException{
 
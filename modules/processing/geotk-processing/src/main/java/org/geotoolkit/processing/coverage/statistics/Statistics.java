@@ -20,11 +20,11 @@ import java.awt.image.Raster;
 import java.awt.image.RenderedImage;
 import java.awt.image.SampleModel;
 import java.util.Arrays;
+import java.util.stream.LongStream;
 import org.apache.sis.coverage.SampleDimension;
 import org.apache.sis.coverage.grid.GridCoverage;
 import org.apache.sis.coverage.grid.GridExtent;
 import org.apache.sis.coverage.grid.GridGeometry;
-import org.apache.sis.image.PixelIterator;
 import org.apache.sis.parameter.Parameters;
 import org.apache.sis.storage.DataStoreException;
 import org.apache.sis.storage.GridCoverageResource;
@@ -106,6 +106,24 @@ public class Statistics extends AbstractProcess {
         return out.getValue(OUTCOVERAGE);
     }
 
+    /**
+     * Run Statistics process with a RenderedImage on one tile out of tileStep and return ImageStatistics.
+     * Result is approximate but much faster to compute on large images.
+     *
+     * @param image RenderedImage to analyse
+     * @param excludeNoData exclude no-data flag (NaN values)
+     * @param tileStep analyse one tile out of tileStep, 1 to analyse all tiles
+     * @return ImageStatistics
+     * @throws ProcessException
+     */
+    public static ImageStatistics analyse(RenderedImage image, boolean excludeNoData, int tileStep) throws ProcessException {
+        final ParameterValueGroup params = toParameters(image, null, null, excludeNoData);
+        Parameters.castOrWrap(params).getOrCreate(TILE_STEP).setValue(tileStep);
+        org.geotoolkit.process.Process process = new Statistics(params);
+        Parameters out = Parameters.castOrWrap(process.call());
+        return out.getValue(OUTCOVERAGE);
+    }
+
     /**
      * Run Statistics process with a CoverageResource and return ImageStatistics
      *
@@ -132,6 +150,23 @@ public class Statistics extends AbstractProcess {
      */
     public static ImageStatistics analyse(GridCoverageResource ref, boolean excludeNoData, int imageSize)
             throws ProcessException, DataStoreException {
+        return analyse(ref, true, excludeNoData, imageSize);
+    }
+
+    /**
+     * Run Statistics process with a CoverageResource and return ImageStatistics
+     * the process is run on a reduced version of the data to avoid consuming to much resources.
+     *
+     * @param ref CoverageResource
+     * @param converted true for statistics on the real data values, false for
+     *        statistics on the sample values of the packed coverage image
+     * @param excludeNoData exclude no-data flag
+     * @param imageSize sampled image size
+     * @return ImageStatistics
+     * @throws ProcessException
+     */
+    public static ImageStatistics analyse(GridCoverageResource ref, boolean converted, boolean excludeNoData, int imageSize)
+            throws ProcessException, DataStoreException {
         final GridGeometry gridGeom = ref.getGridGeometry();
         final Envelope env = gridGeom.getEnvelope();
         final GridExtent ext = gridGeom.getExtent();
@@ -147,6 +182,10 @@ public class Statistics extends AbstractProcess {
 
         final GridGeometry query = gridGeom.derive().subgrid(env, res).sliceByRatio(0.5, 0, 1).build();
         GridCoverage coverage = ref.read(query);
+        if (!converted) {
+            //coverage input is always analysed on converted values, use its image
+            return analyse(coverage.forConvertedValues(false).render(null), excludeNoData);
+        }
         //we want the statistics on the real data values
         coverage = coverage.forConvertedValues(true);
         org.geotoolkit.process.Process process = new Statistics(coverage, excludeNoData);
@@ -159,6 +198,7 @@ public class Statistics extends AbstractProcess {
 
         final RenderedImage inImage = inputParameters.getValue(IMAGE);
         final boolean excludeNoData = inputParameters.getValue(EXCLUDE_NO_DATA);
+        final int tileStep = inputParameters.getValue(TILE_STEP);
 
         fireProgressing("Pre-analysing", 0f, false);
         final RenderedImage image;
@@ -214,170 +254,58 @@ public class Statistics extends AbstractProcess {
         }
 
         final ImageStatistics.Band[] bands = sc.getBands();
-        final org.apache.sis.math.Statistics[] stats = new org.apache.sis.math.Statistics[bands.length];
-        for(int i=0;i<bands.length;i++) stats[i] = new org.apache.sis.math.Statistics("stats");
-        int nbBands = bands.length;
-
-        //optimization for GridMosaicRenderedImage impl
-        NumericHistogram[] histo = new NumericHistogram[nbBands];
+        final int nbBands = bands.length;
+        final int[] nbBins = new int[nbBands];
+        double[][] noDatas = null;
+        if (excludeNoData) noDatas = new double[nbBands][];
+        for (int i = 0; i < nbBands; i++) {
+            nbBins[i] = getNbBins(bands[i].getDataType());
+            if (noDatas != null) noDatas[i] = bands[i].getNoData();
+        }
 
         final int startX = image.getMinTileX();
         final int startY = image.getMinTileY();
-        final int endX = startX + image.getNumXTiles();
-        final int endY = startY + image.getNumYTiles();
-
-        long totalTiles = image.getNumXTiles() * image.getNumYTiles();
-
-        //analyse each tiles
-        //todo make this parallel
-        Raster tile;
-        PixelIterator pix;
-        int step = 1;
-        for (long y = startY; y < endY; y++) {
-            for (long x = startX; x < endX; x++) {
-                tile = image.getTile(Math.toIntExact(x-startX), Math.toIntExact(y-startY));
-                pix = new PixelIterator.Builder().create(tile);
-
-                analyseRange(pix, stats, bands, excludeNoData);
-                pix.rewind();
-
-                mergeHistograms(histo, analyseHistogram(pix, bands, stats, excludeNoData));
-
-                updateBands(bands, histo);
-                fireProgressing("Histogram progressing", (step/totalTiles)*0.9f, true);
-                step++;
-            }
-        }
+        final int nbX = image.getNumXTiles();
+        final long totalTiles = (long) nbX * image.getNumYTiles();
+
+        //analyse tiles in parallel, partial results are merged in any order
+        final double[][] excluded = noDatas;
+        final TileStatistics result = LongStream.range(0, totalTiles)
+                .filter((long t) -> isSampled(t, nbX, tileStep))
+                .parallel()
+                .mapToObj((long t) -> {
+                    final Raster tile = image.getTile(startX + (int) (t % nbX), startY + (int) (t / nbX));
+                    return TileStatistics.analyse(tile, nbBins, excluded);
+                })
+                .reduce(TileStatistics::merge)
+                .orElseGet(() -> new TileStatistics(nbBins));
+        fireProgressing("Histogram computed", 90f, true);
 
         //copy statistics in band container
-        for(int i=0;i<bands.length;i++){
-            bands[i].setMin(stats[i].minimum());
-            bands[i].setMax(stats[i].maximum());
-            bands[i].setMean(stats[i].mean());
-            bands[i].setStd(stats[i].standardDeviation(true));
-        }
-
-    }
-
-    private void updateBands(ImageStatistics.Band[] bands, NumericHistogram[] histo) {
-        for (int i = 0; i < bands.length; i++) {
-            bands[i].setHistogram(histo[i].getHist());
-        }
-    }
-
-    private void mergeHistograms(NumericHistogram[] histo, NumericHistogram[] tileHisto) {
-
-        for (int i = 0; i < histo.length; i++) {
-            NumericHistogram histo1 = histo[i];
-            NumericHistogram histo2 = tileHisto[i];
-            histo[i] = mergeHistograms(histo1, histo2);
-        }
-    }
-
-    static NumericHistogram mergeHistograms(NumericHistogram histo1, NumericHistogram histo2) {
-
-        if (histo1 == null) {
-            return histo2;
-        }
-
-        int nbBins = histo1.getNbBins();
-        double min = Math.min(histo1.getMin(), histo2.getMin());
-        double max = Math.max(histo1.getMax(), histo2.getMax());
-        NumericHistogram resultHisto = new NumericHistogram(nbBins, min, max);
-
-        //add first histogram values
-        long[] hist1 = histo1.getHist();
-        double histo1BinSize = (histo1.getMax() - histo1.getMin()) / (double)nbBins;
-        for (int j = 0; j <nbBins; j++) {
-            double value = histo1.getMin()+histo1BinSize*j;
-            long occurs = hist1[j];
-            resultHisto.addValue(value, occurs);
-        }
-
-        //add second histogram values
-        long[] hist2 = histo2.getHist();
-        int nbBins2 = histo2.getNbBins();
-        double histo2BinSize = (histo2.getMax() - histo2.getMin()) / (double)nbBins2;
-        for (int j = 0; j <nbBins; j++) {
-            double value = histo2.getMin()+histo2BinSize*j;
-            long occurs = hist2[j];
-            resultHisto.addValue(value, occurs);
-        }
-
-        return resultHisto;
-    }
-
-    private void analyseRange(final PixelIterator pix, final org.apache.sis.math.Statistics[] stats,
-                              final ImageStatistics.Band[] bands, final boolean excludeNoData) {
-        //first pass to compute min/max values
-        double [][] noDatas = null;
-        if (excludeNoData) {
-            noDatas = new double[bands.length][];
-            for (int i = 0; i < bands.length; i++) {
-                noDatas[i] = bands[i].getNoData();
-            }
+        for (int i = 0; i < nbBands; i++) {
+            final org.apache.sis.math.Statistics stats = result.stats[i];
+            final NumericHistogram histo = new NumericHistogram(nbBins[i], stats.minimum(), stats.maximum());
+            result.histograms[i].copyTo(histo);
+            bands[i].setHistogram(histo.getHist());
+            bands[i].setMin(stats.minimum());
+            bands[i].setMax(stats.maximum());
+            bands[i].setMean(stats.mean());
+            bands[i].setStd(stats.standardDeviation(true));
         }
 
-        while (pix.next()) {
-            for (int b = 0; b < stats.length; b++) {
-                final double d = pix.getSampleDouble(b);
-                if (Double.isNaN(d) || Double.isInfinite(d)) {
-                    continue;
-                }
-
-                //remove noData from stats
-                if (noDatas != null && noDatas[b] != null && Arrays.binarySearch(noDatas[b], d) >= 0) {
-                    continue;
-                }
-
-                stats[b].accept(d);
-            }
-        }
     }
 
     /**
-     * Analyse each pixels using a PixelIterator
-     * @param pix PixelIterator
-     * @param bands
-     * @param excludeNoData
+     * Test if a tile is analysed when only one tile out of tileStep is.
+     * Sampled tiles are shifted by one column on each row, otherwise the same
+     * columns would always be sampled when the number of columns is a multiple
+     * of tileStep.
+     *
+     * @param t tile index in row-major order
+     * @param nbX number of tiles on a row
      */
-    private NumericHistogram[] analyseHistogram(final PixelIterator pix, final ImageStatistics.Band[] bands,
-                                                org.apache.sis.math.Statistics[] stats, final boolean excludeNoData) {
-
-        int nbBands = bands.length;
-        final NumericHistogram[] histograms = new NumericHistogram[nbBands];
-        for (int i = 0; i < nbBands; i++) {
-            int nbBins = getNbBins(bands[i].getDataType());
-            histograms[i] = new NumericHistogram(nbBins, stats[i].minimum(), stats[i].maximum());
-        }
-
-        //reset iterator
-        pix.rewind();
-
-        //second pass to compute histogram
-        // this int permit to loop on images band.
-        if (excludeNoData) {
-            while (pix.next()) {
-                for (int b = 0; b < nbBands; b++) {
-                    final double d = pix.getSampleDouble(b);
-
-                    //add value if not NaN or is flag as no-data
-                    if (!Double.isNaN(d) &&
-                            (bands[b].getNoData() == null || !(Arrays.binarySearch(bands[b].getNoData(), d) >= 0))) {
-                        histograms[b].addValue(d);
-                    }
-                }
-            }
-        } else {
-            //iter on each pixel band by band to add values on each band.
-            while (pix.next()) {
-                for (int b = 0; b < nbBands; b++) {
-                    final double d = pix.getSampleDouble(b);
-                    histograms[b].addValue(d);
-                }
-            }
-        }
-        return histograms;
+    static boolean isSampled(final long t, final int nbX, final int tileStep) {
+        return (t % nbX + t / nbX) % tileStep == 0;
     }
 
     private int getNbBins(SampleType dataType) {
@@ -87,11 +87,20 @@ public class StatisticsDescriptor extends AbstractProcessDescriptor {
             .setRequired(true)
             .create(Boolean.class, true);
 
+    /*
+     * Tile sampling step
+     */
+    public static final String IN_TILE_STEP_PARAM_NAME = "inTileStep";
+    public static final ParameterDescriptor<Integer> TILE_STEP = new ParameterBuilder()
+            .addName(IN_TILE_STEP_PARAM_NAME)
+            .setRemarks("Analyse one tile out of this step, 1 to analyse all tiles.")
+            .setRequired(true)
+            .createBounded(1, Integer.MAX_VALUE, 1);
 
     /**Input parameters */
     public static final ParameterDescriptorGroup INPUT_DESC =
             new ParameterBuilder().addName("InputParameters").createGroup(
-                    IMAGE, COVERAGE, REF, EXCLUDE_NO_DATA);
+                    IMAGE, COVERAGE, REF, EXCLUDE_NO_DATA, TILE_STEP);
 
     /*
      * Coverage result
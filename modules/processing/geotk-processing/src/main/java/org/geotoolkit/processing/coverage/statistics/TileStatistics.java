@@ -0,0 +1,245 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.processing.coverage.statistics;
+
+import java.awt.image.Raster;
+import java.util.Arrays;
+import org.apache.sis.image.PixelIterator;
+
+/**
+ * Partial statistics of a set of tiles.
+ * <br/>
+ * Each tile is analysed independently, partial results are then merged
+ * in any order. Merging is associative and commutative : histogram bins
+ * are aligned on powers of two, so rebinning a histogram in a wider range
+ * never splits a bin and the merged result does not depend on tile order.
+ *
+ * @module
+ */
+final class TileStatistics {
+
+    final org.apache.sis.math.Statistics[] stats;
+    final AlignedHistogram[] histograms;
+
+    TileStatistics(final int[] nbBins) {
+        stats = new org.apache.sis.math.Statistics[nbBins.length];
+        histograms = new AlignedHistogram[nbBins.length];
+        for (int b = 0; b < nbBins.length; b++) {
+            stats[b] = new org.apache.sis.math.Statistics("stats");
+            histograms[b] = new AlignedHistogram(nbBins[b]);
+        }
+    }
+
+    /**
+     * Compute statistics of a single tile.
+     *
+     * @param tile tile to analyse
+     * @param nbBins maximum number of histogram bins for each band
+     * @param noDatas excluded values for each band, sorted, array and elements may be null
+     * @return tile statistics
+     */
+    static TileStatistics analyse(final Raster tile, final int[] nbBins, final double[][] noDatas) {
+        final int nbBands = nbBins.length;
+        final TileStatistics result = new TileStatistics(nbBins);
+        final PixelIterator pix = new PixelIterator.Builder().create(tile);
+
+        //-- range, tile is in memory, a second pass on it is cheap --//
+        while (pix.next()) {
+            for (int b = 0; b < nbBands; b++) {
+                final double d = pix.getSampleDouble(b);
+                if (accept(d, noDatas, b)) result.stats[b].accept(d);
+            }
+        }
+
+        boolean empty = true;
+        for (int b = 0; b < nbBands; b++) {
+            final org.apache.sis.math.Statistics st = result.stats[b];
+            if (st.count() > 0) {
+                result.histograms[b].init(st.minimum(), st.maximum());
+                empty = false;
+            }
+        }
+        if (empty) return result;
+
+        //-- histogram --//
+        pix.rewind();
+        while (pix.next()) {
+            for (int b = 0; b < nbBands; b++) {
+                final double d = pix.getSampleDouble(b);
+                if (accept(d, noDatas, b)) result.histograms[b].add(d);
+            }
+        }
+        return result;
+    }
+
+    private static boolean accept(final double d, final double[][] noDatas, final int band) {
+        if (Double.isNaN(d) || Double.isInfinite(d)) {
+            return false;
+        }
+        return noDatas == null || noDatas[band] == null || Arrays.binarySearch(noDatas[band], d) < 0;
+    }
+
+    /**
+     * Merge given statistics in this instance.
+     *
+     * @param other statistics to merge, not modified
+     * @return this instance
+     */
+    TileStatistics merge(final TileStatistics other) {
+        for (int b = 0; b < stats.length; b++) {
+            stats[b].combine(other.stats[b]);
+            histograms[b].merge(other.histograms[b]);
+        }
+        return this;
+    }
+
+    /**
+     * Histogram with bins of width 2<sup>exp</sup> aligned on multiples of the width.
+     * <br/>
+     * Power of two widths are up to twice wider then needed, the histogram
+     * keeps between 2 and 4 bins for each requested bin so the copy in a
+     * histogram with the requested number of bins stays smooth.
+     */
+    static final class AlignedHistogram {
+
+        /** Number of internal bins for each requested bin. */
+        private static final int RESOLUTION = 4;
+
+        private final int maxBins;
+        /** Bin width is 2^exp. */
+        private int exp;
+        /** Index of the first bin, bin i covers [(start+i)*2^exp, (start+i+1)*2^exp[ . */
+        private long start;
+        /** Null while histogram is empty. */
+        private long[] hist;
+
+        /**
+         * @param nbBins number of bins of the histogram this one is copied to
+         */
+        AlignedHistogram(final int nbBins) {
+            this.maxBins = nbBins * RESOLUTION;
+        }
+
+        /**
+         * Allocate bins for values in given range.
+         */
+        void init(final double min, final double max) {
+            //-- keep bin indices exactly representable --//
+            final double maxAbs = Math.max(Math.abs(min), Math.abs(max));
+            exp = Math.max(Math.getExponent(maxAbs), Double.MIN_EXPONENT) - 52;
+            final double width = (max - min) / maxBins;
+            if (width > 0) {
+                exp = Math.max(exp, Math.getExponent(width));
+            }
+            while (index(max, exp) - index(min, exp) >= maxBins) exp++;
+            start = index(min, exp);
+            hist = new long[Math.toIntExact(index(max, exp) - start + 1)];
+        }
+
+        void add(final double value) {
+            hist[(int) (index(value, exp) - start)]++;
+        }
+
+        void merge(final AlignedHistogram other) {
+            if (other.hist == null) return;
+            if (hist == null) {
+                exp = other.exp;
+                start = other.start;
+                hist = other.hist.clone();
+                return;
+            }
+
+            //-- smallest common width where the union fits --//
+            int e = Math.max(exp, other.exp);
+            long lo, hi;
+            for (;;) {
+                lo = Math.min(shift(start, e - exp), shift(other.start, e - other.exp));
+                hi = Math.max(shift(start + hist.length - 1, e - exp), shift(other.start + other.hist.length - 1, e - other.exp));
+                if (hi - lo < maxBins) break;
+                e++;
+            }
+
+            final long[] merged = new long[Math.toIntExact(hi - lo + 1)];
+            rebin(merged, lo, e, this);
+            rebin(merged, lo, e, other);
+            exp = e;
+            start = lo;
+            hist = merged;
+        }
+
+        private static void rebin(final long[] target, final long lo, final int e, final AlignedHistogram source) {
+            final int d = e - source.exp;
+            for (int i = 0; i < source.hist.length; i++) {
+                target[(int) (shift(source.start + i, d) - lo)] += source.hist[i];
+            }
+        }
+
+        /**
+         * Copy values in given histogram. Values are assumed uniformly distributed
+         * in each bin, a bin count is spread over the target bins it overlaps.
+         */
+        void copyTo(final NumericHistogram target) {
+            if (hist == null) return;
+            final double min = target.getMin();
+            final double max = target.getMax();
+            final int nbBins = target.getNbBins();
+            final double binSize = (max - min) / nbBins;
+            for (int i = 0; i < hist.length; i++) {
+                final long count = hist[i];
+                if (count == 0) continue;
+                //-- bins overlap range bounds, values are inside the range --//
+                final double lo = Math.max(min, Math.scalb((double) (start + i), exp));
+                final double hi = Math.min(max, Math.scalb((double) (start + i + 1), exp));
+                if (!(hi > lo && binSize > 0)) {
+                    //-- bin starts on the maximum or all values are equal --//
+                    target.addValue(lo, count);
+                    continue;
+                }
+                final int first = Math.min(nbBins - 1, (int) ((lo - min) / binSize));
+                final int last = Math.min(nbBins - 1, (int) ((hi - min) / binSize));
+                //-- cumulated rounding, the sum of spread counts is exact --//
+                long added = 0;
+                for (int b = first; b <= last; b++) {
+                    final long cumul;
+                    if (b == last) {
+                        cumul = count;
+                    } else {
+                        final double end = Math.min(hi, min + (b + 1) * binSize);
+                        cumul = Math.round(count * ((end - lo) / (hi - lo)));
+                    }
+                    if (cumul > added) {
+                        target.addValue(min + (b + 0.5) * binSize, cumul - added);
+                        added = cumul;
+                    }
+                }
+            }
+        }
+
+        private static long index(final double value, final int exp) {
+            return (long) Math.floor(Math.scalb(value, -exp));
+        }
+
+        /**
+         * Index of the bin in a histogram 2^d times coarser, rounded toward negative infinity.
+         */
+        private static long shift(final long index, final int d) {
+            if (d >= Long.SIZE - 1) return (index < 0) ? -1 : 0;
+            return index >> d;
+        }
+    }
+
+}
@@ -64,9 +64,27 @@ public final class SpatialJoinDescriptor extends VectorDescriptor {
             .setRequired(false)
             .create(Boolean.class, true);
 
+    /**
+     * Optional - Join predicate, replaces the intersect parameter when defined.
+     */
+    public static final ParameterDescriptor<SpatialJoinPredicate> PREDICATE = new ParameterBuilder()
+            .addName("predicate")
+            .setRemarks("Join predicate : intersects, within, nearest or within distance")
+            .setRequired(false)
+            .create(SpatialJoinPredicate.class, null);
+
+    /**
+     * Optional - Maximum distance, used by the within distance predicate.
+     */
+    public static final ParameterDescriptor<Double> DISTANCE = new ParameterBuilder()
+            .addName("distance")
+            .setRemarks("Maximum distance for within distance predicate, in target geometry units")
+            .setRequired(false)
+            .create(Double.class, 0.0);
+
     /** Input Parameters */
     public static final ParameterDescriptorGroup INPUT_DESC =
-            new ParameterBuilder().addName("InputParameters").createGroup(FEATURESET_IN, FEATURE_TARGET,INTERSECT);
+            new ParameterBuilder().addName("InputParameters").createGroup(FEATURESET_IN, FEATURE_TARGET,INTERSECT,PREDICATE,DISTANCE);
 
     /** Ouput Parameters */
     public static final ParameterDescriptorGroup OUTPUT_DESC =
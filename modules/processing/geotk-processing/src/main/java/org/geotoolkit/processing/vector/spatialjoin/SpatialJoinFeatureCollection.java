@@ -20,6 +20,8 @@ import java.util.stream.Stream;
 import org.apache.sis.internal.storage.AbstractFeatureSet;
 import org.apache.sis.storage.DataStoreException;
 import org.apache.sis.storage.FeatureSet;
+import org.geotoolkit.feature.FeatureExt;
+import org.locationtech.jts.geom.Geometry;
 import org.opengis.feature.Feature;
 import org.opengis.feature.FeatureType;
 
@@ -33,7 +35,8 @@ public class SpatialJoinFeatureCollection extends AbstractFeatureSet {
     private final FeatureType newFeatureType;
     private final FeatureSet targetFC;
     private final FeatureSet sourceFC;
-    private final boolean method;
+    private final SpatialJoinPredicate predicate;
+    private final double distance;
 
     /**
      * Create the new
@@ -43,10 +46,23 @@ public class SpatialJoinFeatureCollection extends AbstractFeatureSet {
      */
     public SpatialJoinFeatureCollection(final FeatureSet sourceFC,
             final FeatureSet targetFC, final boolean method) throws DataStoreException {
+        this(sourceFC, targetFC, method ? SpatialJoinPredicate.INTERSECTS : SpatialJoinPredicate.NEAREST, 0.0);
+    }
+
+    /**
+     * Create the new
+     * @param sourceFC the source FeatureCollection
+     * @param targetFC the target FeatureCollection
+     * @param predicate the join predicate
+     * @param distance maximum distance for {@link SpatialJoinPredicate#WITHIN_DISTANCE}
+     */
+    public SpatialJoinFeatureCollection(final FeatureSet sourceFC, final FeatureSet targetFC,
+            final SpatialJoinPredicate predicate, final double distance) throws DataStoreException {
         super(null);
         this.targetFC = targetFC;
         this.sourceFC = sourceFC;
-        this.method = method;
+        this.predicate = predicate;
+        this.distance = distance;
         this.newFeatureType = SpatialJoinProcess.concatType(targetFC.getType(), sourceFC.getType());
     }
 
@@ -60,18 +76,18 @@ public class SpatialJoinFeatureCollection extends AbstractFeatureSet {
     }
 
     /**
-     *  {@inheritDoc }
+     * Source features are indexed once for each stream, each target feature is then
+     * joined with a search in the index. Changes made to the source after this call
+     * are not visible in the returned stream. Searches are independent,
+     * they run concurrently when a parallel stream is requested.
      */
-    private Feature modify(final Feature original) {
-        try {
-            return SpatialJoinProcess.join(original, newFeatureType, sourceFC, method);
-        } catch (DataStoreException ex) {
-            throw new RuntimeException(ex.getMessage(), ex);
-        }
-    }
-
     @Override
     public Stream<Feature> features(boolean parallel) throws DataStoreException {
-        return targetFC.features(parallel).map(this::modify);
+        final SpatialJoinIndex index = new SpatialJoinIndex(sourceFC, FeatureExt.getCRS(targetFC.getType()), predicate, distance);
+        final String geomName = SpatialJoinIndex.defaultGeometryName(targetFC.getType());
+        return targetFC.features(parallel).map((Feature target) -> {
+            final Geometry geom = (geomName == null) ? null : (Geometry) target.getPropertyValue(geomName);
+            return SpatialJoinProcess.join(target, newFeatureType, index.search(geom));
+        });
     }
 }
@@ -0,0 +1,201 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.processing.vector.spatialjoin;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.apache.sis.storage.DataStoreException;
+import org.apache.sis.storage.FeatureSet;
+import static org.apache.sis.util.ArgumentChecks.ensureNonNull;
+import org.geotoolkit.feature.FeatureExt;
+import org.geotoolkit.processing.vector.VectorProcessUtils;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.strtree.ItemBoundable;
+import org.locationtech.jts.index.strtree.ItemDistance;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.opengis.feature.Feature;
+import org.opengis.feature.FeatureType;
+import org.opengis.feature.PropertyNotFoundException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+
+/**
+ * In memory R-tree of the source features of a spatial join.
+ * <br/>
+ * The tree is built once, then searched for each target feature.
+ * Searches are read only and can be made concurrently.
+ * When several sources match with the same score, the first one in the
+ * source iteration order is returned, as a sequential scan would.
+ *
+ * @module
+ */
+final class SpatialJoinIndex {
+
+    private static final ItemDistance DISTANCE = (ItemBoundable item1, ItemBoundable item2) ->
+            ((Entry) item1.getItem()).geometry.distance(((Entry) item2.getItem()).geometry);
+
+    private final STRtree tree = new STRtree();
+    private final SpatialJoinPredicate predicate;
+    private final double distance;
+    private final int size;
+
+    /**
+     * @param source features to index
+     * @param crs geometries are reprojected in this crs, may be null
+     * @param predicate join predicate
+     * @param distance maximum distance for {@link SpatialJoinPredicate#WITHIN_DISTANCE}
+     */
+    SpatialJoinIndex(final FeatureSet source, final CoordinateReferenceSystem crs,
+            final SpatialJoinPredicate predicate, final double distance) throws DataStoreException {
+        ensureNonNull("source", source);
+        ensureNonNull("predicate", predicate);
+        this.predicate = predicate;
+        this.distance = distance;
+
+        final FeatureType type = source.getType();
+        final String geomName = defaultGeometryName(type);
+        final CoordinateReferenceSystem sourceCrs = FeatureExt.getCRS(type);
+
+        int rank = 0;
+        try (Stream<Feature> stream = source.features(false)) {
+            final Iterator<Feature> ite = stream.iterator();
+            while (ite.hasNext()) {
+                final Feature feature = ite.next();
+                Geometry geom = (geomName == null) ? null : (Geometry) feature.getPropertyValue(geomName);
+                if (geom == null || geom.isEmpty()) continue;
+                if (crs != null && sourceCrs != null) {
+                    geom = VectorProcessUtils.repojectGeometry(crs, sourceCrs, geom);
+                }
+                tree.insert(geom.getEnvelopeInternal(), new Entry(rank++, feature, geom));
+            }
+        } catch (TransformException | FactoryException ex) {
+            throw new DataStoreException(ex.getMessage(), ex);
+        }
+        size = rank;
+        //-- build now, searches must not modify the tree --//
+        tree.build();
+    }
+
+    /**
+     * Find the source feature joined to given geometry.
+     *
+     * @param target target geometry
+     * @return joined source feature, null if none match
+     */
+    Feature search(final Geometry target) {
+        if (size == 0 || target == null || target.isEmpty()) return null;
+
+        final Entry entry;
+        switch (predicate) {
+            case INTERSECTS :      entry = searchIntersects(target); break;
+            case WITHIN :          entry = searchWithin(target); break;
+            case NEAREST :         entry = searchNearest(target); break;
+            case WITHIN_DISTANCE : entry = searchWithinDistance(target, target.getEnvelopeInternal(), distance); break;
+            default : throw new IllegalStateException("Unexpected predicate " + predicate);
+        }
+        return (entry == null) ? null : entry.feature;
+    }
+
+    /**
+     * Intersection areas are only computed when several sources intersect the target.
+     */
+    private Entry searchIntersects(final Geometry target) {
+        Entry best = null;
+        double bestArea = Double.NaN;
+        for (Entry candidate : query(target.getEnvelopeInternal())) {
+            if (!candidate.geometry.intersects(target)) continue;
+            if (best == null) {
+                best = candidate;
+                continue;
+            }
+            if (Double.isNaN(bestArea)) {
+                bestArea = target.intersection(best.geometry).getArea();
+            }
+            final double area = target.intersection(candidate.geometry).getArea();
+            if (area > bestArea || (area == bestArea && candidate.rank < best.rank)) {
+                best = candidate;
+                bestArea = area;
+            }
+        }
+        return best;
+    }
+
+    private Entry searchWithin(final Geometry target) {
+        Entry best = null;
+        for (Entry candidate : query(target.getEnvelopeInternal())) {
+            if ((best == null || candidate.rank < best.rank) && target.within(candidate.geometry)) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private Entry searchNearest(final Geometry target) {
+        final Envelope env = target.getEnvelopeInternal();
+        final Entry nearest = (Entry) tree.nearestNeighbour(env, new Entry(-1, null, target), DISTANCE);
+        if (nearest == null) return null;
+        //-- other sources may be at the same distance --//
+        return searchWithinDistance(target, env, nearest.geometry.distance(target));
+    }
+
+    private Entry searchWithinDistance(final Geometry target, final Envelope env, final double maxDistance) {
+        final Envelope search = new Envelope(env);
+        search.expandBy(maxDistance);
+        Entry best = null;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (Entry candidate : query(search)) {
+            final double dist = candidate.geometry.distance(target);
+            if (dist > maxDistance) continue;
+            if (best == null || dist < bestDistance || (dist == bestDistance && candidate.rank < best.rank)) {
+                best = candidate;
+                bestDistance = dist;
+            }
+        }
+        return best;
+    }
+
+    private List<Entry> query(final Envelope env) {
+        return tree.query(env);
+    }
+
+    /**
+     * @return name of the default geometry property, null if type has no geometry
+     */
+    static String defaultGeometryName(final FeatureType type) {
+        try {
+            return FeatureExt.getDefaultGeometry(type).getName().toString();
+        } catch (PropertyNotFoundException | IllegalStateException ex) {
+            return null;
+        }
+    }
+
+    private static final class Entry {
+        private final int rank;
+        private final Feature feature;
+        private final Geometry geometry;
+
+        private Entry(final int rank, final Feature feature, final Geometry geometry) {
+            this.rank = rank;
+            this.feature = feature;
+            this.geometry = geometry;
+        }
+    }
+
+}
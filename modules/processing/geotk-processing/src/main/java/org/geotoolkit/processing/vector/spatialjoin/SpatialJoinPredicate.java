@@ -0,0 +1,45 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.processing.vector.spatialjoin;
+
+/**
+ * Relation used to find the source feature joined to a target feature.
+ *
+ * @module
+ */
+public enum SpatialJoinPredicate {
+    /**
+     * Source geometry intersects target geometry.
+     * If several sources match, the one with the biggest intersection area is used.
+     */
+    INTERSECTS,
+    /**
+     * Target geometry is within source geometry.
+     * If several sources match, the first one is used.
+     */
+    WITHIN,
+    /**
+     * Source geometry nearest to the target geometry.
+     * If several sources are at the same distance, the first one is used.
+     */
+    NEAREST,
+    /**
+     * Source geometry at a distance lower or equal to the join distance.
+     * If several sources match, the nearest one is used.
+     */
+    WITHIN_DISTANCE
+}
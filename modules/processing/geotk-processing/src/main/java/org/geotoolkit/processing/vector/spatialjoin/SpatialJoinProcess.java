@@ -16,39 +16,26 @@
  */
 package org.geotoolkit.processing.vector.spatialjoin;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.logging.Level;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.apache.sis.feature.builder.FeatureTypeBuilder;
 import org.apache.sis.internal.feature.AttributeConvention;
-import org.apache.sis.parameter.Parameters;
 import org.apache.sis.storage.DataStoreException;
 import org.apache.sis.storage.FeatureSet;
-import org.apache.sis.util.logging.Logging;
 import org.geotoolkit.feature.FeatureExt;
 import org.geotoolkit.feature.SingleAttributeTypeBuilder;
-import org.geotoolkit.geometry.jts.JTS;
-import org.geotoolkit.process.ProcessDescriptor;
 import org.geotoolkit.process.ProcessException;
 import org.geotoolkit.processing.AbstractProcess;
 import org.geotoolkit.processing.vector.VectorDescriptor;
-import org.geotoolkit.processing.vector.intersect.IntersectDescriptor;
-import org.geotoolkit.processing.vector.nearest.NearestDescriptor;
-import org.locationtech.jts.geom.Geometry;
 import org.opengis.feature.AttributeType;
 import org.opengis.feature.Feature;
 import org.opengis.feature.FeatureType;
 import org.opengis.feature.PropertyType;
 import org.opengis.parameter.ParameterValueGroup;
-import org.opengis.referencing.crs.CoordinateReferenceSystem;
-
 
 
 /**
  * Process return the target FeatureCollection with source FeatureCollection attributes.
- * The link between target and source depend of method used (Intersect or Nearest).
+ * The link between target and source depend of the predicate used
+ * (Intersects, Within, Nearest or Within distance).
  *
  * @author Quentin Boileau
  */
@@ -68,10 +55,16 @@ public class SpatialJoinProcess extends AbstractProcess {
         final FeatureSet sourceFeatureList = inputParameters.getValue(VectorDescriptor.FEATURESET_IN);
         final FeatureSet targetFeatureList = inputParameters.getValue(SpatialJoinDescriptor.FEATURE_TARGET);
         final boolean method = inputParameters.getValue(SpatialJoinDescriptor.INTERSECT);
+        SpatialJoinPredicate predicate = inputParameters.getValue(SpatialJoinDescriptor.PREDICATE);
+        if (predicate == null) {
+            predicate = method ? SpatialJoinPredicate.INTERSECTS : SpatialJoinPredicate.NEAREST;
+        }
+        final Double distance = inputParameters.getValue(SpatialJoinDescriptor.DISTANCE);
 
         final FeatureSet resultFeatureList;
         try {
-            resultFeatureList = new SpatialJoinFeatureCollection(sourceFeatureList, targetFeatureList, method);
+            resultFeatureList = new SpatialJoinFeatureCollection(sourceFeatureList, targetFeatureList,
+                    predicate, distance == null ? 0.0 : distance);
         } catch (DataStoreException ex) {
             throw new ProcessException(ex.getMessage(), this);
         }
@@ -80,29 +73,21 @@ public class SpatialJoinProcess extends AbstractProcess {
     }
 
     /**
-     * This function join target Feature with another Feature form a source FeatureCollection.
-     *
-     * If boolean <code>method</code> is true, the method used is Intersect, else it's Nearest.
-     *
-     * If there is no Feature which Intersect the target Geometry, the return Feature
-     * will have "joined attributes" set to null.
+     * This function join target Feature with the source Feature found by the join predicate.
      *
-     * If there is more than one result for Nearest method
-     * (many Feature at the same distance), we use the first returned.
-     *
-     * If there is more than one result for Intersect method , we use the Feature
-     * with the biggest intersection area with target Geometry.
+     * If there is no source Feature, the return Feature will have "joined attributes" set to null.
      *
      * @param target the target Feature
      * @param newType the concatenated FeatureType
-     * @param sourceFC the source FeatureCollection
-     * @param method the used method. True -> Intersect, False -> Nearest
+     * @param source the joined source Feature, may be null
      * @return the joined feature
      */
-    static Feature join(final Feature target, final FeatureType newType,
-            final FeatureSet sourceFC, final boolean method) throws DataStoreException {
+    static Feature join(final Feature target, final FeatureType newType, final Feature source) {
+        if (source != null) {
+            return copyAttributes(target, source, newType);
+        }
 
-        Feature resultFeature = newType.newInstance();
+        final Feature resultFeature = newType.newInstance();
         FeatureExt.setId(resultFeature, FeatureExt.getId(target));
 
         //copy target Feature
@@ -112,67 +97,6 @@ public class SpatialJoinProcess extends AbstractProcess {
                 resultFeature.setPropertyValue(name, target.getPropertyValue(name));
             }
         }
-
-        ProcessDescriptor desc;
-        org.geotoolkit.process.Process proc;
-        Parameters in;
-        ArrayList<Feature> featureOutArray;
-
-        //for each target feature geometry
-        for (final PropertyType property : target.getType().getProperties(true)) {
-            if (AttributeConvention.isGeometryAttribute(property)) {
-                final Geometry targetGeometry = (Geometry) target.getPropertyValue(property.getName().toString());
-                final CoordinateReferenceSystem geomCRS = FeatureExt.getCRS(property);
-
-                JTS.setCRS(targetGeometry, geomCRS);        //add CRS to the used data geometry
-                //use intersect method
-                if (method) {
-                    desc = IntersectDescriptor.INSTANCE;
-                    in = Parameters.castOrWrap(desc.getInputDescriptor().createValue());
-                    in.getOrCreate(IntersectDescriptor.FEATURESET_IN ).setValue(sourceFC);
-                    in.getOrCreate(IntersectDescriptor.GEOMETRY_IN).setValue(targetGeometry);
-                    proc = desc.createProcess(in);
-
-                } else {    //use nearest method
-                    desc = NearestDescriptor.INSTANCE;
-                    in = Parameters.castOrWrap(desc.getInputDescriptor().createValue());
-                    in.getOrCreate(NearestDescriptor.FEATURESET_IN ).setValue(sourceFC);
-                    in.getOrCreate(NearestDescriptor.GEOMETRY_IN).setValue(targetGeometry);
-                    proc = desc.createProcess(in);
-                }
-
-                //run it
-                final FeatureSet featureOut;
-                try {
-                    featureOut = (FeatureSet) proc.call().parameter("feature_out").getValue();
-                } catch (ProcessException ex) {
-                    Logging.getLogger("org.geotoolkit.processing.vector.spatialjoin").log(Level.WARNING, null, ex);
-                    return null;
-                }
-
-                featureOutArray = new ArrayList<>(featureOut.features(false).collect(Collectors.toList()));
-
-                if (method) {   //intersect method
-
-                    if (featureOutArray.isEmpty()) { //no intersection
-                        return resultFeature;
-                    } else {
-                        if (featureOutArray.size() > 1) { //more than one intersection
-                            final Feature biggestFeature = biggestIntersection(featureOut, targetGeometry);
-                            resultFeature = copyAttributes(target, biggestFeature, newType);
-                        } else {// only one intersection
-                            resultFeature = copyAttributes(target, featureOutArray.get(0), newType);
-                        }
-                    }
-                } else {    //nearest method
-                    if (featureOutArray.isEmpty()) {
-                        return resultFeature;
-                    } else {
-                        resultFeature = copyAttributes(target, featureOutArray.get(0), newType);
-                    }
-                }
-            }
-        }
         return resultFeature;
     }
 
@@ -215,40 +139,6 @@ public class SpatialJoinProcess extends AbstractProcess {
         return resultFeature;
     }
 
-    /**
-     * Return the Feature with the biggest intersection area with the geometry.
-     * If there is many Feature with the same area, the function return the first founded.
-     * @param outFC
-     * @param intersectGeometry
-     * @return the Feature
-     */
-    static Feature biggestIntersection(final FeatureSet outFC, final Geometry intersectGeometry) throws DataStoreException {
-        double area = 0.0;
-        final ArrayList<Feature> listID = new ArrayList<>();
-        try (Stream<Feature> stream = outFC.features(false)) {
-            final Iterator<Feature> iter = stream.iterator();
-            while (iter.hasNext()) {
-                final Feature feature = iter.next();
-                for (final PropertyType property : feature.getType().getProperties(true)) {
-                    if (AttributeConvention.isGeometryAttribute(property)) {
-                        final Geometry geom = (Geometry) feature.getPropertyValue(property.getName().toString());
-                        final double computeArea = intersectGeometry.intersection(geom).getArea();
-                        if (computeArea > area) {
-                            listID.clear();
-                            area = computeArea;
-                            listID.add(feature);
-                        } else {
-                            if (computeArea == area) {
-                                listID.add(feature);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return listID.get(0);
-    }
-
     /**
      * Create a new FeatureType with the target FeatureType and adding
      * source attributes except the geometry descriptor.
@@ -16,6 +16,8 @@
  */
 package org.geotoolkit.processing.coverage.statistics;
 
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
 import org.apache.sis.coverage.SampleDimension;
 import org.apache.sis.coverage.grid.GridCoverage;
 import org.apache.sis.coverage.grid.GridCoverageBuilder;
@@ -94,64 +96,6 @@ public class StatisticsTest extends org.geotoolkit.test.TestBase {
         System.out.println("Histogram computed for 100.000.000 values finished in "+(end-start)+" ms");
     }
 
-    @Test
-    public void mergeHistogramTest() {
-
-        long[] expectHisto = new long[] {1, 1, 1, 1, 1, 1, 1, 1, 1, 1};
-        long[] expectMerge = new long[] {3, 2, 2, 2, 2, 2, 2, 2, 2, 1};
-
-        NumericHistogram histo1 = new NumericHistogram(10, 0.0, 10.0);
-        NumericHistogram histo2 = new NumericHistogram(10, 1.0, 11.0);
-
-        for (long i = 0; i < 10; i++) {
-            histo1.addValue((double)i, 1);
-            histo2.addValue((double)i+histo2.getMin(), 1);
-        }
-
-        Assert.assertArrayEquals(expectHisto, histo1.getHist());
-        Assert.assertArrayEquals(expectHisto, histo2.getHist());
-
-        NumericHistogram merged = Statistics.mergeHistograms(histo1, histo2);
-        //System.out.println(Arrays.toString(merged.getHist()));
-        Assert.assertArrayEquals(expectMerge, merged.getHist());
-
-        // test 2
-        expectMerge = new long[] {2, 2, 2, 2, 2, 2, 2, 2, 2, 2};
-
-        histo1 = new NumericHistogram(10, 0.0, 10.0);
-        histo2 = new NumericHistogram(10, 0.0, 10.0);
-
-        for (long i = 0; i < 10; i++) {
-            histo1.addValue((double)i, 1);
-            histo2.addValue((double)i+histo2.getMin(), 1);
-        }
-
-        Assert.assertArrayEquals(expectHisto, histo1.getHist());
-        Assert.assertArrayEquals(expectHisto, histo2.getHist());
-
-        merged = Statistics.mergeHistograms(histo1, histo2);
-        //System.out.println(Arrays.toString(merged.getHist()));
-        Assert.assertArrayEquals(expectMerge, merged.getHist());
-
-        // test 3
-        expectMerge = new long[] {3, 2, 3, 2, 0, 0, 3, 2, 3, 2};
-
-        histo1 = new NumericHistogram(10, 0.0, 10.0);
-        histo2 = new NumericHistogram(10, 15.0, 25.0);
-
-        for (long i = 0; i < 10; i++) {
-            histo1.addValue((double)i, 1);
-            histo2.addValue((double)i+histo2.getMin(), 1);
-        }
-
-        Assert.assertArrayEquals(expectHisto, histo1.getHist());
-        Assert.assertArrayEquals(expectHisto, histo2.getHist());
-
-        merged = Statistics.mergeHistograms(histo1, histo2);
-        //System.out.println(Arrays.toString(merged.getHist()));
-        Assert.assertArrayEquals(expectMerge, merged.getHist());
-    }
-
     @Test
     public void testTightenDistribution() {
         int fullDistribSize = 223;
@@ -182,4 +126,53 @@ public class StatisticsTest extends org.geotoolkit.test.TestBase {
         Assert.assertEquals(expectSum, resultSum);
     }
 
+    /**
+     * Histogram of a byte ramp must not have empty bins.
+     */
+    @Test
+    public void testByteRampHistogram() throws ProcessException {
+        final BufferedImage image = new BufferedImage(256, 4, BufferedImage.TYPE_BYTE_GRAY);
+        final WritableRaster raster = image.getRaster();
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 256; x++) {
+                raster.setSample(x, y, 0, x);
+            }
+        }
+
+        final ImageStatistics.Band band = Statistics.analyse(image, true).getBand(0);
+        Assert.assertEquals(0d, band.getMin(), 0d);
+        Assert.assertEquals(255d, band.getMax(), 0d);
+        final long[] histo = band.getHistogram();
+        long sum = 0;
+        for (int i = 0; i < histo.length; i++) {
+            Assert.assertTrue("empty bin " + i, histo[i] > 0);
+            sum += histo[i];
+        }
+        Assert.assertEquals(256 * 4, sum);
+    }
+
+    /**
+     * Sampled tiles must cover all columns and rows, even when the number
+     * of columns is a multiple of the tile step.
+     */
+    @Test
+    public void testSampledTiles() {
+        final int nbX = 4;
+        final int nbY = 4;
+        final int tileStep = 2;
+        final boolean[] columns = new boolean[nbX];
+        final boolean[] rows = new boolean[nbY];
+        int count = 0;
+        for (long t = 0; t < nbX * nbY; t++) {
+            if (Statistics.isSampled(t, nbX, tileStep)) {
+                columns[(int) (t % nbX)] = true;
+                rows[(int) (t / nbX)] = true;
+                count++;
+            }
+        }
+        Assert.assertEquals(nbX * nbY / tileStep, count);
+        for (int i = 0; i < nbX; i++) Assert.assertTrue("column " + i, columns[i]);
+        for (int i = 0; i < nbY; i++) Assert.assertTrue("row " + i, rows[i]);
+    }
+
 }
@@ -0,0 +1,86 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.processing.coverage.statistics;
+
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test partial tile statistics merge gives the same result in any order.
+ */
+public class TileStatisticsTest extends org.geotoolkit.test.TestBase {
+
+    private static final int[] NB_BINS = {1000};
+
+    @Test
+    public void testMergeOrder() {
+        final Random random = new Random(42);
+        final WritableRaster raster = Raster.createBandedRaster(DataBuffer.TYPE_DOUBLE, 64, 64, 1, null);
+        for (int y = 0; y < 64; y++) {
+            for (int x = 0; x < 64; x++) {
+                //-- each quarter has a different range --//
+                final double offset = (x < 32 ? 0 : 1000) + (y < 32 ? 0 : -250.5);
+                raster.setSample(x, y, 0, offset + random.nextDouble() * (x < 32 ? 10 : 400));
+            }
+        }
+        raster.setSample(3, 3, 0, Double.NaN);
+
+        final TileStatistics whole = TileStatistics.analyse(raster, NB_BINS, null);
+        final TileStatistics[] tiles = new TileStatistics[4];
+        for (int i = 0; i < 4; i++) {
+            tiles[i] = TileStatistics.analyse(raster.createChild((i % 2) * 32, (i / 2) * 32, 32, 32, 0, 0, null), NB_BINS, null);
+        }
+        final TileStatistics tile0 = TileStatistics.analyse(raster.createChild(0, 0, 32, 32, 0, 0, null), NB_BINS, null);
+
+        //-- merge modifies the left operand, tile 0 is analysed again for the second order --//
+        final TileStatistics left = tiles[0].merge(tiles[1]).merge(tiles[2]).merge(tiles[3]);
+        final TileStatistics right = tiles[3].merge(tiles[2].merge(tile0.merge(tiles[1])));
+
+        Assert.assertEquals(64 * 64 - 1, left.stats[0].count());
+        Assert.assertEquals(whole.stats[0].minimum(), left.stats[0].minimum(), 0.0);
+        Assert.assertEquals(whole.stats[0].maximum(), right.stats[0].maximum(), 0.0);
+        Assert.assertArrayEquals(histogram(whole), histogram(left));
+        Assert.assertArrayEquals(histogram(whole), histogram(right));
+        Assert.assertEquals(64 * 64 - 1, sum(histogram(left)));
+    }
+
+    @Test
+    public void testConstantTile() {
+        final WritableRaster raster = Raster.createBandedRaster(DataBuffer.TYPE_FLOAT, 8, 8, 1, null);
+        final TileStatistics stats = TileStatistics.analyse(raster, NB_BINS, null);
+        final long[] hist = histogram(stats);
+        Assert.assertEquals(64, hist[0]);
+        Assert.assertEquals(64, sum(hist));
+    }
+
+    private static long[] histogram(final TileStatistics stats) {
+        final NumericHistogram histo = new NumericHistogram(NB_BINS[0], stats.stats[0].minimum(), stats.stats[0].maximum());
+        stats.histograms[0].copyTo(histo);
+        return histo.getHist();
+    }
+
+    private static long sum(final long[] hist) {
+        long sum = 0;
+        for (long l : hist) sum += l;
+        return sum;
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.processing.vector.spatialjoin;
+
+import org.apache.sis.feature.builder.AttributeRole;
+import org.apache.sis.feature.builder.FeatureTypeBuilder;
+import org.apache.sis.internal.feature.AttributeConvention;
+import org.geotoolkit.storage.feature.FeatureCollection;
+import org.geotoolkit.storage.feature.FeatureStoreUtilities;
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.Feature;
+import org.opengis.feature.FeatureType;
+
+/**
+ * Test spatial join index predicates.
+ */
+public class SpatialJoinIndexTest {
+
+    private static final GeometryFactory GF = new GeometryFactory();
+
+    private final FeatureCollection sources;
+
+    public SpatialJoinIndexTest() {
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName("source");
+        ftb.addAttribute(String.class).setName(AttributeConvention.IDENTIFIER_PROPERTY);
+        ftb.addAttribute(Geometry.class).setName("geom").addRole(AttributeRole.DEFAULT_GEOMETRY);
+        final FeatureType type = ftb.build();
+
+        sources = FeatureStoreUtilities.collection("source", type);
+        //-- a grid of 10x10 squares, two overlapping squares at the end --//
+        for (int y = 0; y < 10; y++) {
+            for (int x = 0; x < 10; x++) {
+                sources.add(create(type, "s" + x + "_" + y, square(x * 10, y * 10, 10)));
+            }
+        }
+        sources.add(create(type, "big1", square(200, 0, 20)));
+        sources.add(create(type, "big2", square(200, 0, 20)));
+    }
+
+    @Test
+    public void testIntersects() throws Exception {
+        final SpatialJoinIndex index = new SpatialJoinIndex(sources, null, SpatialJoinPredicate.INTERSECTS, 0);
+        //-- biggest intersection area --//
+        Assert.assertEquals("s2_3", id(index.search(square(21, 31, 10))));
+        //-- same area, first feature --//
+        Assert.assertEquals("big1", id(index.search(square(205, 5, 2))));
+        Assert.assertNull(index.search(square(500, 500, 1)));
+    }
+
+    @Test
+    public void testWithin() throws Exception {
+        final SpatialJoinIndex index = new SpatialJoinIndex(sources, null, SpatialJoinPredicate.WITHIN, 0);
+        Assert.assertEquals("s4_7", id(index.search(GF.createPoint(new Coordinate(45, 75)))));
+        Assert.assertEquals("big1", id(index.search(GF.createPoint(new Coordinate(210, 10)))));
+        //-- overlaps several squares --//
+        Assert.assertNull(index.search(square(15, 15, 10)));
+    }
+
+    @Test
+    public void testNearest() throws Exception {
+        final SpatialJoinIndex index = new SpatialJoinIndex(sources, null, SpatialJoinPredicate.NEAREST, 0);
+        Assert.assertEquals("s9_0", id(index.search(GF.createPoint(new Coordinate(150, 5)))));
+        Assert.assertEquals("big1", id(index.search(GF.createPoint(new Coordinate(260, 10)))));
+    }
+
+    @Test
+    public void testWithinDistance() throws Exception {
+        final SpatialJoinIndex index = new SpatialJoinIndex(sources, null, SpatialJoinPredicate.WITHIN_DISTANCE, 20);
+        Assert.assertEquals("s9_0", id(index.search(GF.createPoint(new Coordinate(115, 5)))));
+        Assert.assertNull(index.search(GF.createPoint(new Coordinate(150, 5))));
+    }
+
+    private static String id(final Feature feature) {
+        return (feature == null) ? null : String.valueOf(feature.getPropertyValue(AttributeConvention.IDENTIFIER_PROPERTY.toString()));
+    }
+
+    private static Feature create(final FeatureType type, final String id, final Geometry geom) {
+        final Feature feature = type.newInstance();
+        feature.setPropertyValue(AttributeConvention.IDENTIFIER_PROPERTY.toString(), id);
+        feature.setPropertyValue("geom", geom);
+        return feature;
+    }
+
+    private static Geometry square(final double x, final double y, final double size) {
+        return GF.createPolygon(new Coordinate[]{
+            new Coordinate(x, y),
+            new Coordinate(x, y + size),
+            new Coordinate(x + size, y + size),
+            new Coordinate(x + size, y),
+            new Coordinate(x, y)
+        });
+    }
+
+}
@@ -0,0 +1,421 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.image.io.plugin;
+
+import java.awt.Rectangle;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferDouble;
+import java.awt.image.DataBufferFloat;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferShort;
+import java.awt.image.DataBufferUShort;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decodes compressed TIFF tiles or strips and writes their samples in a destination raster.
+ * <br/>
+ * Strips are handled as tiles of image width. Each call to {@link #decode(byte[], int, int, int, int) }
+ * only uses local buffers and writes distinct destination samples, blocks can be decoded
+ * concurrently.
+ * <br/>
+ * Supported compressions are LZW (5), Deflate (8 and 32946) and PackBits (32773),
+ * with horizontal differencing (predictor 2) or floating point (predictor 3) predictors.
+ */
+final class TiffBlockDecoder {
+
+    private static final int LZW_CLEAR_CODE = 256;
+    private static final int LZW_EOI_CODE   = 257;
+    private static final int LZW_MAX_CODES  = 4096;
+
+    private final int compression;
+    private final int predictor;
+    private final ByteOrder byteOrder;
+    private final int bytesPerSample;
+    /** number of samples of a pixel in a block, 1 for planar images */
+    private final int pixelLength;
+    private final int blockWidth;
+
+    //-- destination --//
+    private final int dataType;
+    private final Object[] bandArrays;
+    private final int[] bandOffsets;
+    private final int pixelStride;
+    private final int scanlineStride;
+    private final Rectangle srcRegion;
+    private final int xSubsampling;
+    private final int ySubsampling;
+
+    /**
+     * @param compression TIFF compression
+     * @param predictor TIFF predictor, 1 if none
+     * @param byteOrder file byte order
+     * @param bitsPerSample bits per sample, a multiple of 8
+     * @param pixelLength samples per pixel in a block
+     * @param blockWidth tile width or image width for strips
+     * @param raster destination raster, must use a {@link ComponentSampleModel}
+     * @param srcRegion source region to read
+     * @param dstRegion destination region to write
+     */
+    TiffBlockDecoder(int compression, int predictor, ByteOrder byteOrder, int bitsPerSample,
+            int pixelLength, int blockWidth, WritableRaster raster, Rectangle srcRegion,
+            Rectangle dstRegion, int xSubsampling, int ySubsampling) {
+        this.compression    = compression;
+        this.predictor      = predictor;
+        this.byteOrder      = byteOrder;
+        this.bytesPerSample = bitsPerSample / Byte.SIZE;
+        this.pixelLength    = pixelLength;
+        this.blockWidth     = blockWidth;
+        this.srcRegion      = srcRegion;
+        this.xSubsampling   = xSubsampling;
+        this.ySubsampling   = ySubsampling;
+
+        final ComponentSampleModel sm = (ComponentSampleModel) raster.getSampleModel();
+        final DataBuffer buffer = raster.getDataBuffer();
+        final int numBands = sm.getNumBands();
+        dataType       = buffer.getDataType();
+        pixelStride    = sm.getPixelStride();
+        scanlineStride = sm.getScanlineStride();
+        bandArrays     = new Object[numBands];
+        bandOffsets    = new int[numBands];
+        final int[] banks   = sm.getBankIndices();
+        final int[] offsets = sm.getBandOffsets();
+        //-- offset of destination region origin --//
+        final int origin = (dstRegion.y - raster.getSampleModelTranslateY()) * scanlineStride
+                         + (dstRegion.x - raster.getSampleModelTranslateX()) * pixelStride;
+        for (int b = 0; b < numBands; b++) {
+            final int bank = banks[b];
+            switch (dataType) {
+                case DataBuffer.TYPE_BYTE   : bandArrays[b] = ((DataBufferByte)   buffer).getData(bank); break;
+                case DataBuffer.TYPE_USHORT : bandArrays[b] = ((DataBufferUShort) buffer).getData(bank); break;
+                case DataBuffer.TYPE_SHORT  : bandArrays[b] = ((DataBufferShort)  buffer).getData(bank); break;
+                case DataBuffer.TYPE_INT    : bandArrays[b] = ((DataBufferInt)    buffer).getData(bank); break;
+                case DataBuffer.TYPE_FLOAT  : bandArrays[b] = ((DataBufferFloat)  buffer).getData(bank); break;
+                case DataBuffer.TYPE_DOUBLE : bandArrays[b] = ((DataBufferDouble) buffer).getData(bank); break;
+                default: throw new IllegalArgumentException("Unsupported data type "+dataType);
+            }
+            bandOffsets[b] = buffer.getOffsets()[bank] + offsets[b] + origin;
+        }
+    }
+
+    /**
+     * @return true if compression can be decoded.
+     */
+    static boolean isSupported(final int compression) {
+        return compression == 5 || compression == 8 || compression == 32946 || compression == 32773;
+    }
+
+    /**
+     * @return true if samples of given size can be written in raster of given type.
+     */
+    static boolean isSupported(final int bitsPerSample, final int dataType) {
+        switch (dataType) {
+            case DataBuffer.TYPE_BYTE   : return bitsPerSample == 8;
+            case DataBuffer.TYPE_USHORT :
+            case DataBuffer.TYPE_SHORT  : return bitsPerSample == 16;
+            case DataBuffer.TYPE_INT    :
+            case DataBuffer.TYPE_FLOAT  : return bitsPerSample == 32;
+            case DataBuffer.TYPE_DOUBLE : return bitsPerSample == 64;
+            default : return false;
+        }
+    }
+
+    /**
+     * Decompress a block and copy the samples inside source region in the destination raster.
+     *
+     * @param compressed compressed block bytes
+     * @param blockX block first column in image
+     * @param blockY block first row in image
+     * @param rows number of rows in block
+     * @param firstBand destination band of the first block sample, non zero only for planar images
+     */
+    void decode(final byte[] compressed, final int blockX, final int blockY, final int rows,
+            final int firstBand) throws IOException {
+        final int rowSamples = blockWidth * pixelLength;
+        final int rowBytes   = rowSamples * bytesPerSample;
+        final byte[] data    = new byte[rowBytes * rows];
+        decompress(compressed, data);
+
+        //-- undo predictor and convert bytes to sample words --//
+        final ByteOrder order;
+        if (predictor == 3) {
+            final byte[] tmp = new byte[rowBytes];
+            for (int r = 0; r < rows; r++) {
+                floatingPointPredictor(data, r * rowBytes, rowBytes, tmp);
+            }
+            order = ByteOrder.BIG_ENDIAN;
+        } else {
+            order = byteOrder;
+        }
+
+        final ByteBuffer bb = ByteBuffer.wrap(data).order(order);
+        final Object words;
+        switch (bytesPerSample) {
+            case 1 : {
+                if (predictor == 2) {
+                    for (int r = 0; r < rows; r++) {
+                        for (int i = r * rowSamples + pixelLength, n = (r+1) * rowSamples; i < n; i++) data[i] += data[i - pixelLength];
+                    }
+                }
+                words = data;
+                break;
+            }
+            case 2 : {
+                final short[] array = new short[rows * rowSamples];
+                bb.asShortBuffer().get(array);
+                if (predictor == 2) {
+                    for (int r = 0; r < rows; r++) {
+                        for (int i = r * rowSamples + pixelLength, n = (r+1) * rowSamples; i < n; i++) array[i] += array[i - pixelLength];
+                    }
+                }
+                words = array;
+                break;
+            }
+            case 4 : {
+                final int[] array = new int[rows * rowSamples];
+                bb.asIntBuffer().get(array);
+                if (predictor == 2) {
+                    for (int r = 0; r < rows; r++) {
+                        for (int i = r * rowSamples + pixelLength, n = (r+1) * rowSamples; i < n; i++) array[i] += array[i - pixelLength];
+                    }
+                }
+                words = array;
+                break;
+            }
+            case 8 : {
+                final long[] array = new long[rows * rowSamples];
+                bb.asLongBuffer().get(array);
+                if (predictor == 2) {
+                    for (int r = 0; r < rows; r++) {
+                        for (int i = r * rowSamples + pixelLength, n = (r+1) * rowSamples; i < n; i++) array[i] += array[i - pixelLength];
+                    }
+                }
+                words = array;
+                break;
+            }
+            default: throw new IOException("Unsupported sample size "+bytesPerSample);
+        }
+
+        //-- copy samples inside source region --//
+        final int srcMaxX = srcRegion.x + srcRegion.width;
+        final int srcMaxY = srcRegion.y + srcRegion.height;
+        final int minY = firstSample(Math.max(srcRegion.y, blockY), srcRegion.y, ySubsampling);
+        final int maxY = Math.min(srcMaxY, blockY + rows);
+        final int minX = firstSample(Math.max(srcRegion.x, blockX), srcRegion.x, xSubsampling);
+        final int maxX = Math.min(srcMaxX, blockX + blockWidth);
+
+        for (int y = minY; y < maxY; y += ySubsampling) {
+            final int targetRow = ((y - srcRegion.y) / ySubsampling) * scanlineStride;
+            int wordIndex = (y - blockY) * rowSamples + (minX - blockX) * pixelLength;
+            for (int x = minX; x < maxX; x += xSubsampling) {
+                final int target = targetRow + ((x - srcRegion.x) / xSubsampling) * pixelStride;
+                for (int c = 0; c < pixelLength; c++) {
+                    final int band = firstBand + c;
+                    store(words, wordIndex + c, bandArrays[band], bandOffsets[band] + target);
+                }
+                wordIndex += xSubsampling * pixelLength;
+            }
+        }
+    }
+
+    /**
+     * @return first position greater or equal to start which is a sampled position.
+     */
+    private static int firstSample(final int start, final int origin, final int subsampling) {
+        final int r = (start - origin) % subsampling;
+        return (r == 0) ? start : start + subsampling - r;
+    }
+
+    private void store(final Object words, final int index, final Object target, final int targetIndex) {
+        switch (dataType) {
+            case DataBuffer.TYPE_BYTE   : ((byte[])   target)[targetIndex] = ((byte[])  words)[index]; break;
+            case DataBuffer.TYPE_USHORT :
+            case DataBuffer.TYPE_SHORT  : ((short[])  target)[targetIndex] = ((short[]) words)[index]; break;
+            case DataBuffer.TYPE_INT    : ((int[])    target)[targetIndex] = ((int[])   words)[index]; break;
+            case DataBuffer.TYPE_FLOAT  : ((float[])  target)[targetIndex] = Float.intBitsToFloat(((int[]) words)[index]); break;
+            case DataBuffer.TYPE_DOUBLE : ((double[]) target)[targetIndex] = Double.longBitsToDouble(((long[]) words)[index]); break;
+            default: throw new AssertionError(dataType);
+        }
+    }
+
+    /**
+     * Undo floating point predictor on one row.
+     * Bytes are differenced with the same sample of previous pixel, then each sample
+     * bytes are stored by significance : all most significant bytes first.
+     * Rebuilt samples are in big endian order.
+     */
+    private void floatingPointPredictor(final byte[] data, final int offset, final int rowBytes, final byte[] tmp) {
+        for (int i = offset + pixelLength, n = offset + rowBytes; i < n; i++) {
+            data[i] += data[i - pixelLength];
+        }
+        System.arraycopy(data, offset, tmp, 0, rowBytes);
+        final int nbSamples = rowBytes / bytesPerSample;
+        for (int s = 0; s < nbSamples; s++) {
+            for (int b = 0; b < bytesPerSample; b++) {
+                data[offset + s * bytesPerSample + b] = tmp[b * nbSamples + s];
+            }
+        }
+    }
+
+    /**
+     * Decompress data, remaining bytes are left to zero if compressed data is truncated.
+     */
+    void decompress(final byte[] compressed, final byte[] data) throws IOException {
+        switch (compression) {
+            case 5     : decompressLZW(compressed, data); break;
+            case 8     :
+            case 32946 : inflate(compressed, data); break;
+            case 32773 : unpackBits(compressed, data); break;
+            default : throw new IOException("Unsupported compression "+compression);
+        }
+    }
+
+    private static void inflate(final byte[] compressed, final byte[] data) throws IOException {
+        final Inflater inflater = new Inflater(false);
+        try {
+            inflater.setInput(compressed);
+            int nb = 0;
+            while (nb < data.length) {
+                final int read = inflater.inflate(data, nb, data.length - nb);
+                if (read <= 0) break;
+                nb += read;
+            }
+        } catch (DataFormatException ex) {
+            throw new IOException(ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void unpackBits(final byte[] compressed, final byte[] data) {
+        int i = 0;
+        int o = 0;
+        while (i < compressed.length && o < data.length) {
+            final int n = compressed[i++];
+            if (n >= 0) {
+                //-- copy next n+1 bytes literally --//
+                final int len = Math.min(Math.min(n + 1, compressed.length - i), data.length - o);
+                System.arraycopy(compressed, i, data, o, len);
+                i += n + 1;
+                o += len;
+            } else if (n != -128) {
+                //-- repeat next byte -n+1 times --//
+                if (i >= compressed.length) break;
+                final byte b = compressed[i++];
+                for (int k = Math.min(-n + 1, data.length - o); k > 0; k--) {
+                    data[o++] = b;
+                }
+            }
+        }
+    }
+
+    /**
+     * TIFF LZW decoding, codes are written most significant bit first,
+     * code length grows one code early as defined by the specification.
+     */
+    private static void decompressLZW(final byte[] compressed, final byte[] data) throws IOException {
+        final int[] prefix  = new int[LZW_MAX_CODES];
+        final byte[] suffix = new byte[LZW_MAX_CODES];
+        final byte[] first  = new byte[LZW_MAX_CODES];
+        final int[] length  = new int[LZW_MAX_CODES];
+        for (int i = 0; i < 256; i++) {
+            suffix[i] = (byte) i;
+            first[i]  = (byte) i;
+            length[i] = 1;
+        }
+
+        int nextCode = 258;
+        int codeLength = 9;
+        int previous = -1;
+        int out = 0;
+
+        int bitBuffer = 0;
+        int bitCount = 0;
+        int in = 0;
+
+        while (out < data.length) {
+            //-- read next code --//
+            while (bitCount < codeLength) {
+                if (in >= compressed.length) return;
+                bitBuffer = (bitBuffer << 8) | (compressed[in++] & 0xFF);
+                bitCount += 8;
+            }
+            final int code = (bitBuffer >>> (bitCount - codeLength)) & ((1 << codeLength) - 1);
+            bitCount -= codeLength;
+
+            if (code == LZW_EOI_CODE) {
+                return;
+            } else if (code == LZW_CLEAR_CODE) {
+                nextCode = 258;
+                codeLength = 9;
+                previous = -1;
+                continue;
+            }
+
+            if (previous == -1) {
+                if (code > 255) throw new IOException("Invalid LZW code "+code);
+                data[out++] = (byte) code;
+                previous = code;
+                continue;
+            }
+
+            if (code < nextCode) {
+                out = writeString(code, prefix, suffix, length, data, out);
+                if (nextCode < LZW_MAX_CODES) {
+                    prefix[nextCode] = previous;
+                    suffix[nextCode] = first[code];
+                    first[nextCode]  = first[previous];
+                    length[nextCode] = length[previous] + 1;
+                    nextCode++;
+                }
+            } else if (code == nextCode && nextCode < LZW_MAX_CODES) {
+                prefix[nextCode] = previous;
+                suffix[nextCode] = first[previous];
+                first[nextCode]  = first[previous];
+                length[nextCode] = length[previous] + 1;
+                nextCode++;
+                out = writeString(code, prefix, suffix, length, data, out);
+            } else {
+                throw new IOException("Invalid LZW code "+code);
+            }
+            previous = code;
+
+            if (nextCode == 511) codeLength = 10;
+            else if (nextCode == 1023) codeLength = 11;
+            else if (nextCode == 2047) codeLength = 12;
+        }
+    }
+
+    /**
+     * Write LZW table string, truncated if it exceeds data length.
+     */
+    private static int writeString(int code, final int[] prefix, final byte[] suffix,
+            final int[] length, final byte[] data, final int out) {
+        final int len = length[code];
+        for (int k = len - 1; k >= 0; k--) {
+            if (out + k < data.length) data[out + k] = suffix[code];
+            code = prefix[code];
+        }
+        return Math.min(out + len, data.length);
+    }
+}
@@ -17,9 +17,11 @@
 package org.geotoolkit.image.io.plugin;
 
 import java.awt.Dimension;
+import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
+import java.awt.image.ComponentSampleModel;
 import java.awt.image.DataBuffer;
 import java.awt.image.DataBufferByte;
 import java.awt.image.DataBufferDouble;
@@ -51,6 +53,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 import java.util.zip.DataFormatException;
@@ -344,6 +349,20 @@ public class TiffImageReader extends SpatialImageReader {
      */
     private int noDataTemporaryKey = 1000000;
 
+    /**
+     * Decompress tiles or strips concurrently.
+     *
+     * @see #setParallelDecoding(boolean)
+     */
+    private boolean parallelDecoding = true;
+
+    /**
+     * Read subsampled images from reduced resolution layers.
+     *
+     * @see #setOverviewReading(boolean)
+     */
+    private boolean overviewReading = true;
+
     /**
      * Creates a new reader.
      *
@@ -359,6 +378,50 @@ public class TiffImageReader extends SpatialImageReader {
         currentImage = -1;
     }
 
+    /**
+     * Returns {@code true} if compressed tiles and strips are decompressed concurrently.
+     *
+     * @return true if blocks are decoded in parallel, true by default.
+     */
+    public boolean isParallelDecoding() {
+        return parallelDecoding;
+    }
+
+    /**
+     * Set to {@code true} to decompress LZW, Deflate and PackBits tiles and strips concurrently.
+     * Compressed bytes of the requested blocks are read sequentially from the input,
+     * decompression and sample copy are done in the common fork join pool.
+     *
+     * @param parallelDecoding true to decode blocks in parallel.
+     */
+    public void setParallelDecoding(final boolean parallelDecoding) {
+        this.parallelDecoding = parallelDecoding;
+    }
+
+    /**
+     * Returns {@code true} if subsampled reads use the reduced resolution layers of the image.
+     *
+     * @return true if overviews are used, true by default.
+     */
+    public boolean isOverviewReading() {
+        return overviewReading;
+    }
+
+    /**
+     * Set to {@code true} to read subsampled images from reduced resolution layers
+     * (NewSubfileType = 1), as written in Cloud Optimized GeoTIFF or by gdaladdo.
+     * The coarsest layer which resolution is equal or better than the requested
+     * subsampling is read, only the tiles covering the source region are decoded.
+     * <br/>
+     * Returned image has the size and pixel grid expected from the source region and subsampling,
+     * each pixel takes the value of the overview pixel containing the source pixel.
+     *
+     * @param overviewReading true to read overviews.
+     */
+    public void setOverviewReading(final boolean overviewReading) {
+        this.overviewReading = overviewReading;
+    }
+
     /**
      * Returns {@code true} since this image format places no inherent impediment on random access
      * to pixels. Actually, having easy random access is the whole point of uncompressed TIFF files
@@ -876,7 +939,9 @@ public class TiffImageReader extends SpatialImageReader {
     @Override
     public BufferedImage read(final int imageIndex, final ImageReadParam param) throws IOException {
         checkLayers();
-        BufferedImage img = readLayer(getLayerIndex(imageIndex), param);
+        final int layerIndex = getLayerIndex(imageIndex);
+        BufferedImage img = overviewReading ? readFromOverview(layerIndex, param) : null;
+        if (img == null) img = readLayer(layerIndex, param);
 
         //check if we are in float or double type
         final int dataType = img.getRaster().getDataBuffer().getDataType();
@@ -1814,6 +1879,95 @@ public class TiffImageReader extends SpatialImageReader {
         } while (nextImageFileDirectory());
     }
 
+    /**
+     * Read a subsampled image from the coarsest adequate reduced resolution layer.
+     *
+     * @param layerIndex full resolution layer index.
+     * @param param read parameters.
+     * @return subsampled image or null if no overview can be used,
+     *         or if parameters specify a destination image or type.
+     * @throws IOException If an error occurred while reading the image.
+     */
+    private BufferedImage readFromOverview(final int layerIndex, final ImageReadParam param) throws IOException {
+        if (param == null || param.getDestination() != null) return null;
+        //-- overview raw type may differ from requested type, full resolution read handles it --//
+        if (param.getDestinationType() != null) return null;
+        final int xSubsampling = param.getSourceXSubsampling();
+        final int ySubsampling = param.getSourceYSubsampling();
+        if (xSubsampling <= 1 && ySubsampling <= 1) return null;
+        final Point destOffset = param.getDestinationOffset();
+        if (destOffset != null && (destOffset.x != 0 || destOffset.y != 0)) return null;
+        final List<Integer> overviews = imgAndThumbs.get(layerIndex);
+        if (overviews == null || overviews.isEmpty()) return null;
+
+        final ImageTypeSpecifier fullType = getRawImageType(layerIndex);
+        final int fullWidth  = imageWidth;
+        final int fullHeight = imageHeight;
+
+        //-- coarsest overview with a resolution equal or better than requested subsampling --//
+        int overview = -1;
+        int ovWidth  = fullWidth;
+        int ovHeight = fullHeight;
+        for (int candidate : overviews) {
+            selectLayer(candidate);
+            final Map newSubFil = headProperties.get(NewSubfileType);
+            final long subfileType = ((long[]) newSubFil.get(ATT_VALUE))[0];
+            //-- reduced resolution, not a transparency mask --//
+            if ((subfileType & 1) == 0 || (subfileType & 4) != 0) continue;
+            if (imageWidth <= 0 || imageHeight <= 0 || imageWidth >= ovWidth || imageHeight >= ovHeight) continue;
+            if ((double) fullWidth / imageWidth > xSubsampling || (double) fullHeight / imageHeight > ySubsampling) continue;
+            final ImageTypeSpecifier type = getRawImageType(candidate);
+            if (type.getNumBands() != fullType.getNumBands()
+             || type.getSampleModel().getDataType() != fullType.getSampleModel().getDataType()) continue;
+            overview = candidate;
+            ovWidth  = imageWidth;
+            ovHeight = imageHeight;
+        }
+        if (overview < 0) return null;
+
+        //-- source pixels of the subsampled image --//
+        Rectangle region = new Rectangle(fullWidth, fullHeight);
+        if (param.getSourceRegion() != null) region = region.intersection(param.getSourceRegion());
+        final int x0 = region.x + param.getSubsamplingXOffset();
+        final int y0 = region.y + param.getSubsamplingYOffset();
+        final int width  = (region.x + region.width  - x0 + xSubsampling - 1) / xSubsampling;
+        final int height = (region.y + region.height - y0 + ySubsampling - 1) / ySubsampling;
+        if (width <= 0 || height <= 0) return null;
+
+        //-- overview pixels containing those source pixels --//
+        final int[] columns = new int[width];
+        final int[] rows    = new int[height];
+        for (int i = 0; i < width; i++)  columns[i] = (int) ((long) (x0 + i * xSubsampling) * ovWidth  / fullWidth);
+        for (int i = 0; i < height; i++) rows[i]    = (int) ((long) (y0 + i * ySubsampling) * ovHeight / fullHeight);
+        final Rectangle ovRegion = new Rectangle(columns[0], rows[0],
+                columns[width - 1] - columns[0] + 1, rows[height - 1] - rows[0] + 1);
+
+        final ImageReadParam ovParam = new ImageReadParam();
+        ovParam.setController(param.getController());
+        ovParam.setSourceBands(param.getSourceBands());
+        ovParam.setDestinationBands(param.getDestinationBands());
+        ovParam.setSourceRegion(ovRegion);
+        final BufferedImage ovImage = readLayer(overview, ovParam);
+
+        //-- subsampling equals overview scale, image can be returned as is --//
+        boolean contiguous = true;
+        for (int i = 1; contiguous && i < width; i++)  contiguous = columns[i] == columns[0] + i;
+        for (int i = 1; contiguous && i < height; i++) contiguous = rows[i] == rows[0] + i;
+        if (contiguous) return ovImage;
+
+        final WritableRaster ovRaster = ovImage.getRaster();
+        final WritableRaster raster   = ovRaster.createCompatibleWritableRaster(width, height);
+        Object pixel = null;
+        for (int y = 0; y < height; y++) {
+            final int sy = rows[y] - ovRegion.y;
+            for (int x = 0; x < width; x++) {
+                pixel = ovRaster.getDataElements(columns[x] - ovRegion.x, sy, pixel);
+                raster.setDataElements(x, y, pixel);
+            }
+        }
+        return new BufferedImage(ovImage.getColorModel(), raster, ovImage.isAlphaPremultiplied(), null);
+    }
+
     /**
      * Reads the layer at the given index.
      *
@@ -1861,7 +2015,11 @@ public class TiffImageReader extends SpatialImageReader {
         final Rectangle srcRegion = new Rectangle();
         final Rectangle dstRegion = new Rectangle();
         computeRegions(sparam, imageWidth, imageHeight, image, srcRegion, dstRegion);// calculer une region de l'image sur le fichier que l'on doit lire
-        if (compression == 32773) {
+        if (readFromBlocks(raster, sparam, srcRegion, dstRegion)) {
+            //-- compressed tiles or strips decoded by blocks --//
+        } else if (getPredictor() == 3) {
+            throw new IIOException("Floating point predictor is not supported for this image layout.");
+        } else if (compression == 32773) {
             assert stripOffsets != null : "with compression 32773 (packbits) : image should be writen in strip offset use case.";
             readFromStrip32773(raster, sparam, srcRegion, dstRegion);
         } else if (compression == 5) {
@@ -1953,6 +2111,139 @@ public class TiffImageReader extends SpatialImageReader {
         return image;
     }
 
+    /**
+     * @return predictor tag value, 1 if undefined.
+     */
+    private short getPredictor() {
+        final Map<String, Object> predictor = headProperties.get(Predictor);
+        return (predictor != null) ? (short) ((long[]) predictor.get(ATT_VALUE)) [0] : 1;
+    }
+
+    /**
+     * Read compressed tiles or strips with a {@link TiffBlockDecoder}.
+     * Compressed bytes of all blocks intersecting source region are read sequentially,
+     * in file order, then decompressed and copied in destination raster, concurrently if
+     * {@link #isParallelDecoding() } is true.
+     *
+     * @return false if image compression or sample layout is not supported by the block decoder.
+     */
+    private boolean readFromBlocks(final WritableRaster raster, final ImageReadParam param,
+            final Rectangle srcRegion, final Rectangle dstRegion) throws IOException {
+        if (!TiffBlockDecoder.isSupported(compression)) return false;
+        if (param != null && (param.getSourceBands() != null || param.getDestinationBands() != null)) return false;
+        if (!(raster.getSampleModel() instanceof ComponentSampleModel) || raster.getNumBands() != samplesPerPixel) return false;
+
+        final int dataType = raster.getSampleModel().getDataType();
+        for (long bps : bitsPerSample) {
+            if (bps != bitsPerSample[0]) return false;
+        }
+        if (!TiffBlockDecoder.isSupported((int) bitsPerSample[0], dataType)) return false;
+
+        final short predictor = getPredictor();
+        if (predictor < 1 || predictor > 3) return false;
+
+        final Map<String, Object> fillOrder = headProperties.get(FillOrder);
+        if (fillOrder != null && ((long[]) fillOrder.get(ATT_VALUE)) [0] != 1) return false;
+
+        final Map<String, Object> planarConfig = headProperties.get(PlanarConfiguration);
+        short pC = 1;
+        if (planarConfig != null && samplesPerPixel > 1) {
+            pC = ((short[]) planarConfig.get(ATT_VALUE)) [0];
+        }
+        final int pixelLength = (pC == 2) ? 1 : samplesPerPixel;
+        final int nbPlanes    = (pC == 2) ? samplesPerPixel : 1;
+
+        //-- strips are blocks of image width --//
+        final boolean tiled     = tileOffsets != null;
+        final long[] offsets    = tiled ? tileOffsets : stripOffsets;
+        final long[] byteCounts = tiled ? tileByteCounts : stripByteCounts;
+        if (offsets == null || byteCounts == null) return false;
+        final int blockWidth    = tiled ? tileWidth  : imageWidth;
+        final int blockHeight   = tiled ? tileHeight : ((rowsPerStrip <= 0) ? imageHeight : Math.min(rowsPerStrip, imageHeight));
+        final int numXBlock     = (imageWidth  + blockWidth  - 1) / blockWidth;
+        final int numYBlock     = (imageHeight + blockHeight - 1) / blockHeight;
+
+        final int sourceXSubsampling = (param != null) ? param.getSourceXSubsampling() : 1;
+        final int sourceYSubsampling = (param != null) ? param.getSourceYSubsampling() : 1;
+
+        final ImageInputStream rasterStream = getImageInputStream(false);
+        final TiffBlockDecoder decoder = new TiffBlockDecoder(compression, predictor, rasterStream.getByteOrder(),
+                (int) bitsPerSample[0], pixelLength, blockWidth, raster, srcRegion, dstRegion,
+                sourceXSubsampling, sourceYSubsampling);
+
+        //-- list blocks which contain at least one sampled pixel, as {file offset, block index, plane} --//
+        final int minBX = srcRegion.x / blockWidth;
+        final int minBY = srcRegion.y / blockHeight;
+        final int maxBX = (srcRegion.x + srcRegion.width  + blockWidth  - 1) / blockWidth;
+        final int maxBY = (srcRegion.y + srcRegion.height + blockHeight - 1) / blockHeight;
+        final List<long[]> blocks = new ArrayList<>();
+        for (int by = minBY; by < maxBY; by++) {
+            if (!hasSample(by * blockHeight, blockHeight, srcRegion.y, srcRegion.height, sourceYSubsampling)) continue;
+            for (int bx = minBX; bx < maxBX; bx++) {
+                if (!hasSample(bx * blockWidth, blockWidth, srcRegion.x, srcRegion.width, sourceXSubsampling)) continue;
+                for (int p = 0; p < nbPlanes; p++) {
+                    final int index = p * numXBlock * numYBlock + by * numXBlock + bx;
+                    blocks.add(new long[]{offsets[index], index, p});
+                }
+            }
+        }
+        blocks.sort(OFFSET_COMPARATOR);
+
+        clearAbortRequest();
+        final boolean parallel = parallelDecoding && blocks.size() > 1;
+        final List<Future<?>> tasks = new ArrayList<>();
+        try {
+            for (long[] block : blocks) {
+                if (abortRequested()) break;
+                final int index = (int) block[1];
+                final int plane = (int) block[2];
+                final int blockIndex = index - plane * numXBlock * numYBlock;
+                final int blockX = (blockIndex % numXBlock) * blockWidth;
+                final int blockY = (blockIndex / numXBlock) * blockHeight;
+                final int rows = tiled ? blockHeight : Math.min(blockHeight, imageHeight - blockY);
+
+                final byte[] compressed = new byte[(int) byteCounts[index]];
+                rasterStream.seek(block[0]);
+                rasterStream.readFully(compressed);
+
+                if (parallel) {
+                    tasks.add(ForkJoinPool.commonPool().submit(() -> {
+                        decoder.decode(compressed, blockX, blockY, rows, plane);
+                        return null;
+                    }));
+                } else {
+                    decoder.decode(compressed, blockX, blockY, rows, plane);
+                }
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IIOException(ex.getMessage(), ex);
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IIOException(cause.getMessage(), cause);
+        } finally {
+            for (Future<?> task : tasks) {
+                task.cancel(false);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if range [start, start+length[ contains a sampled position of the source region.
+     */
+    private static boolean hasSample(final int start, final int length, final int regionStart,
+            final int regionLength, final int subsampling) {
+        int first = Math.max(start, regionStart);
+        final int r = (first - regionStart) % subsampling;
+        if (r != 0) first += subsampling - r;
+        return first < Math.min(start + length, regionStart + regionLength);
+    }
+
     /**
      * Returns the <code>BufferedImage</code> to which decoded pixel
      * data should be written.  The image is determined by inspecting
@@ -29,6 +29,13 @@ import org.geotoolkit.image.io.SpatialImageWriteParam;
  */
 public class TiffImageWriteParam extends SpatialImageWriteParam {
 
+    /**
+     * Tile size used by cloud optimized layout when tiling has not been set.
+     */
+    private static final int DEFAULT_COG_TILE_SIZE = 256;
+
+    private boolean cloudOptimized = false;
+
     public TiffImageWriteParam(ImageWriter writer) {
         super(writer);
         canOffsetTiles      = false;
@@ -37,4 +44,32 @@ public class TiffImageWriteParam extends SpatialImageWriteParam {
         canWriteTiles       = true;
         compressionTypes    = new String[]{"LZW", "PackBits"};
     }
+
+    /**
+     * Enable or disable the Cloud Optimized GeoTIFF layout.
+     * <br/>
+     * When enabled, internal overviews are added, each one half the size of the previous one,
+     * until the image fits in a single tile. Image file directories are written at the beginning
+     * of the file, followed by tiles data from the smallest overview to the full resolution image.
+     * A client can then read any resolution with a few range requests.
+     * <br/>
+     * This layout requires tiles, if tiling mode is not explicit, tiles of 256x256 are used.
+     * Destination offset is not supported.
+     *
+     * @param cloudOptimized true to write a cloud optimized GeoTIFF.
+     */
+    public void setCloudOptimized(final boolean cloudOptimized) {
+        this.cloudOptimized = cloudOptimized;
+        if (cloudOptimized && getTilingMode() != MODE_EXPLICIT) {
+            setTilingMode(MODE_EXPLICIT);
+            setTiling(DEFAULT_COG_TILE_SIZE, DEFAULT_COG_TILE_SIZE, 0, 0);
+        }
+    }
+
+    /**
+     * @return true if image is written with the Cloud Optimized GeoTIFF layout.
+     */
+    public boolean isCloudOptimized() {
+        return cloudOptimized;
+    }
 }
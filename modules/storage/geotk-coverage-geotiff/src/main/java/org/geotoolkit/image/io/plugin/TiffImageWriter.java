@@ -45,6 +45,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import static java.nio.file.StandardOpenOption.*;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -178,6 +179,13 @@ public class TiffImageWriter extends SpatialImageWriter {
      */
     private long offsetTagPosition;
 
+    /**
+     * Position in tiff file reserved for byte count and offset arrays, just after the image file directory.
+     * Used by cloud optimized layout, -1 when arrays are written after image data.
+     * @see #writeByteCountAndOffsets(long, short, java.lang.Object, long, short, java.lang.Object)
+     */
+    private long reservedArrayPosition = -1;
+
     /*
      * Attributs only use during packbits compression writing.
      */
@@ -1015,14 +1023,7 @@ public class TiffImageWriter extends SpatialImageWriter {
                 /*
                  * If an image has already been writen we stipulate next ifd position.
                  */
-                final int offset = (int) (channel.getStreamPosition());
-                channel.seek(ifdPosition[1]);
-
-                if (isBigTIFF) channel.writeLong(offset);
-                else channel.writeInt(offset);
-
-                channel.seek(offset);
-                ifdPosition[0] = offset;
+                linkNextIFD(ifdPosition);
             }
         } else {
             isBigTIFF = isBigTiff(image);
@@ -1041,6 +1042,12 @@ public class TiffImageWriter extends SpatialImageWriter {
          */
         open(ifdPosition);
 
+        if (param instanceof TiffImageWriteParam && ((TiffImageWriteParam) param).isCloudOptimized()) {
+            writeCloudOptimized(image, (TreeMap<Integer, Map>) headProperties, (TiffImageWriteParam) param, ifdPosition);
+            this.headProperties = null;
+            return;
+        }
+
         //-- add image properties in a Map in attempt to writing. --//
         addImageProperties(image, headProperties, param);
 
@@ -1049,11 +1056,149 @@ public class TiffImageWriter extends SpatialImageWriter {
         writeTags(headProperties, ifdPosition);
         //-- write image raster(s) data --//
         writeImage(image, headProperties, param);
+        addMetaHead(headProperties);
+        this.headProperties = null;
+    }
+
+    /**
+     * Write image with the Cloud Optimized GeoTIFF layout.
+     * <br/>
+     * Image file directories of the full resolution image and of all its overviews are written first,
+     * each one followed by the space reserved for its tile byte counts and offsets arrays.
+     * Tiles data are then written from the smallest overview to the full resolution image,
+     * reserved arrays are filled when each level is written.
+     * <br/>
+     * Overviews are {@link TiffOverviewImage} computed tile by tile while writing,
+     * the full image is never held in memory.
+     *
+     * @param image full resolution image.
+     * @param headProperties full resolution image properties.
+     * @param param properties to write image.
+     * @param ifdPosition image file directory positions.
+     * @throws IOException if problem during writing.
+     * @see TiffImageWriteParam#setCloudOptimized(boolean)
+     */
+    private void writeCloudOptimized(final RenderedImage image, final TreeMap<Integer, Map> headProperties,
+            final TiffImageWriteParam param, final long[] ifdPosition) throws IOException {
+
+        final Point destOffset = param.getDestinationOffset();
+        if (destOffset != null && (destOffset.x != 0 || destOffset.y != 0)) {
+            throw new IllegalArgumentException("Destination offset is not supported with cloud optimized layout.");
+        }
+
+        //-- full resolution image properties, define tile size and written region --//
+        addImageProperties(image, headProperties, param);
+        if (currentImgTW == 0 || currentImgTH == 0) {
+            throw new IllegalStateException("Cloud optimized layout requires a tiled image, tiling mode should be explicit.");
+        }
+        final int tileWidth  = currentImgTW;
+        final int tileHeight = currentImgTH;
+        final Rectangle region = new Rectangle(srcRegion);
+
+        //-- overview pyramid, each level is half the size of the previous one --//
+        final List<RenderedImage> levels = new ArrayList<>();
+        final List<ImageWriteParam> params = new ArrayList<>();
+        final List<TreeMap<Integer, Map>> properties = new ArrayList<>();
+        levels.add(image);
+        params.add(param);
+        properties.add(headProperties);
+
+        final TiffImageWriteParam overviewParam = new TiffImageWriteParam(this);
+        overviewParam.setTilingMode(ImageWriteParam.MODE_EXPLICIT);
+        overviewParam.setTiling(tileWidth, tileHeight, 0, 0);
+        if (compression != 1) {
+            overviewParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            overviewParam.setCompressionType(param.getCompressionType());
+        }
+        int width  = destRegion.width;
+        int height = destRegion.height;
+        for (int scale = 2; width > tileWidth || height > tileHeight; scale <<= 1) {
+            final RenderedImage overview = new TiffOverviewImage(image, region,
+                    param.getSourceXSubsampling() * scale, param.getSourceYSubsampling() * scale, tileWidth, tileHeight);
+            width  = overview.getWidth();
+            height = overview.getHeight();
+            final TreeMap<Integer, Map> overviewProperties = new TreeMap<>();
+            //-- reduced resolution image --//
+            addProperty(NewSubfileType, TYPE_LONG, 1, new long[]{1}, overviewProperties);
+            levels.add(overview);
+            params.add(overviewParam);
+            properties.add(overviewProperties);
+        }
+
+        //-- all image file directories, followed by reserved byte counts and offsets arrays --//
+        final int nbLevel = levels.size();
+        final long[] byteCountPositions = new long[nbLevel];
+        final long[] offsetPositions    = new long[nbLevel];
+        final long[] arrayPositions     = new long[nbLevel];
+        final int datasize = isBigTIFF ? Long.SIZE / Byte.SIZE : Integer.SIZE / Byte.SIZE;
+        for (int i = 0; i < nbLevel; i++) {
+            final TreeMap<Integer, Map> levelProperties = properties.get(i);
+            if (i > 0) {
+                linkNextIFD(ifdPosition);
+                addImageProperties(levels.get(i), levelProperties, params.get(i));
+            }
+            writeTags(levelProperties, ifdPosition);
+            byteCountPositions[i] = byteCountTagPosition;
+            offsetPositions[i]    = offsetTagPosition;
+            arrayPositions[i]     = channel.getStreamPosition();
+
+            final long arraySize = getAttributeLength(levelProperties.get(TileByteCounts));
+            if (arraySize > datasize) {
+                final byte[] zeros = new byte[8192];
+                for (long remaining = 2 * arraySize; remaining > 0; remaining -= zeros.length) {
+                    channel.write(zeros, 0, (int) Math.min(zeros.length, remaining));
+                }
+            }
+        }
+
+        //-- tiles data, from the smallest overview to the full resolution image --//
+        try {
+            for (int i = nbLevel - 1; i >= 0; i--) {
+                final RenderedImage level = levels.get(i);
+                //-- restore current image state, tags have already been written --//
+                addImageProperties(level, new TreeMap<>(), params.get(i));
+                this.headProperties   = properties.get(i);
+                byteCountTagPosition  = byteCountPositions[i];
+                offsetTagPosition     = offsetPositions[i];
+                reservedArrayPosition = arrayPositions[i];
+                writeImageByTiles(level, params.get(i));
+            }
+        } finally {
+            reservedArrayPosition = -1;
+        }
+
+        for (TreeMap<Integer, Map> levelProperties : properties) {
+            addMetaHead(levelProperties);
+        }
+    }
+
+    /**
+     * Write current channel position as next image file directory offset of the previously written image.
+     *
+     * @param ifdPosition image file directory positions.
+     * @throws IOException if problem during writing.
+     */
+    private void linkNextIFD(final long[] ifdPosition) throws IOException {
+        final long offset = channel.getStreamPosition();
+        channel.seek(ifdPosition[1]);
+
+        if (isBigTIFF) channel.writeLong(offset);
+        else channel.writeInt((int) offset);
+
+        channel.seek(offset);
+        ifdPosition[0] = offset;
+    }
+
+    /**
+     * Store written image properties.
+     *
+     * @param properties written image properties.
+     */
+    private void addMetaHead(final Map<Integer, Map> properties) {
         if (metaIndex == metaHeads.length) {
             metaHeads = Arrays.copyOf(metaHeads, metaHeads.length << 1);
         }
-        metaHeads[metaIndex++] = headProperties;
-        this.headProperties = null;
+        metaHeads[metaIndex++] = properties;
     }
 
     /**
@@ -1963,7 +2108,7 @@ public class TiffImageWriter extends SpatialImageWriter {
             //-- if all offsets or bytecounts datasize should be contained into Long or Integer datasize. --//
             final int datasize = (isBigTIFF) ? Long.SIZE / Byte.SIZE : Integer.SIZE / Byte.SIZE;
             //-- Expected channel position where the first sample will be written
-            final long sampleWritingBegin = (byteCountArraySize <= datasize) ? buffPos : buffPos + byteCountArraySize + offsetArraySize;
+            final long sampleWritingBegin = (byteCountArraySize <= datasize || reservedArrayPosition >= 0) ? buffPos : buffPos + byteCountArraySize + offsetArraySize;
 
             long currentoffset = sampleWritingBegin;
 
@@ -2740,6 +2885,10 @@ public class TiffImageWriter extends SpatialImageWriter {
         assert bcaLen == offLen : "byteCount and offset array should have same length : byte count len = "+bcaLen+" offset array len = "+offLen;
         assert offsetType == byteCountType : "expected same byte count and offset type.";
 
+        //-- cloud optimized layout, arrays are written in space reserved after image file directory --//
+        final long dataEnd = channel.getStreamPosition();
+        if (reservedArrayPosition >= 0) channel.seek(reservedArrayPosition);
+
         //---------- byteCount ---------------//
         if (bcaLen * TYPE_SIZE[byteCountType] <= datasize) {
             channel.seek(byteCountPosition);
@@ -2770,6 +2919,7 @@ public class TiffImageWriter extends SpatialImageWriter {
             channel.seek(offsetOffset);
             writeArray(offsetArray, offsetType);
         }
+        if (reservedArrayPosition >= 0) channel.seek(dataEnd);
     }
 
     /**
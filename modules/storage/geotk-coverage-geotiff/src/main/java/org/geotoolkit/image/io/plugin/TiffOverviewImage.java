@@ -0,0 +1,192 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.image.io.plugin;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import org.apache.sis.image.PlanarImage;
+import org.apache.sis.util.ArgumentChecks;
+
+/**
+ * Reduced resolution view of an image, used to write internal overviews.
+ * <br/>
+ * Overview pixel (x,y) is the source pixel (region.x + x * stepX, region.y + y * stepY),
+ * nearest neighbour decimation keeps sample values unchanged, which is the expected
+ * behavior for indexed, categorical or no-data pixels.
+ * <br/>
+ * Tiles are computed on request and are not cached, only the source tiles intersecting
+ * the requested tile are read. Memory use does not depend on the source image size.
+ */
+final class TiffOverviewImage extends PlanarImage {
+
+    private final RenderedImage source;
+    private final Rectangle region;
+    private final int stepX;
+    private final int stepY;
+    private final SampleModel sampleModel;
+    private final int width;
+    private final int height;
+    private final int tileWidth;
+    private final int tileHeight;
+
+    /**
+     * @param source full resolution image
+     * @param region decimated region of the source image
+     * @param stepX decimation factor on x axis
+     * @param stepY decimation factor on y axis
+     * @param tileWidth overview tile width
+     * @param tileHeight overview tile height
+     */
+    TiffOverviewImage(final RenderedImage source, final Rectangle region, final int stepX, final int stepY,
+            final int tileWidth, final int tileHeight) {
+        ArgumentChecks.ensureStrictlyPositive("stepX", stepX);
+        ArgumentChecks.ensureStrictlyPositive("stepY", stepY);
+        ArgumentChecks.ensureStrictlyPositive("tileWidth", tileWidth);
+        ArgumentChecks.ensureStrictlyPositive("tileHeight", tileHeight);
+        this.source      = source;
+        this.region      = new Rectangle(region);
+        this.stepX       = stepX;
+        this.stepY       = stepY;
+        this.width       = (region.width  + stepX - 1) / stepX;
+        this.height      = (region.height + stepY - 1) / stepY;
+        this.tileWidth   = tileWidth;
+        this.tileHeight  = tileHeight;
+        this.sampleModel = source.getSampleModel().createCompatibleSampleModel(tileWidth, tileHeight);
+    }
+
+    @Override
+    public ColorModel getColorModel() {
+        return source.getColorModel();
+    }
+
+    @Override
+    public SampleModel getSampleModel() {
+        return sampleModel;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getMinX() {
+        return 0;
+    }
+
+    @Override
+    public int getMinY() {
+        return 0;
+    }
+
+    @Override
+    public int getNumXTiles() {
+        return (width + tileWidth - 1) / tileWidth;
+    }
+
+    @Override
+    public int getNumYTiles() {
+        return (height + tileHeight - 1) / tileHeight;
+    }
+
+    @Override
+    public int getMinTileX() {
+        return 0;
+    }
+
+    @Override
+    public int getMinTileY() {
+        return 0;
+    }
+
+    @Override
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    @Override
+    public int getTileHeight() {
+        return tileHeight;
+    }
+
+    @Override
+    public int getTileGridXOffset() {
+        return 0;
+    }
+
+    @Override
+    public int getTileGridYOffset() {
+        return 0;
+    }
+
+    @Override
+    public Raster getTile(final int tileX, final int tileY) {
+        final int x0 = tileX * tileWidth;
+        final int y0 = tileY * tileHeight;
+        final WritableRaster tile = Raster.createWritableRaster(sampleModel, new Point(x0, y0));
+        final int x1 = Math.min(x0 + tileWidth,  width);
+        final int y1 = Math.min(y0 + tileHeight, height);
+        if (x1 <= x0 || y1 <= y0) return tile;
+
+        //-- source tiles covering the decimated pixels --//
+        final int srcTW = source.getTileWidth();
+        final int srcTH = source.getTileHeight();
+        final int srcMinTX = source.getMinTileX();
+        final int srcMinTY = source.getMinTileY();
+        final int srcMaxTX = srcMinTX + source.getNumXTiles() - 1;
+        final int srcMaxTY = srcMinTY + source.getNumYTiles() - 1;
+        final int tx0 = Math.max(srcMinTX, Math.floorDiv(region.x + x0 * stepX       - source.getTileGridXOffset(), srcTW));
+        final int tx1 = Math.min(srcMaxTX, Math.floorDiv(region.x + (x1 - 1) * stepX - source.getTileGridXOffset(), srcTW));
+        final int ty0 = Math.max(srcMinTY, Math.floorDiv(region.y + y0 * stepY       - source.getTileGridYOffset(), srcTH));
+        final int ty1 = Math.min(srcMaxTY, Math.floorDiv(region.y + (y1 - 1) * stepY - source.getTileGridYOffset(), srcTH));
+
+        Object pixel = null;
+        for (int sty = ty0; sty <= ty1; sty++) {
+            for (int stx = tx0; stx <= tx1; stx++) {
+                final Raster src = source.getTile(stx, sty);
+                final Rectangle bounds = src.getBounds();
+                //-- overview pixels whose source pixel is in this tile --//
+                final int dx0 = Math.max(x0, ceilDiv(bounds.x - region.x, stepX));
+                final int dx1 = Math.min(x1, ceilDiv(bounds.x + bounds.width - region.x, stepX));
+                final int dy0 = Math.max(y0, ceilDiv(bounds.y - region.y, stepY));
+                final int dy1 = Math.min(y1, ceilDiv(bounds.y + bounds.height - region.y, stepY));
+                for (int dy = dy0; dy < dy1; dy++) {
+                    final int sy = region.y + dy * stepY;
+                    for (int dx = dx0; dx < dx1; dx++) {
+                        pixel = src.getDataElements(region.x + dx * stepX, sy, pixel);
+                        tile.setDataElements(dx, dy, pixel);
+                    }
+                }
+            }
+        }
+        return tile;
+    }
+
+    private static int ceilDiv(final int value, final int divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+}
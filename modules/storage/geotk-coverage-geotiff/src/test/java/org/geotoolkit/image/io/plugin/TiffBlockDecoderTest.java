@@ -0,0 +1,223 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.image.io.plugin;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BandedSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test decoding of compressed blocks with predictors.
+ */
+public class TiffBlockDecoderTest {
+
+    /**
+     * Deflate tiles, 16 bits samples, horizontal differencing, source region and subsampling.
+     */
+    @Test
+    public void testDeflatePredictor2() throws Exception {
+        final int width = 16, height = 8, tile = 8, nbBand = 3;
+        final Rectangle srcRegion = new Rectangle(1, 1, 14, 6);
+        final int xs = 2, ys = 3;
+        final WritableRaster raster = Raster.createWritableRaster(new PixelInterleavedSampleModel(
+                DataBuffer.TYPE_USHORT, 7, 2, nbBand, 7 * nbBand, new int[]{0, 1, 2}), new Point(0, 0));
+        final Rectangle dstRegion = new Rectangle(0, 0, 7, 2);
+
+        final TiffBlockDecoder decoder = new TiffBlockDecoder(8, 2, ByteOrder.LITTLE_ENDIAN, 16,
+                nbBand, tile, raster, srcRegion, dstRegion, xs, ys);
+        for (int ty = 0; ty < height; ty += tile) {
+            for (int tx = 0; tx < width; tx += tile) {
+                final ByteBuffer bytes = ByteBuffer.allocate(tile * tile * nbBand * 2).order(ByteOrder.LITTLE_ENDIAN);
+                for (int y = ty; y < ty + tile; y++) {
+                    for (int x = tx; x < tx + tile; x++) {
+                        for (int b = 0; b < nbBand; b++) {
+                            final int previous = (x == tx) ? 0 : sample(x - 1, y, b);
+                            bytes.putShort((short) (sample(x, y, b) - previous));
+                        }
+                    }
+                }
+                decoder.decode(deflate(bytes.array()), tx, ty, tile, 0);
+            }
+        }
+
+        for (int y = 0; y < 2; y++) {
+            for (int x = 0; x < 7; x++) {
+                for (int b = 0; b < nbBand; b++) {
+                    Assert.assertEquals(sample(1 + x * xs, 1 + y * ys, b) & 0xFFFF, raster.getSample(x, y, b));
+                }
+            }
+        }
+    }
+
+    /**
+     * LZW strips, 32 bits floats, floating point predictor, big endian file.
+     */
+    @Test
+    public void testLZWPredictor3() throws Exception {
+        final int width = 301, height = 45, rowsPerStrip = 20;
+        final WritableRaster raster = Raster.createWritableRaster(new PixelInterleavedSampleModel(
+                DataBuffer.TYPE_FLOAT, width, height, 1, width, new int[]{0}), new Point(0, 0));
+        final Rectangle region = new Rectangle(0, 0, width, height);
+
+        final TiffBlockDecoder decoder = new TiffBlockDecoder(5, 3, ByteOrder.BIG_ENDIAN, 32,
+                1, width, raster, region, region, 1, 1);
+        for (int sy = 0; sy < height; sy += rowsPerStrip) {
+            final int rows = Math.min(rowsPerStrip, height - sy);
+            final ByteArrayOutputStream strip = new ByteArrayOutputStream();
+            for (int y = sy; y < sy + rows; y++) {
+                final float[] row = new float[width];
+                for (int x = 0; x < width; x++) row[x] = value(x, y);
+                strip.write(floatingPointPredictor(row));
+            }
+            decoder.decode(lzw(strip.toByteArray()), 0, sy, rows, 0);
+        }
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                Assert.assertEquals(value(x, y), raster.getSampleFloat(x, y, 0), 0f);
+            }
+        }
+    }
+
+    /**
+     * PackBits planar tiles written in a banded raster.
+     */
+    @Test
+    public void testPackBitsPlanar() throws Exception {
+        final int size = 4;
+        final WritableRaster raster = Raster.createWritableRaster(
+                new BandedSampleModel(DataBuffer.TYPE_BYTE, size, size, 2), new Point(0, 0));
+        final Rectangle region = new Rectangle(0, 0, size, size);
+        final TiffBlockDecoder decoder = new TiffBlockDecoder(32773, 1, ByteOrder.BIG_ENDIAN, 8,
+                1, size, raster, region, region, 1, 1);
+
+        //-- band 0 : repeated bytes, band 1 : literal bytes --//
+        decoder.decode(new byte[]{-15, 42}, 0, 0, size, 0);
+        final byte[] literal = new byte[size * size + 1];
+        literal[0] = (byte) (size * size - 1);
+        for (int i = 1; i < literal.length; i++) literal[i] = (byte) i;
+        decoder.decode(literal, 0, 0, size, 1);
+
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                Assert.assertEquals(42, raster.getSample(x, y, 0));
+                Assert.assertEquals(1 + y * size + x, raster.getSample(x, y, 1));
+            }
+        }
+    }
+
+    private static int sample(int x, int y, int b) {
+        return (x * 1543 + y * 7919 + b * 104729) & 0xFFFF;
+    }
+
+    private static float value(int x, int y) {
+        return (float) (Math.sin(x * 0.3) * 1000 + y * 0.125);
+    }
+
+    private static byte[] deflate(byte[] data) {
+        final Deflater deflater = new Deflater();
+        deflater.setInput(data);
+        deflater.finish();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        return out.toByteArray();
+    }
+
+    /**
+     * Encode a row as described by floating point predictor : bytes split by significance
+     * then differenced.
+     */
+    private static byte[] floatingPointPredictor(float[] row) {
+        final ByteBuffer buffer = ByteBuffer.allocate(row.length * 4).order(ByteOrder.BIG_ENDIAN);
+        for (float f : row) buffer.putFloat(f);
+        final byte[] bytes = buffer.array();
+        final byte[] shuffled = new byte[bytes.length];
+        for (int i = 0; i < row.length; i++) {
+            for (int b = 0; b < 4; b++) {
+                shuffled[b * row.length + i] = bytes[i * 4 + b];
+            }
+        }
+        for (int i = shuffled.length - 1; i > 0; i--) {
+            shuffled[i] -= shuffled[i - 1];
+        }
+        return shuffled;
+    }
+
+    /**
+     * TIFF LZW encoder.
+     */
+    private static byte[] lzw(byte[] data) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Map<Integer,Integer> table = new HashMap<>();
+        final int[] bits = new int[2]; //-- buffer, count --//
+        int width = 9;
+        int next = 258;
+        write(out, bits, 256, width);
+        int w = data[0] & 0xFF;
+        for (int i = 1; i < data.length; i++) {
+            final int c = data[i] & 0xFF;
+            final Integer code = table.get((w << 8) | c);
+            if (code != null) {
+                w = code;
+                continue;
+            }
+            write(out, bits, w, width);
+            table.put((w << 8) | c, next++);
+            if (next == 4094) {
+                write(out, bits, 256, width);
+                table.clear();
+                next = 258;
+                width = 9;
+            } else if (next > (1 << width) - 1) {
+                width++;
+            }
+            w = c;
+        }
+        write(out, bits, w, width);
+        next++;
+        if (next > (1 << width) - 1) width++;
+        write(out, bits, 257, width);
+        if (bits[1] > 0) out.write(bits[0] << (8 - bits[1]));
+        return out.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream out, int[] bits, int code, int width) {
+        bits[0] = (bits[0] << width) | code;
+        bits[1] += width;
+        while (bits[1] >= 8) {
+            out.write((bits[0] >>> (bits[1] - 8)) & 0xFF);
+            bits[1] -= 8;
+        }
+        bits[0] &= (1 << bits[1]) - 1;
+    }
+}
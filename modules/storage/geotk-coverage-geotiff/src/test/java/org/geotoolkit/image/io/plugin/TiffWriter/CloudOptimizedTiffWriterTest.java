@@ -0,0 +1,176 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.image.io.plugin.TiffWriter;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageWriteParam;
+import org.geotoolkit.image.io.plugin.TiffImageReader;
+import org.geotoolkit.image.io.plugin.TiffImageWriteParam;
+import org.geotoolkit.image.io.plugin.TiffImageWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test Cloud Optimized GeoTIFF layout.
+ */
+public class CloudOptimizedTiffWriterTest {
+
+    private static final int WIDTH = 1000, HEIGHT = 600;
+
+    @Test
+    public void testOverviews() throws Exception {
+        final int width = WIDTH, height = HEIGHT;
+        final File file = createFile();
+
+        //-- 1000x600, 500x300, 250x150 : fits in a 256 tile --//
+        //-- reduced resolution images are seen as thumbnails --//
+        final TiffImageReader reader = new TiffImageReader(null);
+        reader.setInput(file);
+        Assert.assertEquals(1, reader.getNumImages(true));
+        Assert.assertEquals(2, reader.getNumThumbnails(0));
+        for (int i = 0, scale = 1; i < 3; i++, scale *= 2) {
+            final Raster level = (i == 0 ? reader.read(0) : reader.readThumbnail(0, i - 1)).getData();
+            Assert.assertEquals((width  + scale - 1) / scale, level.getWidth());
+            Assert.assertEquals((height + scale - 1) / scale, level.getHeight());
+            for (int y = 0; y < level.getHeight(); y++) {
+                for (int x = 0; x < level.getWidth(); x++) {
+                    Assert.assertEquals(value(x * scale, y * scale), level.getSample(x, y, 0));
+                }
+            }
+        }
+        reader.dispose();
+
+        //-- all directories before tiles data, smallest overview first --//
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        buffer.order(buffer.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        final List<Long> ifds = new ArrayList<>();
+        final List<Long> firstTiles = new ArrayList<>();
+        for (long ifd = buffer.getInt(4) & 0xFFFFFFFFL; ifd != 0; ifd = buffer.getInt((int) ifd + 2 + 12 * buffer.getShort((int) ifd)) & 0xFFFFFFFFL) {
+            ifds.add(ifd);
+            final int nbEntry = buffer.getShort((int) ifd);
+            for (int e = 0; e < nbEntry; e++) {
+                final int entry = (int) ifd + 2 + 12 * e;
+                if ((buffer.getShort(entry) & 0xFFFF) == 324) {
+                    final int count = buffer.getInt(entry + 4);
+                    final int value = buffer.getInt(entry + 8);
+                    firstTiles.add((count == 1 ? value : buffer.getInt(value)) & 0xFFFFFFFFL);
+                }
+            }
+        }
+        Assert.assertEquals(3, firstTiles.size());
+        for (Long ifd : ifds) {
+            for (Long tile : firstTiles) {
+                Assert.assertTrue(ifd < tile);
+            }
+        }
+        Assert.assertTrue(firstTiles.get(2) < firstTiles.get(1));
+        Assert.assertTrue(firstTiles.get(1) < firstTiles.get(0));
+    }
+
+    /**
+     * Subsampled reads use the coarsest adequate overview.
+     */
+    @Test
+    public void testOverviewReading() throws Exception {
+        final File file = createFile();
+        final TiffImageReader reader = new TiffImageReader(null);
+        reader.setInput(file);
+
+        //-- subsampling 4 : 250x150 overview read as is --//
+        final ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(new Rectangle(100, 40, 800, 400));
+        param.setSourceSubsampling(4, 4, 0, 0);
+        Raster raster = reader.read(0, param).getData();
+        Assert.assertEquals(200, raster.getWidth());
+        Assert.assertEquals(100, raster.getHeight());
+        for (int y = 0; y < raster.getHeight(); y++) {
+            for (int x = 0; x < raster.getWidth(); x++) {
+                Assert.assertEquals(value(100 + x * 4, 40 + y * 4), raster.getSample(x, y, 0));
+            }
+        }
+
+        //-- subsampling 3 : pixels picked in 500x300 overview --//
+        param.setSourceRegion(null);
+        param.setSourceSubsampling(3, 3, 0, 0);
+        raster = reader.read(0, param).getData();
+        Assert.assertEquals(334, raster.getWidth());
+        Assert.assertEquals(200, raster.getHeight());
+        for (int y = 0; y < raster.getHeight(); y++) {
+            for (int x = 0; x < raster.getWidth(); x++) {
+                Assert.assertEquals(value((x * 3 / 2) * 2, (y * 3 / 2) * 2), raster.getSample(x, y, 0));
+            }
+        }
+
+        //-- full resolution layer --//
+        reader.setOverviewReading(false);
+        raster = reader.read(0, param).getData();
+        for (int y = 0; y < raster.getHeight(); y++) {
+            for (int x = 0; x < raster.getWidth(); x++) {
+                Assert.assertEquals(value(x * 3, y * 3), raster.getSample(x, y, 0));
+            }
+        }
+
+        //-- destination type requested : read from full resolution layer --//
+        reader.setOverviewReading(true);
+        param.setDestinationType(reader.getRawImageType(0));
+        final BufferedImage typed = reader.read(0, param);
+        Assert.assertEquals(param.getDestinationType().getColorModel(), typed.getColorModel());
+        raster = typed.getData();
+        for (int y = 0; y < raster.getHeight(); y++) {
+            for (int x = 0; x < raster.getWidth(); x++) {
+                Assert.assertEquals(value(x * 3, y * 3), raster.getSample(x, y, 0));
+            }
+        }
+        reader.dispose();
+    }
+
+    private static File createFile() throws Exception {
+        final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        final WritableRaster raster = image.getRaster();
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                raster.setSample(x, y, 0, value(x, y));
+            }
+        }
+
+        final File file = File.createTempFile("cog", ".tiff");
+        file.deleteOnExit();
+        final TiffImageWriter writer = new TiffImageWriter(null);
+        final TiffImageWriteParam param = (TiffImageWriteParam) writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionType("LZW");
+        param.setCloudOptimized(true);
+        writer.setOutput(file);
+        writer.write(image, param);
+        writer.dispose();
+        return file;
+    }
+
+    private static int value(int x, int y) {
+        return (x * 7 + y * 13) & 0xFF;
+    }
+}
@@ -182,6 +182,21 @@ public abstract class Interpolation {
      */
     public abstract double[] interpolate(double x, double y);
 
+    /**
+     * Writes all pixel samples from interpolation at (x, y) sources coordinates
+     * in the given array, avoiding a new array for each pixel.
+     * Default implementation copies the result of {@link #interpolate(double, double) }.
+     *
+     * @param x pixel x coordinate.
+     * @param y pixel y coordinate.
+     * @param dest array of length at least {@link #getNumBands() } where samples are written.
+     * @return given dest array.
+     */
+    public double[] interpolate(double x, double y, double[] dest) {
+        System.arraycopy(interpolate(x, y), 0, dest, 0, numBands);
+        return dest;
+    }
+
     /**
      * <p>Find minimum and maximum pixels values for each band.<br/>
      * Moreover double table result has length equal to 6 * band number.<br/><br/>
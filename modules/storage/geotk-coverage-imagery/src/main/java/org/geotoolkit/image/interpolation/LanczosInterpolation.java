@@ -17,6 +17,7 @@
 package org.geotoolkit.image.interpolation;
 
 import java.awt.Rectangle;
+import java.util.Arrays;
 import static java.lang.Math.sin;
 import org.apache.sis.image.PixelIterator;
 import org.apache.sis.measure.NumberRange;
@@ -45,6 +46,11 @@ public class LanczosInterpolation extends Interpolation {
      */
     private final double maxValue;
 
+    /**
+     * Source pixel buffer reused between interpolations.
+     */
+    private final double[] pixel;
+
     /**
      * Create a Lanczos interpolation.
      *
@@ -66,6 +72,7 @@ public class LanczosInterpolation extends Interpolation {
         NumberRange<?> range = pixelIterator.getSampleRanges()[0];
         minValue = range.getMinDouble();
         maxValue = range.getMaxDouble();
+        pixel = new double[numBands];
     }
 
     /**
@@ -220,14 +227,21 @@ public class LanczosInterpolation extends Interpolation {
 
     @Override
     public double[] interpolate(double x, double y) {
+        return interpolate(x, y, new double[numBands]);
+    }
+
+    /**
+     * {@inheritDoc }.
+     */
+    @Override
+    public double[] interpolate(double x, double y, double[] interpol) {
 //        if (!checkInterpolate(x, y)) return fillValue[b];
         setInterpolateMin(x, y);
         final int hY = minY + windowSide;
         final int wX = minX + windowSide;
         int dy, dx;
-        final int nbBand = pixelIterator.getNumBands();
-        final double[] interpol = new double[nbBand];
-        final double[] pixel = new double[nbBand];
+        final int nbBand = numBands;
+        Arrays.fill(interpol, 0, nbBand, 0.0);
 
         //unroll lanczos window sizes
         //loops are very expensive
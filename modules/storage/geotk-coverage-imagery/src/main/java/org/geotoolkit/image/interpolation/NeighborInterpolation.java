@@ -71,11 +71,18 @@ public class NeighborInterpolation extends Interpolation {
      */
     @Override
     public double[] interpolate(double x, double y) {
+        return interpolate(x, y, result);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public double[] interpolate(double x, double y, double[] dest) {
 //        if (x < bminX || x > bmaxX || y < bminY || y > bmaxY) return fillValue;//-- no interpolation available
         x = Math.round(x);
         y = Math.round(y);
         pixelIterator.moveTo((int) Math.min(maxxId, x), (int) Math.min(maxyId, y));
-        pixelIterator.getPixel(result);
-        return result;
+        return pixelIterator.getPixel(dest);
     }
 }
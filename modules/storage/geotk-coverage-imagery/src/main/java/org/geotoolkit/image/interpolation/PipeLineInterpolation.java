@@ -27,4 +27,9 @@ public class PipeLineInterpolation extends Interpolation {
         return source.interpolate(x, y);
     }
 
+    @Override
+    public double[] interpolate(double x, double y, double[] dest) {
+        return source.interpolate(x, y, dest);
+    }
+
 }
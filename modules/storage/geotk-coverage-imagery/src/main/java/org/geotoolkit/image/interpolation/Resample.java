@@ -16,11 +16,16 @@
  */
 package org.geotoolkit.image.interpolation;
 
-import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.image.DataBuffer;
 import java.awt.image.RenderedImage;
 import java.awt.image.WritableRenderedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import org.apache.sis.image.PixelIterator;
 import org.apache.sis.image.WritablePixelIterator;
 import org.apache.sis.referencing.operation.projection.ProjectionException;
@@ -45,6 +50,11 @@ public class Resample {
     private static final double[] CLAMP_USHORT = new double[]{0,                 0xFFFF};
     private static final double[] CLAMP_INT    = new double[]{Integer.MIN_VALUE, Integer.MAX_VALUE};
 
+    /**
+     * Maximum number of rows of a block resampled by a single task.
+     */
+    private static final int BLOCK_HEIGHT = 64;
+
     /**
      * Transform multi-dimensional point (in our case pixel coordinate) from target image
      * {@code CoordinateReferenceSystem} to source image {@code CoordinateReferenceSystem}.
@@ -64,20 +74,22 @@ public class Resample {
     private final Interpolation interpol;
 
     /**
-     * Image number bands.<br/>
-     * Note : source and target image have same bands number.
+     * Source image, used to create an {@link Interpolation} for each parallel task.
+     * Null when interpolation has been given by user, resampling is then sequential.
      */
-    private final int numBands;
+    private final RenderedImage imageSrc;
 
     /**
-     * Table which contain x, y coordinates after {@link MathTransform} transformation.
+     * Interpolation case and lanczos window used to create interpolation for each task.
      */
-    private final double[] srcCoords;
+    private final InterpolationCase interpolationCase;
+    private final int lanczosWindow;
 
     /**
-     * Table which contain x, y coordinates after {@link MathTransform} transformation.
+     * Image number bands.<br/>
+     * Note : source and target image have same bands number.
      */
-    private final double[] destCoords;
+    private final int numBands;
 
     /**
      * Iterator use to fill destination image from interpolation of source image pixel value.
@@ -196,8 +208,6 @@ public class Resample {
         this.destIterator              = new WritablePixelIterator.Builder().setRegionOfInterest(resampleArea).createWritable(this.imageDest);
         this.destToSourceMathTransform = mathTransform;
 
-        srcCoords  = new double[2];
-        destCoords = new double[2];
         //-- interpolation creation --//
         PixelIterator pix = PixelIterator.create(imageSrc);
 
@@ -208,6 +218,9 @@ public class Resample {
             interpolation = InterpolationCase.NEIGHBOR;
         }
         interpol = Interpolation.create(pix, interpolation, lanczosWindow, rbc, fillValue);
+        this.imageSrc          = imageSrc;
+        this.interpolationCase = interpolation;
+        this.lanczosWindow     = lanczosWindow;
 
         this.rbc   = rbc;
         this.clamp = getClamp(imageDest.getSampleModel().getDataType());
@@ -252,8 +265,9 @@ public class Resample {
         this.destIterator              = new WritablePixelIterator.Builder().setRegionOfInterest(resampleArea).createWritable(this.imageDest);
         this.destToSourceMathTransform = mathTransform;
         this.interpol                  = interpol;
-        srcCoords  = new double[2];
-        destCoords = new double[2];
+        this.imageSrc                  = null;
+        this.interpolationCase         = null;
+        this.lanczosWindow             = 0;
         this.rbc   = rbc;
         this.clamp = getClamp(imageDest.getSampleModel().getDataType());
     }
@@ -271,28 +285,123 @@ public class Resample {
 
     /**
      * Fill image without any grid, all pixels coordinates are transform by given {@link MathTransform}.
+     * <br/>
+     * Coordinates are transformed by rows, with a single {@link MathTransform} call for each row.
+     * Destination area is split in blocks, inside destination tiles, which are resampled in parallel
+     * when this resampler has been created from a source image, sequentially otherwise.
      */
     public void fillImage() throws TransformException {
-        while (destIterator.next()) {
-            //-- Compute source coordinate from destination coordinate and mathtransform.
-            final Point position = destIterator.getPosition();
-            destCoords[0] = position.x;
-            destCoords[1] = position.y;
+        final Rectangle area = destIterator.getDomain();
+        if (area.isEmpty()) return;
+
+        //-- iterator walks tile by tile, a block row must not cross a tile boundary --//
+        final List<Rectangle> blocks = split(area);
+        if (imageSrc == null || blocks.size() < 2 || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            for (final Rectangle block : blocks) {
+                fill(block, destIterator, interpol);
+            }
+            return;
+        }
+
+        final List<Callable<Object>> tasks = new ArrayList<>(blocks.size());
+        for (final Rectangle block : blocks) {
+            tasks.add(() -> {
+                final WritablePixelIterator ite = new WritablePixelIterator.Builder().setRegionOfInterest(block).createWritable(imageDest);
+                final Interpolation blockInterpol = Interpolation.create(PixelIterator.create(imageSrc),
+                        interpolationCase, lanczosWindow, rbc, fillValue);
+                fill(block, ite, blockInterpol);
+                return null;
+            });
+        }
+        for (Future<Object> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new TransformException("Resampling interrupted", ex);
+            } catch (ExecutionException ex) {
+                final Throwable cause = ex.getCause();
+                if (cause instanceof TransformException) throw (TransformException) cause;
+                if (cause instanceof RuntimeException)   throw (RuntimeException) cause;
+                if (cause instanceof Error)              throw (Error) cause;
+                throw new TransformException(cause.getMessage(), cause);
+            }
+        }
+    }
+
+    /**
+     * Split destination area in blocks contained in a single destination tile,
+     * of at most {@link #BLOCK_HEIGHT} rows.
+     */
+    private List<Rectangle> split(final Rectangle area) {
+        final List<Rectangle> blocks = new ArrayList<>();
+        final int tileWidth  = imageDest.getTileWidth();
+        final int tileHeight = imageDest.getTileHeight();
+        final int offsetX    = imageDest.getTileGridXOffset();
+        final int offsetY    = imageDest.getTileGridYOffset();
+        final int minTileX   = Math.floorDiv(area.x - offsetX, tileWidth);
+        final int minTileY   = Math.floorDiv(area.y - offsetY, tileHeight);
+        final int maxTileX   = Math.floorDiv(area.x + area.width  - 1 - offsetX, tileWidth);
+        final int maxTileY   = Math.floorDiv(area.y + area.height - 1 - offsetY, tileHeight);
+        for (int ty = minTileY; ty <= maxTileY; ty++) {
+            for (int tx = minTileX; tx <= maxTileX; tx++) {
+                final Rectangle tile = new Rectangle(offsetX + tx * tileWidth, offsetY + ty * tileHeight, tileWidth, tileHeight)
+                        .intersection(area);
+                for (int y = tile.y, ymax = tile.y + tile.height; y < ymax; y += BLOCK_HEIGHT) {
+                    blocks.add(new Rectangle(tile.x, y, tile.width, Math.min(BLOCK_HEIGHT, ymax - y)));
+                }
+            }
+        }
+        return blocks;
+    }
+
+    /**
+     * Resample given destination block.
+     *
+     * @param block destination area to fill, contained in the iterator domain
+     * @param ite iterator on destination image
+     * @param interpol interpolation to use, not shared with other threads
+     */
+    private void fill(final Rectangle block, final WritablePixelIterator ite, final Interpolation interpol) throws TransformException {
+        final int width = block.width;
+        final double[] coords = new double[width * 2];
+        final double[] pixel = new double[numBands];
+        for (int y = block.y, ymax = block.y + block.height; y < ymax; y++) {
+            //-- Compute source coordinates of the whole row.
+            for (int i = 0, x = block.x; i < width; i++, x++) {
+                coords[2*i  ] = x;
+                coords[2*i+1] = y;
+            }
             try {
-                destToSourceMathTransform.transform(destCoords, 0, srcCoords, 0, 1);
+                destToSourceMathTransform.transform(coords, 0, coords, 0, width);
             } catch (ProjectionException ex) {
-                //coordinate can not be computed in source crs
-                srcCoords[0] = Double.NaN;
-                srcCoords[1] = Double.NaN;
+                //some coordinates can not be computed in source crs, transform them one by one
+                final double[] point = new double[2];
+                for (int i = 0; i < width; i++) {
+                    point[0] = block.x + i;
+                    point[1] = y;
+                    try {
+                        destToSourceMathTransform.transform(point, 0, coords, 2*i, 1);
+                    } catch (ProjectionException e) {
+                        coords[2*i  ] = Double.NaN;
+                        coords[2*i+1] = Double.NaN;
+                    }
+                }
             }
 
-            //-- if destination coordinate transformation is out of source boundary.
-            if (!interpol.checkInterpolate(srcCoords[0], srcCoords[1])) {
-                if (fillValue != null) destIterator.setPixel(fillValue);
-            } else {
-                double[] pixel = interpol.interpolate(srcCoords[0], srcCoords[1]);
-                if (clamp != null) XMath.applyClamp(pixel, clamp[0], clamp[1]);
-                destIterator.setPixel(pixel);
+            ite.moveTo(block.x, y);
+            for (int i = 0; i < width; i++) {
+                if (i > 0) ite.next();
+                final double sx = coords[2*i];
+                final double sy = coords[2*i+1];
+                //-- if destination coordinate transformation is out of source boundary.
+                if (!interpol.checkInterpolate(sx, sy)) {
+                    if (fillValue != null) ite.setPixel(fillValue);
+                } else {
+                    interpol.interpolate(sx, sy, pixel);
+                    if (clamp != null) XMath.applyClamp(pixel, clamp[0], clamp[1]);
+                    ite.setPixel(pixel);
+                }
             }
         }
     }
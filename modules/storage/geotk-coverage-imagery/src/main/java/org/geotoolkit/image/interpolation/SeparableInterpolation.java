@@ -76,6 +76,14 @@ abstract class SeparableInterpolation extends Interpolation {
      */
     @Override
     public double[] interpolate(double x, double y) {
+        return interpolate(x, y, result);
+    }
+
+    /**
+     * {@inheritDoc }.
+     */
+    @Override
+    public double[] interpolate(double x, double y, double[] dest) {
 //        if (!checkInterpolate(x, y)) return fillValue;
         setInterpolateMin(x, y);
 
@@ -84,9 +92,9 @@ abstract class SeparableInterpolation extends Interpolation {
                 fillRow(dy, b);
                 cols[dy] = interpolate1D(minX, x, rows);
             }
-            result[b] = interpolate1D(minY, y, cols);
+            dest[b] = interpolate1D(minY, y, cols);
         }
-        return result;
+        return dest;
     }
 
     private void fillRow(int y, int band) {
@@ -164,6 +164,96 @@ public class ResampleTest extends org.geotoolkit.test.TestBase {
         assertArrayEquals(expectedResultByFeedBack, testedArray, tol);
     }
 
+    /**
+     * Parallel resampling by blocks must give the same result as sequential resampling,
+     * for all interpolations, on single tile and multi-tiles destination images.
+     */
+    @Test
+    public void parallelTest() throws TransformException {
+        final BufferedImage source = new BufferedImage(120, 90, BufferedImage.TYPE_BYTE_GRAY);
+        final WritableRaster raster = source.getRaster();
+        final java.util.Random random = new java.util.Random(42);
+        for (int y = 0; y < 90; y++) {
+            for (int x = 0; x < 120; x++) {
+                raster.setSample(x, y, 0, random.nextInt(256));
+            }
+        }
+        //-- rotation and scale, some destination pixels fall outside of source image
+        final MathTransform destToSource = new AffineTransform2D(0.35, 0.1, -0.1, 0.35, 5, 10);
+        final double[] fill = new double[]{7};
+
+        for (InterpolationCase interpolation : new InterpolationCase[]{InterpolationCase.NEIGHBOR,
+                InterpolationCase.BILINEAR, InterpolationCase.BICUBIC, InterpolationCase.LANCZOS}) {
+
+            //-- reference : single tile, sequential
+            final BufferedImage reference = new BufferedImage(300, 200, BufferedImage.TYPE_BYTE_GRAY);
+            new Resample(destToSource, reference, null, Interpolation.create(PixelIterator.create(source), interpolation, 2,
+                    ResampleBorderComportement.FILL_VALUE, fill), fill, ResampleBorderComportement.FILL_VALUE).fillImage();
+            final int[] expected = reference.getRaster().getPixels(0, 0, 300, 200, (int[]) null);
+            //-- fill value used outside of source image
+            assertEquals(7, reference.getRaster().getSample(299, 199, 0));
+
+            //-- single tile, parallel
+            final BufferedImage single = new BufferedImage(300, 200, BufferedImage.TYPE_BYTE_GRAY);
+            new Resample(destToSource, single, null, source, interpolation, 2,
+                    ResampleBorderComportement.FILL_VALUE, fill).fillImage();
+            assertArrayEquals(interpolation.name(), expected, single.getRaster().getPixels(0, 0, 300, 200, (int[]) null));
+
+            //-- 2x2 tiles, parallel
+            final WritableRenderedImage tiledParallel = createTiledImage(reference);
+            new Resample(destToSource, tiledParallel, null, source, interpolation, 2,
+                    ResampleBorderComportement.FILL_VALUE, fill).fillImage();
+            assertArrayEquals(interpolation.name(), expected, tiledParallel.getData().getPixels(0, 0, 300, 200, (int[]) null));
+
+            //-- 2x2 tiles, sequential
+            final WritableRenderedImage tiledSequential = createTiledImage(reference);
+            new Resample(destToSource, tiledSequential, null, Interpolation.create(PixelIterator.create(source), interpolation, 2,
+                    ResampleBorderComportement.FILL_VALUE, fill), fill, ResampleBorderComportement.FILL_VALUE).fillImage();
+            assertArrayEquals(interpolation.name(), expected, tiledSequential.getData().getPixels(0, 0, 300, 200, (int[]) null));
+        }
+    }
+
+    /**
+     * Interpolation in a caller buffer must give the same samples as interpolation
+     * in a returned array, whatever the buffer content before the call.
+     */
+    @Test
+    public void interpolateInBufferTest() {
+        final BufferedImage source = new BufferedImage(20, 20, BufferedImage.TYPE_3BYTE_BGR);
+        final WritableRaster raster = source.getRaster();
+        final java.util.Random random = new java.util.Random(7);
+        for (int y = 0; y < 20; y++) {
+            for (int x = 0; x < 20; x++) {
+                raster.setPixel(x, y, new int[]{random.nextInt(256), random.nextInt(256), random.nextInt(256)});
+            }
+        }
+
+        for (InterpolationCase interpolation : new InterpolationCase[]{InterpolationCase.NEIGHBOR,
+                InterpolationCase.BILINEAR, InterpolationCase.BICUBIC, InterpolationCase.LANCZOS}) {
+            final Interpolation interpol = Interpolation.create(PixelIterator.create(source), interpolation, 2,
+                    ResampleBorderComportement.FILL_VALUE, new double[3]);
+            final double[] buffer = new double[3];
+            for (double y = 2.25; y < 17; y += 1.5) {
+                for (double x = 2.75; x < 17; x += 1.5) {
+                    final double[] expected = interpol.interpolate(x, y).clone();
+                    java.util.Arrays.fill(buffer, 1000);
+                    assertSame(buffer, interpol.interpolate(x, y, buffer));
+                    assertArrayEquals(interpolation.name(), expected, buffer, 0.0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Create an empty image of same size and type as given image, made of 2x2 tiles.
+     */
+    private static WritableRenderedImage createTiledImage(final BufferedImage model) {
+        final int tileWidth  = model.getWidth()  / 2;
+        final int tileHeight = model.getHeight() / 2;
+        return new javax.media.jai.TiledImage(0, 0, model.getWidth(), model.getHeight(), 0, 0,
+                model.getSampleModel().createCompatibleSampleModel(tileWidth, tileHeight), model.getColorModel());
+    }
+
     /**
      * Study grid built during resample an verify pertinency of its values from
      * destination coordinates transformed by {@link MathTransform}.
@@ -0,0 +1,243 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.db.postgres;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import org.apache.sis.util.ObjectConverters;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.io.WKBWriter;
+
+/**
+ * Writer for the PostgreSQL binary COPY format.
+ * <br/>
+ * Rows are written as described in https://www.postgresql.org/docs/current/sql-copy.html#id-1.9.3.55.9.4 ,
+ * geometries are encoded as EWKB, which is the binary input format of the PostGIS geometry type.
+ * Date and time values use the integer representation, the default since PostgreSQL 8.4.
+ */
+final class PostgresBinaryCopy {
+
+    private static final byte[] SIGNATURE = {'P','G','C','O','P','Y','\n',(byte)0xFF,'\r','\n',0};
+    /** 2000-01-01, postgres date and time reference */
+    private static final long EPOCH_2000_DAYS = LocalDate.of(2000, 1, 1).toEpochDay();
+    private static final long EPOCH_2000_SECONDS = EPOCH_2000_DAYS * 86400L;
+
+    /**
+     * Column types supported in binary format.
+     */
+    enum ColumnType {
+        INT2, INT4, INT8, FLOAT4, FLOAT8, BOOL, TEXT, BYTEA, DATE, TIMESTAMP, TIMESTAMPTZ, GEOMETRY;
+
+        /**
+         * @param typeName postgres type name
+         * @return column type or null if type is not supported
+         */
+        static ColumnType forName(final String typeName) {
+            if (typeName == null) return null;
+            switch (typeName.toLowerCase()) {
+                case "int2" :
+                case "smallserial" : return INT2;
+                case "int4" :
+                case "serial" : return INT4;
+                case "int8" :
+                case "bigserial" : return INT8;
+                case "float4" : return FLOAT4;
+                case "float8" : return FLOAT8;
+                case "bool" : return BOOL;
+                case "text" :
+                case "varchar" :
+                case "bpchar" :
+                case "name" : return TEXT;
+                case "bytea" : return BYTEA;
+                case "date" : return DATE;
+                case "timestamp" : return TIMESTAMP;
+                case "timestamptz" : return TIMESTAMPTZ;
+                case "geometry" : return GEOMETRY;
+                default : return null;
+            }
+        }
+    }
+
+    private final ColumnType[] types;
+    private final DataOutputStream out;
+    private final WKBWriter wkbWriter = new WKBWriter(2, true);
+    private int column;
+
+    PostgresBinaryCopy(final ColumnType[] types, final OutputStream out) {
+        this.types = types;
+        this.out = new DataOutputStream(out);
+    }
+
+    void writeHeader() throws IOException {
+        out.write(SIGNATURE);
+        //flags
+        out.writeInt(0);
+        //header extension length
+        out.writeInt(0);
+    }
+
+    void startRow() throws IOException {
+        out.writeShort(types.length);
+        column = 0;
+    }
+
+    /**
+     * Write next field of current row.
+     *
+     * @param value field value, can be null
+     * @param srid geometry srid, used only for geometry columns
+     */
+    void write(final Object value, final int srid) throws IOException {
+        if (column >= types.length) {
+            throw new IOException("Row has more values than columns");
+        }
+        final ColumnType type = types[column++];
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        switch (type) {
+            case INT2 :
+                out.writeInt(2);
+                out.writeShort(toNumber(value).shortValue());
+                break;
+            case INT4 :
+                out.writeInt(4);
+                out.writeInt(toNumber(value).intValue());
+                break;
+            case INT8 :
+                out.writeInt(8);
+                out.writeLong(toNumber(value).longValue());
+                break;
+            case FLOAT4 :
+                out.writeInt(4);
+                out.writeFloat(toNumber(value).floatValue());
+                break;
+            case FLOAT8 :
+                out.writeInt(8);
+                out.writeDouble(toNumber(value).doubleValue());
+                break;
+            case BOOL : {
+                final Boolean b = (value instanceof Boolean) ? (Boolean) value : ObjectConverters.convert(value, Boolean.class);
+                out.writeInt(1);
+                out.writeByte(Boolean.TRUE.equals(b) ? 1 : 0);
+                break;
+            }
+            case TEXT :
+                writeBytes(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+                break;
+            case BYTEA :
+                if (!(value instanceof byte[])) {
+                    throw new IOException("Unsupported value "+value.getClass().getName()+" for bytea column");
+                }
+                writeBytes((byte[]) value);
+                break;
+            case DATE :
+                out.writeInt(4);
+                out.writeInt((int) (toLocalDate(value).toEpochDay() - EPOCH_2000_DAYS));
+                break;
+            case TIMESTAMP : {
+                final LocalDateTime time = toLocalDateTime(value);
+                out.writeInt(8);
+                out.writeLong(toMicroSeconds(time.toEpochSecond(ZoneOffset.UTC), time.getNano()));
+                break;
+            }
+            case TIMESTAMPTZ : {
+                final Instant time = toInstant(value);
+                out.writeInt(8);
+                out.writeLong(toMicroSeconds(time.getEpochSecond(), time.getNano()));
+                break;
+            }
+            case GEOMETRY : {
+                Geometry geom = (Geometry) value;
+                if (geom instanceof LinearRing) {
+                    //postgis does not handle linear rings, convert to just a line string
+                    geom = geom.getFactory().createLineString(((LinearRing) geom).getCoordinateSequence());
+                } else if (geom.getSRID() != srid) {
+                    geom = (Geometry) geom.clone();
+                }
+                geom.setSRID(srid);
+                writeBytes(wkbWriter.write(geom));
+                break;
+            }
+            default : throw new IOException("Unexpected column type "+type);
+        }
+    }
+
+    void endRow() throws IOException {
+        if (column != types.length) {
+            throw new IOException("Row has "+column+" values, expected "+types.length);
+        }
+    }
+
+    void writeTrailer() throws IOException {
+        out.writeShort(-1);
+        out.flush();
+    }
+
+    private void writeBytes(final byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static Number toNumber(final Object value) {
+        if (value instanceof Number) return (Number) value;
+        if (value instanceof Boolean) return ((Boolean) value) ? 1 : 0;
+        return ObjectConverters.convert(value, Double.class);
+    }
+
+    private static LocalDate toLocalDate(final Object value) throws IOException {
+        if (value instanceof java.sql.Date) return ((java.sql.Date) value).toLocalDate();
+        if (value instanceof LocalDate) return (LocalDate) value;
+        if (value instanceof LocalDateTime) return ((LocalDateTime) value).toLocalDate();
+        if (value instanceof Date) return Instant.ofEpochMilli(((Date) value).getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+        throw new IOException("Unsupported value "+value.getClass().getName()+" for date column");
+    }
+
+    private static LocalDateTime toLocalDateTime(final Object value) throws IOException {
+        if (value instanceof Timestamp) return ((Timestamp) value).toLocalDateTime();
+        if (value instanceof LocalDateTime) return (LocalDateTime) value;
+        if (value instanceof LocalDate) return ((LocalDate) value).atStartOfDay();
+        if (value instanceof Date) return new Timestamp(((Date) value).getTime()).toLocalDateTime();
+        throw new IOException("Unsupported value "+value.getClass().getName()+" for timestamp column");
+    }
+
+    private static Instant toInstant(final Object value) throws IOException {
+        if (value instanceof Timestamp) return ((Timestamp) value).toInstant();
+        if (value instanceof Date) return Instant.ofEpochMilli(((Date) value).getTime());
+        if (value instanceof Instant) return (Instant) value;
+        if (value instanceof OffsetDateTime) return ((OffsetDateTime) value).toInstant();
+        if (value instanceof LocalDateTime) return ((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant();
+        throw new IOException("Unsupported value "+value.getClass().getName()+" for timestamptz column");
+    }
+
+    private static long toMicroSeconds(final long epochSecond, final int nano) {
+        return (epochSecond - EPOCH_2000_SECONDS) * 1000000L + nano / 1000;
+    }
+}
@@ -16,20 +16,25 @@
  */
 package org.geotoolkit.db.postgres;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
@@ -53,6 +58,7 @@ import org.geotoolkit.db.JDBCFeatureStore;
 import org.geotoolkit.db.JDBCFeatureStoreUtilities;
 import static org.geotoolkit.db.JDBCFeatureStoreUtilities.*;
 import org.geotoolkit.db.dialect.AbstractSQLDialect;
+import org.geotoolkit.db.dialect.SQLQueryBuilder;
 import org.geotoolkit.db.reverse.ColumnMetaModel;
 import org.geotoolkit.db.reverse.MetaDataConstants;
 import org.geotoolkit.db.reverse.PrimaryKey;
@@ -83,6 +89,7 @@ import org.locationtech.jts.geom.Polygon;
 import org.locationtech.jts.io.ParseException;
 import org.locationtech.jts.io.WKBReader;
 import org.opengis.feature.AttributeType;
+import org.opengis.feature.Feature;
 import org.opengis.feature.FeatureType;
 import org.opengis.feature.Operation;
 import org.opengis.feature.PropertyType;
@@ -127,6 +134,8 @@ import org.opengis.metadata.Identifier;
 import org.opengis.referencing.IdentifiedObject;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 import org.opengis.util.FactoryException;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 import org.postgresql.jdbc.PgResultSetMetaData;
 import org.postgresql.util.PSQLException;
 
@@ -860,6 +869,114 @@ final class PostgresDialect extends AbstractSQLDialect{
     }
 
 
+    ////////////////////////////////////////////////////////////////////////////
+    // BULK INSERTION //////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Insert features with a COPY FROM STDIN in binary format.
+     * Auto generated key columns are not copied, values are created by the database.
+     *
+     * @return false if the connection is not a postgres connection or a column type
+     *         is not supported by the binary encoder.
+     */
+    @Override
+    public boolean insertBatch(FeatureType featureType, List<? extends Feature> features, Connection cx)
+            throws SQLException, DataStoreException {
+        if (!cx.isWrapperFor(PGConnection.class)) return false;
+
+        final PrimaryKey key = featurestore.getDatabaseModel().getPrimaryKey(featureType.getName().toString());
+        final List<AttributeType> attributes = new ArrayList<>();
+        properties:
+        for (PropertyType desc : featureType.getProperties(true)) {
+            if (AttributeConvention.contains(desc.getName()) || !(desc instanceof AttributeType)) continue;
+            final String attName = desc.getName().tip().toString();
+            for (ColumnMetaModel col : key.getColumns()) {
+                if (col.getType() == ColumnMetaModel.Type.AUTO && col.getName().equals(attName)) {
+                    continue properties;
+                }
+            }
+            attributes.add((AttributeType) desc);
+        }
+        if (attributes.isEmpty()) return false;
+
+        final StringBuilder table = new StringBuilder();
+        encodeSchemaAndTableName(table, featurestore.getDatabaseSchema(), featureType.getName().tip().toString());
+        final StringBuilder columns = new StringBuilder();
+        for (AttributeType att : attributes) {
+            encodeColumnName(columns, att.getName().tip().toString());
+            columns.append(',');
+        }
+        columns.setLength(columns.length() - 1);
+
+        //binary format requires the exact column types
+        final PostgresBinaryCopy.ColumnType[] types = new PostgresBinaryCopy.ColumnType[attributes.size()];
+        Statement st = null;
+        ResultSet rs = null;
+        try {
+            st = cx.createStatement();
+            rs = st.executeQuery("SELECT " + columns + " FROM " + table + " LIMIT 0");
+            final ResultSetMetaData metadata = rs.getMetaData();
+            for (int i = 0; i < types.length; i++) {
+                types[i] = PostgresBinaryCopy.ColumnType.forName(metadata.getColumnTypeName(i+1));
+                if (types[i] == null) return false;
+            }
+        } finally {
+            JDBCFeatureStoreUtilities.closeSafe(featurestore.getLogger(), null, st, rs);
+        }
+
+        final boolean emptyAsNull = ((Comparable)getVersion(null).getMajor()).compareTo((Comparable)Integer.valueOf(2)) < 0;
+        final String sql = "COPY " + table + " (" + columns + ") FROM STDIN (FORMAT binary)";
+        final CopyIn copy = cx.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+        try {
+            final OutputStream stream = new BufferedOutputStream(new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    try {
+                        copy.writeToCopy(b, off, len);
+                    } catch (SQLException ex) {
+                        throw new IOException(ex.getMessage(), ex);
+                    }
+                }
+            }, 65536);
+
+            final PostgresBinaryCopy writer = new PostgresBinaryCopy(types, stream);
+            writer.writeHeader();
+            for (Feature feature : features) {
+                writer.startRow();
+                for (AttributeType att : attributes) {
+                    Object value = feature.getPropertyValue(att.getName().toString());
+                    int srid = 0;
+                    if (value instanceof Geometry) {
+                        //empty geometries are interpreted as Geometrycollection in postgis < 2
+                        //this breaks the column geometry type constraint so we replace those by null
+                        if (emptyAsNull && ((Geometry) value).isEmpty()) {
+                            value = null;
+                        } else {
+                            srid = SQLQueryBuilder.getGeometrySRID((Geometry) value, att);
+                        }
+                    }
+                    writer.write(value, srid);
+                }
+                writer.endRow();
+            }
+            writer.writeTrailer();
+            copy.endCopy();
+        } catch (IOException ex) {
+            throw new DataStoreException("Failed to copy features : "+ex.getMessage(), ex);
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+        return true;
+    }
+
     ////////////////////////////////////////////////////////////////////////////
     // PRIMARY KEY CALCULATION METHOS //////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////
@@ -883,6 +1000,28 @@ final class PostgresDialect extends AbstractSQLDialect{
         return null;
     }
 
+    /**
+     * Sequence values are obtained in a single query.
+     */
+    @Override
+    public Object[] nextValues(final ColumnMetaModel column, final Connection cx, final int count) throws SQLException, DataStoreException {
+        final Object[] values = new Object[count];
+        if(column.getType() == ColumnMetaModel.Type.SEQUENCED && count > 0){
+            final Statement st = cx.createStatement();
+            ResultSet rs = null;
+            try {
+                final String sql = "SELECT nextval('" + column.getSequenceName() + "') FROM generate_series(1," + count + ")";
+                rs = st.executeQuery(sql);
+                for (int i = 0; i < count && rs.next(); i++) {
+                    values[i] = rs.getLong(1);
+                }
+            } finally {
+                JDBCFeatureStoreUtilities.closeSafe(featurestore.getLogger(), null,st,rs);
+            }
+        }
+        return values;
+    }
+
     ////////////////////////////////////////////////////////////////////////////
     // METHODS TO READ FROM RESULTSET //////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////
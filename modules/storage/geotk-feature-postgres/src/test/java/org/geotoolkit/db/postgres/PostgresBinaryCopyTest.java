@@ -0,0 +1,90 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.db.postgres;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import org.geotoolkit.db.postgres.PostgresBinaryCopy.ColumnType;
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.io.WKBReader;
+
+/**
+ * Binary COPY encoding test, does not require a database.
+ */
+public class PostgresBinaryCopyTest {
+
+    @Test
+    public void testEncoding() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final PostgresBinaryCopy writer = new PostgresBinaryCopy(new ColumnType[]{
+            ColumnType.INT4, ColumnType.TEXT, ColumnType.FLOAT8, ColumnType.TIMESTAMP, ColumnType.GEOMETRY}, bytes);
+        writer.writeHeader();
+        writer.startRow();
+        writer.write(42, 0);
+        writer.write("été", 0);
+        writer.write(null, 0);
+        writer.write(Timestamp.valueOf("2000-01-02 00:00:00.000001"), 0);
+        writer.write(new GeometryFactory().createPoint(new Coordinate(3, 4)), 4326);
+        writer.endRow();
+        writer.writeTrailer();
+
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        final byte[] signature = new byte[11];
+        in.readFully(signature);
+        Assert.assertEquals("PGCOPY\n", new String(signature, 0, 7, StandardCharsets.US_ASCII));
+        Assert.assertEquals(0, in.readInt());
+        Assert.assertEquals(0, in.readInt());
+
+        Assert.assertEquals(5, in.readShort());
+        //int4
+        Assert.assertEquals(4, in.readInt());
+        Assert.assertEquals(42, in.readInt());
+        //text
+        final byte[] text = new byte[in.readInt()];
+        in.readFully(text);
+        Assert.assertEquals("été", new String(text, StandardCharsets.UTF_8));
+        //null
+        Assert.assertEquals(-1, in.readInt());
+        //timestamp, microseconds since 2000-01-01
+        Assert.assertEquals(8, in.readInt());
+        Assert.assertEquals(86400L * 1000000L + 1, in.readLong());
+        //ewkb
+        final byte[] wkb = new byte[in.readInt()];
+        in.readFully(wkb);
+        final Geometry geom = new WKBReader().read(wkb);
+        Assert.assertEquals(4326, geom.getSRID());
+        Assert.assertEquals(3, geom.getCoordinate().x, 0.0);
+        Assert.assertEquals(4, geom.getCoordinate().y, 0.0);
+
+        Assert.assertEquals(-1, in.readShort());
+        Assert.assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void testColumnTypes() {
+        Assert.assertEquals(ColumnType.INT4, ColumnType.forName("serial"));
+        Assert.assertEquals(ColumnType.GEOMETRY, ColumnType.forName("geometry"));
+        Assert.assertNull(ColumnType.forName("numeric"));
+    }
+}
@@ -31,6 +31,7 @@ import org.locationtech.jts.geom.Polygon;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.sql.Connection;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -49,6 +50,8 @@ import org.geotoolkit.storage.feature.query.Query;
 import org.geotoolkit.storage.feature.query.QueryBuilder;
 import org.geotoolkit.storage.feature.session.Session;
 import org.apache.sis.storage.DataStoreException;
+import org.geotoolkit.factory.Hints;
+import org.geotoolkit.factory.HintsPending;
 import org.geotoolkit.geometry.jts.JTS;
 import org.geotoolkit.version.VersionControl;
 import org.geotoolkit.version.VersioningException;
@@ -748,6 +751,110 @@ public class PostgresSimpleTypeTest extends org.geotoolkit.test.TestBase {
         }
     }
 
+    /**
+     * Batch insertion with hint UPDATE_ID_ON_INSERT set to false,
+     * features are inserted by groups with the dialect binary COPY.
+     */
+    @Test
+    public void testBatchInsert() throws DataStoreException, VersioningException {
+        reload(true);
+
+        store.createFeatureType(FTYPE_SIMPLE);
+        final FeatureType resType = store.getFeatureType(store.getNames().iterator().next().toString());
+
+        final List<Feature> features = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            final Feature feature = resType.newInstance();
+            feature.setPropertyValue("boolean", i % 2 == 0);
+            feature.setPropertyValue("byte", (short) (i % 100));
+            feature.setPropertyValue("short", (short) i);
+            feature.setPropertyValue("integer", i);
+            feature.setPropertyValue("long", i * 1000l);
+            feature.setPropertyValue("float", i / 2f);
+            feature.setPropertyValue("double", i / 4d);
+            feature.setPropertyValue("string", "feature " + i);
+            features.add(feature);
+        }
+
+        store.addFeatures(resType.getName().toString(), features,
+                new Hints(HintsPending.UPDATE_ID_ON_INSERT, Boolean.FALSE));
+
+        final Session session = store.createSession(false);
+        final FeatureCollection col = session.getFeatureCollection(QueryBuilder.all(resType.getName().toString()));
+        assertEquals(2500, col.size());
+
+        final FeatureIterator ite = col.iterator();
+        try{
+            int found = 0;
+            while (ite.hasNext()) {
+                final Feature resFeature = ite.next();
+                if (!Integer.valueOf(1234).equals(resFeature.getPropertyValue("integer"))) continue;
+                found++;
+                assertEquals(true, resFeature.getPropertyValue("boolean"));
+                assertEquals((short) 34, resFeature.getPropertyValue("byte"));
+                assertEquals((short) 1234, resFeature.getPropertyValue("short"));
+                assertEquals(1234000l, resFeature.getPropertyValue("long"));
+                assertEquals(617f, resFeature.getPropertyValue("float"));
+                assertEquals(308.5d, resFeature.getPropertyValue("double"));
+                assertEquals("feature 1234", resFeature.getPropertyValue("string"));
+            }
+            assertEquals(1, found);
+        }finally{
+            ite.close();
+        }
+    }
+
+    /**
+     * Postgres dialect must insert geometries with binary COPY.
+     */
+    @Test
+    public void testBinaryCopyInsert() throws Exception {
+        reload(true);
+
+        final GeometryFactory gf = new GeometryFactory();
+        final Point point = gf.createPoint(new Coordinate(56, 45));
+        final LineString ls = gf.createLineString(new Coordinate[]{
+                                    new Coordinate(23, 78),
+                                    new Coordinate(-10, 43),
+                                    new Coordinate(12, 94)});
+        final Polygon polygon = gf.createPolygon(gf.createLinearRing(new Coordinate[]{
+                                    new Coordinate(23, 78),
+                                    new Coordinate(-10, 43),
+                                    new Coordinate(12, 94),
+                                    new Coordinate(23, 78)}), new LinearRing[0]);
+
+        store.createFeatureType(FTYPE_GEOMETRY);
+        final FeatureType resType = store.getFeatureType(store.getNames().iterator().next().toString());
+
+        final Feature feature = resType.newInstance();
+        feature.setPropertyValue("fid", 0);
+        feature.setPropertyValue("geometry", polygon);
+        feature.setPropertyValue("point", point);
+        feature.setPropertyValue("linestring", ls);
+        feature.setPropertyValue("polygon", polygon);
+
+        try (Connection cnx = store.getDataSource().getConnection()) {
+            assertTrue(store.getDialect().insertBatch(resType, Collections.singletonList(feature), cnx));
+        }
+
+        final Session session = store.createSession(false);
+        final FeatureCollection col = session.getFeatureCollection(QueryBuilder.all(resType.getName().toString()));
+        assertEquals(1, col.size());
+
+        final FeatureIterator ite = col.iterator();
+        try{
+            final Feature resFeature = ite.next();
+            Geometry geom = (Geometry) resFeature.getPropertyValue("geometry");
+            assertEquals(polygon, geom);
+            assertEquals(CommonCRS.WGS84.normalizedGeographic(), JTS.findCoordinateReferenceSystem(geom));
+            assertEquals(point, resFeature.getPropertyValue("point"));
+            assertEquals(ls, resFeature.getPropertyValue("linestring"));
+            assertNull(resFeature.getPropertyValue("multipoint"));
+        }finally{
+            ite.close();
+        }
+    }
+
     /**
      * Test ugly named table
      *
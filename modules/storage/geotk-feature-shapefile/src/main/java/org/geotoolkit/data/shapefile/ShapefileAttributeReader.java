@@ -185,6 +185,21 @@ public class ShapefileAttributeReader {
         nextDbf();
     }
 
+    /**
+     * Moves the reader to the record at given index, next call to {@link #next() }
+     * will read this record. Requires the .shx file.
+     *
+     * @param index record index, starting at 0
+     * @throws IOException
+     */
+    public void goToRecord(final int index) throws IOException {
+        shp.goToRecord(index);
+        if (dbf != null) {
+            // dbf record numbers start at 1
+            dbf.goTo(index + 1);
+        }
+    }
+
     protected void nextShape() throws IOException {
         record = shp.nextRecord();
     }
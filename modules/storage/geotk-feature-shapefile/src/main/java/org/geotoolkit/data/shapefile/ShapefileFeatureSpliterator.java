@@ -0,0 +1,143 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.shapefile;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import org.apache.sis.storage.DataStoreException;
+import org.geotoolkit.storage.feature.FeatureReader;
+import org.geotoolkit.storage.feature.FeatureStoreRuntimeException;
+import org.opengis.feature.Feature;
+
+/**
+ * Spliterator over a range of shapefile records.
+ * <br/>
+ * Records are reached by index using the .shx file, so a range can be split in
+ * two halves traversed by different threads. Each range opens its own .shp and .dbf
+ * readers, in the traversing thread.
+ * <br/>
+ * Readers hold a read lock on the shapefile which must be released by the thread
+ * which acquired it, readers are therefore never kept open between two calls :
+ * {@link #forEachRemaining(java.util.function.Consumer) } reads the whole range at once,
+ * while {@link #tryAdvance(java.util.function.Consumer) } reads records by batches.
+ *
+ * @module
+ */
+final class ShapefileFeatureSpliterator implements Spliterator<Feature> {
+
+    /**
+     * Ranges smaller than this are not split, opening readers has a cost.
+     */
+    private static final int MIN_SPLIT_SIZE = 1024;
+
+    /**
+     * Number of records read at once by tryAdvance.
+     */
+    private static final int BATCH_SIZE = 256;
+
+    private final ShapefileFeatureStore store;
+    private final int end;
+    /** index of next record to read */
+    private int index;
+    /** features read by last batch, not consumed yet */
+    private final ArrayDeque<Feature> batch = new ArrayDeque<>();
+
+    /**
+     * @param store shapefile store
+     * @param start index of first record, inclusive
+     * @param end index of last record, exclusive
+     */
+    ShapefileFeatureSpliterator(final ShapefileFeatureStore store, final int start, final int end) {
+        this.store = store;
+        this.index = start;
+        this.end   = end;
+    }
+
+    /**
+     * Open readers at current record index.
+     */
+    private FeatureReader open() {
+        try {
+            final ShapefileAttributeReader attReader = store.getAttributesReader(true, true, null);
+            try {
+                attReader.goToRecord(index);
+                return ShapefileFeatureReader.create(attReader, store.getFeatureIDReader(index), store.getFeatureType(), null);
+            } catch (IOException | DataStoreException | RuntimeException ex) {
+                attReader.close();
+                throw ex;
+            }
+        } catch (IOException | DataStoreException ex) {
+            throw new FeatureStoreRuntimeException(ex);
+        }
+    }
+
+    /**
+     * Read features from current index up to given index, exclusive.
+     */
+    private void read(final int limit, final Consumer<? super Feature> action) {
+        try (final FeatureReader reader = open()) {
+            for (; index < limit; index++) {
+                action.accept(reader.next());
+            }
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super Feature> action) {
+        if (batch.isEmpty()) {
+            if (index >= end) {
+                return false;
+            }
+            read(Math.min(end, index + BATCH_SIZE), batch::add);
+        }
+        action.accept(batch.poll());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(final Consumer<? super Feature> action) {
+        while (!batch.isEmpty()) {
+            action.accept(batch.poll());
+        }
+        if (index < end) {
+            read(end, action);
+        }
+    }
+
+    @Override
+    public Spliterator<Feature> trySplit() {
+        final int remaining = end - index;
+        if (!batch.isEmpty() || remaining < 2 * MIN_SPLIT_SIZE) {
+            return null;
+        }
+        final int start = index;
+        index += remaining / 2;
+        return new ShapefileFeatureSpliterator(store, start, index);
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index + batch.size();
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL;
+    }
+}
@@ -37,6 +37,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Level;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.apache.sis.feature.Features;
 import org.apache.sis.feature.builder.AttributeRole;
 import org.apache.sis.feature.builder.AttributeTypeBuilder;
@@ -66,6 +68,7 @@ import org.geotoolkit.data.shapefile.shp.ShapeType;
 import org.geotoolkit.data.shapefile.shp.ShapefileHeader;
 import org.geotoolkit.data.shapefile.shp.ShapefileReader;
 import org.geotoolkit.data.shapefile.shp.ShapefileWriter;
+import org.geotoolkit.data.shapefile.shx.ShxReader;
 import org.geotoolkit.factory.Hints;
 import org.geotoolkit.feature.FeatureExt;
 import org.geotoolkit.geometry.jts.JTSEnvelope2D;
@@ -299,9 +302,63 @@ public class ShapefileFeatureStore extends AbstractFeatureStore implements Resou
             public Optional<Envelope> getEnvelope() throws DataStoreException {
                 return Optional.ofNullable(getHeaderEnvelope());
             }
+
+            @Override
+            public Stream<Feature> features(boolean parallal) throws DataStoreException {
+                if (parallal) {
+                    final Stream<Feature> stream = splitFeatures();
+                    if (stream != null) return stream;
+                }
+                return super.features(parallal);
+            }
         };
     }
 
+    /**
+     * Create a parallel stream of all features, splitting records in ranges
+     * reached by index with the .shx file. Each range is read with its own
+     * .shp and .dbf readers.
+     *
+     * @return parallel stream, or null if records can not be reached by index.
+     * @throws DataStoreException If an error occurs while accessing shapefile resource.
+     */
+    private Stream<Feature> splitFeatures() throws DataStoreException {
+        if (!shpFiles.exists(SHX) || getFeatureIDReader(0) == null) {
+            return null;
+        }
+        try (final ReadableByteChannel shpFile = shpFiles.getReadChannel(SHP)) {
+            if (!(shpFile instanceof FileChannel)) {
+                return null;
+            }
+        } catch (IOException ex) {
+            throw new DataStoreException(ex);
+        }
+
+        final int count;
+        final AccessManager locker = shpFiles.createLocker();
+        try {
+            final ShxReader shx = locker.getSHXReader(false);
+            if (shx == null) return null;
+            count = shx.getRecordCount();
+        } catch (IOException ex) {
+            throw new DataStoreException(ex);
+        } finally {
+            locker.disposeReaderAndWriters();
+        }
+        return StreamSupport.stream(new ShapefileFeatureSpliterator(this, 0, count), true);
+    }
+
+    /**
+     * Create the feature id reader of a reading starting at given record.
+     *
+     * @param index index of first read record, starting at 0.
+     * @return feature id reader, or null if ids can not be computed from record index.
+     * @throws DataStoreException If an error occurs while accessing shapefile resource.
+     */
+    protected FeatureIDReader getFeatureIDReader(final int index) throws DataStoreException {
+        return new DefaultFeatureIDReader(getFeatureType().getName().tip().toString(), index);
+    }
+
     /**
      * {@inheritDoc }
      */
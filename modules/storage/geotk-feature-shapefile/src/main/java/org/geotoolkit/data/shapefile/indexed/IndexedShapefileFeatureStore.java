@@ -39,6 +39,7 @@ import org.geotoolkit.storage.feature.FeatureStreams;
 import org.geotoolkit.storage.feature.FeatureWriter;
 import org.geotoolkit.storage.feature.query.QueryBuilder;
 import org.geotoolkit.storage.feature.query.QueryUtilities;
+import org.geotoolkit.data.shapefile.DefaultFeatureIDReader;
 import org.geotoolkit.data.shapefile.FeatureIDReader;
 import org.geotoolkit.data.shapefile.ShapefileFeatureReader;
 import org.geotoolkit.data.shapefile.ShapefileFeatureStore;
@@ -306,6 +307,24 @@ public class IndexedShapefileFeatureStore extends ShapefileFeatureStore {
         return ShapefileFeatureReader.create(r, fidReader, featureType, hints);
     }
 
+    /**
+     * {@inheritDoc }
+     * <br/>
+     * Ids are the record index, like {@link ShapeFIDReader}, or null if a .fix file holds ids.
+     */
+    @Override
+    protected FeatureIDReader getFeatureIDReader(final int index) throws DataStoreException {
+        try {
+            if (indexUseable(FIX)) {
+                return null;
+            }
+        } catch (IOException ex) {
+            throw new DataStoreException(ex);
+        }
+        // first generated id is start+1
+        return new DefaultFeatureIDReader(getName().tip().toString(), index - 1L);
+    }
+
     private IndexedShapefileAttributeReader getAttributesReader(final List<? extends AttributeType> properties,
             final Filter filter, final boolean read3D, final double[] resample) throws DataStoreException{
 
@@ -159,44 +159,40 @@ public class PolygonHandler extends AbstractShapeHandler {
 
         final DoubleBuffer dbuffer = buffer.asDoubleBuffer();
         final int dimensions = (read3D && shapeType == ShapeType.POLYGONZ)? 3:2;
+        //z values are stored after all xy values and minZ/maxZ
+        final int zOffset = numPoints*2 + 2;
 
-        //read everything in one round : +2 for minZ/maxZ
-        final double[] coords = new double[numPoints*dimensions + ((dimensions==2)?0:2)];
-        final int xySize = numPoints*2;
-        dbuffer.get(coords);
-
-        int coordIndex = 0;
         for (int part = 0; part < numParts; part++) {
 
+            final int start = partOffsets[part];
             final int finish;
             if (part == (numParts - 1)) {
                 finish = numPoints;
             } else {
                 finish = partOffsets[part + 1];
             }
-            final int length = finish - partOffsets[part];
+            final int length = finish - start;
 
             // REVISIT: polyons with only 1 to 3 points are not polygons -
             // geometryFactory will bomb so we skip if we find one.
-            if(length > 0 && length < 4){
-                coordIndex += length;
+            if(length < 4){
                 continue;
             }
 
-            final Coordinate[] points = new Coordinate[length];
-            for (int i = 0; i < length; i++) {
-                if(dimensions==2){
-                    points[i] = new Coordinate(coords[coordIndex*2],coords[coordIndex*2+1]);
-                }else{
-                    points[i] = new Coordinate(coords[coordIndex*2],coords[coordIndex*2+1],coords[xySize+coordIndex+2]);
-                }
-                coordIndex++;
+            //decode ring straight from the buffer, no Coordinate object is created
+            final double[] coords = new double[length*dimensions];
+            dbuffer.position(start*2);
+            dbuffer.get(coords, 0, length*2);
+            if(dimensions==3){
+                dbuffer.position(zOffset + start);
+                dbuffer.get(coords, length*2, length);
             }
+            ensureClosed(coords, length, dimensions);
 
-            JTS.ensureClosed(points);
-
-            final LinearRing ring = GEOMETRY_FACTORY.createLinearRing(points);
-            if (CGAlgorithms.isCCW(points)) {
+            final CoordinateSequence sequence = (dimensions==2) ?
+                    new ShapeCoordinateSequence2D(coords, length) : new ShapeCoordinateSequence3D(coords);
+            final LinearRing ring = GEOMETRY_FACTORY.createLinearRing(sequence);
+            if (isCCW(coords, length)) {
                 // counter-clockwise
                 holes.add(ring);
             } else {
@@ -320,6 +316,78 @@ public class PolygonHandler extends AbstractShapeHandler {
 //        }
 //    }
 
+    /**
+     * Same as {@link JTS#ensureClosed(Coordinate[])} on a ring stored as [x1,y1, ... xN, yN, z1, ... zN].
+     *
+     * @param coords ring coordinates.
+     * @param size number of points in ring.
+     * @param dimensions 2 or 3.
+     */
+    static void ensureClosed(final double[] coords, final int size, final int dimensions) {
+        final int last = (size - 1) * 2;
+        if (coords[0] != coords[last] || coords[1] != coords[last + 1]) {
+            coords[last]     = coords[0];
+            coords[last + 1] = coords[1];
+            if (dimensions == 3) {
+                coords[size*2 + size - 1] = coords[size*2];
+            }
+        }
+    }
+
+    /**
+     * Same algorithm as {@link CGAlgorithms#isCCW(Coordinate[])}, on a closed ring
+     * stored as [x1,y1, ... xN, yN], to avoid creating a Coordinate per point.
+     *
+     * @param coords ring coordinates.
+     * @param size number of points in ring, including closing point.
+     * @return true if ring is oriented counter-clockwise.
+     */
+    static boolean isCCW(final double[] coords, final int size) {
+        final int nPts = size - 1;
+        // find highest point
+        int hiIndex = 0;
+        for (int i = 1; i <= nPts; i++) {
+            if (coords[i*2 + 1] > coords[hiIndex*2 + 1]) {
+                hiIndex = i;
+            }
+        }
+        // find distinct point before highest point
+        int iPrev = hiIndex;
+        do {
+            iPrev = iPrev - 1;
+            if (iPrev < 0) iPrev = nPts;
+        } while (equals2D(coords, iPrev, hiIndex) && iPrev != hiIndex);
+
+        // find distinct point after highest point
+        int iNext = hiIndex;
+        do {
+            iNext = (iNext + 1) % nPts;
+        } while (equals2D(coords, iNext, hiIndex) && iNext != hiIndex);
+
+        // this will catch all cases where there are not 3 distinct points,
+        // including the case where the input array has fewer than 4 elements
+        if (equals2D(coords, iPrev, hiIndex) || equals2D(coords, iNext, hiIndex) || equals2D(coords, iPrev, iNext)) {
+            return false;
+        }
+
+        final int disc = CGAlgorithms.orientationIndex(
+                new Coordinate(coords[iPrev*2], coords[iPrev*2 + 1]),
+                new Coordinate(coords[hiIndex*2], coords[hiIndex*2 + 1]),
+                new Coordinate(coords[iNext*2], coords[iNext*2 + 1]));
+
+        if (disc == 0) {
+            // poly is CCW if prev x is right of next x
+            return coords[iPrev*2] > coords[iNext*2];
+        } else {
+            // if area is positive, points are ordered CCW
+            return disc > 0;
+        }
+    }
+
+    private static boolean equals2D(final double[] coords, final int i, final int j) {
+        return coords[i*2] == coords[j*2] && coords[i*2 + 1] == coords[j*2 + 1];
+    }
+
     /**
      * @param shells
      * @param holes
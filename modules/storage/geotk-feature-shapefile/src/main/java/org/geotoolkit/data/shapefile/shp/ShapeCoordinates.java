@@ -0,0 +1,215 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.shapefile.shp;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import org.locationtech.jts.geom.CoordinateSequence;
+
+/**
+ * Reusable holder of a shapefile record coordinates, for streaming reads
+ * which do not need JTS geometries.
+ * <br/>
+ * Coordinates are decoded straight from the record buffer into primitive arrays,
+ * which are kept and reused by following reads as long as they are big enough.
+ * Arrays returned by this object are therefore only valid until next read.
+ * <br/>
+ * XY coordinates are ordered in an array like [x1,y1, ... xN, yN],
+ * Z coordinates, when requested and available, in another array like [z1, ... zN].
+ *
+ * @module
+ * @see ShapefileReader.Record#read(ShapeCoordinates)
+ */
+public final class ShapeCoordinates {
+
+    private final boolean read3D;
+    private ShapeType type = ShapeType.NULL;
+    private double[] xy = new double[64];
+    private double[] z = new double[0];
+    private int[] parts = new int[4];
+    private int numParts;
+    private int numPoints;
+    private boolean hasZ;
+
+    /**
+     * @param read3D true to decode Z values of 3D shape types.
+     */
+    public ShapeCoordinates(final boolean read3D) {
+        this.read3D = read3D;
+    }
+
+    /**
+     * Decode coordinates of a record. Buffer position must be just after the record shape type,
+     * this method moves buffer position.
+     *
+     * @param buffer little endian record buffer.
+     * @param type record shape type.
+     */
+    void read(final ByteBuffer buffer, final ShapeType type) {
+        this.type = type;
+        numParts  = 0;
+        numPoints = 0;
+        hasZ      = false;
+        if (type == ShapeType.NULL) {
+            return;
+        }
+
+        final boolean typeZ = type == ShapeType.POINTZ || type == ShapeType.ARCZ
+                || type == ShapeType.POLYGONZ || type == ShapeType.MULTIPOINTZ;
+        if (type.isPointType()) {
+            numParts  = 1;
+            numPoints = 1;
+            parts[0]  = 0;
+            xy[0] = buffer.getDouble();
+            xy[1] = buffer.getDouble();
+            if (read3D && typeZ) {
+                hasZ = true;
+                z = ensureCapacity(z, 1);
+                z[0] = buffer.getDouble();
+            }
+            return;
+        }
+
+        // skip the bounds
+        buffer.position(buffer.position() + 32);
+        if (type.isMultiPointType()) {
+            numParts  = 1;
+            numPoints = buffer.getInt();
+            parts[0]  = 0;
+        } else {
+            numParts  = buffer.getInt();
+            numPoints = buffer.getInt();
+            if (parts.length < numParts) {
+                parts = new int[Math.max(numParts, parts.length * 2)];
+            }
+            for (int i = 0; i < numParts; i++) {
+                parts[i] = buffer.getInt();
+            }
+        }
+
+        final DoubleBuffer dbuffer = buffer.asDoubleBuffer();
+        xy = ensureCapacity(xy, numPoints * 2);
+        dbuffer.get(xy, 0, numPoints * 2);
+        if (read3D && typeZ) {
+            hasZ = true;
+            z = ensureCapacity(z, numPoints);
+            // skip z min, max
+            dbuffer.position(dbuffer.position() + 2);
+            dbuffer.get(z, 0, numPoints);
+        }
+    }
+
+    private static double[] ensureCapacity(final double[] array, final int size) {
+        if (array.length >= size) {
+            return array;
+        }
+        return new double[Math.max(size, array.length * 2)];
+    }
+
+    /**
+     * @return shape type of last read record.
+     */
+    public ShapeType getShapeType() {
+        return type;
+    }
+
+    /**
+     * @return number of parts (lines or rings) in last read record, 1 for points.
+     */
+    public int getNumParts() {
+        return numParts;
+    }
+
+    /**
+     * @return number of points in last read record, all parts included.
+     */
+    public int getNumPoints() {
+        return numPoints;
+    }
+
+    /**
+     * @param part part index
+     * @return index of first point of given part.
+     */
+    public int getPartStart(final int part) {
+        return parts[part];
+    }
+
+    /**
+     * @param part part index
+     * @return index after last point of given part.
+     */
+    public int getPartEnd(final int part) {
+        return (part == numParts - 1) ? numPoints : parts[part + 1];
+    }
+
+    /**
+     * @return true if Z values have been read.
+     */
+    public boolean hasZ() {
+        return hasZ;
+    }
+
+    /**
+     * Returns the XY coordinates array, valid only until next read.
+     * Array may be longer than {@code getNumPoints() * 2}.
+     *
+     * @return XY coordinates, not a copy.
+     */
+    public double[] getXY() {
+        return xy;
+    }
+
+    /**
+     * Returns the Z coordinates array, valid only until next read.
+     *
+     * @return Z coordinates, not a copy.
+     */
+    public double[] getZ() {
+        return z;
+    }
+
+    public double getX(final int index) {
+        return xy[index * 2];
+    }
+
+    public double getY(final int index) {
+        return xy[index * 2 + 1];
+    }
+
+    /**
+     * Create a coordinate sequence of given part. Coordinates are copied,
+     * returned sequence stays valid after following reads.
+     *
+     * @param part part index
+     * @return packed coordinate sequence
+     */
+    public CoordinateSequence toSequence(final int part) {
+        final int start  = getPartStart(part);
+        final int length = getPartEnd(part) - start;
+        if (hasZ) {
+            final double[] coords = new double[length * 3];
+            System.arraycopy(xy, start * 2, coords, 0, length * 2);
+            System.arraycopy(z, start, coords, length * 2, length);
+            return new ShapeCoordinateSequence3D(coords);
+        } else {
+            final double[] coords = new double[length * 2];
+            System.arraycopy(xy, start * 2, coords, 0, length * 2);
+            return new ShapeCoordinateSequence2D(coords, length);
+        }
+    }
+}
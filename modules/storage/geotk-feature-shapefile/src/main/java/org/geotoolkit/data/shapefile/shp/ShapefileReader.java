@@ -26,6 +26,7 @@ import java.nio.channels.ReadableByteChannel;
 import org.apache.sis.storage.DataStoreException;
 import org.geotoolkit.data.dbf.Closeable;
 import org.geotoolkit.data.shapefile.shx.ShxReader;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 
 /**
@@ -88,6 +89,34 @@ public final class ShapefileReader implements Closeable{
             return shape;
         }
 
+        /**
+         * Decode the record coordinates into the given reusable holder, without
+         * creating any geometry. Allows streaming reads with a constant memory use.
+         *
+         * @param target holder to fill, its arrays are reused when big enough.
+         * @return given holder
+         */
+        public ShapeCoordinates read(final ShapeCoordinates target) {
+            buffer.position(start);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            target.read(buffer, type);
+            return target;
+        }
+
+        /**
+         * Record bounds as read from the record header, the shape is not decoded.
+         * Filters which only need bounds should use this method and call
+         * {@link #shape()} lazily, only for the records they retain.
+         *
+         * @return record bounds, or a null envelope for null shapes.
+         */
+        public Envelope envelope() {
+            if (type == ShapeType.NULL) {
+                return new Envelope();
+            }
+            return new Envelope(minX, maxX, minY, maxY);
+        }
+
         /**
          * Generate and estimated geometry calculated from the bounding box.
          * It can be used when the bounding box is  already smaller then what we need.
@@ -546,24 +575,7 @@ public final class ShapefileReader implements Closeable{
     public void goTo(final int offset) throws IOException, UnsupportedOperationException {
         disableShxUsage();
         if (randomAccessEnabled) {
-            if (useMemoryMappedBuffer) {
-                buffer.position(offset);
-            } else {
-                /*
-                 * Check to see if requested offset is already loaded; ensure
-                 * that record header is in the buffer
-                 */
-                if (currentOffset <= offset && currentOffset + buffer.limit() >= offset + 8) {
-                    buffer.position(toBufferOffset(offset));
-                } else {
-                    final FileChannel fc = (FileChannel)channel;
-                    fc.position(offset);
-                    currentOffset = offset;
-                    buffer.position(0);
-                    fill(buffer, fc);
-                    buffer.position(0);
-                }
-            }
+            moveBuffer(offset);
 
             final int oldRecordOffset = record.end;
             record.end = offset;
@@ -578,6 +590,59 @@ public final class ShapefileReader implements Closeable{
         }
     }
 
+    /**
+     * Moves the reader to the record at the specified index, using the .shx file.
+     * Unlike {@link #goTo(int) }, the .shx file stays in use : reading with hasNext/next
+     * continues from this record, sparse shapefiles included.
+     *
+     * @param index record index, starting at 0
+     * @throws IOException
+     * @throws UnsupportedOperationException if there is no .shx file or not a random access file
+     */
+    public void goToRecord(final int index) throws IOException, UnsupportedOperationException {
+        if (shxReader == null) {
+            throw new UnsupportedOperationException("Records can not be reached by index without shx file");
+        }
+        if (!randomAccessEnabled) {
+            throw new UnsupportedOperationException("Random Access not enabled");
+        }
+        if (index < 0 || index > shxReader.getRecordCount()) {
+            throw new IndexOutOfBoundsException("Record index "+index+" out of range [0,"+shxReader.getRecordCount()+"]");
+        }
+        if (index < shxReader.getRecordCount()) {
+            final int offset = shxReader.getOffsetInBytes(index);
+            moveBuffer(offset);
+            record.end = offset;
+        }
+        currentShape = index;
+        // number of the previous record, record numbers start at 1
+        record.number = index;
+    }
+
+    /**
+     * Place buffer at given file offset, loading the file portion if needed.
+     */
+    private void moveBuffer(final int offset) throws IOException {
+        if (useMemoryMappedBuffer) {
+            buffer.position(offset);
+        } else {
+            /*
+             * Check to see if requested offset is already loaded; ensure
+             * that record header is in the buffer
+             */
+            if (currentOffset <= offset && currentOffset + buffer.limit() >= offset + 8) {
+                buffer.position(toBufferOffset(offset));
+            } else {
+                final FileChannel fc = (FileChannel)channel;
+                fc.position(offset);
+                currentOffset = offset;
+                buffer.position(0);
+                fill(buffer, fc);
+                buffer.position(0);
+            }
+        }
+    }
+
     /**
      * Returns the shape at the specified byte distance from the beginning of
      * the file. Mind that:
@@ -50,6 +50,8 @@ import org.locationtech.jts.geom.Polygon;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.geotoolkit.feature.FeatureExt;
 import org.apache.sis.feature.builder.FeatureTypeBuilder;
 import org.apache.sis.referencing.CommonCRS;
@@ -60,6 +62,8 @@ import org.opengis.feature.Feature;
 import org.opengis.feature.FeatureType;
 import org.opengis.feature.PropertyType;
 import org.apache.sis.feature.builder.AttributeRole;
+import org.apache.sis.internal.feature.AttributeConvention;
+import org.apache.sis.storage.FeatureSet;
 import org.apache.sis.internal.system.DefaultFactories;
 import org.apache.sis.referencing.CRS;
 import org.apache.sis.util.Utilities;
@@ -507,6 +511,40 @@ public class ShapefileDataStoreTest extends AbstractTestCaseSupport {
         }
     }
 
+    /**
+     * Parallel stream must return the same features, in the same order, as sequential reading.
+     * Record ranges are also read with separate spliterators, as if the stream had been split.
+     */
+    @Test
+    public void testParallelFeatures() throws Exception {
+        assertTrue(copyShapefiles(STREAM).canRead());
+        ShapefileFeatureStore store = (ShapefileFeatureStore) new ShapefileProvider()
+                .createDataStore(TestData.url(AbstractTestCaseSupport.class, STREAM).toURI());
+        final FeatureSet fs = (FeatureSet) store.findResource(store.getNames().iterator().next().toString());
+
+        final List<Feature> sequential = fs.features(false).collect(Collectors.toList());
+        final List<Feature> parallel = fs.features(true).collect(Collectors.toList());
+        assertTrue(sequential.size() > 2);
+        assertEquals(sequential.size(), parallel.size());
+
+        final int mid = sequential.size() / 2;
+        final List<Feature> ranges = new ArrayList<>();
+        new ShapefileFeatureSpliterator(store, mid, sequential.size()).forEachRemaining(ranges::add);
+        final ShapefileFeatureSpliterator first = new ShapefileFeatureSpliterator(store, 0, mid);
+        final List<Feature> firstRange = new ArrayList<>();
+        while (first.tryAdvance(firstRange::add));
+        ranges.addAll(0, firstRange);
+        assertEquals(sequential.size(), ranges.size());
+
+        for (int i = 0; i < sequential.size(); i++) {
+            final Feature expected = sequential.get(i);
+            assertEquals(FeatureExt.getId(expected), FeatureExt.getId(parallel.get(i)));
+            assertEquals(FeatureExt.getId(expected), FeatureExt.getId(ranges.get(i)));
+            assertEquals(expected.getPropertyValue(AttributeConvention.GEOMETRY_PROPERTY.toString()),
+                         ranges.get(i).getPropertyValue(AttributeConvention.GEOMETRY_PROPERTY.toString()));
+        }
+    }
+
     /**
      * Checks if feature reading optimizations still allow to execute the
      * queries or not
@@ -18,6 +18,8 @@ package org.geotoolkit.data.shapefile.shp;
 
 import org.junit.Test;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 
 import org.geotoolkit.data.shapefile.AbstractTestCaseSupport;
@@ -26,6 +28,7 @@ import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Polygon;
 import org.locationtech.jts.geom.PrecisionModel;
 import java.util.List;
 
@@ -86,6 +89,44 @@ public class PolygonHandlerTest extends AbstractTestCaseSupport {
 
     }
 
+    /**
+     * Polygon written then read again must be the same, rings are decoded
+     * without Coordinate objects. Coordinates streaming read must see the same values.
+     */
+    @Test
+    public void testReadPackedRings() throws Exception {
+        final GeometryFactory gf = new GeometryFactory();
+        //shapefile shells are clockwise, holes counter-clockwise
+        final LinearRing shell = gf.createLinearRing(new Coordinate[]{
+            new Coordinate(0, 0), new Coordinate(0, 10), new Coordinate(10, 10),
+            new Coordinate(10, 0), new Coordinate(0, 0)});
+        final LinearRing hole = gf.createLinearRing(new Coordinate[]{
+            new Coordinate(2, 2), new Coordinate(8, 2), new Coordinate(8, 8),
+            new Coordinate(2, 8), new Coordinate(2, 2)});
+        assertFalse(PolygonHandler.isCCW(new double[]{0,0, 0,10, 10,10, 10,0, 0,0}, 5));
+        assertTrue(PolygonHandler.isCCW(new double[]{2,2, 8,2, 8,8, 2,8, 2,2}, 5));
+
+        final Geometry polygon = gf.createMultiPolygon(new Polygon[]{gf.createPolygon(shell, new LinearRing[]{hole})});
+        final PolygonHandler handler = new PolygonHandler(false);
+        final ByteBuffer buffer = ByteBuffer.allocate(handler.getLength(polygon)).order(ByteOrder.LITTLE_ENDIAN);
+        handler.write(buffer, polygon);
+
+        buffer.flip();
+        final Geometry read = handler.read(buffer, ShapeType.POLYGON);
+        assertTrue(polygon.equalsExact(read));
+
+        buffer.position(0);
+        final ShapeCoordinates coords = new ShapeCoordinates(false);
+        coords.read(buffer, ShapeType.POLYGON);
+        assertEquals(2, coords.getNumParts());
+        assertEquals(10, coords.getNumPoints());
+        assertEquals(5, coords.getPartStart(1));
+        assertEquals(10, coords.getPartEnd(1));
+        assertEquals(8, coords.getX(6), 0.0);
+        assertEquals(2, coords.getY(6), 0.0);
+        assertTrue(hole.getCoordinateSequence().getCoordinate(1).equals2D(coords.toSequence(1).getCoordinate(1)));
+    }
+
     public static Geometry rectangle(final PrecisionModel pm, final int SRID) {
         Coordinate[] coords = new Coordinate[5];
         for (int i = 0; i < coords.length; i++) {
@@ -928,31 +928,71 @@ public class DefaultJDBCFeatureStore extends JDBCFeatureStore{
         handleRemoveWithFeatureWriter(groupName, filter, cnx);
     }
 
+    /**
+     * Insert a batch of flat features.
+     * Primary key values are calculated for the whole batch at once, then the
+     * features are given to the dialect bulk loading mechanism, if the dialect
+     * does not support it they are inserted with batched statements.
+     * <br/>
+     * Used by the insert writer only when hint {@link org.geotoolkit.factory.HintsPending#UPDATE_ID_ON_INSERT}
+     * is {@code false}, see {@link JDBCFeatureWriterInsert}. Key values obtained
+     * from {@link PrimaryKey#nextPrimaryKeyValues(org.geotoolkit.db.DefaultJDBCFeatureStore, java.sql.Connection, int) }
+     * are set on the features, keys generated by the database are not read back.
+     */
     protected void insert(final Collection<? extends Feature> features, final FeatureType featureType,
             final Connection cx) throws DataStoreException {
+        if (features.isEmpty()) return;
         final PrimaryKey key = dbmodel.getPrimaryKey(featureType.getName().toString());
+        final List<ColumnMetaModel> keyColumns = key.getColumns();
+        final List<Feature> batch = new ArrayList<>(features);
 
         // we do this in a synchronized block because we need to do two queries,
-        // first to figure out what the id will be, then the insert statement
+        // first to figure out what the ids will be, then the insert statements
         synchronized (this) {
-            Statement st = null;
             try {
-                st = cx.createStatement();
-                final Object[] nextKeyValues = key.nextPrimaryKeyValues(this, cx);
-                final String sql = getQueryBuilder().insertSQL(featureType, features, nextKeyValues, cx);
-                st.executeUpdate(sql);
+                final Object[][] nextKeyValues = key.nextPrimaryKeyValues(this, cx, batch.size());
+                for (int i=0,n=batch.size(); i<n; i++) {
+                    final Feature feature = batch.get(i);
+                    for (int k=0; k<keyColumns.size(); k++) {
+                        final ColumnMetaModel column = keyColumns.get(k);
+                        if (nextKeyValues[i][k] != null && feature.getPropertyValue(column.getName()) == null) {
+                            feature.setPropertyValue(column.getName(), nextKeyValues[i][k]);
+                        }
+                    }
+                }
+
+                if (!getDialect().insertBatch(featureType, batch, cx)) {
+                    insertBatch(featureType, batch, nextKeyValues, cx);
+                }
 
                 if (cx.getAutoCommit()) {
                     fireFeaturesAdded(featureType.getName(), null);
                 }
             } catch (SQLException e) {
                 throw new DataStoreException("Error inserting features",e);
-            } finally {
-                JDBCFeatureStoreUtilities.closeSafe(getLogger(),st);
             }
         }
     }
 
+    /**
+     * Insert features with JDBC statement batches, used when the dialect has
+     * no bulk loading mechanism.
+     */
+    private void insertBatch(final FeatureType featureType, final List<Feature> features,
+            final Object[][] keyValues, final Connection cx) throws SQLException, DataStoreException {
+        final SQLQueryBuilder builder = getQueryBuilder();
+        Statement st = null;
+        try {
+            st = cx.createStatement();
+            for (int i=0,n=features.size(); i<n; i++) {
+                st.addBatch(builder.insertSQL(featureType, features.get(i), keyValues[i], cx));
+            }
+            st.executeBatch();
+        } finally {
+            JDBCFeatureStoreUtilities.closeSafe(getLogger(),st);
+        }
+    }
+
     protected void insert(final Feature feature, final FeatureType featureType,
             final Connection cx) throws DataStoreException {
 
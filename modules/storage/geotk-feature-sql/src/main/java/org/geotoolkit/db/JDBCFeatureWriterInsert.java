@@ -32,6 +32,17 @@ import org.opengis.feature.FeatureType;
 
 /**
  * Feature writer for insertion only.
+ * <br/>
+ * By default each feature is inserted when written, its identifier is updated
+ * right away, which is what callers reading ids after {@link #write() } expect.
+ * <br/>
+ * Batch insertion is an opt-in : it is used only when hint
+ * {@link HintsPending#UPDATE_ID_ON_INSERT} is explicitly {@code false}.
+ * Features are then buffered and inserted by groups of 1000 with
+ * {@link DefaultJDBCFeatureStore#insert(java.util.Collection, org.opengis.feature.FeatureType, java.sql.Connection) },
+ * which uses the dialect bulk loading mechanism (binary COPY on PostgreSQL).
+ * Primary key values computed by the store are set on the buffered features when
+ * the group is inserted, identifiers are not available after {@link #write() }.
  *
  * @author Johann Sorel (Geomatys)
  */
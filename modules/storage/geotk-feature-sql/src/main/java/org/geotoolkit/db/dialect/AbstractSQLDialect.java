@@ -18,10 +18,14 @@ package org.geotoolkit.db.dialect;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
+import org.apache.sis.storage.DataStoreException;
+import org.geotoolkit.db.reverse.ColumnMetaModel;
 import org.geotoolkit.feature.SingleAttributeTypeBuilder;
 import org.geotoolkit.filter.capability.DefaultFilterCapabilities;
 import org.geotoolkit.filter.visitor.CapabilitiesFilterSplitter;
 import org.opengis.feature.AttributeType;
+import org.opengis.feature.Feature;
 import org.opengis.feature.FeatureType;
 import org.opengis.filter.Filter;
 
@@ -94,6 +98,28 @@ public abstract class AbstractSQLDialect implements SQLDialect {
     public void encodePostCreateTable(StringBuilder sql, String tableName) {
     }
 
+    /**
+     * Default implementation has no bulk loading mechanism.
+     */
+    @Override
+    public boolean insertBatch(FeatureType featureType, List<? extends Feature> features, Connection cx)
+            throws SQLException, DataStoreException {
+        return false;
+    }
+
+    /**
+     * Default implementation calls {@link #nextValue(org.geotoolkit.db.reverse.ColumnMetaModel, java.sql.Connection) }
+     * for each value.
+     */
+    @Override
+    public Object[] nextValues(ColumnMetaModel column, Connection cx, int count) throws SQLException, DataStoreException {
+        final Object[] values = new Object[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = nextValue(column, cx);
+        }
+        return values;
+    }
+
     @Override
     public void decodeColumnType(final SingleAttributeTypeBuilder atb, final Connection cx,
             final String typeName, final int datatype, final String schemaName,
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Map;
 import org.apache.sis.coverage.grid.GridCoverage;
 import org.apache.sis.storage.DataStoreException;
@@ -30,6 +31,7 @@ import org.geotoolkit.factory.Hints;
 import org.geotoolkit.feature.SingleAttributeTypeBuilder;
 import org.locationtech.jts.geom.Geometry;
 import org.opengis.feature.AttributeType;
+import org.opengis.feature.Feature;
 import org.opengis.feature.FeatureType;
 import org.opengis.filter.Filter;
 import org.opengis.filter.capability.FilterCapabilities;
@@ -123,6 +125,20 @@ public interface SQLDialect {
 
     void postCreateTable(String schemaName, FeatureType featureType, Connection cx) throws SQLException;
 
+    /**
+     * Insert a batch of flat features using a database specific bulk loading mechanism.
+     * Primary key values are already set in the features, auto generated
+     * key columns must be left to the database.
+     *
+     * @param featureType flat feature type of the table
+     * @param features features to insert
+     * @param cx connection
+     * @return false if the dialect has no bulk loading mechanism for this type,
+     *         features are then inserted with batched statements.
+     */
+    boolean insertBatch(FeatureType featureType, List<? extends Feature> features, Connection cx)
+            throws SQLException, DataStoreException;
+
 
     ////////////////////////////////////////////////////////////////////////////
     // PRIMARY KEY CALCULATION METHOS //////////////////////////////////////////
@@ -130,6 +146,14 @@ public interface SQLDialect {
 
     Object nextValue(ColumnMetaModel column, Connection cx) throws SQLException, DataStoreException;
 
+    /**
+     * Calculate several next values of a column in one operation.
+     *
+     * @param count number of values
+     * @return array of size count, values may be null if generated by the database
+     */
+    Object[] nextValues(ColumnMetaModel column, Connection cx, int count) throws SQLException, DataStoreException;
+
 
     ////////////////////////////////////////////////////////////////////////////
     // METHODS TO READ FROM RESULTSET //////////////////////////////////////////
@@ -195,4 +195,38 @@ public class ColumnMetaModel {
         return next;
     }
 
+    /**
+     * Calculate the next column values of a batch of entries.
+     *
+     * @param count number of values
+     */
+    public Object[] nextColumnValues(final DefaultJDBCFeatureStore store, final Connection cx, final int count)
+            throws SQLException, DataStoreException {
+        if (type == Type.AUTO || type == Type.SEQUENCED) {
+            return store.getDialect().nextValues(this, cx, count);
+        }
+
+        final Object[] values = new Object[count];
+        if (count == 0) return values;
+        values[0] = nextColumnValue(store, cx);
+        for (int i = 1; i < count; i++) {
+            final Object previous = values[i-1];
+            if (clazz == Short.class || clazz == Integer.class || clazz == Long.class
+                    || BigInteger.class.isAssignableFrom(clazz)
+                    || BigDecimal.class.isAssignableFrom(clazz) ) {
+                values[i] = ((Number)previous).longValue() +1;
+            } else if (clazz == Float.class) {
+                values[i] = Math.nextUp( ((Number)previous).floatValue() );
+            } else if (clazz == Double.class) {
+                values[i] = Math.nextUp( ((Number)previous).doubleValue() );
+            } else if (CharSequence.class.isAssignableFrom(clazz)) {
+                values[i] = FeatureExt.createDefaultFeatureId();
+            } else {
+                //can't calculate for other types
+                values[i] = nextColumnValue(store, cx);
+            }
+        }
+        return values;
+    }
+
 }
@@ -130,4 +130,22 @@ public class PrimaryKey {
         return parts;
     }
 
+    /**
+     * Calculate the primary key values of a batch of entries.
+     *
+     * @param count number of entries
+     * @return array of size count, each element contains the entry primary key values
+     */
+    public Object[][] nextPrimaryKeyValues(final DefaultJDBCFeatureStore store, final Connection cx, final int count)
+            throws SQLException, DataStoreException {
+        final Object[][] parts = new Object[count][columns.size()];
+        for(int i=0,n=columns.size(); i<n; i++){
+            final Object[] values = columns.get(i).nextColumnValues(store, cx, count);
+            for (int k=0; k<count; k++) {
+                parts[k][i] = values[k];
+            }
+        }
+        return parts;
+    }
+
 }
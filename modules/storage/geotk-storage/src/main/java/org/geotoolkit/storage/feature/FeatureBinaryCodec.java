@@ -0,0 +1,401 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.storage.feature;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+import org.opengis.feature.AttributeType;
+import org.opengis.feature.Feature;
+import org.opengis.feature.FeatureAssociationRole;
+import org.opengis.feature.FeatureType;
+import org.opengis.feature.PropertyType;
+
+/**
+ * Compact binary encoding of features, used to spill features on disk.
+ * <br/>
+ * Attribute and association values are written in feature type property order,
+ * as {@link org.geotoolkit.feature.FeatureExt#copy(org.opengis.feature.Feature) } does, operations are not written.
+ * Common value types have a dedicated encoding and geometries are written as WKB.
+ * <br/>
+ * Empty geometries have no WKB form for all types, they are written as their geometry type name.
+ * <br/>
+ * Feature types, geometry factories and values which have no binary encoding are kept
+ * in a table and written as an index in this table. Those objects stay in memory,
+ * they are expected to be few and shared by many features. Once the table holds
+ * {@link #MAX_SHARED} objects, new serializable values are serialized instead.
+ * Encoded features can only be decoded by the codec instance which encoded them,
+ * until {@link #clear() } is called.
+ * <br/>
+ * Instances are not thread safe.
+ *
+ * @module
+ */
+final class FeatureBinaryCodec {
+
+    private static final byte NULL        = 0;
+    private static final byte STRING      = 1;
+    private static final byte INTEGER     = 2;
+    private static final byte LONG        = 3;
+    private static final byte DOUBLE      = 4;
+    private static final byte FLOAT       = 5;
+    private static final byte SHORT       = 6;
+    private static final byte BYTE        = 7;
+    private static final byte BOOLEAN     = 8;
+    private static final byte CHARACTER   = 9;
+    private static final byte DATE        = 10;
+    private static final byte SQL_DATE    = 11;
+    private static final byte SQL_TIME    = 12;
+    private static final byte TIMESTAMP   = 13;
+    private static final byte BIGDECIMAL  = 14;
+    private static final byte BIGINTEGER  = 15;
+    private static final byte BYTES       = 16;
+    private static final byte GEOMETRY    = 17;
+    private static final byte FEATURE     = 18;
+    private static final byte COLLECTION  = 19;
+    private static final byte SERIALIZED  = 20;
+    private static final byte SHARED      = 21;
+    private static final byte EMPTY_GEOMETRY = 22;
+
+    /**
+     * Number of objects in the shared table above which serializable values are no longer shared.
+     */
+    static final int MAX_SHARED = 4096;
+
+    private final List<Object> shared = new ArrayList<>();
+    private final Map<Object,Integer> sharedIndex = new IdentityHashMap<>();
+    private final WKBWriter wkbWriter2D = new WKBWriter(2);
+    private final WKBWriter wkbWriter3D = new WKBWriter(3);
+
+    /**
+     * Write feature attributes and associations.
+     */
+    void writeFeature(final DataOutput out, final Feature feature) throws IOException {
+        final FeatureType type = feature.getType();
+        writeShared(out, type);
+        for (PropertyType pt : type.getProperties(true)) {
+            if (pt instanceof AttributeType || pt instanceof FeatureAssociationRole) {
+                writeValue(out, feature.getPropertyValue(pt.getName().toString()));
+            }
+        }
+    }
+
+    /**
+     * Read a feature written by {@link #writeFeature(java.io.DataOutput, org.opengis.feature.Feature) }.
+     */
+    Feature readFeature(final DataInput in) throws IOException {
+        final FeatureType type = (FeatureType) readShared(in);
+        final Feature feature = type.newInstance();
+        for (PropertyType pt : type.getProperties(true)) {
+            if (pt instanceof AttributeType || pt instanceof FeatureAssociationRole) {
+                final Object value = readValue(in);
+                if (value != null) {
+                    feature.setPropertyValue(pt.getName().toString(), value);
+                }
+            }
+        }
+        return feature;
+    }
+
+    /**
+     * Write a single value, value type is preserved.
+     */
+    void writeValue(final DataOutput out, final Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeBytes(out, ((String) value).getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Character) {
+            out.writeByte(CHARACTER);
+            out.writeChar((Character) value);
+        } else if (value.getClass() == Date.class) {
+            out.writeByte(DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value.getClass() == java.sql.Date.class) {
+            out.writeByte(SQL_DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value.getClass() == java.sql.Time.class) {
+            out.writeByte(SQL_TIME);
+            out.writeLong(((Date) value).getTime());
+        } else if (value.getClass() == java.sql.Timestamp.class) {
+            final java.sql.Timestamp ts = (java.sql.Timestamp) value;
+            out.writeByte(TIMESTAMP);
+            out.writeLong(ts.getTime());
+            out.writeInt(ts.getNanos());
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(BIGDECIMAL);
+            writeBytes(out, ((BigDecimal) value).unscaledValue().toByteArray());
+            out.writeInt(((BigDecimal) value).scale());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(BIGINTEGER);
+            writeBytes(out, ((BigInteger) value).toByteArray());
+        } else if (value instanceof byte[]) {
+            out.writeByte(BYTES);
+            writeBytes(out, (byte[]) value);
+        } else if (value instanceof Geometry && ((Geometry) value).isEmpty()) {
+            //-- WKB writer fails on empty points --//
+            final Geometry geom = (Geometry) value;
+            out.writeByte(EMPTY_GEOMETRY);
+            out.writeUTF(geom.getGeometryType());
+            writeShared(out, geom.getFactory());
+            writeValue(out, geom.getUserData());
+            out.writeInt(geom.getSRID());
+        } else if (value instanceof Geometry) {
+            final Geometry geom = (Geometry) value;
+            out.writeByte(GEOMETRY);
+            out.writeBoolean(geom instanceof LinearRing);
+            writeShared(out, geom.getFactory());
+            writeValue(out, geom.getUserData());
+            out.writeInt(geom.getSRID());
+            final Coordinate coord = geom.getCoordinate();
+            final boolean is3D = coord != null && !Double.isNaN(coord.z);
+            writeBytes(out, (is3D ? wkbWriter3D : wkbWriter2D).write(geom));
+        } else if (value instanceof Feature) {
+            out.writeByte(FEATURE);
+            writeFeature(out, (Feature) value);
+        } else if (value instanceof List) {
+            final Collection<?> col = (Collection<?>) value;
+            out.writeByte(COLLECTION);
+            out.writeInt(col.size());
+            for (Object v : col) {
+                writeValue(out, v);
+            }
+        } else if (value instanceof Serializable && shared.size() >= MAX_SHARED && !sharedIndex.containsKey(value)) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream oout = new ObjectOutputStream(bytes)) {
+                oout.writeObject(value);
+            }
+            out.writeByte(SERIALIZED);
+            writeBytes(out, bytes.toByteArray());
+        } else {
+            out.writeByte(SHARED);
+            writeShared(out, value);
+        }
+    }
+
+    /**
+     * Read a value written by {@link #writeValue(java.io.DataOutput, java.lang.Object) }.
+     */
+    Object readValue(final DataInput in) throws IOException {
+        final byte tag = in.readByte();
+        switch (tag) {
+            case NULL       : return null;
+            case STRING     : return new String(readBytes(in), StandardCharsets.UTF_8);
+            case INTEGER    : return in.readInt();
+            case LONG       : return in.readLong();
+            case DOUBLE     : return in.readDouble();
+            case FLOAT      : return in.readFloat();
+            case SHORT      : return in.readShort();
+            case BYTE       : return in.readByte();
+            case BOOLEAN    : return in.readBoolean();
+            case CHARACTER  : return in.readChar();
+            case DATE       : return new Date(in.readLong());
+            case SQL_DATE   : return new java.sql.Date(in.readLong());
+            case SQL_TIME   : return new java.sql.Time(in.readLong());
+            case TIMESTAMP  : {
+                final java.sql.Timestamp ts = new java.sql.Timestamp(in.readLong());
+                ts.setNanos(in.readInt());
+                return ts;
+            }
+            case BIGDECIMAL : {
+                final BigInteger unscaled = new BigInteger(readBytes(in));
+                return new BigDecimal(unscaled, in.readInt());
+            }
+            case BIGINTEGER : return new BigInteger(readBytes(in));
+            case BYTES      : return readBytes(in);
+            case GEOMETRY   : {
+                final boolean ring = in.readBoolean();
+                final GeometryFactory factory = (GeometryFactory) readShared(in);
+                final Object userData = readValue(in);
+                final int srid = in.readInt();
+                Geometry geom;
+                try {
+                    geom = new WKBReader(factory).read(readBytes(in));
+                } catch (ParseException ex) {
+                    throw new IOException(ex.getMessage(), ex);
+                }
+                if (ring && !(geom instanceof LinearRing)) {
+                    //-- WKB has no linear ring type --//
+                    geom = factory.createLinearRing(((LineString) geom).getCoordinateSequence());
+                }
+                geom.setSRID(srid);
+                geom.setUserData(userData);
+                return geom;
+            }
+            case EMPTY_GEOMETRY : {
+                final String type = in.readUTF();
+                final GeometryFactory factory = (GeometryFactory) readShared(in);
+                final Object userData = readValue(in);
+                final int srid = in.readInt();
+                final Geometry geom = createEmpty(factory, type);
+                geom.setSRID(srid);
+                geom.setUserData(userData);
+                return geom;
+            }
+            case FEATURE    : return readFeature(in);
+            case COLLECTION : {
+                final int size = in.readInt();
+                final List<Object> col = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    col.add(readValue(in));
+                }
+                return col;
+            }
+            case SERIALIZED : {
+                try (ObjectInputStream oin = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)))) {
+                    return oin.readObject();
+                } catch (ClassNotFoundException ex) {
+                    throw new IOException(ex.getMessage(), ex);
+                }
+            }
+            case SHARED     : return readShared(in);
+            default : throw new IOException("Unexpected value tag "+tag);
+        }
+    }
+
+    /**
+     * Rough estimation of the memory used by a value, in bytes.
+     * Used to decide when features should be encoded, without encoding them.
+     */
+    static long estimateSize(final Object value) {
+        if (value == null) {
+            return 8;
+        } else if (value instanceof CharSequence) {
+            return 48 + 2L * ((CharSequence) value).length();
+        } else if (value instanceof byte[]) {
+            return 16 + ((byte[]) value).length;
+        } else if (value instanceof Geometry) {
+            return 96 + 48L * ((Geometry) value).getNumPoints();
+        } else if (value instanceof Feature) {
+            final Feature feature = (Feature) value;
+            long size = 48;
+            for (PropertyType pt : feature.getType().getProperties(true)) {
+                if (pt instanceof AttributeType || pt instanceof FeatureAssociationRole) {
+                    size += 16 + estimateSize(feature.getPropertyValue(pt.getName().toString()));
+                }
+            }
+            return size;
+        } else if (value instanceof Collection) {
+            long size = 48;
+            for (Object v : (Collection<?>) value) {
+                size += 8 + estimateSize(v);
+            }
+            return size;
+        } else {
+            return 24;
+        }
+    }
+
+    /**
+     * Release shared objects.
+     * Features encoded before this call can not be decoded anymore.
+     */
+    void clear() {
+        shared.clear();
+        sharedIndex.clear();
+    }
+
+    private static Geometry createEmpty(final GeometryFactory factory, final String type) throws IOException {
+        switch (type) {
+            case "Point"              : return factory.createPoint((Coordinate) null);
+            case "LineString"         : return factory.createLineString(new Coordinate[0]);
+            case "LinearRing"         : return factory.createLinearRing(new Coordinate[0]);
+            case "Polygon"            : return factory.createPolygon((LinearRing) null, null);
+            case "MultiPoint"         : return factory.createMultiPoint(new Point[0]);
+            case "MultiLineString"    : return factory.createMultiLineString(new LineString[0]);
+            case "MultiPolygon"       : return factory.createMultiPolygon(new Polygon[0]);
+            case "GeometryCollection" : return factory.createGeometryCollection(new Geometry[0]);
+            default : throw new IOException("Unexpected geometry type "+type);
+        }
+    }
+
+    private void writeShared(final DataOutput out, final Object value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        Integer index = sharedIndex.get(value);
+        if (index == null) {
+            index = shared.size();
+            shared.add(value);
+            sharedIndex.put(value, index);
+        }
+        out.writeInt(index);
+    }
+
+    private Object readShared(final DataInput in) throws IOException {
+        final int index = in.readInt();
+        return index < 0 ? null : shared.get(index);
+    }
+
+    private static void writeBytes(final DataOutput out, final byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(final DataInput in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
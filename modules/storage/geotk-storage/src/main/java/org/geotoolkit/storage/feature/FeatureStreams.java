@@ -333,6 +333,32 @@ public final class FeatureStreams {
         return GenericSortByFeatureIterator.wrap(reader, orders);
     }
 
+    /**
+     * Wrap a FeatureIterator, returning only the first features in sort by order.
+     * This is cheaper than sorting then limiting the iterator.
+     *
+     * @param iterator source iterator
+     * @param count maximum number of features
+     * @param orders sorting order
+     * @return sorted iterator
+     */
+    public static FeatureIterator top(final FeatureIterator iterator, final int count, final SortBy ... orders){
+        return GenericTopFeatureIterator.wrap(iterator, orders, count);
+    }
+
+    /**
+     * Wrap a FeatureReader, returning only the first features in sort by order.
+     * This is cheaper than sorting then limiting the reader.
+     *
+     * @param reader source reader
+     * @param count maximum number of features
+     * @param orders sorting order
+     * @return sorted reader
+     */
+    public static FeatureReader top(final FeatureReader reader, final int count, final SortBy ... orders){
+        return GenericTopFeatureIterator.wrap(reader, orders, count);
+    }
+
     /**
      * Wrap a FeatureCollection will a sort by order.
      *
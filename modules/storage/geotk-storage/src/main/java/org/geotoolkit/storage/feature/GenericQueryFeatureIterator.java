@@ -45,6 +45,12 @@ import org.opengis.referencing.crs.CoordinateReferenceSystem;
 @Deprecated
 public class GenericQueryFeatureIterator {
 
+    /**
+     * Above this number of features, sort and limit are not merged since
+     * retained features would be held in memory.
+     */
+    private static final long MAX_TOP_FEATURES = 100000;
+
     public static FeatureReader wrap(FeatureReader reader, final Query remainingParameters) throws DataStoreException{
 
         final long start = remainingParameters.getOffset();
@@ -65,8 +71,11 @@ public class GenericQueryFeatureIterator {
 
         //wrap sort by ---------------------------------------------------------
         //This can be really expensive, and force the us to read the full iterator.
-        //that may cause out of memory errors.
-        if(sorts != null && sorts.length != 0){
+        //When only the first features are requested, they are collected in a bounded
+        //priority queue instead of sorting everything.
+        final boolean sorted = sorts != null && sorts.length != 0;
+        final boolean top = sorted && max > 0 && start + max <= MAX_TOP_FEATURES;
+        if(sorted && !top){
             reader = FeatureStreams.sort(reader, sorts);
         }
 
@@ -83,6 +92,12 @@ public class GenericQueryFeatureIterator {
             }
         }
 
+        //wrap top features ----------------------------------------------------
+        //filter must be applied before, only start + max features are retained
+        if(top){
+            reader = FeatureStreams.top(reader, (int) (start + max), sorts);
+        }
+
         //wrap start index -----------------------------------------------------
         if (start > 0) {
             reader = FeatureStreams.skip(reader, (int) start);
@@ -95,7 +110,7 @@ public class GenericQueryFeatureIterator {
                 reader = FeatureStreams.emptyReader(reader.getFeatureType());
                 //close original reader
                 reader.close();
-            }else{
+            }else if(!top){
                 reader = FeatureStreams.limit(reader, (int) max);
             }
         }
@@ -17,12 +17,23 @@
 
 package org.geotoolkit.storage.feature;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import org.apache.sis.util.ArgumentChecks;
 import org.apache.sis.util.Classes;
+import org.geotoolkit.feature.FeatureExt;
 import org.geotoolkit.storage.feature.FeatureCollection;
 import org.geotoolkit.storage.feature.FeatureIterator;
 import org.geotoolkit.storage.feature.FeatureReader;
@@ -30,18 +41,18 @@ import org.geotoolkit.storage.feature.FeatureStoreRuntimeException;
 import org.geotoolkit.storage.memory.WrapFeatureCollection;
 import org.geotoolkit.storage.feature.query.SortByComparator;
 import org.geotoolkit.factory.Hints;
-import org.geotoolkit.feature.FeatureExt;
 import org.opengis.feature.Feature;
 import org.opengis.feature.FeatureType;
 import org.opengis.filter.sort.SortBy;
 
 /**
  * Basic support for a  FeatureIterator that will sort features using the given sort by
- * orders. This may be very consuming in memory since this implementation must iterate
- * over all features and store them in memory in the right order.
- *
- * Don't use this class in you now that your iterator holds a great amount of features,
- * otherwise it may cause an Out Of Memory Exception.
+ * orders. This implementation must iterate over all features before returning the first one.
+ * <br/>
+ * Sort keys are evaluated once. Copies of the features are kept in memory until their
+ * estimated size exceeds the memory budget, then features are encoded in a compact binary form
+ * and written as sorted runs in temporary files which are merged lazily while iterating.
+ * Temporary files are deleted when the iterator is closed.
  *
  * @author Johann Sorel (Geomatys)
  * @module
@@ -49,32 +60,103 @@ import org.opengis.filter.sort.SortBy;
 @Deprecated
 public class GenericSortByFeatureIterator<R extends FeatureIterator> implements FeatureIterator {
 
+    /**
+     * Default amount of memory used to hold features before writing them on disk, in bytes.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
     protected final R iterator;
-    private final Comparator<Feature> comparator;
-    protected List<Feature> ordered = null;
-    protected int index = 0;
+    private final SortByComparator comparator;
+    private final int nbKeys;
+    private final long memoryBudget;
+    private final FeatureBinaryCodec codec = new FeatureBinaryCodec();
+    private final List<Path> runs = new ArrayList<>();
+    private final List<DataInputStream> streams = new ArrayList<>();
+    private Iterator<Record> sorted = null;
+    private PriorityQueue<RunReader> merge = null;
 
     /**
      * Creates a new instance of GenericSortByFeatureIterator
      *
      * @param iterator FeatureReader to sort
      * @param orders sorting orders
+     * @param memoryBudget amount of memory used before writing sorted runs on disk, in bytes
      */
-    private GenericSortByFeatureIterator(final R iterator, final SortBy[] orders) {
+    private GenericSortByFeatureIterator(final R iterator, final SortBy[] orders, final long memoryBudget) {
+        ArgumentChecks.ensureStrictlyPositive("memoryBudget", memoryBudget);
         this.iterator = iterator;
         this.comparator = new SortByComparator(orders);
+        this.nbKeys = orders.length;
+        this.memoryBudget = memoryBudget;
     }
 
     private synchronized void sort() throws FeatureStoreRuntimeException{
-        if(ordered != null) return;
+        if(sorted != null || merge != null) return;
 
-        ordered = new ArrayList<>();
+        try {
+            List<Record> buffer = new ArrayList<>();
+            long size = 0;
+            while(iterator.hasNext()){
+                final Feature feature = FeatureExt.copy(iterator.next());
+                final Record record = new Record(comparator.extractKeys(feature), feature, null);
+                buffer.add(record);
+                size += FeatureBinaryCodec.estimateSize(feature) + 64 + 16 * record.keys.length;
+                if (size > memoryBudget) {
+                    spill(buffer);
+                    buffer = new ArrayList<>();
+                    size = 0;
+                }
+            }
 
-        while(iterator.hasNext()){
-            ordered.add(FeatureExt.copy(iterator.next()));
+            if (runs.isEmpty()) {
+                //-- everything fits in memory --//
+                buffer.sort(this::compare);
+                sorted = buffer.iterator();
+            } else {
+                if (!buffer.isEmpty()) spill(buffer);
+                merge = new PriorityQueue<>(runs.size(), (r1, r2) -> {
+                    final int c = compare(r1.current, r2.current);
+                    return c != 0 ? c : Integer.compare(r1.index, r2.index);
+                });
+                for (int i = 0; i < runs.size(); i++) {
+                    final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(runs.get(i))));
+                    streams.add(in);
+                    final RunReader reader = new RunReader(i, in);
+                    if (reader.next()) merge.add(reader);
+                }
+            }
+        } catch (IOException ex) {
+            throw new FeatureStoreRuntimeException(ex);
         }
+    }
+
+    private int compare(final Record r1, final Record r2) {
+        return comparator.compareKeys(r1.keys, r2.keys);
+    }
 
-        Collections.sort(ordered,comparator);
+    /**
+     * Sort records, encode their features and write them in a new run file.
+     * List sort is stable, features order is preserved for equal keys.
+     */
+    private void spill(final List<Record> buffer) throws IOException {
+        buffer.sort(this::compare);
+        final Path run = Files.createTempFile("geotk-sort", ".run");
+        runs.add(run);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream encoder = new DataOutputStream(bytes);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+            out.writeInt(buffer.size());
+            for (Record record : buffer) {
+                for (Object key : record.keys) {
+                    codec.writeValue(out, key);
+                }
+                bytes.reset();
+                codec.writeFeature(encoder, record.feature);
+                encoder.flush();
+                out.writeInt(bytes.size());
+                bytes.writeTo(out);
+            }
+        }
     }
 
     /**
@@ -83,12 +165,27 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
     @Override
     public Feature next() throws FeatureStoreRuntimeException {
         sort();
-        try{
-            Feature c = ordered.get(index);
-            index++;
-            return c;
-        }catch(IndexOutOfBoundsException ex){
-            throw new NoSuchElementException("No more elements.");
+        final Record record;
+        if (sorted != null) {
+            if (!sorted.hasNext()) throw new NoSuchElementException("No more elements.");
+            record = sorted.next();
+        } else {
+            final RunReader reader = merge.poll();
+            if (reader == null) throw new NoSuchElementException("No more elements.");
+            record = reader.current;
+            try {
+                if (reader.next()) merge.add(reader);
+            } catch (IOException ex) {
+                throw new FeatureStoreRuntimeException(ex);
+            }
+        }
+        if (record.feature != null) {
+            return record.feature;
+        }
+        try {
+            return codec.readFeature(new DataInputStream(new ByteArrayInputStream(record.data)));
+        } catch (IOException ex) {
+            throw new FeatureStoreRuntimeException(ex);
         }
     }
 
@@ -98,6 +195,29 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
     @Override
     public void close() throws FeatureStoreRuntimeException {
         iterator.close();
+        sorted = null;
+        merge = null;
+        IOException error = null;
+        for (DataInputStream in : streams) {
+            try {
+                in.close();
+            } catch (IOException ex) {
+                error = ex;
+            }
+        }
+        streams.clear();
+        for (Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException ex) {
+                error = ex;
+            }
+        }
+        runs.clear();
+        codec.clear();
+        if (error != null) {
+            throw new FeatureStoreRuntimeException(error);
+        }
     }
 
     /**
@@ -106,7 +226,7 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
     @Override
     public boolean hasNext() throws FeatureStoreRuntimeException {
         sort();
-        return index < ordered.size();
+        return (sorted != null) ? sorted.hasNext() : !merge.isEmpty();
     }
 
     /**
@@ -127,6 +247,55 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
         return sb.toString();
     }
 
+    /**
+     * Feature with its sort keys, either in memory or encoded.
+     */
+    private static final class Record {
+
+        private final Object[] keys;
+        private final Feature feature;
+        private final byte[] data;
+
+        private Record(final Object[] keys, final Feature feature, final byte[] data) {
+            this.keys = keys;
+            this.feature = feature;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Sequential reader of a sorted run file.
+     */
+    private final class RunReader {
+
+        private final int index;
+        private final DataInputStream in;
+        private int remaining;
+        private Record current;
+
+        private RunReader(final int index, final DataInputStream in) throws IOException {
+            this.index = index;
+            this.in = in;
+            this.remaining = in.readInt();
+        }
+
+        private boolean next() throws IOException {
+            if (remaining == 0) {
+                current = null;
+                return false;
+            }
+            remaining--;
+            final Object[] keys = new Object[nbKeys];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = codec.readValue(in);
+            }
+            final byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            current = new Record(keys, null, data);
+            return true;
+        }
+    }
+
     /**
      * Wrap a FeatureReader that will sort features using the given sort by.
      *
@@ -136,8 +305,8 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
      */
     private static final class GenericSortByFeatureReader extends GenericSortByFeatureIterator<FeatureReader> implements FeatureReader{
 
-        private GenericSortByFeatureReader(final FeatureReader reader,final SortBy[] orders){
-            super(reader,orders);
+        private GenericSortByFeatureReader(final FeatureReader reader,final SortBy[] orders, final long memoryBudget){
+            super(reader,orders,memoryBudget);
         }
 
         @Override
@@ -172,17 +341,35 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
      * Wrap a FeatureReader will a sort by order.
      */
     public static FeatureReader wrap(final FeatureReader reader, final SortBy[] orders){
-        return new GenericSortByFeatureReader(reader, orders);
+        return wrap(reader, orders, DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * Wrap a FeatureReader will a sort by order.
+     *
+     * @param memoryBudget amount of memory used before writing sorted runs on disk, in bytes
+     */
+    public static FeatureReader wrap(final FeatureReader reader, final SortBy[] orders, final long memoryBudget){
+        return new GenericSortByFeatureReader(reader, orders, memoryBudget);
     }
 
     /**
      * Wrap a FeatureIterator will a sort by order.
      */
     public static FeatureIterator wrap(final FeatureIterator reader, final SortBy[] orders){
+        return wrap(reader, orders, DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * Wrap a FeatureIterator will a sort by order.
+     *
+     * @param memoryBudget amount of memory used before writing sorted runs on disk, in bytes
+     */
+    public static FeatureIterator wrap(final FeatureIterator reader, final SortBy[] orders, final long memoryBudget){
         if(reader instanceof FeatureReader){
-            return wrap((FeatureReader)reader,orders);
+            return wrap((FeatureReader)reader,orders,memoryBudget);
         }else{
-            return new GenericSortByFeatureIterator(reader, orders);
+            return new GenericSortByFeatureIterator(reader, orders, memoryBudget);
         }
     }
 
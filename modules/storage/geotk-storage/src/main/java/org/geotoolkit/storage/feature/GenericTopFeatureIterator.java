@@ -0,0 +1,185 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.storage.feature;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import org.apache.sis.util.ArgumentChecks;
+import org.apache.sis.util.Classes;
+import org.geotoolkit.feature.FeatureExt;
+import org.geotoolkit.storage.feature.query.SortByComparator;
+import org.opengis.feature.Feature;
+import org.opengis.feature.FeatureType;
+import org.opengis.filter.sort.SortBy;
+
+/**
+ * FeatureIterator returning the first features of a sorted iterator.
+ * <br/>
+ * The source iterator is fully read but only the best features are kept in a bounded
+ * priority queue, sorting N features costs O(N log count) time and O(count) memory.
+ * The result is the same as {@link GenericSortByFeatureIterator} followed by
+ * {@link GenericMaxFeatureIterator}, features with equal keys keep their original order.
+ *
+ * @module
+ */
+@Deprecated
+public class GenericTopFeatureIterator<R extends FeatureIterator> implements FeatureIterator {
+
+    protected final R iterator;
+    private final SortByComparator comparator;
+    private final int count;
+    private List<Entry> ordered = null;
+    private int index = 0;
+
+    /**
+     * @param iterator FeatureReader to sort
+     * @param orders sorting orders
+     * @param count maximum number of features
+     */
+    private GenericTopFeatureIterator(final R iterator, final SortBy[] orders, final int count) {
+        ArgumentChecks.ensureStrictlyPositive("count", count);
+        this.iterator = iterator;
+        this.comparator = new SortByComparator(orders);
+        this.count = count;
+    }
+
+    private synchronized void sort() throws FeatureStoreRuntimeException{
+        if(ordered != null) return;
+
+        final Comparator<Entry> order = (e1, e2) -> {
+            final int c = comparator.compareKeys(e1.keys, e2.keys);
+            return c != 0 ? c : Long.compare(e1.rank, e2.rank);
+        };
+        //-- worst feature on top --//
+        final PriorityQueue<Entry> queue = new PriorityQueue<>(Math.min(count, 1024), order.reversed());
+        long rank = 0;
+        while(iterator.hasNext()){
+            final Feature feature = iterator.next();
+            final Object[] keys = comparator.extractKeys(feature);
+            if (queue.size() < count) {
+                queue.add(new Entry(keys, rank++, FeatureExt.copy(feature)));
+            } else if (comparator.compareKeys(keys, queue.peek().keys) < 0) {
+                //-- on equal keys, previous feature ranks first --//
+                queue.poll();
+                queue.add(new Entry(keys, rank++, FeatureExt.copy(feature)));
+            } else {
+                rank++;
+            }
+        }
+
+        ordered = new ArrayList<>(queue);
+        ordered.sort(order);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Feature next() throws FeatureStoreRuntimeException {
+        sort();
+        if (index >= ordered.size()) {
+            throw new NoSuchElementException("No more elements.");
+        }
+        return ordered.get(index++).feature;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void close() throws FeatureStoreRuntimeException {
+        iterator.close();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public boolean hasNext() throws FeatureStoreRuntimeException {
+        sort();
+        return index < ordered.size();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void remove() {
+        iterator.remove();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder(Classes.getShortClassName(this));
+        sb.append('[').append(count).append(", ").append(comparator).append("]\n");
+        String subIterator = "\u2514\u2500\u2500" + iterator.toString(); //move text to the right
+        subIterator = subIterator.replaceAll("\n", "\n\u00A0\u00A0\u00A0"); //move text to the right
+        sb.append(subIterator);
+        return sb.toString();
+    }
+
+    private static final class Entry {
+
+        private final Object[] keys;
+        private final long rank;
+        private final Feature feature;
+
+        private Entry(final Object[] keys, final long rank, final Feature feature) {
+            this.keys = keys;
+            this.rank = rank;
+            this.feature = feature;
+        }
+    }
+
+    /**
+     * Wrap a FeatureReader that will return the first sorted features.
+     */
+    private static final class GenericTopFeatureReader extends GenericTopFeatureIterator<FeatureReader> implements FeatureReader{
+
+        private GenericTopFeatureReader(final FeatureReader reader, final SortBy[] orders, final int count){
+            super(reader, orders, count);
+        }
+
+        @Override
+        public FeatureType getFeatureType() {
+            return iterator.getFeatureType();
+        }
+
+    }
+
+    /**
+     * Wrap a FeatureReader, returning only the first features in sort by order.
+     */
+    public static FeatureReader wrap(final FeatureReader reader, final SortBy[] orders, final int count){
+        return new GenericTopFeatureReader(reader, orders, count);
+    }
+
+    /**
+     * Wrap a FeatureIterator, returning only the first features in sort by order.
+     */
+    public static FeatureIterator wrap(final FeatureIterator reader, final SortBy[] orders, final int count){
+        if(reader instanceof FeatureReader){
+            return wrap((FeatureReader)reader, orders, count);
+        }else{
+            return new GenericTopFeatureIterator(reader, orders, count);
+        }
+    }
+
+}
@@ -48,41 +48,54 @@ public class SortByComparator implements Comparator<Feature> {
      */
     @Override
     public int compare(final Feature f1, final Feature f2) {
+        return compareKeys(extractKeys(f1), extractKeys(f2));
+    }
 
-        for (final SortBy order : orders) {
-            final PropertyName property = order.getPropertyName();
-            Object val1 = property.evaluate(f1);
-            Object val2 = property.evaluate(f2);
-            if (val1 instanceof Collection) {
-                //TODO find a correct way to compare collection values
-                //pick the first value
-                if (((Collection)val1).isEmpty()) {
-                    val1 = null;
-                } else {
-                    val1 = ((Collection)val1).iterator().next();
-                }
-            }
-            if (val2 instanceof Collection) {
+    /**
+     * Evaluate the sort properties of a feature.
+     * Sorting many features should extract keys once per feature and compare
+     * them with {@link #compareKeys(java.lang.Object[], java.lang.Object[]) }.
+     *
+     * @param feature feature to evaluate
+     * @return one value for each SortBy, values may be null
+     */
+    public Object[] extractKeys(final Feature feature) {
+        final Object[] keys = new Object[orders.length];
+        for (int i = 0; i < orders.length; i++) {
+            final PropertyName property = orders[i].getPropertyName();
+            Object val = property.evaluate(feature);
+            if (val instanceof Collection) {
                 //TODO find a correct way to compare collection values
                 //pick the first value
-                if (((Collection)val2).isEmpty()) {
-                    val2 = null;
+                if (((Collection)val).isEmpty()) {
+                    val = null;
                 } else {
-                    val2 = ((Collection)val2).iterator().next();
+                    val = ((Collection)val).iterator().next();
                 }
             }
+            keys[i] = val;
+        }
+        return keys;
+    }
 
-            final Comparable o1 = (Comparable) val1;
-            final Comparable o2 = (Comparable) val2;
+    /**
+     * Compare keys returned by {@link #extractKeys(org.opengis.feature.Feature) }.
+     * Null values are placed first.
+     */
+    public int compareKeys(final Object[] keys1, final Object[] keys2) {
+        for (int i = 0; i < orders.length; i++) {
+            final Comparable o1 = (Comparable) keys1[i];
+            final Comparable o2 = (Comparable) keys2[i];
 
-            if(o1 == null){
+            if (o1 == null) {
+                if (o2 == null) continue;
                 return -1;
-            }else if(o2 == null){
+            } else if (o2 == null) {
                 return 1;
             }
 
             final int result;
-            if (order.getSortOrder() == SortOrder.ASCENDING) {
+            if (orders[i].getSortOrder() == SortOrder.ASCENDING) {
                 result = o1.compareTo(o2);
             } else {
                 result = o2.compareTo(o1);
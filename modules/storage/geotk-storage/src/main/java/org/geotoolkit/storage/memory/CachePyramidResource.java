@@ -33,6 +33,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.stream.Stream;
 import javax.imageio.ImageReader;
@@ -45,6 +46,7 @@ import org.apache.sis.internal.storage.AbstractGridResource;
 import org.apache.sis.internal.util.UnmodifiableArrayList;
 import org.apache.sis.storage.DataStoreException;
 import org.apache.sis.storage.GridCoverageResource;
+import org.apache.sis.util.ArgumentChecks;
 import org.apache.sis.util.collection.Cache;
 import org.apache.sis.util.logging.Logging;
 import org.geotoolkit.image.io.XImageIO;
@@ -69,7 +71,10 @@ import org.opengis.util.GenericName;
 /**
  * This resource acts as an in memory cache for pyramid tiles.
  *
- * Note : current implementation store tiles in memory
+ * Note : current implementation store tiles in memory, decoded tiles are kept on the
+ * Java heap and may optionally be kept as raw samples outside of the heap in a second
+ * larger cache tier, see {@link OffHeapTileCache}. Tiles found in the second tier are
+ * promoted to the heap cache.
  * Todo : add configuration to store tiles on files for offline needs
  *
  * @author Johann Sorel (Geomatys)
@@ -94,6 +99,9 @@ public class CachePyramidResource <T extends MultiResolutionResource & org.apach
     private final Cache<String,CacheTile> tiles;
     private final Set<String> tilesInProcess = ConcurrentHashMap.newKeySet();
     private final boolean noblocking;
+    private final OffHeapTileCache offHeapTiles;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
 
     /**
      * Creates a new cache using the given initial capacity and cost limit. The initial capacity
@@ -132,11 +140,29 @@ public class CachePyramidResource <T extends MultiResolutionResource & org.apach
      *  if the tile is not available, loading starts and it will be available later.
      */
     public CachePyramidResource(T parent, int initialCapacity, final long costLimit, final boolean soft, boolean noblocking) {
+        this(parent, initialCapacity, costLimit, soft, noblocking, 0);
+    }
+
+    /**
+     * Creates a new cache with a second cache tier outside of the Java heap.
+     *
+     * @param parent           resource to cache tiles
+     * @param initialCapacity  the initial tile cache capacity.
+     * @param costLimit        the maximum cost of tiles to keep by strong reference.
+     * @param soft             if {@code true}, use {@link SoftReference} instead of {@link WeakReference}.
+     * @param noblocking       if {@code true}, only cached tiles are returned right away,
+     *  if the tile is not available, loading starts and it will be available later.
+     * @param offHeapCapacity  maximum number of bytes of tile samples stored outside of the heap,
+     *  zero to disable the off-heap cache.
+     */
+    public CachePyramidResource(T parent, int initialCapacity, final long costLimit, final boolean soft, boolean noblocking, long offHeapCapacity) {
         super(null);
+        ArgumentChecks.ensurePositive("offHeapCapacity", offHeapCapacity);
         this.parent = parent;
         this.tiles = new Cache<String, CacheTile>(initialCapacity, costLimit, soft);
         this.tiles.setKeyCollisionAllowed(true);
         this.noblocking = noblocking;
+        this.offHeapTiles = offHeapCapacity > 0 ? new OffHeapTileCache(offHeapCapacity) : null;
     }
 
     public void setIdentifier(GenericName identifier) {
@@ -225,6 +251,45 @@ public class CachePyramidResource <T extends MultiResolutionResource & org.apach
     @Override
     public void clearCache() {
         tiles.clear();
+        if (offHeapTiles != null) {
+            offHeapTiles.clear();
+        }
+    }
+
+    /**
+     * @return off-heap cache tier, null if not enabled.
+     */
+    public OffHeapTileCache getOffHeapCache() {
+        return offHeapTiles;
+    }
+
+    /**
+     * @return number of tiles found in the heap cache.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of tiles not found in the heap cache,
+     *         they may have been found in the off-heap cache.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return prefix of the cache keys of the mosaic tiles
+     */
+    static String mosaicKey(String pyramidId, String mosaicId) {
+        return pyramidId + "¤" + mosaicId + "¤";
+    }
+
+    /**
+     * @return key of the tile in the heap and off-heap caches
+     */
+    static String tileKey(String mosaicKey, long col, long row) {
+        return new StringBuilder(mosaicKey).append(col).append("¤").append(row).toString();
     }
 
     private class CachePyramid implements Pyramid {
@@ -315,7 +380,7 @@ public class CachePyramidResource <T extends MultiResolutionResource & org.apach
         public CacheMosaic(CachePyramid pyramid, String pyramidId, Mosaic parent) {
             this.pyramid = pyramid;
             this.parent = parent;
-            this.baseid = pyramidId + "¤" + parent.getIdentifier() +"¤";
+            this.baseid = mosaicKey(pyramidId, parent.getIdentifier());
         }
 
         @Override
@@ -354,13 +419,15 @@ public class CachePyramidResource <T extends MultiResolutionResource & org.apach
         }
 
         private String tileId(long col, long row) {
-            return new StringBuilder(baseid).append(col).append("¤").append(row).toString();
+            return tileKey(baseid, col, row);
         }
 
         @Override
         public boolean isMissing(long col, long row) {
-            CacheTile tile = tiles.peek(tileId(col, row));
+            final String key = tileId(col, row);
+            CacheTile tile = tiles.peek(key);
             if (tile != null) return false;
+            if (offHeapTiles != null && offHeapTiles.contains(key)) return false;
             return parent.isMissing(col, row);
         }
 
@@ -373,6 +440,12 @@ public class CachePyramidResource <T extends MultiResolutionResource & org.apach
             final String key = tileId(col, row);
 
             CacheTile value = tiles.peek(key);
+            if (value != null) {
+                hits.incrementAndGet();
+            } else {
+                misses.incrementAndGet();
+                value = promote(key, col, row);
+            }
             if (value == null) {
                 if (noblocking) {
                     if (tilesInProcess.add(key)) {
@@ -386,12 +459,49 @@ public class CachePyramidResource <T extends MultiResolutionResource & org.apach
             return value;
         }
 
+        /**
+         * Move a tile from the off-heap cache to the heap cache.
+         *
+         * @return promoted tile, null if tile is not in the off-heap cache
+         */
+        private CacheTile promote(String key, long col, long row) {
+            if (offHeapTiles == null) return null;
+            final RenderedImage image = offHeapTiles.get(key);
+            if (image == null) return null;
+
+            CacheTile value = null;
+            final Cache.Handler<CacheTile> handler = tiles.lock(key);
+            try {
+                value = handler.peek();
+                if (value == null) {
+                    final Point coord = new Point(Math.toIntExact(col), Math.toIntExact(row));
+                    value = new CacheTile(image, coord, true);
+                } else {
+                    value.setImage(image, true);
+                }
+            } finally {
+                handler.putAndUnlock(value);
+            }
+            return value;
+        }
+
         private CacheTile loadTile(long col, long row, Map hints) throws DataStoreException {
             final String key = tileId(col, row);
             CacheTile value = null;
             final Cache.Handler<CacheTile> handler = tiles.lock(key);
             try {
                 value = handler.peek();
+                if ((value == null || !value.finalResult) && offHeapTiles != null) {
+                    final RenderedImage image = offHeapTiles.get(key);
+                    if (image != null) {
+                        if (value != null) {
+                            value.setImage(image, true);
+                        } else {
+                            final Point coord = new Point(Math.toIntExact(col), Math.toIntExact(row));
+                            value = new CacheTile(image, coord, true);
+                        }
+                    }
+                }
                 if (value == null || !value.finalResult) {
                     final Tile parentTile = parent.getTile(col, row, hints);
                     if (parentTile instanceof ImageTile) {
@@ -402,6 +512,9 @@ public class CachePyramidResource <T extends MultiResolutionResource & org.apach
                         } catch (IOException ex) {
                             throw new DataStoreException(ex.getMessage(), ex);
                         }
+                        if (offHeapTiles != null) {
+                            offHeapTiles.put(key, image);
+                        }
                         if (value != null) {
                             value.setImage(image, true);
                         } else {
@@ -487,6 +600,9 @@ public class CachePyramidResource <T extends MultiResolutionResource & org.apach
         public void deleteTile(int tileX, int tileY) throws DataStoreException {
             parent.deleteTile(tileX, tileY);
             tiles.remove(tileId(tileX, tileY));
+            if (offHeapTiles != null) {
+                offHeapTiles.remove(tileId(tileX, tileY));
+            }
         }
 
         @Override
@@ -0,0 +1,514 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.storage.memory;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferDouble;
+import java.awt.image.DataBufferFloat;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferShort;
+import java.awt.image.DataBufferUShort;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import org.apache.sis.util.ArgumentChecks;
+import org.apache.sis.util.logging.Logging;
+
+/**
+ * Tile cache storing raw raster samples outside of the Java heap.
+ * <br/>
+ * Sample values are copied in direct buffers, only the sample and color models
+ * remain on the heap. This allows to keep much more tiles in memory than the heap
+ * could hold without increasing garbage collection pauses.
+ * <br/>
+ * Cache is split in segments, each with its own lock and a part of the capacity.
+ * Each segment evicts its least recently used tiles when full.
+ * <br/>
+ * Direct memory is allocated in blocks of {@link #BLOCK_SIZE} bytes which are
+ * recycled when tiles are evicted or removed, it is never released to the
+ * garbage collector. The direct memory used by the cache is bounded by its
+ * capacity, rounded to the block size with at least one block per segment.
+ * Tiles larger than a segment are not cached, they are counted by
+ * {@link #getRejectionCount() }.
+ */
+public class OffHeapTileCache {
+
+    /**
+     * Size in bytes of the direct memory blocks.
+     */
+    public static final int BLOCK_SIZE = 16 * 1024;
+
+    private static final int NB_SEGMENT = 16;
+
+    private final Segment[] segments;
+    private final long capacity;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+
+    /**
+     * @param capacity maximum number of bytes of tile samples
+     */
+    public OffHeapTileCache(long capacity) {
+        ArgumentChecks.ensureStrictlyPositive("capacity", capacity);
+        this.capacity = capacity;
+        final int nbBlocks = (int) Math.max(1, Math.min(Integer.MAX_VALUE, capacity / NB_SEGMENT / BLOCK_SIZE));
+        segments = new Segment[NB_SEGMENT];
+        for (int i = 0; i < NB_SEGMENT; i++) {
+            segments[i] = new Segment(nbBlocks);
+        }
+    }
+
+    private Segment segment(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[(h & 0x7FFFFFFF) % NB_SEGMENT];
+    }
+
+    /**
+     * Store a tile image. Images without color model or with an unsupported
+     * data buffer are ignored, images larger than a cache segment are rejected.
+     *
+     * @param key tile key
+     * @param image tile image
+     * @return true if image has been stored
+     */
+    public boolean put(String key, RenderedImage image) {
+        final Entry entry = Entry.create(image);
+        if (entry == null) return false;
+        if (!segment(key).put(key, entry)) {
+            rejections.incrementAndGet();
+            Logging.getLogger("org.geotoolkit.storage").log(Level.FINE,
+                    "Tile {0} of {1} bytes is larger than an off-heap cache segment, it is not cached.",
+                    new Object[]{key, entry.length});
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Get and rebuild a tile image, image is a new {@link BufferedImage} at each call.
+     *
+     * @param key tile key
+     * @return image or null if tile is not in cache
+     */
+    public RenderedImage get(String key) {
+        final Segment segment = segment(key);
+        final BufferedImage image;
+        synchronized (segment) {
+            //-- blocks are recycled once the entry is evicted, copy while holding the lock --//
+            final Entry entry = segment.entries.get(key);
+            image = (entry == null) ? null : entry.toImage();
+        }
+        if (image == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return image;
+    }
+
+    /**
+     * @param key tile key
+     * @return true if tile is in cache, does not change usage order
+     */
+    public boolean contains(String key) {
+        final Segment segment = segment(key);
+        synchronized (segment) {
+            return segment.entries.containsKey(key);
+        }
+    }
+
+    /**
+     * @param key tile key to remove
+     */
+    public void remove(String key) {
+        final Segment segment = segment(key);
+        synchronized (segment) {
+            segment.release(segment.entries.remove(key));
+        }
+    }
+
+    /**
+     * Remove all tiles. Allocated blocks are kept for the next tiles.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                for (Entry entry : segment.entries.values()) {
+                    segment.release(entry);
+                }
+                segment.entries.clear();
+            }
+        }
+    }
+
+    /**
+     * @return maximum number of bytes of tile samples.
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of bytes of direct memory used by the tiles currently stored.
+     */
+    public long getSize() {
+        long size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += (long) segment.used * BLOCK_SIZE;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return number of bytes of direct memory allocated by the cache, used or free.
+     */
+    public long getAllocatedSize() {
+        long size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += (long) segment.allocated * BLOCK_SIZE;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return number of tiles currently stored.
+     */
+    public int getCount() {
+        int count = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                count += segment.entries.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return number of {@link #get(java.lang.String) } calls which found the tile.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of {@link #get(java.lang.String) } calls which did not find the tile.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of tiles removed to make room for new tiles.
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * @return number of tiles not stored because they are larger than a cache segment.
+     */
+    public long getRejectionCount() {
+        return rejections.get();
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapTileCache[" + getCount() + " tiles, " + getSize() + "/" + capacity
+                + " bytes, hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+                + ", rejections=" + rejections + "]";
+    }
+
+    /**
+     * Least recently used cache segment, owning a pool of direct memory blocks.
+     */
+    private final class Segment {
+
+        private final int maxBlocks;
+        private final LinkedHashMap<String,Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+        /** Number of blocks allocated, never more than maxBlocks. */
+        private int allocated;
+        /** Number of blocks held by entries. */
+        private int used;
+
+        private Segment(int maxBlocks) {
+            this.maxBlocks = maxBlocks;
+        }
+
+        private synchronized boolean put(String key, Entry entry) {
+            final long nbBlocks = (entry.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            if (nbBlocks > maxBlocks) return false;
+
+            release(entries.remove(key));
+
+            //evict eldest entries
+            final Iterator<Entry> ite = entries.values().iterator();
+            while (maxBlocks - used < nbBlocks) {
+                release(ite.next());
+                ite.remove();
+                evictions.incrementAndGet();
+            }
+
+            final ByteBuffer[] blocks = new ByteBuffer[(int) nbBlocks];
+            for (int i = 0; i < blocks.length; i++) {
+                if (free.isEmpty()) {
+                    blocks[i] = ByteBuffer.allocateDirect(BLOCK_SIZE).order(ByteOrder.nativeOrder());
+                    allocated++;
+                } else {
+                    blocks[i] = free.pop();
+                }
+            }
+            used += blocks.length;
+            entry.write(blocks);
+            entries.put(key, entry);
+            return true;
+        }
+
+        /**
+         * Give entry blocks back to the pool.
+         */
+        private void release(Entry entry) {
+            if (entry == null) return;
+            for (ByteBuffer block : entry.blocks) {
+                free.push(block);
+            }
+            used -= entry.blocks.length;
+        }
+    }
+
+    /**
+     * Tile samples in direct memory blocks.
+     */
+    private static final class Entry {
+
+        private final ColorModel colorModel;
+        private final SampleModel sampleModel;
+        private final int[] bankSizes;
+        private final int[] offsets;
+        private final int size;
+        /** Number of bytes of samples. */
+        private final long length;
+        /** Samples to copy, null once written in blocks. */
+        private DataBuffer source;
+        private ByteBuffer[] blocks;
+
+        private Entry(ColorModel colorModel, SampleModel sampleModel, DataBuffer source, int[] bankSizes, long length) {
+            this.colorModel = colorModel;
+            this.sampleModel = sampleModel;
+            this.source = source;
+            this.bankSizes = bankSizes;
+            this.offsets = source.getOffsets();
+            this.size = source.getSize();
+            this.length = length;
+        }
+
+        private static Entry create(RenderedImage image) {
+            final ColorModel cm = image.getColorModel();
+            if (cm == null) return null;
+
+            Raster raster = (image instanceof BufferedImage) ? ((BufferedImage) image).getRaster() : image.getData();
+            if (raster.getMinX() != 0 || raster.getMinY() != 0
+                    || raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0
+                    || raster.getSampleModel().getWidth() != raster.getWidth()
+                    || raster.getSampleModel().getHeight() != raster.getHeight()) {
+                //child raster, copy it in a raster with its own buffer
+                final WritableRaster copy = raster.createCompatibleWritableRaster(raster.getWidth(), raster.getHeight());
+                copy.setDataElements(-raster.getMinX(), -raster.getMinY(), raster);
+                raster = copy;
+            }
+
+            final DataBuffer db = raster.getDataBuffer();
+            if (!isSupported(db.getDataType())) return null;
+            final int nbBank = db.getNumBanks();
+            final int[] bankSizes = new int[nbBank];
+            final int elementSize = DataBuffer.getDataTypeSize(db.getDataType()) / Byte.SIZE;
+            long total = 0;
+            for (int i = 0; i < nbBank; i++) {
+                bankSizes[i] = java.lang.reflect.Array.getLength(bank(db, i));
+                total += ((long) bankSizes[i]) * elementSize;
+            }
+            return new Entry(cm, raster.getSampleModel(), db, bankSizes, total);
+        }
+
+        private static boolean isSupported(int dataType) {
+            switch (dataType) {
+                case DataBuffer.TYPE_BYTE :
+                case DataBuffer.TYPE_USHORT :
+                case DataBuffer.TYPE_SHORT :
+                case DataBuffer.TYPE_INT :
+                case DataBuffer.TYPE_FLOAT :
+                case DataBuffer.TYPE_DOUBLE : return true;
+                default : return false;
+            }
+        }
+
+        private static Object bank(DataBuffer db, int bank) {
+            switch (db.getDataType()) {
+                case DataBuffer.TYPE_BYTE :   return ((DataBufferByte) db).getData(bank);
+                case DataBuffer.TYPE_USHORT : return ((DataBufferUShort) db).getData(bank);
+                case DataBuffer.TYPE_SHORT :  return ((DataBufferShort) db).getData(bank);
+                case DataBuffer.TYPE_INT :    return ((DataBufferInt) db).getData(bank);
+                case DataBuffer.TYPE_FLOAT :  return ((DataBufferFloat) db).getData(bank);
+                case DataBuffer.TYPE_DOUBLE : return ((DataBufferDouble) db).getData(bank);
+                default : throw new IllegalStateException("Unexpected data type " + db.getDataType());
+            }
+        }
+
+        /**
+         * Copy samples in given blocks, banks are written one after the other.
+         */
+        private void write(ByteBuffer[] blocks) {
+            this.blocks = blocks;
+            final Cursor cursor = new Cursor(blocks, DataBuffer.getDataTypeSize(source.getDataType()) / Byte.SIZE);
+            for (int i = 0; i < bankSizes.length; i++) {
+                cursor.transfer(bank(source, i), bankSizes[i], true);
+            }
+            source = null;
+        }
+
+        private BufferedImage toImage() {
+            final int nbBank = bankSizes.length;
+            final int dataType = sampleModel.getDataType();
+            final Cursor cursor = new Cursor(blocks, DataBuffer.getDataTypeSize(dataType) / Byte.SIZE);
+            final DataBuffer db;
+            switch (dataType) {
+                case DataBuffer.TYPE_BYTE : {
+                    final byte[][] banks = new byte[nbBank][];
+                    for (int i = 0; i < nbBank; i++) {
+                        banks[i] = new byte[bankSizes[i]];
+                        cursor.transfer(banks[i], bankSizes[i], false);
+                    }
+                    db = new DataBufferByte(banks, size, offsets);
+                } break;
+                case DataBuffer.TYPE_USHORT : {
+                    final short[][] banks = new short[nbBank][];
+                    for (int i = 0; i < nbBank; i++) {
+                        banks[i] = new short[bankSizes[i]];
+                        cursor.transfer(banks[i], bankSizes[i], false);
+                    }
+                    db = new DataBufferUShort(banks, size, offsets);
+                } break;
+                case DataBuffer.TYPE_SHORT : {
+                    final short[][] banks = new short[nbBank][];
+                    for (int i = 0; i < nbBank; i++) {
+                        banks[i] = new short[bankSizes[i]];
+                        cursor.transfer(banks[i], bankSizes[i], false);
+                    }
+                    db = new DataBufferShort(banks, size, offsets);
+                } break;
+                case DataBuffer.TYPE_INT : {
+                    final int[][] banks = new int[nbBank][];
+                    for (int i = 0; i < nbBank; i++) {
+                        banks[i] = new int[bankSizes[i]];
+                        cursor.transfer(banks[i], bankSizes[i], false);
+                    }
+                    db = new DataBufferInt(banks, size, offsets);
+                } break;
+                case DataBuffer.TYPE_FLOAT : {
+                    final float[][] banks = new float[nbBank][];
+                    for (int i = 0; i < nbBank; i++) {
+                        banks[i] = new float[bankSizes[i]];
+                        cursor.transfer(banks[i], bankSizes[i], false);
+                    }
+                    db = new DataBufferFloat(banks, size, offsets);
+                } break;
+                case DataBuffer.TYPE_DOUBLE : {
+                    final double[][] banks = new double[nbBank][];
+                    for (int i = 0; i < nbBank; i++) {
+                        banks[i] = new double[bankSizes[i]];
+                        cursor.transfer(banks[i], bankSizes[i], false);
+                    }
+                    db = new DataBufferDouble(banks, size, offsets);
+                } break;
+                default : throw new IllegalStateException("Unexpected data type " + dataType);
+            }
+            final WritableRaster raster = Raster.createWritableRaster(sampleModel, db, null);
+            return new BufferedImage(colorModel, raster, colorModel.isAlphaPremultiplied(), null);
+        }
+    }
+
+    /**
+     * Sequential position in a list of blocks.
+     * Block size is a multiple of all element sizes, elements never span two blocks.
+     */
+    private static final class Cursor {
+
+        private final ByteBuffer[] blocks;
+        private final int elementSize;
+        private int block;
+        private int offset;
+
+        private Cursor(ByteBuffer[] blocks, int elementSize) {
+            this.blocks = blocks;
+            this.elementSize = elementSize;
+        }
+
+        /**
+         * Copy length elements of the array in blocks if write is true, from blocks otherwise.
+         */
+        private void transfer(Object array, int length, boolean write) {
+            int done = 0;
+            while (done < length) {
+                final ByteBuffer bb = blocks[block];
+                bb.clear();
+                bb.position(offset);
+                final int n = Math.min(length - done, (BLOCK_SIZE - offset) / elementSize);
+                if (array instanceof byte[]) {
+                    if (write) bb.put((byte[]) array, done, n);
+                    else       bb.get((byte[]) array, done, n);
+                } else if (array instanceof short[]) {
+                    if (write) bb.asShortBuffer().put((short[]) array, done, n);
+                    else       bb.asShortBuffer().get((short[]) array, done, n);
+                } else if (array instanceof int[]) {
+                    if (write) bb.asIntBuffer().put((int[]) array, done, n);
+                    else       bb.asIntBuffer().get((int[]) array, done, n);
+                } else if (array instanceof float[]) {
+                    if (write) bb.asFloatBuffer().put((float[]) array, done, n);
+                    else       bb.asFloatBuffer().get((float[]) array, done, n);
+                } else {
+                    if (write) bb.asDoubleBuffer().put((double[]) array, done, n);
+                    else       bb.asDoubleBuffer().get((double[]) array, done, n);
+                }
+                done += n;
+                offset += n * elementSize;
+                if (offset == BLOCK_SIZE) {
+                    block++;
+                    offset = 0;
+                }
+            }
+        }
+    }
+}
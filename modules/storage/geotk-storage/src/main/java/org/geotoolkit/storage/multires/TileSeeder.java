@@ -0,0 +1,302 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.storage.multires;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.sis.storage.DataStoreException;
+import org.apache.sis.util.ArgumentChecks;
+
+/**
+ * Tile seeding engine.
+ * <br/>
+ * Mosaic tiles are grouped in square blocks of neighbour tiles, a metatile, which are
+ * rendered at once by a dedicated pool of workers. Rendered tiles are passed to the mosaic
+ * writer through a bounded queue : workers wait when the writer is late, this bounds
+ * the memory used by tiles waiting to be written.
+ * <br/>
+ * Tiles are written by the thread calling {@link #seed(Mosaic, Rectangle, int, Callable, Listener) }.
+ * A seeder instance can be used for several mosaics, one after the other, statistics are
+ * then cumulated.
+ */
+public class TileSeeder {
+
+    /**
+     * Renders blocks of tiles. A renderer is used by a single worker thread.
+     */
+    @FunctionalInterface
+    public interface BlockRenderer {
+
+        /**
+         * @param block tile coordinates of the block to render
+         * @return rendered tiles, empty tiles may be excluded
+         * @throws Exception if rendering failed, seeding is then stopped
+         */
+        Collection<? extends Tile> render(Rectangle block) throws Exception;
+    }
+
+    /**
+     * Receive seeding statistics at regular interval and at the end of each mosaic.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        void progressing(Statistics statistics);
+    }
+
+    /**
+     * Snapshot of seeding statistics.
+     */
+    public static final class Statistics {
+
+        private final long total;
+        private final long rendered;
+        private final long written;
+        private final long elapsed;
+
+        private Statistics(long total, long rendered, long written, long elapsed) {
+            this.total = total;
+            this.rendered = rendered;
+            this.written = written;
+            this.elapsed = elapsed;
+        }
+
+        /**
+         * @return number of tiles to seed.
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * @return number of rendered tiles, empty tiles included.
+         */
+        public long getRendered() {
+            return rendered;
+        }
+
+        /**
+         * @return number of tiles written in mosaics.
+         */
+        public long getWritten() {
+            return written;
+        }
+
+        /**
+         * @return elapsed time since seeding started, in milliseconds.
+         */
+        public long getElapsedTime() {
+            return elapsed;
+        }
+
+        /**
+         * @return rendered tiles per second.
+         */
+        public double getTilesPerSecond() {
+            return elapsed == 0 ? 0.0 : rendered * 1000.0 / elapsed;
+        }
+
+        /**
+         * @return written tiles per second.
+         */
+        public double getWrittenTilesPerSecond() {
+            return elapsed == 0 ? 0.0 : written * 1000.0 / elapsed;
+        }
+
+        /**
+         * @return progress percentage, between 0 and 100.
+         */
+        public float getProgress() {
+            return total == 0 ? 100f : (float) (rendered * 100.0 / total);
+        }
+
+        @Override
+        public String toString() {
+            return rendered + "/" + total + " tiles, " + written + " written, "
+                    + Math.round(getTilesPerSecond()) + " tiles/s";
+        }
+    }
+
+    private final long total;
+    private final int nbWorkers;
+    private final int queueCapacity;
+    private int batchSize = 200;
+    private long eventInterval = 3000;
+
+    private final AtomicLong rendered = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private long startTime = -1;
+    private long lastEvent;
+
+    /**
+     * @param total number of tiles to seed, used for progress
+     * @param nbWorkers number of rendering threads
+     * @param queueCapacity maximum number of rendered tiles waiting to be written
+     */
+    public TileSeeder(long total, int nbWorkers, int queueCapacity) {
+        ArgumentChecks.ensurePositive("total", total);
+        ArgumentChecks.ensureStrictlyPositive("nbWorkers", nbWorkers);
+        ArgumentChecks.ensureStrictlyPositive("queueCapacity", queueCapacity);
+        this.total = total;
+        this.nbWorkers = nbWorkers;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * @param batchSize maximum number of tiles given to each {@link Mosaic#writeTiles(java.util.stream.Stream, org.geotoolkit.process.Monitor) } call.
+     */
+    public void setBatchSize(int batchSize) {
+        ArgumentChecks.ensureStrictlyPositive("batchSize", batchSize);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param eventInterval minimum time between two listener events, in milliseconds.
+     */
+    public void setEventInterval(long eventInterval) {
+        ArgumentChecks.ensurePositive("eventInterval", eventInterval);
+        this.eventInterval = eventInterval;
+    }
+
+    /**
+     * @return current statistics.
+     */
+    public Statistics getStatistics() {
+        final long elapsed = startTime < 0 ? 0 : System.currentTimeMillis() - startTime;
+        return new Statistics(total, rendered.get(), written.get(), elapsed);
+    }
+
+    /**
+     * Render and write tiles of a mosaic.
+     *
+     * @param mosaic mosaic where to write tiles
+     * @param tiles tile coordinates to seed
+     * @param blockSize number of tiles of block sides
+     * @param renderers create a renderer for each worker thread
+     * @param listener receive statistics, may be null
+     * @throws DataStoreException if rendering or writing failed
+     * @throws InterruptedException if calling thread was interrupted, workers are then stopped
+     */
+    public void seed(final Mosaic mosaic, final Rectangle tiles, final int blockSize,
+            final Callable<? extends BlockRenderer> renderers, final Listener listener)
+            throws DataStoreException, InterruptedException {
+        ArgumentChecks.ensureNonNull("mosaic", mosaic);
+        ArgumentChecks.ensureNonNull("tiles", tiles);
+        ArgumentChecks.ensureStrictlyPositive("blockSize", blockSize);
+        ArgumentChecks.ensureNonNull("renderers", renderers);
+        if (startTime < 0) {
+            startTime = System.currentTimeMillis();
+            lastEvent = startTime;
+        }
+
+        final ConcurrentLinkedQueue<Rectangle> blocks = new ConcurrentLinkedQueue<>();
+        for (int y = tiles.y, ymax = tiles.y + tiles.height; y < ymax; y += blockSize) {
+            for (int x = tiles.x, xmax = tiles.x + tiles.width; x < xmax; x += blockSize) {
+                blocks.add(new Rectangle(x, y, Math.min(blockSize, xmax - x), Math.min(blockSize, ymax - y)));
+            }
+        }
+        if (blocks.isEmpty()) return;
+
+        final BlockingQueue<Tile> queue = new ArrayBlockingQueue<>(queueCapacity);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ExecutorService workers = Executors.newFixedThreadPool(Math.min(nbWorkers, blocks.size()), (Runnable r) -> {
+            final Thread thread = new Thread(r, "TileSeeder-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            for (int i = 0, n = Math.min(nbWorkers, blocks.size()); i < n; i++) {
+                workers.execute(() -> {
+                    try {
+                        final BlockRenderer renderer = renderers.call();
+                        Rectangle block;
+                        while ((block = blocks.poll()) != null) {
+                            final Collection<? extends Tile> result = renderer.render(block);
+                            for (Tile tile : result) {
+                                //wait if writer is late
+                                queue.put(tile);
+                            }
+                            rendered.addAndGet(((long) block.width) * block.height);
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } catch (Throwable ex) {
+                        failure.compareAndSet(null, ex);
+                        //stop other workers
+                        blocks.clear();
+                    }
+                });
+            }
+            workers.shutdown();
+
+            //write tiles in calling thread
+            final List<Tile> batch = new ArrayList<>(batchSize);
+            for (;;) {
+                final Tile tile = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (tile != null) {
+                    batch.add(tile);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                if (batch.size() >= batchSize || (tile == null && !batch.isEmpty())) {
+                    mosaic.writeTiles(batch.stream(), null);
+                    written.addAndGet(batch.size());
+                    batch.clear();
+                }
+                if (failure.get() != null) {
+                    break;
+                }
+                if (tile == null && workers.isTerminated() && queue.isEmpty()) {
+                    break;
+                }
+                if (listener != null) {
+                    final long time = System.currentTimeMillis();
+                    if (time - lastEvent > eventInterval) {
+                        lastEvent = time;
+                        listener.progressing(getStatistics());
+                    }
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+
+        final Throwable ex = failure.get();
+        if (ex instanceof DataStoreException) {
+            throw (DataStoreException) ex;
+        } else if (ex != null) {
+            throw new DataStoreException(ex.getMessage(), ex);
+        }
+        if (listener != null) {
+            lastEvent = System.currentTimeMillis();
+            listener.progressing(getStatistics());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.storage.feature;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.sis.feature.builder.FeatureTypeBuilder;
+import org.apache.sis.internal.system.DefaultFactories;
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.opengis.feature.Feature;
+import org.opengis.feature.FeatureType;
+import org.opengis.filter.FilterFactory;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+
+/**
+ * Test sorting iterator, in memory and with sorted runs on disk.
+ */
+public class GenericSortByFeatureIteratorTest {
+
+    private static final FilterFactory FF = DefaultFactories.forBuildin(FilterFactory.class);
+    private static final GeometryFactory GF = new GeometryFactory();
+    private static final int NB_FEATURE = 500;
+
+    private final FeatureType type;
+    private final List<Feature> features = new ArrayList<>();
+
+    public GenericSortByFeatureIteratorTest() {
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName("test");
+        ftb.addAttribute(Integer.class).setName("id");
+        ftb.addAttribute(String.class).setName("group");
+        ftb.addAttribute(Double.class).setName("value");
+        ftb.addAttribute(Point.class).setName("geom");
+        type = ftb.build();
+
+        for (int i = 0; i < NB_FEATURE; i++) {
+            final Feature feature = type.newInstance();
+            feature.setPropertyValue("id", i);
+            feature.setPropertyValue("group", (i % 7 == 0) ? null : "g" + (i * 31 % 10));
+            feature.setPropertyValue("value", i * 0.5);
+            feature.setPropertyValue("geom", GF.createPoint(new Coordinate(i, -i)));
+            features.add(feature);
+        }
+    }
+
+    @Test
+    public void testInMemory() {
+        test(GenericSortByFeatureIterator.DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * A small budget causes many runs to be merged.
+     */
+    @Test
+    public void testSortedRuns() {
+        test(2048);
+    }
+
+    /**
+     * Empty geometries have no WKB form, they must survive the sorted runs.
+     */
+    @Test
+    public void testEmptyGeometries() {
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName("empty");
+        ftb.addAttribute(Integer.class).setName("id");
+        ftb.addAttribute(Geometry.class).setName("geom");
+        final FeatureType emptyType = ftb.build();
+
+        final Geometry[] geometries = new Geometry[]{
+            GF.createPoint((Coordinate) null),
+            GF.createLineString(new Coordinate[0]),
+            GF.createLinearRing(new Coordinate[0]),
+            GF.createPolygon((LinearRing) null, null),
+            GF.createMultiPoint(new Point[0]),
+            GF.createMultiLineString(new LineString[0]),
+            GF.createMultiPolygon(new Polygon[0]),
+            GF.createGeometryCollection(new Geometry[0])
+        };
+        final List<Feature> empties = new ArrayList<>();
+        for (int i = 0; i < geometries.length; i++) {
+            geometries[i].setSRID(4326);
+            geometries[i].setUserData("data" + i);
+            final Feature feature = emptyType.newInstance();
+            feature.setPropertyValue("id", geometries.length - i);
+            feature.setPropertyValue("geom", geometries[i]);
+            empties.add(feature);
+        }
+
+        final SortBy[] orders = new SortBy[]{FF.sort("id", SortOrder.ASCENDING)};
+        final FeatureReader reader = GenericSortByFeatureIterator.wrap(
+                FeatureStreams.asReader(empties.iterator(), emptyType), orders, 256);
+        int count = 0;
+        try {
+            while (reader.hasNext()) {
+                final Feature feature = reader.next();
+                final int id = (Integer) feature.getPropertyValue("id");
+                Assert.assertEquals(++count, id);
+                final Geometry expected = geometries[geometries.length - id];
+                final Geometry geom = (Geometry) feature.getPropertyValue("geom");
+                Assert.assertTrue(geom.isEmpty());
+                Assert.assertEquals(expected.getClass(), geom.getClass());
+                Assert.assertEquals(4326, geom.getSRID());
+                Assert.assertEquals(expected.getUserData(), geom.getUserData());
+            }
+        } finally {
+            reader.close();
+        }
+        Assert.assertEquals(geometries.length, count);
+    }
+
+    private void test(final long memoryBudget) {
+        final SortBy[] orders = new SortBy[]{FF.sort("group", SortOrder.DESCENDING)};
+        final FeatureReader reader = GenericSortByFeatureIterator.wrap(
+                FeatureStreams.asReader(features.iterator(), type), orders, memoryBudget);
+        Assert.assertEquals(type, reader.getFeatureType());
+
+        int count = 0;
+        String previousGroup = null;
+        int previousId = -1;
+        try {
+            while (reader.hasNext()) {
+                final Feature feature = reader.next();
+                final int id = (Integer) feature.getPropertyValue("id");
+                final String group = (String) feature.getPropertyValue("group");
+                final Feature original = features.get(id);
+                Assert.assertEquals(original.getPropertyValue("group"), group);
+                Assert.assertEquals(original.getPropertyValue("value"), feature.getPropertyValue("value"));
+                Assert.assertEquals(original.getPropertyValue("geom"), feature.getPropertyValue("geom"));
+
+                if (count > 0) {
+                    if (group == null) {
+                        //-- null values come first, even in descending order --//
+                        Assert.assertNull(previousGroup);
+                    } else if (previousGroup != null) {
+                        Assert.assertTrue(group.compareTo(previousGroup) <= 0);
+                    }
+                    //-- sort is stable --//
+                    if (group == null ? previousGroup == null : group.equals(previousGroup)) {
+                        Assert.assertTrue(id > previousId);
+                    }
+                }
+                previousGroup = group;
+                previousId = id;
+                count++;
+            }
+        } finally {
+            reader.close();
+        }
+        Assert.assertEquals(NB_FEATURE, count);
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.storage.feature;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.sis.feature.builder.FeatureTypeBuilder;
+import org.apache.sis.internal.system.DefaultFactories;
+import org.geotoolkit.storage.feature.query.QueryBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opengis.feature.Feature;
+import org.opengis.feature.FeatureType;
+import org.opengis.filter.FilterFactory;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+
+/**
+ * Test sort combined with offset and limit.
+ */
+public class GenericTopFeatureIteratorTest {
+
+    private static final FilterFactory FF = DefaultFactories.forBuildin(FilterFactory.class);
+
+    private final FeatureType type;
+    private final List<Feature> features = new ArrayList<>();
+
+    public GenericTopFeatureIteratorTest() {
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName("test");
+        ftb.addAttribute(Integer.class).setName("id");
+        ftb.addAttribute(Integer.class).setName("value");
+        type = ftb.build();
+
+        for (int i = 0; i < 1000; i++) {
+            final Feature feature = type.newInstance();
+            feature.setPropertyValue("id", i);
+            feature.setPropertyValue("value", (i * 7919) % 97);
+            features.add(feature);
+        }
+    }
+
+    /**
+     * Query with sort, offset and limit must return the same features as a full sort.
+     */
+    @Test
+    public void testQueryPage() throws Exception {
+        final SortBy[] orders = new SortBy[]{FF.sort("value", SortOrder.DESCENDING)};
+        final List<Integer> expected = ids(FeatureStreams.sort(FeatureStreams.asReader(features.iterator(), type), orders));
+
+        final QueryBuilder qb = new QueryBuilder("test");
+        qb.setSortBy(orders);
+        qb.setOffset(120);
+        qb.setLimit(50);
+        final FeatureReader reader = GenericQueryFeatureIterator.wrap(
+                FeatureStreams.asReader(features.iterator(), type), qb.buildQuery());
+        Assert.assertEquals(expected.subList(120, 170), ids(reader));
+    }
+
+    /**
+     * Fewer features than requested.
+     */
+    @Test
+    public void testShortIterator() {
+        final SortBy[] orders = new SortBy[]{FF.sort("value", SortOrder.ASCENDING)};
+        final List<Integer> expected = ids(FeatureStreams.sort(FeatureStreams.asReader(features.iterator(), type), orders));
+        final List<Integer> result = ids(FeatureStreams.top(FeatureStreams.asReader(features.iterator(), type), 5000, orders));
+        Assert.assertEquals(expected, result);
+    }
+
+    private static List<Integer> ids(final FeatureReader reader) {
+        final List<Integer> ids = new ArrayList<>();
+        try {
+            while (reader.hasNext()) {
+                ids.add((Integer) reader.next().getPropertyValue("id"));
+            }
+        } finally {
+            reader.close();
+        }
+        return ids;
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.storage.memory;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.util.stream.Stream;
+import org.apache.sis.geometry.GeneralDirectPosition;
+import org.apache.sis.referencing.CommonCRS;
+import org.geotoolkit.storage.coverage.DefaultImageTile;
+import org.geotoolkit.storage.coverage.ImageTile;
+import org.geotoolkit.storage.multires.DefiningMosaic;
+import org.geotoolkit.storage.multires.DefiningPyramid;
+import org.geotoolkit.storage.multires.Mosaic;
+import org.geotoolkit.storage.multires.Pyramid;
+import org.geotoolkit.util.NamesExt;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+/**
+ * Tests {@link CachePyramidResource}.
+ */
+public class CachePyramidResourceTest extends org.geotoolkit.test.TestBase {
+
+    /**
+     * Tiles found in the off-heap cache must be moved to the heap cache.
+     */
+    @Test
+    public void testOffHeapPromotion() throws Exception {
+        final CoordinateReferenceSystem crs = CommonCRS.WGS84.normalizedGeographic();
+        final InMemoryPyramidResource parent = new InMemoryPyramidResource(NamesExt.create("test"));
+        final Pyramid parentPyramid = (Pyramid) parent.createModel(new DefiningPyramid(crs));
+        final GeneralDirectPosition upperLeft = new GeneralDirectPosition(crs);
+        upperLeft.setOrdinate(0, -180);
+        upperLeft.setOrdinate(1, 90);
+        final Mosaic parentMosaic = parentPyramid.createMosaic(
+                new DefiningMosaic(null, upperLeft, 1, new Dimension(16, 16), new Dimension(2, 2)));
+        parentMosaic.writeTiles(Stream.of(new DefaultImageTile(new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB), 0, 0)), null);
+
+        final CachePyramidResource<InMemoryPyramidResource> cache =
+                new CachePyramidResource<>(parent, 10, 1000000, false, false, 1024 * 1024);
+        final OffHeapTileCache offHeap = cache.getOffHeapCache();
+        final Pyramid pyramid = (Pyramid) cache.getModels().iterator().next();
+        final Mosaic mosaic = pyramid.getMosaics().iterator().next();
+
+        //tile only in the off-heap tier
+        final BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(3, 4, 0x12345678);
+        final String key = CachePyramidResource.tileKey(
+                CachePyramidResource.mosaicKey(pyramid.getIdentifier(), mosaic.getIdentifier()), 1, 0);
+        Assert.assertTrue(offHeap.put(key, image));
+        Assert.assertFalse(mosaic.isMissing(1, 0));
+
+        ImageTile tile = (ImageTile) mosaic.getTile(1, 0, null);
+        Assert.assertEquals(0x12345678, ((BufferedImage) tile.getImage()).getRGB(3, 4));
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, offHeap.getHitCount());
+
+        //second access must be served by the heap cache
+        tile = (ImageTile) mosaic.getTile(1, 0, null);
+        Assert.assertEquals(0x12345678, ((BufferedImage) tile.getImage()).getRGB(3, 4));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, offHeap.getHitCount());
+
+        //tiles loaded from the parent are stored in both tiers
+        mosaic.getTile(0, 0, null);
+        Assert.assertEquals(2, offHeap.getCount());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.storage.memory;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link OffHeapTileCache}.
+ */
+public class OffHeapTileCacheTest extends org.geotoolkit.test.TestBase {
+
+    /**
+     * Samples must be preserved, child images included.
+     */
+    @Test
+    public void testReadWrite() {
+        final OffHeapTileCache cache = new OffHeapTileCache(16 * 1024 * 1024);
+
+        final BufferedImage argb = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+        argb.setRGB(10, 20, 0x12345678);
+        Assert.assertTrue(cache.put("argb", argb));
+
+        final BufferedImage gray = new BufferedImage(64, 64, BufferedImage.TYPE_USHORT_GRAY);
+        gray.getRaster().setSample(3, 4, 0, 4242);
+        Assert.assertTrue(cache.put("gray", gray.getSubimage(2, 2, 10, 10)));
+
+        final BufferedImage bgr = new BufferedImage(64, 64, BufferedImage.TYPE_3BYTE_BGR);
+        bgr.getRaster().setSample(5, 6, 1, 77);
+        Assert.assertTrue(cache.put("bgr", bgr));
+
+        RenderedImage image = cache.get("argb");
+        Assert.assertEquals(256, image.getWidth());
+        Assert.assertEquals(0x12345678, ((BufferedImage) image).getRGB(10, 20));
+
+        image = cache.get("gray");
+        Assert.assertEquals(10, image.getWidth());
+        Assert.assertEquals(4242, image.getData().getSample(1, 2, 0));
+
+        image = cache.get("bgr");
+        Assert.assertEquals(77, image.getData().getSample(5, 6, 1));
+
+        Assert.assertNull(cache.get("none"));
+        Assert.assertEquals(3, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(3, cache.getCount());
+
+        cache.remove("bgr");
+        Assert.assertFalse(cache.contains("bgr"));
+        cache.clear();
+        Assert.assertEquals(0, cache.getSize());
+        //blocks are kept for the next tiles
+        Assert.assertTrue(cache.getAllocatedSize() > 0);
+    }
+
+    /**
+     * Cache size must not exceed capacity.
+     */
+    @Test
+    public void testEviction() {
+        final BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+        final long tileSize = 256 * 256 * 4;
+        final OffHeapTileCache cache = new OffHeapTileCache(16 * tileSize * 2);
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(cache.put("tile" + i, image));
+        }
+        Assert.assertTrue(cache.getSize() <= cache.getCapacity());
+        Assert.assertEquals(100 - cache.getCount(), cache.getEvictionCount());
+        //last inserted tile is never evicted
+        Assert.assertTrue(cache.contains("tile99"));
+    }
+
+    /**
+     * Evicted blocks must be reused, allocated memory must not exceed capacity.
+     */
+    @Test
+    public void testBlockReuse() {
+        final BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(99, 99, 0x7F00FF00);
+        final long capacity = 16 * 4 * OffHeapTileCache.BLOCK_SIZE;
+        final OffHeapTileCache cache = new OffHeapTileCache(capacity);
+
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(cache.put("tile" + i, image));
+        }
+        Assert.assertTrue(cache.getAllocatedSize() <= capacity);
+        Assert.assertTrue(cache.getSize() <= cache.getAllocatedSize());
+
+        //tile spans several blocks
+        final RenderedImage read = cache.get("tile999");
+        Assert.assertEquals(0x7F00FF00, ((BufferedImage) read).getRGB(99, 99));
+
+        final long allocated = cache.getAllocatedSize();
+        cache.remove("tile999");
+        Assert.assertTrue(cache.put("other", image));
+        Assert.assertEquals(allocated, cache.getAllocatedSize());
+    }
+
+    /**
+     * Tiles larger than a segment must be counted as rejected.
+     */
+    @Test
+    public void testRejection() {
+        final OffHeapTileCache cache = new OffHeapTileCache(16 * OffHeapTileCache.BLOCK_SIZE);
+        final BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+        Assert.assertFalse(cache.put("large", image));
+        Assert.assertFalse(cache.contains("large"));
+        Assert.assertEquals(1, cache.getRejectionCount());
+        Assert.assertEquals(0, cache.getAllocatedSize());
+    }
+}
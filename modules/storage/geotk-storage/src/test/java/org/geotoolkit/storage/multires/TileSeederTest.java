@@ -0,0 +1,117 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2019, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.storage.multires;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.apache.sis.geometry.DirectPosition2D;
+import org.apache.sis.referencing.CommonCRS;
+import org.apache.sis.storage.DataStoreException;
+import org.geotoolkit.process.Monitor;
+import org.geotoolkit.storage.coverage.DefaultImageTile;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ */
+public class TileSeederTest {
+
+    private static final BufferedImage IMAGE = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+
+    /**
+     * Mosaic counting written tiles.
+     */
+    private static final class CountingMosaic extends DefiningMosaic {
+
+        private final Map<Point,Integer> written = Collections.synchronizedMap(new HashMap<>());
+
+        CountingMosaic(Dimension gridSize) {
+            super("test", new DirectPosition2D(CommonCRS.WGS84.normalizedGeographic(), -180, 90),
+                    1.0, new Dimension(1, 1), gridSize);
+        }
+
+        @Override
+        public void writeTiles(Stream<Tile> tiles, Monitor monitor) throws DataStoreException {
+            tiles.forEach((Tile t) -> written.merge(t.getPosition(), 1, Integer::sum));
+        }
+    }
+
+    private static List<Tile> render(Rectangle block) {
+        final List<Tile> tiles = new ArrayList<>();
+        for (int y = block.y; y < block.y + block.height; y++) {
+            for (int x = block.x; x < block.x + block.width; x++) {
+                tiles.add(new DefaultImageTile(IMAGE, x, y));
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Each tile must be written once, even with a queue smaller than a block.
+     */
+    @Test
+    public void testSeed() throws Exception {
+        final CountingMosaic mosaic = new CountingMosaic(new Dimension(10, 7));
+        final Rectangle area = new Rectangle(1, 1, 9, 6);
+        final TileSeeder seeder = new TileSeeder(54, 3, 4);
+        seeder.setBatchSize(5);
+
+        final AtomicInteger nbEvent = new AtomicInteger();
+        seeder.seed(mosaic, area, 4, () -> TileSeederTest::render, (TileSeeder.Statistics stats) -> nbEvent.incrementAndGet());
+
+        Assert.assertEquals(54, mosaic.written.size());
+        for (Map.Entry<Point,Integer> entry : mosaic.written.entrySet()) {
+            Assert.assertTrue(area.contains(entry.getKey()));
+            Assert.assertEquals(Integer.valueOf(1), entry.getValue());
+        }
+
+        final TileSeeder.Statistics stats = seeder.getStatistics();
+        Assert.assertEquals(54, stats.getRendered());
+        Assert.assertEquals(54, stats.getWritten());
+        Assert.assertEquals(100f, stats.getProgress(), 0f);
+        Assert.assertTrue(nbEvent.get() >= 1);
+    }
+
+    /**
+     * Rendering errors must stop seeding.
+     */
+    @Test
+    public void testRenderingFailure() throws Exception {
+        final CountingMosaic mosaic = new CountingMosaic(new Dimension(10, 10));
+        final TileSeeder seeder = new TileSeeder(100, 2, 10);
+        try {
+            seeder.seed(mosaic, new Rectangle(0, 0, 10, 10), 2, () -> (Rectangle block) -> {
+                if (block.x == 4 && block.y == 4) {
+                    throw new DataStoreException("Rendering failed");
+                }
+                return render(block);
+            }, null);
+            Assert.fail("Rendering failure should have been propagated");
+        } catch (DataStoreException ex) {
+            Assert.assertEquals("Rendering failed", ex.getMessage());
+        }
+    }
+}